@@ -0,0 +1,64 @@
+-- =====================================================
+-- MIGRATION: typed audit event kind
+-- PURPOSE: Adds transaction_log.event_kind to an existing database, fills it
+--          from the transaction_reference prefixes the triggers write, and adds
+--          the audit-log indexes. New databases get all of this from
+--          schema_simplified.sql and do not need this file.
+-- Re-run triggers_simplified.sql and stored_procedures.sql afterwards so new
+-- rows get their kind and archived rows keep it.
+-- =====================================================
+USE neos_burritos;
+
+ALTER TABLE transaction_log
+    ADD COLUMN event_kind ENUM('PAYMENT', 'STATUS_CHANGE', 'ROLE_CHANGE', 'RATE_CHANGE') NOT NULL DEFAULT 'PAYMENT' COMMENT 'What kind of event the row records' AFTER order_id;
+
+ALTER TABLE transaction_log_archive
+    ADD COLUMN event_kind ENUM('PAYMENT', 'STATUS_CHANGE', 'ROLE_CHANGE', 'RATE_CHANGE') NOT NULL DEFAULT 'PAYMENT' AFTER order_id;
+
+DELIMITER //
+
+-- Backfill in transaction_id ranges so each statement locks a bounded number of rows
+CREATE PROCEDURE sp_backfill_event_kind(IN p_chunk_size INT)
+BEGIN
+    DECLARE v_from INT;
+    DECLARE v_max INT;
+
+    SELECT COALESCE(MIN(transaction_id), 0), COALESCE(MAX(transaction_id), -1)
+    INTO v_from, v_max
+    FROM transaction_log;
+
+    WHILE v_from <= v_max DO
+        UPDATE transaction_log
+        SET event_kind = CASE
+                WHEN transaction_reference LIKE 'STATUS\_CHANGE\_%' THEN 'STATUS_CHANGE'
+                WHEN transaction_reference LIKE 'ROLE\_CHANGE\_%' THEN 'ROLE_CHANGE'
+                WHEN transaction_reference LIKE 'RATE\_CHANGE\_%' THEN 'RATE_CHANGE'
+                ELSE 'PAYMENT'
+            END
+        WHERE transaction_id >= v_from AND transaction_id < v_from + p_chunk_size;
+
+        SET v_from = v_from + p_chunk_size;
+    END WHILE;
+END //
+
+DELIMITER ;
+
+CALL sp_backfill_event_kind(10000);
+DROP PROCEDURE sp_backfill_event_kind;
+
+-- The archive is cold, so one statement is fine
+UPDATE transaction_log_archive
+SET event_kind = CASE
+        WHEN transaction_reference LIKE 'STATUS\_CHANGE\_%' THEN 'STATUS_CHANGE'
+        WHEN transaction_reference LIKE 'ROLE\_CHANGE\_%' THEN 'ROLE_CHANGE'
+        WHEN transaction_reference LIKE 'RATE\_CHANGE\_%' THEN 'RATE_CHANGE'
+        ELSE 'PAYMENT'
+    END;
+
+CREATE INDEX idx_transaction_order_processed ON transaction_log(order_id, processed_at);
+CREATE INDEX idx_transaction_kind_processed ON transaction_log(event_kind, processed_at);
+
+ALTER TABLE transaction_log_archive
+    DROP INDEX idx_transaction_archive_order,
+    ADD INDEX idx_transaction_archive_order_processed (order_id, processed_at),
+    ADD INDEX idx_transaction_archive_kind_processed (event_kind, processed_at);
@@ -0,0 +1,33 @@
+-- =====================================================
+-- MIGRATION: checkout sagas
+-- PURPOSE: Adds the checkout_sagas table that tracks each checkout through
+--          place order, charge and confirm, so failed checkouts can be undone.
+--          New databases get it from schema_simplified.sql.
+-- Re-run triggers_simplified.sql (cancelling a PENDING order no longer adds
+-- stock back), stored_procedures.sql (sp_cancel_checkout) and
+-- user_roles_privileges.sql afterwards.
+-- =====================================================
+USE neos_burritos;
+
+CREATE TABLE checkout_sagas (
+    saga_id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL COMMENT 'Customer checking out',
+    order_id INT NULL COMMENT 'Order created by sp_place_order, once placed',
+    amount DECIMAL(10,2) NULL COMMENT 'Order total being charged',
+    currency_code VARCHAR(3) NOT NULL,
+    payment_request_id VARCHAR(40) NOT NULL COMMENT 'Idempotency key sent with every charge attempt',
+    payment_state ENUM('NONE', 'CAPTURED', 'DECLINED', 'UNKNOWN', 'REFUNDED') NOT NULL DEFAULT 'NONE',
+    payment_reference VARCHAR(100) NULL COMMENT 'Gateway transaction id of the captured charge',
+    state ENUM('STARTED', 'ORDER_CREATED', 'PAID', 'COMPLETED', 'COMPENSATING', 'COMPENSATED', 'ABORTED', 'FAILED') NOT NULL DEFAULT 'STARTED',
+    failure_reason VARCHAR(255) NULL COMMENT 'Why the checkout is being or was undone',
+    compensation_attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NULL COMMENT 'When the recovery sweep should next try to compensate',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY unique_payment_request (payment_request_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE RESTRICT
+);
+
+CREATE INDEX idx_sagas_state_next ON checkout_sagas(state, next_attempt_at);
+CREATE INDEX idx_sagas_state_updated ON checkout_sagas(state, updated_at);
+CREATE INDEX idx_sagas_order ON checkout_sagas(order_id);
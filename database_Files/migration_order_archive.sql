@@ -0,0 +1,59 @@
+-- =====================================================
+-- MIGRATION: order archive tables
+-- PURPOSE: Adds the archive tables and the transaction_log.processed_at index
+-- to an existing database. New databases get them from schema_simplified.sql.
+-- Re-run stored_procedures.sql and user_roles_privileges.sql afterwards for
+-- sp_archive_orders and the archive grants.
+-- =====================================================
+USE neos_burritos;
+
+-- =====================================================
+-- TABLES: orders_archive, order_items_archive, transaction_log_archive
+-- PURPOSE: Closed orders (COMPLETED/CANCELLED) older than the retention
+-- period, with their items and log rows, moved out of the hot tables by
+-- sp_archive_orders. Same columns as the hot tables so reads can UNION
+-- ALL both. Archive tables instead of monthly partitions because InnoDB
+-- does not partition tables that have foreign keys.
+-- =====================================================
+CREATE TABLE orders_archive (
+    order_id INT PRIMARY KEY COMMENT 'Original orders.order_id',
+    user_id INT NOT NULL,
+    order_date TIMESTAMP NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    currency_id INT NOT NULL,
+    status ENUM('PENDING', 'CONFIRMED', 'COMPLETED', 'CANCELLED') NOT NULL,
+    delivery_address TEXT,
+    notes TEXT,
+    item_count INT NOT NULL DEFAULT 0,
+    total_quantity INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'When the archive job moved it',
+    INDEX idx_orders_archive_user_date (user_id, order_date),
+    INDEX idx_orders_archive_date (order_date),
+    INDEX idx_orders_archive_status_date (status, order_date)
+);
+
+CREATE TABLE order_items_archive (
+    order_item_id INT PRIMARY KEY COMMENT 'Original order_items.order_item_id',
+    order_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    customizations TEXT,
+    INDEX idx_order_items_archive_order (order_id)
+);
+
+CREATE TABLE transaction_log_archive (
+    transaction_id INT PRIMARY KEY COMMENT 'Original transaction_log.transaction_id',
+    order_id INT NULL,
+    payment_status ENUM('PENDING', 'CONFIRMED', 'COMPLETED', 'CANCELLED'),
+    amount DECIMAL(10,2) NOT NULL,
+    transaction_reference VARCHAR(100),
+    processed_at TIMESTAMP NULL,
+    currency_id INT,
+    INDEX idx_transaction_archive_order (order_id),
+    INDEX idx_transaction_archive_processed (processed_at)
+);
+
+CREATE INDEX idx_transaction_processed ON transaction_log(processed_at);
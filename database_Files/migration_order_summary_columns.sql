@@ -0,0 +1,46 @@
+-- =====================================================
+-- MIGRATION: denormalized order summary columns
+-- PURPOSE: Adds orders.item_count and orders.total_quantity to an existing
+--          database and backfills them from order_items. New databases get
+--          the columns from schema_simplified.sql and do not need this file.
+-- Re-run stored_procedures.sql afterwards so sp_place_order fills the
+-- columns and sp_get_order_history reads them.
+-- =====================================================
+USE neos_burritos;
+
+ALTER TABLE orders
+    ADD COLUMN item_count INT NOT NULL DEFAULT 0 COMMENT 'Number of order_items lines, set when the order is placed' AFTER notes,
+    ADD COLUMN total_quantity INT NOT NULL DEFAULT 0 COMMENT 'Sum of order_items quantities, set when the order is placed' AFTER item_count;
+
+DELIMITER //
+
+-- Backfill in order_id ranges so each statement locks a bounded number of rows
+CREATE PROCEDURE sp_backfill_order_summary(IN p_chunk_size INT)
+BEGIN
+    DECLARE v_from INT;
+    DECLARE v_max INT;
+
+    SELECT COALESCE(MIN(order_id), 0), COALESCE(MAX(order_id), -1)
+    INTO v_from, v_max
+    FROM orders;
+
+    WHILE v_from <= v_max DO
+        UPDATE orders o
+        JOIN (
+            SELECT order_id, COUNT(*) AS item_count, SUM(quantity) AS total_quantity
+            FROM order_items
+            WHERE order_id >= v_from AND order_id < v_from + p_chunk_size
+            GROUP BY order_id
+        ) s ON o.order_id = s.order_id
+        SET o.item_count = s.item_count,
+            o.total_quantity = s.total_quantity,
+            o.updated_at = o.updated_at;
+
+        SET v_from = v_from + p_chunk_size;
+    END WHILE;
+END //
+
+DELIMITER ;
+
+CALL sp_backfill_order_summary(10000);
+DROP PROCEDURE sp_backfill_order_summary;
@@ -0,0 +1,27 @@
+-- =====================================================
+-- MIGRATION: payment ledger event kinds
+-- PURPOSE: Adds the REFUND event kind written by the payment ledger to an
+--          existing database, and a unique key that makes replayed ledger
+--          entries idempotent. New databases get both from schema_simplified.sql.
+-- =====================================================
+USE neos_burritos;
+
+ALTER TABLE transaction_log
+    MODIFY COLUMN event_kind ENUM('PAYMENT', 'REFUND', 'STATUS_CHANGE', 'ROLE_CHANGE', 'RATE_CHANGE') NOT NULL DEFAULT 'PAYMENT' COMMENT 'What kind of event the row records';
+
+ALTER TABLE transaction_log_archive
+    MODIFY COLUMN event_kind ENUM('PAYMENT', 'REFUND', 'STATUS_CHANGE', 'ROLE_CHANGE', 'RATE_CHANGE') NOT NULL DEFAULT 'PAYMENT';
+
+-- The ledger writes at least once, so the same payment or refund may already be
+-- stored twice; keep the first copy before the unique key goes on
+DELETE dup FROM transaction_log dup
+JOIN transaction_log first_copy
+  ON first_copy.event_kind = dup.event_kind
+ AND first_copy.transaction_reference = dup.transaction_reference
+ AND first_copy.transaction_id < dup.transaction_id
+WHERE dup.event_kind IN ('PAYMENT', 'REFUND');
+
+ALTER TABLE transaction_log
+    ADD COLUMN ledger_reference VARCHAR(100) AS (CASE WHEN event_kind IN ('PAYMENT', 'REFUND') THEN transaction_reference END) STORED
+        COMMENT 'Reference of payment ledger rows only, so a replayed ledger entry is stored once',
+    ADD UNIQUE KEY unique_ledger_reference (ledger_reference);
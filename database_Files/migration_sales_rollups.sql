@@ -0,0 +1,84 @@
+-- =====================================================
+-- MIGRATION: sales rollups
+-- PURPOSE: Captures each order's exchange rate to USD when it is placed and
+--          adds the hourly and daily sales rollup tables. New databases get
+--          them from schema_simplified.sql.
+-- Orders placed before this migration get the current rate, the closest
+-- value available. Re-run triggers_simplified.sql (tr_sales_rollup_on_status),
+-- stored_procedures.sql and user_roles_privileges.sql afterwards, then fill
+-- the rollups with com.neosburritos.util.SalesRollupBackfill.
+-- =====================================================
+USE neos_burritos;
+
+ALTER TABLE orders
+    ADD COLUMN exchange_rate_to_usd DECIMAL(10,4) NOT NULL DEFAULT 1.0000
+        COMMENT 'Rate of the order currency when the order was placed' AFTER currency_id;
+
+ALTER TABLE orders_archive
+    ADD COLUMN exchange_rate_to_usd DECIMAL(10,4) NOT NULL DEFAULT 1.0000 AFTER currency_id;
+
+DELIMITER //
+
+-- Backfill in order_id ranges so each statement locks a bounded number of rows.
+-- updated_at is kept as it was: filling in a rate is not a change to the order.
+CREATE PROCEDURE sp_backfill_order_rates(IN p_chunk_size INT)
+BEGIN
+    DECLARE v_from INT;
+    DECLARE v_max INT;
+
+    SELECT COALESCE(MIN(order_id), 0), COALESCE(MAX(order_id), -1)
+    INTO v_from, v_max
+    FROM orders;
+
+    WHILE v_from <= v_max DO
+        UPDATE orders o
+        JOIN currencies c ON o.currency_id = c.currency_id
+        SET o.exchange_rate_to_usd = c.exchange_rate_to_usd,
+            o.updated_at = o.updated_at
+        WHERE o.order_id >= v_from AND o.order_id < v_from + p_chunk_size;
+
+        SET v_from = v_from + p_chunk_size;
+    END WHILE;
+
+    SELECT COALESCE(MIN(order_id), 0), COALESCE(MAX(order_id), -1)
+    INTO v_from, v_max
+    FROM orders_archive;
+
+    WHILE v_from <= v_max DO
+        UPDATE orders_archive o
+        JOIN currencies c ON o.currency_id = c.currency_id
+        SET o.exchange_rate_to_usd = c.exchange_rate_to_usd
+        WHERE o.order_id >= v_from AND o.order_id < v_from + p_chunk_size;
+
+        SET v_from = v_from + p_chunk_size;
+    END WHILE;
+END //
+
+DELIMITER ;
+
+CALL sp_backfill_order_rates(10000);
+DROP PROCEDURE sp_backfill_order_rates;
+
+CREATE TABLE sales_rollup_hourly (
+    bucket_start DATETIME NOT NULL COMMENT 'Start of the hour the orders were placed in',
+    currency_id INT NOT NULL,
+    category ENUM('ALL', 'BURRITO', 'BOWL', 'DRINK', 'SIDE') NOT NULL,
+    product_id INT NOT NULL COMMENT '0 on category and total rows',
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    revenue_usd DECIMAL(14,4) NOT NULL DEFAULT 0,
+    units INT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, currency_id, category, product_id)
+);
+
+CREATE TABLE sales_rollup_daily (
+    bucket_date DATE NOT NULL COMMENT 'Day the orders were placed',
+    currency_id INT NOT NULL,
+    category ENUM('ALL', 'BURRITO', 'BOWL', 'DRINK', 'SIDE') NOT NULL,
+    product_id INT NOT NULL COMMENT '0 on category and total rows',
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    revenue_usd DECIMAL(14,4) NOT NULL DEFAULT 0,
+    units INT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_date, currency_id, category, product_id)
+);
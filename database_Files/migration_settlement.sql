@@ -0,0 +1,33 @@
+-- =====================================================
+-- MIGRATION: end-of-day settlement
+-- PURPOSE: Adds daily_settlements and settlement_totals, written by the
+--          end-of-day settlement job. New databases get them from
+--          schema_simplified.sql.
+-- Re-run stored_procedures.sql (sp_settle_orders) and
+-- user_roles_privileges.sql afterwards.
+-- =====================================================
+USE neos_burritos;
+
+CREATE TABLE daily_settlements (
+    business_date DATE PRIMARY KEY,
+    orders_completed INT NOT NULL DEFAULT 0 COMMENT 'CONFIRMED orders moved to COMPLETED by settlement runs for this day',
+    orders_reconciled INT NOT NULL DEFAULT 0 COMMENT 'Orders of the day whose net payments match their total',
+    mismatch_count INT NOT NULL DEFAULT 0 COMMENT 'Orders of the day whose net payments do not match',
+    payment_count INT NOT NULL DEFAULT 0 COMMENT 'Captured payments processed during the day',
+    refund_count INT NOT NULL DEFAULT 0 COMMENT 'Refunds processed during the day',
+    duration_ms INT NOT NULL DEFAULT 0 COMMENT 'How long the last run took',
+    settled_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'When the last run finished'
+);
+
+CREATE TABLE settlement_totals (
+    business_date DATE NOT NULL,
+    currency_id INT NOT NULL,
+    payment_count INT NOT NULL,
+    payment_amount DECIMAL(12,2) NOT NULL,
+    refund_count INT NOT NULL,
+    refund_amount DECIMAL(12,2) NOT NULL,
+    net_amount DECIMAL(12,2) NOT NULL COMMENT 'payment_amount - refund_amount',
+    PRIMARY KEY (business_date, currency_id),
+    FOREIGN KEY (business_date) REFERENCES daily_settlements(business_date) ON DELETE CASCADE,
+    FOREIGN KEY (currency_id) REFERENCES currencies(currency_id)
+);
@@ -0,0 +1,35 @@
+-- =====================================================
+-- MIGRATION: stock reservation at checkout
+-- PURPOSE: Orders now take their stock when they are placed (sp_place_order)
+--          instead of when they are confirmed, and give it back when they are
+--          cancelled from PENDING or CONFIRMED. Removes the old stock triggers,
+--          reserves stock for orders already waiting in PENDING, and stops stock
+--          going below zero. New databases get all of this from
+--          schema_simplified.sql, triggers_simplified.sql and stored_procedures.sql.
+-- Run it while no checkouts are in progress, then re-run triggers_simplified.sql
+-- (tr_restore_stock_on_cancel) and stored_procedures.sql (sp_place_order).
+-- =====================================================
+USE neos_burritos;
+
+DROP TRIGGER IF EXISTS tr_validate_order_stock;
+DROP TRIGGER IF EXISTS tr_update_stock_on_order;
+DROP TRIGGER IF EXISTS tr_restore_stock_on_cancel;
+
+-- PENDING orders were placed without taking stock; take it now, as if they had
+-- been placed under the new sp_place_order, so cancelling them gives back what
+-- they hold
+UPDATE products p
+JOIN (
+    SELECT oi.product_id, SUM(oi.quantity) AS quantity
+    FROM orders o
+    JOIN order_items oi ON oi.order_id = o.order_id
+    WHERE o.status = 'PENDING'
+    GROUP BY oi.product_id
+) pending ON pending.product_id = p.product_id
+SET p.stock_quantity = p.stock_quantity - pending.quantity;
+
+-- Stock already oversold is written off so the check below can be added
+UPDATE products SET stock_quantity = 0 WHERE stock_quantity < 0;
+
+ALTER TABLE products
+    ADD CONSTRAINT chk_products_stock CHECK (stock_quantity >= 0);
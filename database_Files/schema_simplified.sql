@@ -53,7 +53,9 @@ CREATE TABLE products (
     is_active BOOLEAN DEFAULT TRUE COMMENT 'Product availability status',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (currency_id) REFERENCES currencies(currency_id) ON DELETE RESTRICT
+    FOREIGN KEY (currency_id) REFERENCES currencies(currency_id) ON DELETE RESTRICT,
+    -- Stock is reserved by sp_place_order; this stops anything else overselling it
+    CONSTRAINT chk_products_stock CHECK (stock_quantity >= 0)
 );
 
 -- =====================================================
@@ -92,9 +94,12 @@ CREATE TABLE orders (
     order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'When order was placed',
     total_amount DECIMAL(10,2) NOT NULL COMMENT 'Total order amount',
     currency_id INT NOT NULL COMMENT 'Currency used for this order',
+    exchange_rate_to_usd DECIMAL(10,4) NOT NULL DEFAULT 1.0000 COMMENT 'Rate of the order currency when the order was placed',
     status ENUM('PENDING', 'CONFIRMED', 'COMPLETED', 'CANCELLED') DEFAULT 'PENDING' COMMENT 'Order status',
     delivery_address TEXT COMMENT 'Delivery address for this order',
     notes TEXT COMMENT 'Special instructions',
+    item_count INT NOT NULL DEFAULT 0 COMMENT 'Number of order_items lines, set when the order is placed',
+    total_quantity INT NOT NULL DEFAULT 0 COMMENT 'Sum of order_items quantities, set when the order is placed',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE RESTRICT,
@@ -125,11 +130,15 @@ DROP TABLE IF EXISTS transaction_log;
 CREATE TABLE transaction_log (
     transaction_id INT PRIMARY KEY AUTO_INCREMENT,
     order_id INT NULL COMMENT 'Reference to the order being paid',
+    event_kind ENUM('PAYMENT', 'REFUND', 'STATUS_CHANGE', 'ROLE_CHANGE', 'RATE_CHANGE') NOT NULL DEFAULT 'PAYMENT' COMMENT 'What kind of event the row records',
     payment_status ENUM('PENDING', 'CONFIRMED', 'COMPLETED', 'CANCELLED') DEFAULT 'PENDING' COMMENT 'Payment status',
     amount DECIMAL(10,2) NOT NULL COMMENT 'Transaction amount',
     transaction_reference VARCHAR(100) COMMENT 'Contains Transaction ID or Status Change (If changed by admin)',
     processed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'When transaction was processed',
     currency_id INT COMMENT 'Reference to the currency selected by the user',
+    ledger_reference VARCHAR(100) AS (CASE WHEN event_kind IN ('PAYMENT', 'REFUND') THEN transaction_reference END) STORED
+        COMMENT 'Reference of payment ledger rows only, so a replayed ledger entry is stored once',
+    UNIQUE KEY unique_ledger_reference (ledger_reference),
     FOREIGN KEY (order_id) REFERENCES orders(order_id) ON DELETE RESTRICT,
 	FOREIGN KEY (currency_id) REFERENCES currencies(currency_id)
 );
@@ -151,19 +160,221 @@ CREATE TABLE cart_items (
     UNIQUE KEY unique_user_product_custom (user_id, product_id, customizations_hash)
 );
 
+-- =====================================================
+-- TABLE: cart_items_archive
+-- PURPOSE: Snapshot of abandoned cart rows removed by the cart purge job.
+-- No foreign keys, so archived rows survive product and user deletion.
+-- =====================================================
+CREATE TABLE cart_items_archive (
+    cart_id INT PRIMARY KEY COMMENT 'Original cart_items.cart_id',
+    user_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    customizations TEXT,
+    customizations_hash VARCHAR(64),
+    added_at TIMESTAMP NULL COMMENT 'When the item was originally added',
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'When the purge job removed it',
+    INDEX idx_cart_archive_user (user_id),
+    INDEX idx_cart_archive_archived (archived_at)
+);
+
+-- =====================================================
+-- TABLES: orders_archive, order_items_archive, transaction_log_archive
+-- PURPOSE: Closed orders (COMPLETED/CANCELLED) older than the retention
+-- period, with their items and log rows, moved out of the hot tables by
+-- sp_archive_orders. Same columns as the hot tables so reads can UNION
+-- ALL both. Archive tables instead of monthly partitions because InnoDB
+-- does not partition tables that have foreign keys.
+-- =====================================================
+CREATE TABLE orders_archive (
+    order_id INT PRIMARY KEY COMMENT 'Original orders.order_id',
+    user_id INT NOT NULL,
+    order_date TIMESTAMP NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    currency_id INT NOT NULL,
+    exchange_rate_to_usd DECIMAL(10,4) NOT NULL DEFAULT 1.0000,
+    status ENUM('PENDING', 'CONFIRMED', 'COMPLETED', 'CANCELLED') NOT NULL,
+    delivery_address TEXT,
+    notes TEXT,
+    item_count INT NOT NULL DEFAULT 0,
+    total_quantity INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'When the archive job moved it',
+    INDEX idx_orders_archive_user_date (user_id, order_date),
+    INDEX idx_orders_archive_date (order_date),
+    INDEX idx_orders_archive_status_date (status, order_date)
+);
+
+CREATE TABLE order_items_archive (
+    order_item_id INT PRIMARY KEY COMMENT 'Original order_items.order_item_id',
+    order_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    customizations TEXT,
+    INDEX idx_order_items_archive_order (order_id)
+);
+
+CREATE TABLE transaction_log_archive (
+    transaction_id INT PRIMARY KEY COMMENT 'Original transaction_log.transaction_id',
+    order_id INT NULL,
+    event_kind ENUM('PAYMENT', 'REFUND', 'STATUS_CHANGE', 'ROLE_CHANGE', 'RATE_CHANGE') NOT NULL DEFAULT 'PAYMENT',
+    payment_status ENUM('PENDING', 'CONFIRMED', 'COMPLETED', 'CANCELLED'),
+    amount DECIMAL(10,2) NOT NULL,
+    transaction_reference VARCHAR(100),
+    processed_at TIMESTAMP NULL,
+    currency_id INT,
+    INDEX idx_transaction_archive_order_processed (order_id, processed_at),
+    INDEX idx_transaction_archive_kind_processed (event_kind, processed_at),
+    INDEX idx_transaction_archive_processed (processed_at)
+);
+
+-- =====================================================
+-- TABLE: checkout_sagas
+-- PURPOSE: Progress of each checkout through place order, charge and
+-- confirm, so a checkout that fails part way can be undone (refund,
+-- cancel the order, put the items back in the cart) by the recovery
+-- sweep even after a restart. order_id has no foreign key so the
+-- order archive job can still move the order.
+-- =====================================================
+CREATE TABLE checkout_sagas (
+    saga_id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL COMMENT 'Customer checking out',
+    order_id INT NULL COMMENT 'Order created by sp_place_order, once placed',
+    amount DECIMAL(10,2) NULL COMMENT 'Order total being charged',
+    currency_code VARCHAR(3) NOT NULL,
+    payment_request_id VARCHAR(40) NOT NULL COMMENT 'Idempotency key sent with every charge attempt',
+    payment_state ENUM('NONE', 'CAPTURED', 'DECLINED', 'UNKNOWN', 'REFUNDED') NOT NULL DEFAULT 'NONE',
+    payment_reference VARCHAR(100) NULL COMMENT 'Gateway transaction id of the captured charge',
+    state ENUM('STARTED', 'ORDER_CREATED', 'PAID', 'COMPLETED', 'COMPENSATING', 'COMPENSATED', 'ABORTED', 'FAILED') NOT NULL DEFAULT 'STARTED',
+    failure_reason VARCHAR(255) NULL COMMENT 'Why the checkout is being or was undone',
+    compensation_attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NULL COMMENT 'When the recovery sweep should next try to compensate',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY unique_payment_request (payment_request_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE RESTRICT
+);
+
+-- =====================================================
+-- TABLES: daily_settlements, settlement_totals
+-- PURPOSE: Written by the end-of-day settlement job. One summary row per
+-- business day, plus that day's captured payments and refunds per
+-- currency from transaction_log. Re-running the job for a day replaces
+-- the totals and adds to orders_completed.
+-- =====================================================
+CREATE TABLE daily_settlements (
+    business_date DATE PRIMARY KEY,
+    orders_completed INT NOT NULL DEFAULT 0 COMMENT 'CONFIRMED orders moved to COMPLETED by settlement runs for this day',
+    orders_reconciled INT NOT NULL DEFAULT 0 COMMENT 'Orders of the day whose net payments match their total',
+    mismatch_count INT NOT NULL DEFAULT 0 COMMENT 'Orders of the day whose net payments do not match',
+    payment_count INT NOT NULL DEFAULT 0 COMMENT 'Captured payments processed during the day',
+    refund_count INT NOT NULL DEFAULT 0 COMMENT 'Refunds processed during the day',
+    duration_ms INT NOT NULL DEFAULT 0 COMMENT 'How long the last run took',
+    settled_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'When the last run finished'
+);
+
+CREATE TABLE settlement_totals (
+    business_date DATE NOT NULL,
+    currency_id INT NOT NULL,
+    payment_count INT NOT NULL,
+    payment_amount DECIMAL(12,2) NOT NULL,
+    refund_count INT NOT NULL,
+    refund_amount DECIMAL(12,2) NOT NULL,
+    net_amount DECIMAL(12,2) NOT NULL COMMENT 'payment_amount - refund_amount',
+    PRIMARY KEY (business_date, currency_id),
+    FOREIGN KEY (business_date) REFERENCES daily_settlements(business_date) ON DELETE CASCADE,
+    FOREIGN KEY (currency_id) REFERENCES currencies(currency_id)
+);
+
+-- =====================================================
+-- TABLES: sales_rollup_hourly, sales_rollup_daily
+-- PURPOSE: Revenue, units and order count of CONFIRMED and COMPLETED
+-- orders, bucketed by order date, for revenue reports that never scan
+-- orders. Kept up to date by tr_sales_rollup_on_status and rebuilt a day
+-- at a time by sp_backfill_sales_rollups. Each bucket and currency has
+-- three levels of rows: one per product, one per category with
+-- product_id 0, and a total with category 'ALL' and product_id 0, so
+-- every level has an exact order count. revenue is in the order
+-- currency; revenue_usd uses the rate captured on the order.
+-- =====================================================
+CREATE TABLE sales_rollup_hourly (
+    bucket_start DATETIME NOT NULL COMMENT 'Start of the hour the orders were placed in',
+    currency_id INT NOT NULL,
+    category ENUM('ALL', 'BURRITO', 'BOWL', 'DRINK', 'SIDE') NOT NULL,
+    product_id INT NOT NULL COMMENT '0 on category and total rows',
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    revenue_usd DECIMAL(14,4) NOT NULL DEFAULT 0,
+    units INT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_start, currency_id, category, product_id)
+);
+
+CREATE TABLE sales_rollup_daily (
+    bucket_date DATE NOT NULL COMMENT 'Day the orders were placed',
+    currency_id INT NOT NULL,
+    category ENUM('ALL', 'BURRITO', 'BOWL', 'DRINK', 'SIDE') NOT NULL,
+    product_id INT NOT NULL COMMENT '0 on category and total rows',
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    revenue_usd DECIMAL(14,4) NOT NULL DEFAULT 0,
+    units INT NOT NULL DEFAULT 0,
+    order_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_date, currency_id, category, product_id)
+);
+
+-- =====================================================
+-- TABLE: price_lists
+-- PURPOSE: Versioned sets of product prices prepared ahead of time
+-- and applied to products in one step when activated
+-- =====================================================
+CREATE TABLE price_lists (
+    price_list_id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL COMMENT 'Label shown to admins, e.g. Summer Menu 2026',
+    status ENUM('DRAFT', 'SCHEDULED', 'ACTIVE', 'SUPERSEDED', 'CANCELLED') NOT NULL DEFAULT 'DRAFT',
+    effective_at TIMESTAMP NULL COMMENT 'When a scheduled list should be activated',
+    activated_at TIMESTAMP NULL COMMENT 'When the list was actually applied',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =====================================================
+-- TABLE: price_list_items
+-- PURPOSE: The price of each product in a price list
+-- =====================================================
+CREATE TABLE price_list_items (
+    price_list_id INT NOT NULL,
+    product_id INT NOT NULL,
+    base_price DECIMAL(10,2) NOT NULL COMMENT 'Price in the product''s own currency',
+    PRIMARY KEY (price_list_id, product_id),
+    FOREIGN KEY (price_list_id) REFERENCES price_lists(price_list_id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES products(product_id) ON DELETE CASCADE
+);
+
 -- =====================================================
 -- INDEXES FOR PERFORMANCE
 -- =====================================================
 CREATE INDEX idx_users_email ON users(email);
-CREATE INDEX idx_users_role ON users(role);
+CREATE INDEX idx_users_role_active ON users(role, is_active);
+CREATE INDEX idx_users_active ON users(is_active);
+CREATE INDEX idx_users_name ON users(name);
 CREATE INDEX idx_products_category ON products(category);
 CREATE INDEX idx_products_active ON products(is_active);
 CREATE INDEX idx_orders_user_date ON orders(user_id, order_date);
 CREATE INDEX idx_orders_status ON orders(status);
+CREATE INDEX idx_orders_date ON orders(order_date);
+CREATE INDEX idx_orders_status_date ON orders(status, order_date);
 CREATE INDEX idx_order_items_order ON order_items(order_id);
 CREATE INDEX idx_transaction_status ON transaction_log(payment_status);
-CREATE INDEX idx_cart_user ON cart_items(user_id);
+CREATE INDEX idx_transaction_processed ON transaction_log(processed_at);
+CREATE INDEX idx_transaction_order_processed ON transaction_log(order_id, processed_at);
+CREATE INDEX idx_transaction_kind_processed ON transaction_log(event_kind, processed_at);
+CREATE INDEX idx_cart_user_added ON cart_items(user_id, added_at);
+CREATE INDEX idx_cart_added ON cart_items(added_at);
 CREATE INDEX idx_cart_hash ON cart_items(customizations_hash);
+CREATE INDEX idx_price_lists_due ON price_lists(status, effective_at);
+CREATE INDEX idx_sagas_state_next ON checkout_sagas(state, next_attempt_at);
+CREATE INDEX idx_sagas_state_updated ON checkout_sagas(state, updated_at);
+CREATE INDEX idx_sagas_order ON checkout_sagas(order_id);
 
 -- =====================================================
 -- SIMPLIFICATION BENEFITS:
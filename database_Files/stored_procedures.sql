@@ -283,6 +283,100 @@ BEGIN
     END IF;
 END //
 
+-- =====================================================
+-- PRICING PROCEDURES
+-- =====================================================
+
+-- Activate a price list: one set-based UPDATE applies every price in the list
+CREATE PROCEDURE sp_activate_price_list(
+    IN p_price_list_id INT,
+    OUT p_updated_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE v_status VARCHAR(20);
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        SET p_updated_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to activate price list';
+    END;
+
+    START TRANSACTION;
+    
+    -- Row lock makes concurrent activations of the same list wait, then see it is ACTIVE
+    SELECT status INTO v_status
+    FROM price_lists WHERE price_list_id = p_price_list_id
+    FOR UPDATE;
+    
+    IF v_status IS NULL THEN
+        ROLLBACK;
+        SET p_updated_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Price list not found';
+    ELSEIF v_status NOT IN ('DRAFT', 'SCHEDULED') THEN
+        ROLLBACK;
+        SET p_updated_count = 0;
+        SET p_success = FALSE;
+        SET p_message = CONCAT('Price list is already ', v_status);
+    ELSE
+        UPDATE products p
+        JOIN price_list_items i ON i.product_id = p.product_id
+        SET p.base_price = i.base_price
+        WHERE i.price_list_id = p_price_list_id
+        AND p.base_price <> i.base_price;
+        
+        SET p_updated_count = ROW_COUNT();
+        
+        UPDATE price_lists SET status = 'SUPERSEDED'
+        WHERE status = 'ACTIVE';
+        
+        UPDATE price_lists
+        SET status = 'ACTIVE', activated_at = CURRENT_TIMESTAMP
+        WHERE price_list_id = p_price_list_id;
+        
+        SET p_success = TRUE;
+        SET p_message = CONCAT('Price list activated, ', p_updated_count, ' prices changed');
+        COMMIT;
+    END IF;
+END //
+
+-- Adjust prices by a percentage in one statement, optionally limited to a currency and/or category
+CREATE PROCEDURE sp_adjust_prices(
+    IN p_percent DECIMAL(6,2),
+    IN p_currency_code VARCHAR(3),
+    IN p_category ENUM('BURRITO', 'BOWL', 'DRINK', 'SIDE'),
+    OUT p_updated_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        SET p_updated_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to adjust prices';
+    END;
+
+    IF p_percent <= -100 THEN
+        SET p_updated_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Adjustment would make prices zero or negative';
+    ELSE
+        UPDATE products p
+        JOIN currencies c ON p.currency_id = c.currency_id
+        SET p.base_price = GREATEST(0.01, ROUND(p.base_price * (1 + p_percent / 100), 2))
+        WHERE (p_currency_code IS NULL OR c.currency_code = p_currency_code)
+        AND (p_category IS NULL OR p.category = p_category);
+        
+        SET p_updated_count = ROW_COUNT();
+        SET p_success = TRUE;
+        SET p_message = CONCAT(p_updated_count, ' prices adjusted');
+    END IF;
+END //
+
 -- =====================================================
 -- CART MANAGEMENT PROCEDURES
 -- =====================================================
@@ -379,11 +473,94 @@ BEGIN
     SET p_message = 'Cart cleared successfully';
 END //
 
+-- Copy a past order's items into the cart in one set-based INSERT.
+-- Lines merge with matching cart lines through the customizations hash;
+-- lines that are inactive or short on stock are skipped and returned as a result set.
+CREATE PROCEDURE sp_reorder(
+    IN p_order_id INT,
+    IN p_user_id INT,
+    OUT p_added_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE v_owner_id INT;
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        DROP TEMPORARY TABLE IF EXISTS tmp_reorder_lines;
+        SET p_added_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to reorder';
+    END;
+
+    -- Orders in a customer's history may have been moved to the archive
+    SELECT user_id INTO v_owner_id
+    FROM (SELECT user_id FROM orders WHERE order_id = p_order_id
+          UNION ALL
+          SELECT user_id FROM orders_archive WHERE order_id = p_order_id) o
+    LIMIT 1;
+    
+    IF v_owner_id IS NULL OR v_owner_id <> p_user_id THEN
+        SET p_added_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Order not found';
+    ELSE
+        START TRANSACTION;
+        
+        -- One row per product/customization, with current stock and what is already in the cart.
+        -- The cart stock trigger rejects a whole statement on one bad row, so
+        -- availability is decided here and only addable lines are inserted.
+        DROP TEMPORARY TABLE IF EXISTS tmp_reorder_lines;
+        CREATE TEMPORARY TABLE tmp_reorder_lines AS
+        SELECT g.*,
+               (g.is_active AND g.stock_quantity >= g.quantity + g.in_cart_quantity) AS addable
+        FROM (
+            SELECT oi.product_id,
+                   ANY_VALUE(p.name) AS product_name,
+                   ANY_VALUE(oi.customizations) AS customizations,
+                   SUM(oi.quantity) AS quantity,
+                   ANY_VALUE(p.stock_quantity) AS stock_quantity,
+                   ANY_VALUE(p.is_active) AS is_active,
+                   IFNULL(ANY_VALUE(ci.quantity), 0) AS in_cart_quantity
+            FROM (SELECT product_id, quantity, customizations FROM order_items WHERE order_id = p_order_id
+                  UNION ALL
+                  SELECT product_id, quantity, customizations FROM order_items_archive WHERE order_id = p_order_id) oi
+            JOIN products p ON p.product_id = oi.product_id
+            LEFT JOIN cart_items ci ON ci.user_id = p_user_id
+                AND ci.product_id = oi.product_id
+                AND ci.customizations_hash = SHA2(IFNULL(oi.customizations, ''), 256)
+            GROUP BY oi.product_id, SHA2(IFNULL(oi.customizations, ''), 256)
+        ) g;
+        
+        -- Skipped lines
+        SELECT product_id, product_name, quantity AS requested_quantity,
+               GREATEST(stock_quantity - in_cart_quantity, 0) AS available_quantity,
+               CASE WHEN is_active THEN 'OUT_OF_STOCK' ELSE 'UNAVAILABLE' END AS reason
+        FROM tmp_reorder_lines
+        WHERE NOT addable;
+        
+        INSERT INTO cart_items (user_id, product_id, quantity, customizations)
+        SELECT p_user_id, t.product_id, t.quantity, t.customizations
+        FROM tmp_reorder_lines t
+        WHERE t.addable
+        ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + t.quantity;
+        
+        SELECT COUNT(*) INTO p_added_count FROM tmp_reorder_lines WHERE addable;
+        DROP TEMPORARY TABLE tmp_reorder_lines;
+        
+        SET p_success = TRUE;
+        SET p_message = CONCAT(p_added_count, ' items added to cart');
+        COMMIT;
+    END IF;
+END //
+
 -- =====================================================
 -- ORDER MANAGEMENT PROCEDURES
 -- =====================================================
 
--- Place order from cart
+-- Place order from cart. The cart's stock is reserved in the same transaction:
+-- it is taken now and given back if the order is cancelled (tr_restore_stock_on_cancel).
 CREATE PROCEDURE sp_place_order(
     IN p_user_id INT,
     IN p_currency_code VARCHAR(3),
@@ -396,7 +573,11 @@ CREATE PROCEDURE sp_place_order(
 )
 BEGIN
     DECLARE v_currency_id INT;
+    DECLARE v_rate_to_usd DECIMAL(10,4);
     DECLARE v_cart_total DECIMAL(10,2) DEFAULT 0;
+    DECLARE v_item_count INT DEFAULT 0;
+    DECLARE v_total_quantity INT DEFAULT 0;
+    DECLARE v_product_count INT DEFAULT 0;
     DECLARE done INT DEFAULT FALSE;
     DECLARE v_cart_id INT;
     DECLARE v_product_id INT;
@@ -433,7 +614,7 @@ BEGIN
     START TRANSACTION;
     
     -- Get currency ID
-    SELECT currency_id INTO v_currency_id 
+    SELECT currency_id, exchange_rate_to_usd INTO v_currency_id, v_rate_to_usd
     FROM currencies WHERE currency_code = p_currency_code;
     
     IF v_currency_id IS NULL THEN
@@ -441,13 +622,14 @@ BEGIN
         SET p_message = 'Invalid currency';
         ROLLBACK;
     ELSE
-        -- Calculate total from cart
+        -- Calculate total and summary counts from cart
         SELECT SUM(
             CASE 
                 WHEN c.currency_code = p_currency_code THEN (p.base_price * ci.quantity)
                 ELSE ROUND((p.base_price * (target_c.exchange_rate_to_usd / c.exchange_rate_to_usd)) * ci.quantity, 2)
             END
-        ) INTO v_cart_total
+        ), COUNT(*), SUM(ci.quantity)
+        INTO v_cart_total, v_item_count, v_total_quantity
         FROM cart_items ci
         JOIN products p ON ci.product_id = p.product_id
         JOIN currencies c ON p.currency_id = c.currency_id
@@ -459,32 +641,61 @@ BEGIN
             SET p_message = 'Cart is empty';
             ROLLBACK;
         ELSE
-            -- Create order
-            INSERT INTO orders (user_id, total_amount, currency_id, delivery_address, notes)
-            VALUES (p_user_id, v_cart_total, v_currency_id, p_delivery_address, p_notes);
+            -- Reserve the stock first. Locking the cart's products makes a concurrent
+            -- checkout for the same products wait here and then see what this one took;
+            -- each product is only taken while enough is left, and the order is only
+            -- placed if every product could be taken.
+            SELECT COUNT(*) INTO v_product_count
+            FROM products
+            WHERE product_id IN (SELECT product_id FROM cart_items WHERE user_id = p_user_id)
+            FOR UPDATE;
             
-            SET p_order_id = LAST_INSERT_ID();
-            SET p_total_amount = v_cart_total;
+            UPDATE products p
+            JOIN (
+                SELECT product_id, SUM(quantity) AS quantity
+                FROM cart_items
+                WHERE user_id = p_user_id
+                GROUP BY product_id
+            ) c ON c.product_id = p.product_id
+            SET p.stock_quantity = p.stock_quantity - c.quantity
+            WHERE p.is_active AND p.stock_quantity >= c.quantity;
             
-            -- Move cart items to order items
-            OPEN cart_cursor;
-            read_loop: LOOP
-                FETCH cart_cursor INTO v_cart_id, v_product_id, v_quantity, v_customizations, v_unit_price;
-                IF done THEN
-                    LEAVE read_loop;
-                END IF;
+            IF ROW_COUNT() < v_product_count THEN
+                SET p_success = FALSE;
+                SET p_message = 'Insufficient stock for order';
+                ROLLBACK;
+            ELSE
+                -- Create order
+                -- Summary columns are written once here so order lists never aggregate order_items;
+                -- the rate is kept so revenue reports convert at the rate the customer paid
+                INSERT INTO orders (user_id, total_amount, currency_id, exchange_rate_to_usd, delivery_address, notes,
+                                    item_count, total_quantity)
+                VALUES (p_user_id, v_cart_total, v_currency_id, v_rate_to_usd, p_delivery_address, p_notes,
+                        v_item_count, v_total_quantity);
+            
+                SET p_order_id = LAST_INSERT_ID();
+                SET p_total_amount = v_cart_total;
+            
+                -- Move cart items to order items
+                OPEN cart_cursor;
+                read_loop: LOOP
+                    FETCH cart_cursor INTO v_cart_id, v_product_id, v_quantity, v_customizations, v_unit_price;
+                    IF done THEN
+                        LEAVE read_loop;
+                    END IF;
                 
-                INSERT INTO order_items (order_id, product_id, quantity, unit_price, customizations)
-                VALUES (p_order_id, v_product_id, v_quantity, v_unit_price, v_customizations);
-            END LOOP;
-            CLOSE cart_cursor;
+                    INSERT INTO order_items (order_id, product_id, quantity, unit_price, customizations)
+                    VALUES (p_order_id, v_product_id, v_quantity, v_unit_price, v_customizations);
+                END LOOP;
+                CLOSE cart_cursor;
             
-            -- Clear cart
-            DELETE FROM cart_items WHERE user_id = p_user_id;
+                -- Clear cart
+                DELETE FROM cart_items WHERE user_id = p_user_id;
             
-            SET p_success = TRUE;
-            SET p_message = 'Order placed successfully';
-            COMMIT;
+                SET p_success = TRUE;
+                SET p_message = 'Order placed successfully';
+                COMMIT;
+            END IF;
         END IF;
     END IF;
 END //
@@ -504,12 +715,11 @@ BEGIN
         o.status,
         o.delivery_address,
         o.notes,
-        COUNT(oi.order_item_id) as item_count
+        o.item_count,
+        o.total_quantity
     FROM orders o
     JOIN currencies c ON o.currency_id = c.currency_id
-    LEFT JOIN order_items oi ON o.order_id = oi.order_id
     WHERE o.user_id = p_user_id
-    GROUP BY o.order_id
     ORDER BY o.order_date DESC
     LIMIT p_limit;
 END //
@@ -576,4 +786,396 @@ BEGIN
     END IF;
 END //
 
+-- Undo a checkout that did not go through: cancel the order, release the stock it
+-- reserved and put its lines back in the customer's cart, in one transaction. Lines that are inactive or short on
+-- stock are left out, as in sp_reorder. Running it again for an order that is already
+-- cancelled does nothing, so the saga recovery sweep can safely retry it.
+CREATE PROCEDURE sp_cancel_checkout(
+    IN p_order_id INT,
+    OUT p_restored_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE v_user_id INT;
+    DECLARE v_status VARCHAR(20);
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        DROP TEMPORARY TABLE IF EXISTS tmp_checkout_lines;
+        SET p_restored_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to cancel checkout';
+    END;
+
+    SET p_restored_count = 0;
+    START TRANSACTION;
+    
+    SELECT user_id, status INTO v_user_id, v_status
+    FROM orders WHERE order_id = p_order_id
+    FOR UPDATE;
+    
+    IF v_user_id IS NULL THEN
+        SET p_success = FALSE;
+        SET p_message = 'Order not found';
+        ROLLBACK;
+    ELSEIF v_status = 'CANCELLED' THEN
+        SET p_success = TRUE;
+        SET p_message = 'Order already cancelled';
+        COMMIT;
+    ELSEIF v_status = 'COMPLETED' THEN
+        SET p_success = FALSE;
+        SET p_message = 'Order already completed';
+        ROLLBACK;
+    ELSE
+        -- Cancel first: tr_restore_stock_on_cancel releases the order's reserved stock,
+        -- which must be back before availability is checked
+        UPDATE orders
+        SET status = 'CANCELLED', updated_at = CURRENT_TIMESTAMP
+        WHERE order_id = p_order_id;
+        
+        DROP TEMPORARY TABLE IF EXISTS tmp_checkout_lines;
+        CREATE TEMPORARY TABLE tmp_checkout_lines AS
+        SELECT g.*
+        FROM (
+            SELECT oi.product_id,
+                   ANY_VALUE(oi.customizations) AS customizations,
+                   SUM(oi.quantity) AS quantity,
+                   ANY_VALUE(p.stock_quantity) AS stock_quantity,
+                   ANY_VALUE(p.is_active) AS is_active,
+                   IFNULL(ANY_VALUE(ci.quantity), 0) AS in_cart_quantity
+            FROM order_items oi
+            JOIN products p ON p.product_id = oi.product_id
+            LEFT JOIN cart_items ci ON ci.user_id = v_user_id
+                AND ci.product_id = oi.product_id
+                AND ci.customizations_hash = SHA2(IFNULL(oi.customizations, ''), 256)
+            WHERE oi.order_id = p_order_id
+            GROUP BY oi.product_id, SHA2(IFNULL(oi.customizations, ''), 256)
+        ) g
+        WHERE g.is_active AND g.stock_quantity >= g.quantity + g.in_cart_quantity;
+        
+        INSERT INTO cart_items (user_id, product_id, quantity, customizations)
+        SELECT v_user_id, t.product_id, t.quantity, t.customizations
+        FROM tmp_checkout_lines t
+        ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + t.quantity;
+        
+        SELECT COUNT(*) INTO p_restored_count FROM tmp_checkout_lines;
+        DROP TEMPORARY TABLE tmp_checkout_lines;
+        SET p_success = TRUE;
+        SET p_message = 'Order cancelled and cart restored';
+        COMMIT;
+    END IF;
+END //
+
+-- Move one batch of closed orders placed before the cutoff, with their items and
+-- log rows, into the archive tables. Order-less log rows (role and rate changes)
+-- older than the cutoff go with them. Closed orders cannot change status
+-- (tr_protect_completed_orders), so the selected rows are stable while they move.
+CREATE PROCEDURE sp_archive_orders(
+    IN p_cutoff TIMESTAMP,
+    IN p_batch_size INT,
+    OUT p_archived_count INT,
+    OUT p_log_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        DROP TEMPORARY TABLE IF EXISTS tmp_archive_orders;
+        DROP TEMPORARY TABLE IF EXISTS tmp_archive_log;
+        SET p_archived_count = 0;
+        SET p_log_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to archive orders';
+    END;
+
+    DROP TEMPORARY TABLE IF EXISTS tmp_archive_orders;
+    DROP TEMPORARY TABLE IF EXISTS tmp_archive_log;
+    CREATE TEMPORARY TABLE tmp_archive_orders (order_id INT PRIMARY KEY);
+    CREATE TEMPORARY TABLE tmp_archive_log (transaction_id INT PRIMARY KEY);
+
+    START TRANSACTION;
+
+    -- Oldest first along idx_orders_status_date
+    INSERT INTO tmp_archive_orders (order_id)
+    SELECT order_id
+    FROM orders
+    WHERE status IN ('COMPLETED', 'CANCELLED') AND order_date < p_cutoff
+    ORDER BY order_date
+    LIMIT p_batch_size;
+    SET p_archived_count = ROW_COUNT();
+
+    INSERT INTO tmp_archive_log (transaction_id)
+    SELECT t.transaction_id
+    FROM transaction_log t
+    JOIN tmp_archive_orders a ON t.order_id = a.order_id;
+
+    INSERT INTO tmp_archive_log (transaction_id)
+    SELECT transaction_id
+    FROM transaction_log
+    WHERE order_id IS NULL AND processed_at < p_cutoff
+    ORDER BY processed_at
+    LIMIT p_batch_size;
+
+    SELECT COUNT(*) INTO p_log_count FROM tmp_archive_log;
+
+    INSERT INTO orders_archive (order_id, user_id, order_date, total_amount, currency_id, exchange_rate_to_usd,
+                                status, delivery_address, notes, item_count, total_quantity, created_at, updated_at)
+    SELECT o.order_id, o.user_id, o.order_date, o.total_amount, o.currency_id, o.exchange_rate_to_usd,
+           o.status, o.delivery_address, o.notes, o.item_count, o.total_quantity, o.created_at, o.updated_at
+    FROM orders o
+    JOIN tmp_archive_orders a ON o.order_id = a.order_id;
+
+    INSERT INTO order_items_archive (order_item_id, order_id, product_id, quantity, unit_price, customizations)
+    SELECT oi.order_item_id, oi.order_id, oi.product_id, oi.quantity, oi.unit_price, oi.customizations
+    FROM order_items oi
+    JOIN tmp_archive_orders a ON oi.order_id = a.order_id;
+
+    INSERT INTO transaction_log_archive (transaction_id, order_id, event_kind, payment_status, amount,
+                                         transaction_reference, processed_at, currency_id)
+    SELECT t.transaction_id, t.order_id, t.event_kind, t.payment_status, t.amount,
+           t.transaction_reference, t.processed_at, t.currency_id
+    FROM transaction_log t
+    JOIN tmp_archive_log a ON t.transaction_id = a.transaction_id;
+
+    -- Children first so the foreign keys and tr_prevent_order_deletion allow the delete
+    DELETE t FROM transaction_log t JOIN tmp_archive_log a ON t.transaction_id = a.transaction_id;
+    DELETE oi FROM order_items oi JOIN tmp_archive_orders a ON oi.order_id = a.order_id;
+    DELETE o FROM orders o JOIN tmp_archive_orders a ON o.order_id = a.order_id;
+
+    COMMIT;
+
+    DROP TEMPORARY TABLE tmp_archive_orders;
+    DROP TEMPORARY TABLE tmp_archive_log;
+
+    SET p_success = TRUE;
+    SET p_message = CONCAT('Archived ', p_archived_count, ' orders and ', p_log_count, ' log entries');
+END //
+
+-- Move one batch of CONFIRMED orders placed before the cutoff to COMPLETED. An order
+-- qualifies only if its captured payments minus refunds in transaction_log equal its
+-- total; with p_require_payment FALSE, orders with no payment entries at all (placed
+-- before payments were logged) qualify too. Orders that do not reconcile stay CONFIRMED.
+CREATE PROCEDURE sp_settle_orders(
+    IN p_cutoff TIMESTAMP,
+    IN p_batch_size INT,
+    IN p_require_payment BOOLEAN,
+    OUT p_completed_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        DROP TEMPORARY TABLE IF EXISTS tmp_settle_orders;
+        SET p_completed_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to settle orders';
+    END;
+
+    DROP TEMPORARY TABLE IF EXISTS tmp_settle_orders;
+    CREATE TEMPORARY TABLE tmp_settle_orders (order_id INT PRIMARY KEY);
+
+    START TRANSACTION;
+
+    -- Candidates along idx_orders_status_date, payments along idx_transaction_order_processed.
+    -- A ledger entry written twice counts once: one row per transaction reference.
+    INSERT INTO tmp_settle_orders (order_id)
+    SELECT o.order_id
+    FROM orders o
+    LEFT JOIN (
+        SELECT t.order_id, t.event_kind, MIN(t.amount) AS amount
+        FROM orders co
+        JOIN transaction_log t ON t.order_id = co.order_id
+                              AND t.event_kind IN ('PAYMENT', 'REFUND')
+                              AND t.payment_status = 'COMPLETED'
+        WHERE co.status = 'CONFIRMED' AND co.order_date < p_cutoff
+        GROUP BY t.order_id, t.event_kind, COALESCE(t.transaction_reference, t.transaction_id)
+    ) t ON t.order_id = o.order_id
+    WHERE o.status = 'CONFIRMED' AND o.order_date < p_cutoff
+    GROUP BY o.order_id, o.total_amount
+    HAVING (COUNT(t.order_id) = 0 AND NOT p_require_payment)
+        OR SUM(CASE WHEN t.event_kind = 'PAYMENT' THEN t.amount ELSE -t.amount END) = o.total_amount
+    ORDER BY o.order_id
+    LIMIT p_batch_size;
+
+    -- Re-check the status so an order cancelled since the SELECT is not completed
+    UPDATE orders o
+    JOIN tmp_settle_orders s ON o.order_id = s.order_id
+    SET o.status = 'COMPLETED', o.updated_at = CURRENT_TIMESTAMP
+    WHERE o.status = 'CONFIRMED';
+    SET p_completed_count = ROW_COUNT();
+
+    COMMIT;
+
+    DROP TEMPORARY TABLE tmp_settle_orders;
+
+    SET p_success = TRUE;
+    SET p_message = CONCAT('Completed ', p_completed_count, ' orders');
+END //
+
+-- Add one order to the sales rollups (p_sign 1) or take it out again (p_sign -1).
+-- Called by tr_sales_rollup_on_status, so it runs inside the status update's
+-- transaction. WITH ROLLUP yields the product rows, one row per category and the
+-- order total in one pass; for a single order every level counts one order.
+CREATE PROCEDURE sp_rollup_order_sales(
+    IN p_order_id INT,
+    IN p_sign INT
+)
+BEGIN
+    INSERT INTO sales_rollup_hourly (bucket_start, currency_id, category, product_id,
+                                     revenue, revenue_usd, units, order_count)
+    SELECT t.bucket_start, t.currency_id, t.category, t.product_id,
+           t.revenue, t.revenue_usd, t.units, t.order_count
+    FROM (
+        SELECT DATE_FORMAT(o.order_date, '%Y-%m-%d %H:00:00') AS bucket_start, o.currency_id,
+               r.category, r.product_id,
+               p_sign * r.revenue AS revenue,
+               p_sign * ROUND(r.revenue / o.exchange_rate_to_usd, 4) AS revenue_usd,
+               p_sign * r.units AS units,
+               p_sign AS order_count
+        FROM orders o
+        JOIN (
+            SELECT COALESCE(p.category, 'ALL') AS category, COALESCE(oi.product_id, 0) AS product_id,
+                   SUM(oi.unit_price * oi.quantity) AS revenue, SUM(oi.quantity) AS units
+            FROM order_items oi
+            JOIN products p ON oi.product_id = p.product_id
+            WHERE oi.order_id = p_order_id
+            GROUP BY p.category, oi.product_id WITH ROLLUP
+        ) r
+        WHERE o.order_id = p_order_id
+    ) t
+    ON DUPLICATE KEY UPDATE revenue = sales_rollup_hourly.revenue + t.revenue,
+                            revenue_usd = sales_rollup_hourly.revenue_usd + t.revenue_usd,
+                            units = sales_rollup_hourly.units + t.units,
+                            order_count = sales_rollup_hourly.order_count + t.order_count;
+
+    INSERT INTO sales_rollup_daily (bucket_date, currency_id, category, product_id,
+                                    revenue, revenue_usd, units, order_count)
+    SELECT t.bucket_date, t.currency_id, t.category, t.product_id,
+           t.revenue, t.revenue_usd, t.units, t.order_count
+    FROM (
+        SELECT DATE(o.order_date) AS bucket_date, o.currency_id,
+               r.category, r.product_id,
+               p_sign * r.revenue AS revenue,
+               p_sign * ROUND(r.revenue / o.exchange_rate_to_usd, 4) AS revenue_usd,
+               p_sign * r.units AS units,
+               p_sign AS order_count
+        FROM orders o
+        JOIN (
+            SELECT COALESCE(p.category, 'ALL') AS category, COALESCE(oi.product_id, 0) AS product_id,
+                   SUM(oi.unit_price * oi.quantity) AS revenue, SUM(oi.quantity) AS units
+            FROM order_items oi
+            JOIN products p ON oi.product_id = p.product_id
+            WHERE oi.order_id = p_order_id
+            GROUP BY p.category, oi.product_id WITH ROLLUP
+        ) r
+        WHERE o.order_id = p_order_id
+    ) t
+    ON DUPLICATE KEY UPDATE revenue = sales_rollup_daily.revenue + t.revenue,
+                            revenue_usd = sales_rollup_daily.revenue_usd + t.revenue_usd,
+                            units = sales_rollup_daily.units + t.units,
+                            order_count = sales_rollup_daily.order_count + t.order_count;
+END //
+
+-- Rebuild one day of the sales rollups from the orders placed that day, hot and
+-- archived, in one transaction. Used to fill the rollups for orders that predate
+-- them or were written without going through a status change (generated data).
+CREATE PROCEDURE sp_backfill_sales_rollups(
+    IN p_day DATE,
+    OUT p_order_count INT,
+    OUT p_success BOOLEAN,
+    OUT p_message VARCHAR(255)
+)
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        SET p_order_count = 0;
+        SET p_success = FALSE;
+        SET p_message = 'Failed to rebuild sales rollups';
+    END;
+
+    START TRANSACTION;
+
+    DELETE FROM sales_rollup_hourly
+    WHERE bucket_start >= p_day AND bucket_start < p_day + INTERVAL 1 DAY;
+    DELETE FROM sales_rollup_daily WHERE bucket_date = p_day;
+
+    INSERT INTO sales_rollup_hourly (bucket_start, currency_id, category, product_id,
+                                     revenue, revenue_usd, units, order_count)
+    SELECT t.bucket_start, t.currency_id, t.category, t.product_id,
+           t.revenue, t.revenue_usd, t.units, t.order_count
+    FROM (
+        SELECT DATE_FORMAT(l.order_date, '%Y-%m-%d %H:00:00') AS bucket_start, l.currency_id,
+               COALESCE(p.category, 'ALL') AS category, COALESCE(l.product_id, 0) AS product_id,
+               SUM(l.unit_price * l.quantity) AS revenue,
+               ROUND(SUM(l.unit_price * l.quantity / l.exchange_rate_to_usd), 4) AS revenue_usd,
+               SUM(l.quantity) AS units,
+               COUNT(DISTINCT l.order_id) AS order_count
+        FROM (
+            SELECT o.order_id, o.order_date, o.currency_id, o.exchange_rate_to_usd,
+                   oi.product_id, oi.quantity, oi.unit_price
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.order_id
+            WHERE o.status IN ('CONFIRMED', 'COMPLETED')
+              AND o.order_date >= p_day AND o.order_date < p_day + INTERVAL 1 DAY
+            UNION ALL
+            SELECT o.order_id, o.order_date, o.currency_id, o.exchange_rate_to_usd,
+                   oi.product_id, oi.quantity, oi.unit_price
+            FROM orders_archive o
+            JOIN order_items_archive oi ON oi.order_id = o.order_id
+            WHERE o.status = 'COMPLETED'
+              AND o.order_date >= p_day AND o.order_date < p_day + INTERVAL 1 DAY
+        ) l
+        JOIN products p ON l.product_id = p.product_id
+        GROUP BY DATE_FORMAT(l.order_date, '%Y-%m-%d %H:00:00'), l.currency_id, p.category, l.product_id WITH ROLLUP
+    ) t
+    -- Drop the ROLLUP rows above currency level; the rest are product, category and total rows
+    WHERE t.bucket_start IS NOT NULL AND t.currency_id IS NOT NULL;
+
+    INSERT INTO sales_rollup_daily (bucket_date, currency_id, category, product_id,
+                                    revenue, revenue_usd, units, order_count)
+    SELECT p_day, t.currency_id, t.category, t.product_id,
+           t.revenue, t.revenue_usd, t.units, t.order_count
+    FROM (
+        SELECT l.currency_id,
+               COALESCE(p.category, 'ALL') AS category, COALESCE(l.product_id, 0) AS product_id,
+               SUM(l.unit_price * l.quantity) AS revenue,
+               ROUND(SUM(l.unit_price * l.quantity / l.exchange_rate_to_usd), 4) AS revenue_usd,
+               SUM(l.quantity) AS units,
+               COUNT(DISTINCT l.order_id) AS order_count
+        FROM (
+            SELECT o.order_id, o.currency_id, o.exchange_rate_to_usd,
+                   oi.product_id, oi.quantity, oi.unit_price
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.order_id
+            WHERE o.status IN ('CONFIRMED', 'COMPLETED')
+              AND o.order_date >= p_day AND o.order_date < p_day + INTERVAL 1 DAY
+            UNION ALL
+            SELECT o.order_id, o.currency_id, o.exchange_rate_to_usd,
+                   oi.product_id, oi.quantity, oi.unit_price
+            FROM orders_archive o
+            JOIN order_items_archive oi ON oi.order_id = o.order_id
+            WHERE o.status = 'COMPLETED'
+              AND o.order_date >= p_day AND o.order_date < p_day + INTERVAL 1 DAY
+        ) l
+        JOIN products p ON l.product_id = p.product_id
+        GROUP BY l.currency_id, p.category, l.product_id WITH ROLLUP
+    ) t
+    WHERE t.currency_id IS NOT NULL;
+
+    SELECT COALESCE(SUM(order_count), 0) INTO p_order_count
+    FROM sales_rollup_daily
+    WHERE bucket_date = p_day AND category = 'ALL';
+
+    COMMIT;
+
+    SET p_success = TRUE;
+    SET p_message = CONCAT('Rebuilt ', p_day, ' from ', p_order_count, ' orders');
+END //
+
 DELIMITER ;
\ No newline at end of file
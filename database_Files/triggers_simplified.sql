@@ -13,10 +13,10 @@ FOR EACH ROW
 BEGIN
     IF OLD.status != NEW.status THEN
         INSERT INTO transaction_log (
-            order_id, payment_status, amount, currency_id, transaction_reference, processed_at
+            order_id, event_kind, payment_status, amount, currency_id, transaction_reference, processed_at
         )
         VALUES (
-            NEW.order_id, NEW.status, NEW.total_amount, OLD.currency_id,
+            NEW.order_id, 'STATUS_CHANGE', NEW.status, NEW.total_amount, OLD.currency_id,
             CONCAT('STATUS_CHANGE_', OLD.status, '_TO_', NEW.status),
             CURRENT_TIMESTAMP
         );
@@ -31,10 +31,10 @@ FOR EACH ROW
 BEGIN
     IF OLD.role != NEW.role THEN
         INSERT INTO transaction_log (
-            order_id, payment_status, amount, currency_id, transaction_reference, processed_at
+            order_id, event_kind, payment_status, amount, currency_id, transaction_reference, processed_at
         )
         VALUES (
-            NULL, 'COMPLETED', 0.00, NULL,
+            NULL, 'ROLE_CHANGE', 'COMPLETED', 0.00, NULL,
             CONCAT('ROLE_CHANGE_USER_', NEW.user_id, '_FROM_', OLD.role, '_TO_', NEW.role),
             CURRENT_TIMESTAMP
         );
@@ -49,10 +49,10 @@ FOR EACH ROW
 BEGIN
     IF OLD.exchange_rate_to_usd != NEW.exchange_rate_to_usd THEN
         INSERT INTO transaction_log (
-            order_id, payment_status, amount, currency_id, transaction_reference, processed_at
+            order_id, event_kind, payment_status, amount, currency_id, transaction_reference, processed_at
         )
         VALUES (
-            NULL, 'COMPLETED', NEW.exchange_rate_to_usd, NEW.currency_id,
+            NULL, 'RATE_CHANGE', 'COMPLETED', NEW.exchange_rate_to_usd, NEW.currency_id,
             CONCAT('RATE_CHANGE_', NEW.currency_code, '_FROM_', OLD.exchange_rate_to_usd, '_TO_', NEW.exchange_rate_to_usd),
             CURRENT_TIMESTAMP
         );
@@ -81,47 +81,38 @@ BEGIN
     END IF;
 END //
 
--- Validate stock before placing order
-CREATE TRIGGER tr_validate_order_stock
-BEFORE INSERT ON order_items
-FOR EACH ROW
-BEGIN
-    DECLARE v_stock INT;
+-- Orders take their stock when sp_place_order reserves it, checking and taking it
+-- under a row lock, so there is no stock trigger on order_items or on confirmation.
 
-    SELECT stock_quantity INTO v_stock
-    FROM products
-    WHERE product_id = NEW.product_id AND is_active = TRUE;
-
-    IF v_stock IS NULL THEN
-        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Product not found or inactive';
-    ELSEIF v_stock < NEW.quantity THEN
-        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Insufficient stock for order';
-    END IF;
-END //
-
--- Update stock after order confirmation
-CREATE TRIGGER tr_update_stock_on_order
+-- Give back the stock an order reserved when it is cancelled, whether or not it had
+-- been confirmed yet
+DROP TRIGGER IF EXISTS tr_restore_stock_on_cancel;
+CREATE TRIGGER tr_restore_stock_on_cancel
 AFTER UPDATE ON orders
 FOR EACH ROW
 BEGIN
-    IF OLD.status = 'PENDING' AND NEW.status = 'CONFIRMED' THEN
+    IF OLD.status IN ('PENDING', 'CONFIRMED') AND NEW.status = 'CANCELLED' THEN
         UPDATE products p
         JOIN order_items oi ON p.product_id = oi.product_id
-        SET p.stock_quantity = p.stock_quantity - oi.quantity
+        SET p.stock_quantity = p.stock_quantity + oi.quantity
         WHERE oi.order_id = NEW.order_id;
     END IF;
 END //
 
--- Restore stock on order cancellation
-CREATE TRIGGER tr_restore_stock_on_cancel
+-- Keep the sales rollups in step with order status: an order counts as a sale
+-- while it is CONFIRMED or COMPLETED, so it is added when it becomes one and
+-- subtracted again if it stops being one (cancelled after confirmation)
+CREATE TRIGGER tr_sales_rollup_on_status
 AFTER UPDATE ON orders
 FOR EACH ROW
 BEGIN
-    IF OLD.status IN ('CONFIRMED', 'PENDING') AND NEW.status = 'CANCELLED' THEN
-        UPDATE products p
-        JOIN order_items oi ON p.product_id = oi.product_id
-        SET p.stock_quantity = p.stock_quantity + oi.quantity
-        WHERE oi.order_id = NEW.order_id;
+    DECLARE v_was_sale BOOLEAN DEFAULT OLD.status IN ('CONFIRMED', 'COMPLETED');
+    DECLARE v_is_sale BOOLEAN DEFAULT NEW.status IN ('CONFIRMED', 'COMPLETED');
+
+    IF v_is_sale AND NOT v_was_sale THEN
+        CALL sp_rollup_order_sales(NEW.order_id, 1);
+    ELSEIF v_was_sale AND NOT v_is_sale THEN
+        CALL sp_rollup_order_sales(NEW.order_id, -1);
     END IF;
 END //
 
@@ -45,6 +45,11 @@ GRANT SELECT, INSERT, UPDATE, DELETE ON neos_burritos.orders TO 'neos_staff'@'%'
 GRANT SELECT, INSERT, UPDATE, DELETE ON neos_burritos.order_items TO 'neos_staff'@'%';
 GRANT SELECT, INSERT, UPDATE, DELETE ON neos_burritos.transaction_log TO 'neos_staff'@'%';
 
+-- Archived orders - read only (only the archive job moves rows in)
+GRANT SELECT ON neos_burritos.orders_archive TO 'neos_staff'@'%';
+GRANT SELECT ON neos_burritos.order_items_archive TO 'neos_staff'@'%';
+GRANT SELECT ON neos_burritos.transaction_log_archive TO 'neos_staff'@'%';
+
 -- Product management - full access
 GRANT SELECT, INSERT, UPDATE, DELETE ON neos_burritos.products TO 'neos_staff'@'%';
 GRANT SELECT, INSERT, UPDATE, DELETE ON neos_burritos.ingredients TO 'neos_staff'@'%';
@@ -59,6 +64,17 @@ GRANT SELECT ON neos_burritos.currencies TO 'neos_staff'@'%';
 -- Cart management - full access for customer service
 GRANT SELECT, INSERT, UPDATE, DELETE ON neos_burritos.cart_items TO 'neos_staff'@'%';
 
+-- Checkout sagas - read only, so staff can see why an order was cancelled
+GRANT SELECT ON neos_burritos.checkout_sagas TO 'neos_staff'@'%';
+
+-- Settlement results - read only, written by the end-of-day job
+GRANT SELECT ON neos_burritos.daily_settlements TO 'neos_staff'@'%';
+GRANT SELECT ON neos_burritos.settlement_totals TO 'neos_staff'@'%';
+
+-- Sales rollups - read only, maintained by tr_sales_rollup_on_status
+GRANT SELECT ON neos_burritos.sales_rollup_hourly TO 'neos_staff'@'%';
+GRANT SELECT ON neos_burritos.sales_rollup_daily TO 'neos_staff'@'%';
+
 -- =====================================================
 -- CUSTOMER PRIVILEGES
 -- PURPOSE: Self-service access for customer operations
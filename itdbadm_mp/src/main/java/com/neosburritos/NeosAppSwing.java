@@ -11,12 +11,25 @@
     import javax.swing.SwingUtilities;
     import javax.swing.UIManager;
 
+    import com.neosburritos.dao.AuditLogDAO;
     import com.neosburritos.dao.CartDAO;
+    import com.neosburritos.dao.CheckoutSagaDAO;
     import com.neosburritos.dao.OrderDAO;
+    import com.neosburritos.dao.PriceListDAO;
     import com.neosburritos.dao.ProductDAO;
+    import com.neosburritos.dao.SalesReportDAO;
     import com.neosburritos.dao.UserDAO;
     import com.neosburritos.model.User;
+    import com.neosburritos.service.BestSellerLeaderboard;
+    import com.neosburritos.service.CartPurgeJob;
+    import com.neosburritos.service.CheckoutService;
+    import com.neosburritos.service.CoOccurrenceIndex;
+    import com.neosburritos.service.OrderArchiveJob;
+    import com.neosburritos.service.PaymentLedgerWriter;
     import com.neosburritos.service.PaymentService;
+    import com.neosburritos.service.PriceListScheduler;
+    import com.neosburritos.service.ResilientPaymentGateway;
+    import com.neosburritos.service.SimulatedPaymentGateway;
     import com.neosburritos.ui.swing.SwingAdminPanel;
     import com.neosburritos.ui.swing.SwingCartPanel;
     import com.neosburritos.ui.swing.SwingCheckoutPanel;
@@ -28,6 +41,7 @@
     import com.neosburritos.ui.swing.SwingStorePanel;
     import com.neosburritos.ui.swing.SwingUIConstants;
     import com.neosburritos.util.DatabaseConnection;
+    import com.neosburritos.util.Logger;
 
 
     /**
@@ -45,12 +59,24 @@
         SwingProductPanel.ProductListener, 
         SwingStaffPanel.StaffListener{
         
+        private static final Logger LOG = Logger.getLogger(NeosAppSwing.class);
+        
         // DAOs and Services
         private final UserDAO userDAO;
         private final ProductDAO productDAO;
         private final CartDAO cartDAO;
         private final OrderDAO orderDAO;
+        private final PriceListDAO priceListDAO;
+        private final AuditLogDAO auditLogDAO;
+        private final PaymentLedgerWriter paymentLedger;
+        private final ResilientPaymentGateway paymentGateway;
         private final PaymentService paymentService;
+        private final CheckoutService checkoutService;
+        private final PriceListScheduler priceListScheduler;
+        private final CartPurgeJob cartPurgeJob;
+        private final OrderArchiveJob orderArchiveJob;
+        private final BestSellerLeaderboard bestSellers;
+        private final CoOccurrenceIndex boughtTogether;
         
         // Current state
         private User currentUser;
@@ -77,7 +103,17 @@
             this.productDAO = new ProductDAO();
             this.cartDAO = new CartDAO();
             this.orderDAO = new OrderDAO();
-            this.paymentService = new PaymentService();
+            this.priceListDAO = new PriceListDAO(productDAO);
+            this.auditLogDAO = new AuditLogDAO();
+            this.paymentLedger = new PaymentLedgerWriter(auditLogDAO);
+            this.paymentGateway = new ResilientPaymentGateway(new SimulatedPaymentGateway());
+            this.paymentService = new PaymentService(paymentGateway, paymentLedger);
+            this.checkoutService = new CheckoutService(orderDAO, new CheckoutSagaDAO(orderDAO), paymentService);
+            this.priceListScheduler = new PriceListScheduler(priceListDAO);
+            this.cartPurgeJob = new CartPurgeJob(cartDAO);
+            this.orderArchiveJob = new OrderArchiveJob(orderDAO);
+            this.bestSellers = new BestSellerLeaderboard(orderDAO);
+            this.boughtTogether = new CoOccurrenceIndex(orderDAO);
             
             // Setup modern look and feel
             setupLookAndFeel();
@@ -88,8 +124,15 @@
             
             // Test database connection
             testDatabaseConnection();
+            paymentLedger.start();
+            checkoutService.start();
+            priceListScheduler.start();
+            cartPurgeJob.start();
+            orderArchiveJob.start();
+            bestSellers.start();
+            boughtTogether.start();
             
-            System.out.println("Neo's Burritos Modern Swing application started");
+            LOG.info("Neo's Burritos Modern Swing application started");
         }
         
         private void setupLookAndFeel() {
@@ -106,7 +149,7 @@
                 UIManager.put("ComboBox.font", SwingUIConstants.BODY_FONT);
                 
             } catch (Exception e) {
-                System.err.println("Could not set look and feel: " + e.getMessage());
+                LOG.warn("Could not set look and feel: {}", e.getMessage());
             }
         }
         
@@ -147,12 +190,13 @@
             // Create all UI panels with Swing components
             loginPanel = new SwingLoginPanel(this, userDAO, this);
             registerPanel = new SwingRegisterPanel(this, userDAO, this);
-            storePanel = new SwingStorePanel(this, productDAO, cartDAO, this);
+            storePanel = new SwingStorePanel(this, productDAO, cartDAO, bestSellers, boughtTogether, this);
             productPanel = new SwingProductPanel(this, productDAO, this);
             cartPanel = new SwingCartPanel(this, cartDAO, this);
-            checkoutPanel = new SwingCheckoutPanel(this, orderDAO, cartDAO, paymentService, this);
-            orderHistoryPanel = new SwingOrderHistoryPanel(this, orderDAO, this);
-            adminPanel = new SwingAdminPanel(this, orderDAO, productDAO, userDAO, this);
+            checkoutPanel = new SwingCheckoutPanel(this, cartDAO, checkoutService, this);
+            orderHistoryPanel = new SwingOrderHistoryPanel(this, orderDAO, cartDAO, this);
+            adminPanel = new SwingAdminPanel(this, orderDAO, productDAO, userDAO, priceListDAO, auditLogDAO,
+                                          new SalesReportDAO(), paymentGateway, this);
             staffPanel = new SwingStaffPanel(this, orderDAO, productDAO, this);
         }
         
@@ -169,13 +213,13 @@
             try {
                 boolean connected = DatabaseConnection.getInstance().testConnection();
                 if (connected) {
-                    System.out.println("Database connection test successful");
+                    LOG.info("Database connection test successful");
                 } else {
-                    System.err.println("Database connection test failed");
+                    LOG.error("Database connection test failed");
                     showError("Database connection failed. Please check your MySQL server.");
                 }
             } catch (Exception e) {
-                System.err.println("Database connection error: " + e.getMessage());
+                LOG.error("Database connection error: {}", e.getMessage());
                 showError("Database error: " + e.getMessage());
             }
         }
@@ -184,7 +228,7 @@
         @Override
         public void onLoginSuccess(User user) {
             this.currentUser = user;
-            System.out.println("User logged in: " + user.getName() + " (" + user.getRole() + ")");
+            LOG.info("User logged in: {} ({})", user.getName(), user.getRole());
             
             // Initialize panels with user data
             storePanel.setCurrentUser(user);
@@ -208,7 +252,7 @@
         
         @Override
         public void onLoginFailure(String message) {
-            System.out.println("Login failed: " + message);
+            LOG.warn("Login failed: {}", message);
             // LoginPanel handles error display, no additional action needed
         }
         @Override
@@ -248,13 +292,13 @@
         
         @Override
         public void onCartUpdated(int itemCount) {
-            System.out.println("Cart updated: " + itemCount + " items");
+            LOG.debug("Cart updated: {} items", itemCount);
         }
         
         @Override
         public void onCurrencyChanged(String newCurrency) {
             this.currentCurrency = newCurrency;
-            System.out.println("Currency changed to: " + newCurrency);
+            LOG.debug("Currency changed to: {}", newCurrency);
             
             // Update all panels with new currency
             if (currentUser != null) {
@@ -309,6 +353,13 @@
             cardLayout.show(mainPanel, "STORE");
         }
         
+        @Override
+        public void onReordered() {
+            storePanel.refreshData();
+            cartPanel.refreshCart();
+            cardLayout.show(mainPanel, "CART");
+        }
+        
         // AdminPanel.AdminListener implementation
         @Override
         public void onManageProducts() {
@@ -325,7 +376,7 @@
             currentUser = null;
             loginPanel.clearForm();
             cardLayout.show(mainPanel, "LOGIN");
-            System.out.println("User logged out");
+            LOG.info("User logged out");
         }
         
         private void handleExit() {
@@ -338,7 +389,16 @@
             );
             
             if (option == JOptionPane.YES_OPTION) {
-                System.out.println("Application shutting down");
+                LOG.info("Application shutting down");
+                priceListScheduler.stop();
+                cartPurgeJob.stop();
+                orderArchiveJob.stop();
+                bestSellers.stop();
+                // Saves the co-occurrence snapshot so the next start does not re-read the order history
+                boughtTogether.stop();
+                checkoutService.stop();
+                // Drain queued payment records before the connection goes away
+                paymentLedger.stop();
                 DatabaseConnection.getInstance().closeConnection();
                 System.exit(0);
             }
@@ -363,8 +423,8 @@
                     NeosAppSwing app = new NeosAppSwing();
                     app.setVisible(true);
                 } catch (Exception e) {
-                    e.printStackTrace();
-                    System.err.println("Failed to start application: " + e.getMessage());
+                    LOG.error("Failed to start application: {}", e.getMessage(), e);
+                    Logger.flush(2000);
                     System.exit(1);
                 }
             });
@@ -0,0 +1,267 @@
+package com.neosburritos.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neosburritos.dao.mapper.AuditEventMapper;
+import com.neosburritos.model.AuditEvent;
+import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
+
+/**
+ * Data Access Object for transaction_log: browsing it newest first, and appending
+ * payment ledger entries in batches. Pages are keyset-paginated on
+ * (processed_at, transaction_id), so each page is one range scan on
+ * idx_transaction_order_processed, idx_transaction_kind_processed or
+ * idx_transaction_processed depending on the filters, however deep the reader goes.
+ */
+public class AuditLogDAO {
+
+    private static final Logger LOG = Logger.getLogger(AuditLogDAO.class);
+
+    private static final String EVENT_COLUMNS =
+        "t.transaction_id, t.order_id, t.event_kind, t.payment_status, t.amount, t.currency_id, " +
+        "t.transaction_reference, t.processed_at";
+
+    private static final String NEWEST_FIRST = "ORDER BY t.processed_at DESC, t.transaction_id DESC\n";
+
+    /** How an append went */
+    public enum AppendStatus {
+        /** Stored, or already stored by an earlier write of the same entries */
+        APPENDED,
+        /** The database refused the rows themselves (a constraint or bad data); retrying cannot help */
+        REJECTED,
+        /** Could not be written this time, e.g. the database is unreachable; worth retrying */
+        FAILED
+    }
+
+    /**
+     * Get one page of log entries matching the query, newest first.
+     * Pass the returned next cursor to continue, or null to start from the newest entry.
+     */
+    public AuditPage getEvents(AuditQuery query, AuditCursor after, int limit) {
+        String where = query.whereClause(after);
+        String source = branch("transaction_log", where);
+        if (query.isIncludeArchive()) {
+            source += "\nUNION ALL\n" + branch("transaction_log_archive", where);
+        }
+        String sql = "SELECT t.transaction_id, t.order_id, t.event_kind, t.payment_status, t.amount, " +
+                     "c.currency_code, t.transaction_reference, t.processed_at\n" +
+                     "FROM (" + source + ") t\n" +
+                     "LEFT JOIN currencies c ON t.currency_id = c.currency_id\n" +
+                     NEWEST_FIRST +
+                     "LIMIT ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            // One extra row tells us whether another page exists without a COUNT(*)
+            int index = query.bindWhere(stmt, 1, after);
+            stmt.setInt(index++, limit + 1);
+            if (query.isIncludeArchive()) {
+                index = query.bindWhere(stmt, index, after);
+                stmt.setInt(index++, limit + 1);
+            }
+            stmt.setInt(index, limit + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<AuditEvent> events = AuditEventMapper.INSTANCE.mapAll(rs);
+                AuditCursor nextCursor = null;
+                if (events.size() > limit) {
+                    events = new ArrayList<>(events.subList(0, limit));
+                    AuditEvent last = events.get(limit - 1);
+                    nextCursor = new AuditCursor(last.getProcessedAt(), last.getTransactionId());
+                }
+                return new AuditPage(events, nextCursor);
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error retrieving audit log page: {}", e.getMessage());
+            return new AuditPage(new ArrayList<>(), null);
+        }
+    }
+
+    /**
+     * Append entries to transaction_log in one multi-row INSERT, so either all of them
+     * are stored or none are. processed_at is taken from each entry, not the insert time.
+     * A payment or refund whose reference is already stored is skipped (unique_ledger_reference),
+     * so writing the same entries again is harmless.
+     */
+    public AppendStatus appendEvents(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return AppendStatus.APPENDED;
+        }
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO transaction_log (order_id, event_kind, payment_status, amount, currency_id, " +
+            "transaction_reference, processed_at) VALUES ");
+        for (int i = 0; i < events.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+               .append("(?, ?, ?, ?, (SELECT currency_id FROM currencies WHERE currency_code = ?), ?, ?)");
+        }
+        // Not INSERT IGNORE: that would also drop rows failing a foreign key, which must be reported
+        sql.append(" ON DUPLICATE KEY UPDATE transaction_id = transaction_id");
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            for (AuditEvent event : events) {
+                if (event.getOrderId() != null) {
+                    stmt.setInt(index++, event.getOrderId());
+                } else {
+                    stmt.setNull(index++, Types.INTEGER);
+                }
+                stmt.setString(index++, event.getKind().name());
+                stmt.setString(index++, event.getPaymentStatus());
+                stmt.setBigDecimal(index++, event.getAmount());
+                stmt.setString(index++, event.getCurrencyCode());
+                stmt.setString(index++, event.getReference());
+                stmt.setTimestamp(index++, Timestamp.valueOf(event.getProcessedAt()));
+            }
+            stmt.executeUpdate();
+            return AppendStatus.APPENDED;
+
+        } catch (SQLException e) {
+            LOG.error("Error appending {} audit log entries: {}", events.size(), e.getMessage());
+            // SQLSTATE class 22 is a data exception, 23 an integrity constraint violation
+            String state = e.getSQLState();
+            return state != null && (state.startsWith("22") || state.startsWith("23"))
+                    ? AppendStatus.REJECTED : AppendStatus.FAILED;
+        }
+    }
+
+    private static String branch(String table, String where) {
+        return "(SELECT " + EVENT_COLUMNS + " FROM " + table + " t\n" + where + NEWEST_FIRST + "LIMIT ?)";
+    }
+
+    /**
+     * Filters for the audit log. Instances are immutable; the with methods return
+     * modified copies.
+     */
+    public static final class AuditQuery {
+        private final AuditEvent.Kind kind;
+        private final Integer orderId;
+        private final LocalDateTime from;
+        private final LocalDateTime before;
+        private final boolean includeArchive;
+
+        private AuditQuery(AuditEvent.Kind kind, Integer orderId, LocalDateTime from,
+                           LocalDateTime before, boolean includeArchive) {
+            this.kind = kind;
+            this.orderId = orderId;
+            this.from = from;
+            this.before = before;
+            this.includeArchive = includeArchive;
+        }
+
+        /** Every current log entry */
+        public static AuditQuery all() {
+            return new AuditQuery(null, null, null, null, false);
+        }
+
+        /** Restrict to a kind of event, or null for any kind */
+        public AuditQuery withKind(AuditEvent.Kind newKind) {
+            return new AuditQuery(newKind, orderId, from, before, includeArchive);
+        }
+
+        /** Restrict to one order's events, or null for all */
+        public AuditQuery withOrderId(Integer newOrderId) {
+            return new AuditQuery(kind, newOrderId, from, before, includeArchive);
+        }
+
+        /** Restrict to entries processed in [from, before); either bound may be null */
+        public AuditQuery withTimeRange(LocalDateTime newFrom, LocalDateTime newBefore) {
+            return new AuditQuery(kind, orderId, newFrom, newBefore, includeArchive);
+        }
+
+        /** Also read entries the order archive job moved to transaction_log_archive */
+        public AuditQuery withArchive(boolean newIncludeArchive) {
+            return new AuditQuery(kind, orderId, from, before, newIncludeArchive);
+        }
+
+        public AuditEvent.Kind getKind() { return kind; }
+        public Integer getOrderId() { return orderId; }
+        public LocalDateTime getFrom() { return from; }
+        public LocalDateTime getBefore() { return before; }
+        public boolean isIncludeArchive() { return includeArchive; }
+
+        String whereClause(AuditCursor after) {
+            List<String> conditions = new ArrayList<>();
+            if (kind != null) {
+                conditions.add("t.event_kind = ?");
+            }
+            if (orderId != null) {
+                conditions.add("t.order_id = ?");
+            }
+            if (from != null) {
+                conditions.add("t.processed_at >= ?");
+            }
+            if (before != null) {
+                conditions.add("t.processed_at < ?");
+            }
+            if (after != null) {
+                conditions.add("(t.processed_at < ? OR (t.processed_at = ? AND t.transaction_id < ?))");
+            }
+            return conditions.isEmpty() ? "" : "WHERE " + String.join("\nAND ", conditions) + "\n";
+        }
+
+        int bindWhere(PreparedStatement stmt, int index, AuditCursor after) throws SQLException {
+            if (kind != null) {
+                stmt.setString(index++, kind.name());
+            }
+            if (orderId != null) {
+                stmt.setInt(index++, orderId);
+            }
+            if (from != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(from));
+            }
+            if (before != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(before));
+            }
+            if (after != null) {
+                Timestamp processedAt = Timestamp.valueOf(after.getProcessedAt());
+                stmt.setTimestamp(index++, processedAt);
+                stmt.setTimestamp(index++, processedAt);
+                stmt.setInt(index++, after.getTransactionId());
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Position after the last entry of a page
+     */
+    public static final class AuditCursor {
+        private final LocalDateTime processedAt;
+        private final int transactionId;
+
+        public AuditCursor(LocalDateTime processedAt, int transactionId) {
+            this.processedAt = processedAt;
+            this.transactionId = transactionId;
+        }
+
+        public LocalDateTime getProcessedAt() { return processedAt; }
+        public int getTransactionId() { return transactionId; }
+    }
+
+    public static class AuditPage {
+        private final List<AuditEvent> events;
+        private final AuditCursor nextCursor;
+
+        public AuditPage(List<AuditEvent> events, AuditCursor nextCursor) {
+            this.events = events;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<AuditEvent> getEvents() { return events; }
+        /** Cursor for the following page, or null when this is the last one */
+        public AuditCursor getNextCursor() { return nextCursor; }
+    }
+}
@@ -1,11 +1,17 @@
 package com.neosburritos.dao;
 
+import com.neosburritos.dao.mapper.CartItemMapper;
 import com.neosburritos.model.CartItem;
 import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.math.BigDecimal;
 
 /**
@@ -14,6 +20,8 @@ import java.math.BigDecimal;
  */
 public class CartDAO {
     
+    private static final Logger LOG = Logger.getLogger(CartDAO.class);
+    
     /**
      * Add item to cart or update quantity if exists
      */
@@ -34,12 +42,12 @@ public class CartDAO {
             
             boolean success = stmt.getBoolean(5);
             if (!success) {
-                System.err.println("Error adding to cart: " + stmt.getString(6));
+                LOG.error("Error adding to cart: {}", stmt.getString(6));
             }
             return success;
             
         } catch (SQLException e) {
-            System.err.println("Error adding to cart: " + e.getMessage());
+            LOG.error("Error adding to cart: {}", e.getMessage());
             return false;
         }
     }
@@ -58,25 +66,14 @@ public class CartDAO {
             stmt.setString(2, currencyCode);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    CartItem item = new CartItem();
-                    item.setCartId(rs.getInt("cart_id"));
+                CartItemMapper.INSTANCE.forEach(rs, item -> {
                     item.setUserId(userId);
-                    item.setProductId(rs.getInt("product_id"));
-                    item.setProductName(rs.getString("product_name"));
-                    item.setQuantity(rs.getInt("quantity"));
-                    item.setUnitPrice(rs.getBigDecimal("unit_price"));
-                    item.setTotalPrice(rs.getBigDecimal("total_price"));
-                    item.setCustomizations(rs.getString("customizations"));
-                    item.setCurrencySymbol(rs.getString("currency_symbol"));
-                    item.setAddedAt(rs.getTimestamp("added_at").toLocalDateTime());
-                    
                     cartItems.add(item);
-                }
+                });
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting cart items: " + e.getMessage());
+            LOG.error("Error getting cart items: {}", e.getMessage());
         }
         
         return cartItems;
@@ -97,7 +94,7 @@ public class CartDAO {
             return stmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating cart item: " + e.getMessage());
+            LOG.error("Error updating cart item: {}", e.getMessage());
             return false;
         }
     }
@@ -117,7 +114,7 @@ public class CartDAO {
             return stmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error updating cart item customizations: " + e.getMessage());
+            LOG.error("Error updating cart item customizations: {}", e.getMessage());
             return false;
         }
     }
@@ -136,7 +133,7 @@ public class CartDAO {
             return stmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
-            System.err.println("Error removing from cart: " + e.getMessage());
+            LOG.error("Error removing from cart: {}", e.getMessage());
             return false;
         }
     }
@@ -159,11 +156,114 @@ public class CartDAO {
             return stmt.getBoolean(2);
             
         } catch (SQLException e) {
-            System.err.println("Error clearing cart: " + e.getMessage());
+            LOG.error("Error clearing cart: {}", e.getMessage());
             return false;
         }
     }
     
+    /**
+     * Copy a past order into the cart using sp_reorder.
+     * All available lines are added by one statement; lines that are inactive or
+     * short on stock are returned as skipped items instead of failing the reorder.
+     */
+    public ReorderResult reorder(int orderId, int userId) {
+        String sql = "{CALL sp_reorder(?, ?, ?, ?, ?)}";
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = conn.prepareCall(sql)) {
+            
+            stmt.setInt(1, orderId);
+            stmt.setInt(2, userId);
+            stmt.registerOutParameter(3, Types.INTEGER); // added_count
+            stmt.registerOutParameter(4, Types.BOOLEAN); // success
+            stmt.registerOutParameter(5, Types.VARCHAR); // message
+            
+            List<SkippedItem> skipped = new ArrayList<>();
+            boolean hasResults = stmt.execute();
+            // Result sets must be consumed before the OUT parameters can be read
+            while (true) {
+                if (hasResults) {
+                    try (ResultSet rs = stmt.getResultSet()) {
+                        while (rs.next()) {
+                            skipped.add(new SkippedItem(
+                                rs.getInt("product_id"),
+                                rs.getString("product_name"),
+                                rs.getInt("requested_quantity"),
+                                rs.getInt("available_quantity"),
+                                SkippedItem.Reason.valueOf(rs.getString("reason"))));
+                        }
+                    }
+                } else if (stmt.getUpdateCount() == -1) {
+                    break;
+                }
+                hasResults = stmt.getMoreResults();
+            }
+            
+            boolean success = stmt.getBoolean(4);
+            String message = stmt.getString(5);
+            int added = stmt.getInt(3);
+            
+            if (success) {
+                LOG.info("Reordered order {} for user {}: {} added, {} skipped", orderId, userId, added, skipped.size());
+            } else {
+                LOG.warn("Reorder of order {} failed: {}", orderId, message);
+            }
+            return new ReorderResult(success, message, added, skipped);
+            
+        } catch (SQLException e) {
+            LOG.error("Error reordering order {}: {}", orderId, e.getMessage());
+            return new ReorderResult(false, "Database error while reordering", 0, new ArrayList<>());
+        }
+    }
+    
+    public static class ReorderResult {
+        private final boolean success;
+        private final String message;
+        private final int addedCount;
+        private final List<SkippedItem> skippedItems;
+        
+        public ReorderResult(boolean success, String message, int addedCount, List<SkippedItem> skippedItems) {
+            this.success = success;
+            this.message = message;
+            this.addedCount = addedCount;
+            this.skippedItems = skippedItems;
+        }
+        
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public int getAddedCount() { return addedCount; }
+        public List<SkippedItem> getSkippedItems() { return skippedItems; }
+    }
+    
+    /**
+     * An order line that could not be put back in the cart
+     */
+    public static class SkippedItem {
+        public enum Reason { UNAVAILABLE, OUT_OF_STOCK }
+        
+        private final int productId;
+        private final String productName;
+        private final int requestedQuantity;
+        private final int availableQuantity;
+        private final Reason reason;
+        
+        public SkippedItem(int productId, String productName, int requestedQuantity,
+                           int availableQuantity, Reason reason) {
+            this.productId = productId;
+            this.productName = productName;
+            this.requestedQuantity = requestedQuantity;
+            this.availableQuantity = availableQuantity;
+            this.reason = reason;
+        }
+        
+        public int getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public int getRequestedQuantity() { return requestedQuantity; }
+        /** Stock left after what is already in the cart */
+        public int getAvailableQuantity() { return availableQuantity; }
+        public Reason getReason() { return reason; }
+    }
+    
     /**
      * Get cart total for a user in specified currency
      */
@@ -197,7 +297,7 @@ public class CartDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting cart total: " + e.getMessage());
+            LOG.error("Error getting cart total: {}", e.getMessage());
         }
         
         return BigDecimal.ZERO;
@@ -221,9 +321,144 @@ public class CartDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting cart item count: " + e.getMessage());
+            LOG.error("Error getting cart item count: {}", e.getMessage());
         }
         
         return 0;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Find users whose whole cart has been idle since before the cutoff,
+     * i.e. none of their cart rows was added at or after it
+     */
+    public List<Integer> findIdleCartUsers(LocalDateTime cutoff, int limit) {
+        String sql = """
+            SELECT DISTINCT c.user_id
+            FROM cart_items c
+            WHERE c.added_at < ?
+            AND NOT EXISTS (
+                SELECT 1 FROM cart_items n
+                WHERE n.user_id = c.user_id AND n.added_at >= ?
+            )
+            LIMIT ?
+            """;
+        List<Integer> userIds = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+            stmt.setTimestamp(1, cutoffTs);
+            stmt.setTimestamp(2, cutoffTs);
+            stmt.setInt(3, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    userIds.add(rs.getInt(1));
+                }
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error finding idle carts: {}", e.getMessage());
+        }
+        
+        return userIds;
+    }
+    
+    /**
+     * Delete the carts of the given users in one short transaction, optionally copying
+     * the rows to cart_items_archive first. The rows are locked and re-checked, so a
+     * user who added something since {@link #findIdleCartUsers} keeps their cart.
+     */
+    public PurgeResult purgeIdleCarts(List<Integer> userIds, LocalDateTime cutoff, boolean archive) {
+        if (userIds.isEmpty()) {
+            return new PurgeResult(true, 0, 0);
+        }
+        String inList = String.join(",", Collections.nCopies(userIds.size(), "?"));
+        String lockSql = "SELECT cart_id, user_id, added_at FROM cart_items WHERE user_id IN (" + inList + ") FOR UPDATE";
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Latest added_at per user, read under lock
+                Map<Integer, Timestamp> latest = new HashMap<>();
+                Map<Integer, List<Integer>> cartIdsByUser = new HashMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement(lockSql)) {
+                    bindIds(stmt, userIds);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            int userId = rs.getInt(2);
+                            Timestamp addedAt = rs.getTimestamp(3);
+                            cartIdsByUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(rs.getInt(1));
+                            latest.merge(userId, addedAt != null ? addedAt : new Timestamp(0),
+                                    (a, b) -> a.after(b) ? a : b);
+                        }
+                    }
+                }
+                
+                Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+                List<Integer> cartIds = new ArrayList<>();
+                int carts = 0;
+                for (Map.Entry<Integer, List<Integer>> cart : cartIdsByUser.entrySet()) {
+                    if (latest.get(cart.getKey()).before(cutoffTs)) {
+                        cartIds.addAll(cart.getValue());
+                        carts++;
+                    }
+                }
+                if (cartIds.isEmpty()) {
+                    conn.commit();
+                    return new PurgeResult(true, 0, 0);
+                }
+                
+                String idList = String.join(",", Collections.nCopies(cartIds.size(), "?"));
+                if (archive) {
+                    String archiveSql = "INSERT INTO cart_items_archive " +
+                        "(cart_id, user_id, product_id, quantity, customizations, customizations_hash, added_at) " +
+                        "SELECT cart_id, user_id, product_id, quantity, customizations, customizations_hash, added_at " +
+                        "FROM cart_items WHERE cart_id IN (" + idList + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(archiveSql)) {
+                        bindIds(stmt, cartIds);
+                        stmt.executeUpdate();
+                    }
+                }
+                int deleted;
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM cart_items WHERE cart_id IN (" + idList + ")")) {
+                    bindIds(stmt, cartIds);
+                    deleted = stmt.executeUpdate();
+                }
+                
+                conn.commit();
+                return new PurgeResult(true, carts, deleted);
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOG.error("Error purging idle carts: {}", e.getMessage());
+            return new PurgeResult(false, 0, 0);
+        }
+    }
+    
+    private static void bindIds(PreparedStatement stmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
+    
+    public static class PurgeResult {
+        private final boolean success;
+        private final int cartsRemoved;
+        private final int rowsRemoved;
+        
+        public PurgeResult(boolean success, int cartsRemoved, int rowsRemoved) {
+            this.success = success;
+            this.cartsRemoved = cartsRemoved;
+            this.rowsRemoved = rowsRemoved;
+        }
+        
+        public boolean isSuccess() { return success; }
+        public int getCartsRemoved() { return cartsRemoved; }
+        public int getRowsRemoved() { return rowsRemoved; }
+    }
+}
@@ -0,0 +1,326 @@
+package com.neosburritos.dao;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neosburritos.dao.mapper.CheckoutSagaMapper;
+import com.neosburritos.model.CheckoutSaga;
+import com.neosburritos.model.Order;
+import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
+
+/**
+ * Data Access Object for checkout_sagas.
+ * State changes are conditional on the state the caller expects, so the checkout thread
+ * and the recovery sweep can never both move the same saga on.
+ */
+public class CheckoutSagaDAO {
+
+    private static final Logger LOG = Logger.getLogger(CheckoutSagaDAO.class);
+
+    private static final String SAGA_COLUMNS =
+        "saga_id, user_id, order_id, amount, currency_code, payment_request_id, payment_state, " +
+        "payment_reference, state, failure_reason, compensation_attempts, next_attempt_at, created_at, updated_at";
+
+    /** sp_cancel_checkout's message for an order that can no longer be cancelled */
+    private static final String ORDER_COMPLETED_MESSAGE = "Order already completed";
+
+    private final OrderDAO orderDAO;
+
+    /**
+     * Result of undoing one order with sp_cancel_checkout
+     */
+    public static class CancelResult {
+        private final boolean success;
+        private final String message;
+        private final int restoredCount;
+        private final boolean orderCompleted;
+
+        public CancelResult(boolean success, String message, int restoredCount, boolean orderCompleted) {
+            this.success = success;
+            this.message = message;
+            this.restoredCount = restoredCount;
+            this.orderCompleted = orderCompleted;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        /** Order lines put back in the cart */
+        public int getRestoredCount() { return restoredCount; }
+        /** The order was completed before it could be cancelled, so retrying cannot help */
+        public boolean isOrderCompleted() { return orderCompleted; }
+    }
+
+    public CheckoutSagaDAO(OrderDAO orderDAO) {
+        this.orderDAO = orderDAO;
+    }
+
+    /**
+     * Record a new checkout before anything else happens
+     *
+     * @return the saga id, or 0 if it could not be stored
+     */
+    public int startSaga(int userId, String currencyCode, String paymentRequestId) {
+        String sql = "INSERT INTO checkout_sagas (user_id, currency_code, payment_request_id) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setInt(1, userId);
+            stmt.setString(2, currencyCode);
+            stmt.setString(3, paymentRequestId);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                return keys.next() ? keys.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error starting checkout saga for user {}: {}", userId, e.getMessage());
+            return 0;
+        }
+    }
+
+    public CheckoutSaga getSaga(int sagaId) {
+        String sql = "SELECT " + SAGA_COLUMNS + " FROM checkout_sagas WHERE saga_id = ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, sagaId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return CheckoutSagaMapper.INSTANCE.mapFirst(rs);
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error retrieving checkout saga {}: {}", sagaId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * STARTED to ORDER_CREATED, remembering the order and the amount to charge
+     */
+    public boolean recordOrderCreated(int sagaId, int orderId, BigDecimal amount) {
+        String sql = "UPDATE checkout_sagas SET state = 'ORDER_CREATED', order_id = ?, amount = ? " +
+                     "WHERE saga_id = ? AND state = 'STARTED'";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, orderId);
+            stmt.setBigDecimal(2, amount);
+            stmt.setInt(3, sagaId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error recording order {} for checkout saga {}: {}", orderId, sagaId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Record what is known about the payment without changing the saga state.
+     * A null reference keeps the one already stored.
+     */
+    public boolean recordPayment(int sagaId, CheckoutSaga.PaymentState paymentState, String reference) {
+        String sql = "UPDATE checkout_sagas SET payment_state = ?, " +
+                     "payment_reference = COALESCE(?, payment_reference) WHERE saga_id = ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, paymentState.name());
+            stmt.setString(2, reference);
+            stmt.setInt(3, sagaId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error recording payment for checkout saga {}: {}", sagaId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Move the saga from one state to another if it is still in the expected one.
+     * Moving to COMPENSATING makes it due for the recovery sweep at once.
+     *
+     * @param reason stored as the failure reason, or null to keep the current one
+     * @return false if the saga was not in the expected state or the update failed
+     */
+    public boolean transition(int sagaId, CheckoutSaga.State from, CheckoutSaga.State to, String reason) {
+        String sql = "UPDATE checkout_sagas SET state = ?, failure_reason = COALESCE(?, failure_reason), " +
+                     "next_attempt_at = CASE WHEN ? = 'COMPENSATING' THEN CURRENT_TIMESTAMP ELSE NULL END " +
+                     "WHERE saga_id = ? AND state = ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, to.name());
+            stmt.setString(2, truncate(reason));
+            stmt.setString(3, to.name());
+            stmt.setInt(4, sagaId);
+            stmt.setString(5, from.name());
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error moving checkout saga {} from {} to {}: {}", sagaId, from, to, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Count a failed compensation attempt and set when to try again
+     */
+    public boolean scheduleRetry(int sagaId, LocalDateTime nextAttemptAt, String error) {
+        String sql = "UPDATE checkout_sagas SET compensation_attempts = compensation_attempts + 1, " +
+                     "next_attempt_at = ?, failure_reason = ? WHERE saga_id = ? AND state = 'COMPENSATING'";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(nextAttemptAt));
+            stmt.setString(2, truncate(error));
+            stmt.setInt(3, sagaId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            LOG.error("Error scheduling retry for checkout saga {}: {}", sagaId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * COMPENSATING sagas whose next attempt is due, oldest first
+     */
+    public List<CheckoutSaga> findDueCompensations(int limit) {
+        String sql = "SELECT " + SAGA_COLUMNS + " FROM checkout_sagas " +
+                     "WHERE state = 'COMPENSATING' AND next_attempt_at <= CURRENT_TIMESTAMP " +
+                     "ORDER BY next_attempt_at LIMIT ?";
+        return findSagas(sql, null, limit);
+    }
+
+    /**
+     * Sagas still in progress that have not moved since the cutoff. A checkout takes
+     * seconds, so these belong to a checkout the app stopped in the middle of.
+     */
+    public List<CheckoutSaga> findStalled(LocalDateTime idleSince, int limit) {
+        String sql = "SELECT " + SAGA_COLUMNS + " FROM checkout_sagas " +
+                     "WHERE state IN ('STARTED', 'ORDER_CREATED', 'PAID') AND updated_at < ? " +
+                     "ORDER BY updated_at LIMIT ?";
+        return findSagas(sql, idleSince, limit);
+    }
+
+    /**
+     * The order a STARTED saga placed before the app stopped, if any: the customer's
+     * first PENDING order since the saga began that no other saga has claimed.
+     *
+     * @return the order id, or 0 if there is none
+     */
+    public int findUnclaimedOrder(int userId, LocalDateTime since) {
+        String sql = "SELECT o.order_id FROM orders o " +
+                     "WHERE o.user_id = ? AND o.created_at >= ? AND o.status = 'PENDING' " +
+                     "AND NOT EXISTS (SELECT 1 FROM checkout_sagas s WHERE s.order_id = o.order_id) " +
+                     "ORDER BY o.order_id LIMIT 1";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setTimestamp(2, Timestamp.valueOf(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error looking for an unclaimed order of user {}: {}", userId, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Cancel an order and put its lines back in the cart using sp_cancel_checkout.
+     * Safe to repeat: an order that is already cancelled is left alone.
+     */
+    public CancelResult cancelCheckout(int orderId) {
+        String sql = "{CALL sp_cancel_checkout(?, ?, ?, ?)}";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = conn.prepareCall(sql)) {
+
+            stmt.setInt(1, orderId);
+            stmt.registerOutParameter(2, Types.INTEGER); // restored_count
+            stmt.registerOutParameter(3, Types.BOOLEAN); // success
+            stmt.registerOutParameter(4, Types.VARCHAR); // message
+
+            stmt.execute();
+
+            boolean success = stmt.getBoolean(3);
+            String message = stmt.getString(4);
+            if (success) {
+                // The procedure bypasses updateOrderStatus, so tell its listeners here
+                orderDAO.fireOrderStatusChanged(orderId, Order.Status.CANCELLED);
+            }
+            return new CancelResult(success, message, stmt.getInt(2),
+                                    !success && ORDER_COMPLETED_MESSAGE.equals(message));
+
+        } catch (SQLException e) {
+            LOG.error("Error cancelling checkout of order {}: {}", orderId, e.getMessage());
+            return new CancelResult(false, "Database error while cancelling the order", 0, false);
+        }
+    }
+
+    /**
+     * Delete finished sagas (COMPLETED, COMPENSATED, ABORTED) last changed before the cutoff
+     *
+     * @return rows deleted, or -1 on error
+     */
+    public int purgeFinished(LocalDateTime before, int limit) {
+        String sql = "DELETE FROM checkout_sagas " +
+                     "WHERE state IN ('COMPLETED', 'COMPENSATED', 'ABORTED') AND updated_at < ? LIMIT ?";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(before));
+            stmt.setInt(2, limit);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            LOG.error("Error purging finished checkout sagas: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private List<CheckoutSaga> findSagas(String sql, LocalDateTime cutoff, int limit) {
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (cutoff != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(cutoff));
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return CheckoutSagaMapper.INSTANCE.mapAll(rs);
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error retrieving checkout sagas: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+}
@@ -1,17 +1,28 @@
 package com.neosburritos.dao;
 
+import java.math.BigDecimal;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+import com.neosburritos.dao.mapper.OrderItemMapper;
+import com.neosburritos.dao.mapper.OrderMapper;
 import com.neosburritos.model.Order;
 import com.neosburritos.model.OrderItem;
+import com.neosburritos.model.Product;
 import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
 
 /**
  * Data Access Object for Order operations
@@ -19,6 +30,78 @@ import com.neosburritos.util.DatabaseConnectionManager;
  */
 public class OrderDAO {
     
+    private static final Logger LOG = Logger.getLogger(OrderDAO.class);
+    
+    /**
+     * Notified after an order is placed or its status changes, on the thread that made the change
+     */
+    public interface OrderChangeListener {
+        void orderPlaced(int orderId);
+        void orderStatusChanged(int orderId, Order.Status status);
+    }
+    
+    private final List<OrderChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    
+    public void addChangeListener(OrderChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    public void removeChangeListener(OrderChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    private void fireOrderPlaced(int orderId) {
+        for (OrderChangeListener listener : changeListeners) {
+            listener.orderPlaced(orderId);
+        }
+    }
+    
+    void fireOrderStatusChanged(int orderId, Order.Status status) {
+        for (OrderChangeListener listener : changeListeners) {
+            listener.orderStatusChanged(orderId, status);
+        }
+    }
+    
+    /** Order summary columns shared by the order list queries */
+    private static final String ORDER_SUMMARY_SELECT = """
+        SELECT 
+            o.order_id,
+            o.user_id,
+            o.order_date,
+            o.total_amount,
+            c.currency_code,
+            c.symbol as currency_symbol,
+            o.status,
+            o.delivery_address,
+            o.notes,
+            o.item_count,
+            o.total_quantity,
+            o.created_at,
+            o.updated_at
+        FROM orders o
+        JOIN currencies c ON o.currency_id = c.currency_id
+        """;
+    
+    /** Units per order and product; lines with different customizations are added up */
+    private static final String PRODUCT_SALE_SELECT = """
+        SELECT o.order_id, o.order_date, o.status, oi.product_id, p.category, SUM(oi.quantity) AS quantity
+        FROM orders o
+        JOIN order_items oi ON oi.order_id = o.order_id
+        JOIN products p ON oi.product_id = p.product_id
+        """;
+    
+    private static final String PRODUCT_SALE_GROUP_BY =
+        "GROUP BY o.order_id, o.order_date, o.status, oi.product_id, p.category";
+    
+    /**
+     * Columns shared by orders and orders_archive that the paged list reads. A UNION ALL
+     * turns the status ENUM into a string that sorts alphabetically, so status_rank
+     * carries its position out of the union for sorting by status.
+     */
+    private static final String ORDER_PAGE_COLUMNS =
+        "o.order_id, o.user_id, o.order_date, o.total_amount, o.currency_id, o.status, " +
+        "o.status+0 AS status_rank, o.item_count, o.total_quantity, o.created_at, o.updated_at";
+    
     /**
      * Result class for order creation operations
      */
@@ -26,16 +109,288 @@ public class OrderDAO {
         private final boolean success;
         private final String message;
         private final int orderId;
+        private final BigDecimal totalAmount;
         
         public OrderResult(boolean success, String message, int orderId) {
+            this(success, message, orderId, null);
+        }
+        
+        public OrderResult(boolean success, String message, int orderId, BigDecimal totalAmount) {
             this.success = success;
             this.message = message;
             this.orderId = orderId;
+            this.totalAmount = totalAmount;
         }
         
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public int getOrderId() { return orderId; }
+        /** Order total as sp_place_order computed it, or null if no order was placed */
+        public BigDecimal getTotalAmount() { return totalAmount; }
+    }
+    
+    /**
+     * Units of one product in one order, as read for sales rankings
+     */
+    public static class ProductSale {
+        private final int orderId;
+        private final LocalDateTime orderDate;
+        private final Order.Status status;
+        private final int productId;
+        private final Product.Category category;
+        private final int quantity;
+        
+        public ProductSale(int orderId, LocalDateTime orderDate, Order.Status status, int productId,
+                           Product.Category category, int quantity) {
+            this.orderId = orderId;
+            this.orderDate = orderDate;
+            this.status = status;
+            this.productId = productId;
+            this.category = category;
+            this.quantity = quantity;
+        }
+        
+        public int getOrderId() { return orderId; }
+        public LocalDateTime getOrderDate() { return orderDate; }
+        public Order.Status getStatus() { return status; }
+        public int getProductId() { return productId; }
+        public Product.Category getCategory() { return category; }
+        public int getQuantity() { return quantity; }
+    }
+    
+    /**
+     * Result class for one archive batch
+     */
+    public static class ArchiveResult {
+        private final boolean success;
+        private final String message;
+        private final int ordersArchived;
+        private final int logEntriesArchived;
+        
+        public ArchiveResult(boolean success, String message, int ordersArchived, int logEntriesArchived) {
+            this.success = success;
+            this.message = message;
+            this.ordersArchived = ordersArchived;
+            this.logEntriesArchived = logEntriesArchived;
+        }
+        
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public int getOrdersArchived() { return ordersArchived; }
+        public int getLogEntriesArchived() { return logEntriesArchived; }
+    }
+    
+    /**
+     * Filter and sort order for paged order lists. Instances are immutable;
+     * the with/sortedBy methods return modified copies.
+     * 
+     * Queries read only the hot orders table unless they have a date range or
+     * ask for the archive, in which case orders_archive is read as well.
+     */
+    public static final class OrderQuery {
+        
+        /**
+         * Sortable columns, mapped to indexed expressions, and the column to sort on
+         * over the union of orders and orders_archive
+         */
+        public enum SortKey {
+            ORDER_DATE("o.order_date"),
+            ORDER_ID("o.order_id"),
+            USER_ID("o.user_id"),
+            TOTAL("o.total_amount"),
+            // On the tables the ENUM sorts and compares by position, which is status_rank
+            STATUS("o.status", "o.status_rank");
+            
+            private final String column;
+            private final String unionColumn;
+            
+            SortKey(String column) {
+                this(column, column);
+            }
+            
+            SortKey(String column, String unionColumn) {
+                this.column = column;
+                this.unionColumn = unionColumn;
+            }
+        }
+        
+        private final Integer userId;
+        private final Order.Status status;
+        private final LocalDateTime placedFrom;
+        private final LocalDateTime placedBefore;
+        private final boolean includeArchive;
+        private final SortKey sortKey;
+        private final boolean descending;
+        
+        private OrderQuery(Integer userId, Order.Status status, LocalDateTime placedFrom, LocalDateTime placedBefore,
+                           boolean includeArchive, SortKey sortKey, boolean descending) {
+            this.userId = userId;
+            this.status = status;
+            this.placedFrom = placedFrom;
+            this.placedBefore = placedBefore;
+            this.includeArchive = includeArchive;
+            this.sortKey = sortKey;
+            this.descending = descending;
+        }
+        
+        /** All current orders, newest first */
+        public static OrderQuery all() {
+            return new OrderQuery(null, null, null, null, false, SortKey.ORDER_DATE, true);
+        }
+        
+        /** One customer's orders, archived ones included, newest first */
+        public static OrderQuery forUser(int userId) {
+            return new OrderQuery(userId, null, null, null, true, SortKey.ORDER_DATE, true);
+        }
+        
+        /** Restrict to a status, or null for any status */
+        public OrderQuery withStatus(Order.Status newStatus) {
+            return new OrderQuery(userId, newStatus, placedFrom, placedBefore, includeArchive, sortKey, descending);
+        }
+        
+        /**
+         * Restrict to orders placed in [from, before); either bound may be null.
+         * A date range also searches archived orders.
+         */
+        public OrderQuery withDateRange(LocalDateTime from, LocalDateTime before) {
+            return new OrderQuery(userId, status, from, before, includeArchive, sortKey, descending);
+        }
+        
+        /** Also search archived orders without restricting dates */
+        public OrderQuery withArchive(boolean newIncludeArchive) {
+            return new OrderQuery(userId, status, placedFrom, placedBefore, newIncludeArchive, sortKey, descending);
+        }
+        
+        public OrderQuery sortedBy(SortKey newSortKey, boolean newDescending) {
+            return new OrderQuery(userId, status, placedFrom, placedBefore, includeArchive, newSortKey, newDescending);
+        }
+        
+        public Integer getUserId() { return userId; }
+        public Order.Status getStatus() { return status; }
+        public LocalDateTime getPlacedFrom() { return placedFrom; }
+        public LocalDateTime getPlacedBefore() { return placedBefore; }
+        public SortKey getSortKey() { return sortKey; }
+        public boolean isDescending() { return descending; }
+        
+        /** Whether orders_archive must be read alongside orders */
+        public boolean spansArchive() {
+            return includeArchive || placedFrom != null || placedBefore != null;
+        }
+        
+        /** Position after the given order in this query's sort order */
+        public OrderCursor cursorAfter(Order order) {
+            Object sortValue = switch (sortKey) {
+                case ORDER_DATE -> order.getOrderDate();
+                case ORDER_ID -> order.getOrderId();
+                case USER_ID -> order.getUserId();
+                case TOTAL -> order.getTotalAmount();
+                case STATUS -> order.getStatus();
+            };
+            return new OrderCursor(sortValue, order.getOrderId());
+        }
+        
+        String whereClause() {
+            return whereClause(null);
+        }
+        
+        String whereClause(OrderCursor after) {
+            List<String> conditions = new ArrayList<>();
+            if (userId != null) {
+                conditions.add("o.user_id = ?");
+            }
+            if (status != null) {
+                conditions.add("o.status = ?");
+            }
+            if (placedFrom != null) {
+                conditions.add("o.order_date >= ?");
+            }
+            if (placedBefore != null) {
+                conditions.add("o.order_date < ?");
+            }
+            if (after != null) {
+                String op = descending ? " < ?" : " > ?";
+                conditions.add(sortKey == SortKey.ORDER_ID
+                        ? "o.order_id" + op
+                        : "(" + sortKey.column + op + " OR (" + sortKey.column + " = ? AND o.order_id" + op + "))");
+            }
+            return conditions.isEmpty() ? "" : "WHERE " + String.join("\nAND ", conditions) + "\n";
+        }
+        
+        int bindWhere(PreparedStatement stmt) throws SQLException {
+            return bindWhere(stmt, 1);
+        }
+        
+        int bindWhere(PreparedStatement stmt, int index) throws SQLException {
+            return bindWhere(stmt, index, null);
+        }
+        
+        int bindWhere(PreparedStatement stmt, int index, OrderCursor after) throws SQLException {
+            if (userId != null) {
+                stmt.setInt(index++, userId);
+            }
+            if (status != null) {
+                stmt.setString(index++, status.name());
+            }
+            if (placedFrom != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(placedFrom));
+            }
+            if (placedBefore != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(placedBefore));
+            }
+            if (after != null) {
+                if (sortKey != SortKey.ORDER_ID) {
+                    index = bindSortValue(stmt, index, after.sortValue);
+                    index = bindSortValue(stmt, index, after.sortValue);
+                }
+                stmt.setInt(index++, after.orderId);
+            }
+            return index;
+        }
+        
+        private static int bindSortValue(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value instanceof LocalDateTime dateTime) {
+                stmt.setTimestamp(index, Timestamp.valueOf(dateTime));
+            } else if (value instanceof Order.Status status) {
+                // The status ENUM sorts by position, which a number compares against; a string would not
+                stmt.setInt(index, status.ordinal() + 1);
+            } else {
+                stmt.setObject(index, value);
+            }
+            return index + 1;
+        }
+        
+        String orderByClause() {
+            return orderBy(sortKey.column);
+        }
+        
+        /** Sort order over the union of both tables, matching orderByClause on each of them */
+        String unionOrderByClause() {
+            return orderBy(sortKey.unionColumn);
+        }
+        
+        private String orderBy(String column) {
+            String direction = descending ? " DESC" : " ASC";
+            // order_id breaks ties so pages never overlap or skip rows
+            if (sortKey == SortKey.ORDER_ID) {
+                return "ORDER BY o.order_id" + direction + "\n";
+            }
+            return "ORDER BY " + column + direction + ", o.order_id" + direction + "\n";
+        }
+    }
+    
+    /**
+     * Position after the last order of a page, from {@link OrderQuery#cursorAfter}
+     */
+    public static final class OrderCursor {
+        private final Object sortValue;
+        private final int orderId;
+        
+        private OrderCursor(Object sortValue, int orderId) {
+            this.sortValue = sortValue;
+            this.orderId = orderId;
+        }
+        
+        public int getOrderId() { return orderId; }
     }
     
     /**
@@ -61,11 +416,15 @@ public class OrderDAO {
             boolean success = stmt.getBoolean(7);
             String message = stmt.getString(8);
             int orderId = success ? stmt.getInt(5) : 0;
+            BigDecimal totalAmount = success ? stmt.getBigDecimal(6) : null;
             
-            return new OrderResult(success, message, orderId);
+            if (success) {
+                fireOrderPlaced(orderId);
+            }
+            return new OrderResult(success, message, orderId, totalAmount);
             
         } catch (SQLException e) {
-            System.err.println("Error creating order: " + e.getMessage());
+            LOG.error("Error creating order: {}", e.getMessage());
             return new OrderResult(false, "Database error: " + e.getMessage(), 0);
         }
     }
@@ -76,49 +435,21 @@ public class OrderDAO {
     public Order getOrderById(int orderId) {
         Order order = null;
         
-        // First get the order header
-        String orderSql = """
-            SELECT 
-                o.order_id,
-                o.user_id,
-                o.order_date,
-                o.total_amount,
-                c.currency_code,
-                c.symbol as currency_symbol,
-                o.status,
-                o.delivery_address,
-                o.notes,
-                o.created_at,
-                o.updated_at
-            FROM orders o
-            JOIN currencies c ON o.currency_id = c.currency_id
-            WHERE o.order_id = ?
-            """;
+        // First get the order header; an order is in exactly one of orders and orders_archive
+        String orderSql = orderHeaderSelect("orders") + "UNION ALL\n" + orderHeaderSelect("orders_archive");
         
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(orderSql)) {
             
             stmt.setInt(1, orderId);
+            stmt.setInt(2, orderId);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    order = new Order();
-                    order.setOrderId(rs.getInt("order_id"));
-                    order.setUserId(rs.getInt("user_id"));
-                    order.setOrderDate(rs.getTimestamp("order_date").toLocalDateTime());
-                    order.setTotalAmount(rs.getBigDecimal("total_amount"));
-                    order.setCurrencyCode(rs.getString("currency_code"));
-                    order.setCurrencySymbol(rs.getString("currency_symbol"));
-                    order.setStatus(Order.Status.valueOf(rs.getString("status")));
-                    order.setDeliveryAddress(rs.getString("delivery_address"));
-                    order.setNotes(rs.getString("notes"));
-                    order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    order.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-                }
+                order = OrderMapper.INSTANCE.mapFirst(rs);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting order header: " + e.getMessage());
+            LOG.error("Error getting order header: {}", e.getMessage());
             return null;
         }
         
@@ -132,133 +463,290 @@ public class OrderDAO {
         return order;
     }
     
+    private static String orderHeaderSelect(String table) {
+        return """
+            SELECT 
+                o.order_id,
+                o.user_id,
+                o.order_date,
+                o.total_amount,
+                c.currency_code,
+                c.symbol as currency_symbol,
+                o.status,
+                o.delivery_address,
+                o.notes,
+                o.created_at,
+                o.updated_at
+            FROM %s o
+            JOIN currencies c ON o.currency_id = c.currency_id
+            WHERE o.order_id = ?
+            """.formatted(table);
+    }
+    
     /**
-     * Get order items for an order - using direct SQL
+     * Get order items for an order - using direct SQL. Archived orders' items are
+     * read from order_items_archive.
      */
     public List<OrderItem> getOrderItems(int orderId) {
-        List<OrderItem> items = new ArrayList<>();
-        String sql = """
+        String sql = "(" + orderItemSelect("order_items") + ")\nUNION ALL\n("
+                + orderItemSelect("order_items_archive") + ")\nORDER BY order_item_id";
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, orderId);
+            stmt.setInt(2, orderId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return OrderItemMapper.INSTANCE.mapAll(rs);
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error getting order items: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    private static String orderItemSelect(String table) {
+        // Archived lines may outlive their product, hence the outer join
+        return """
             SELECT 
                 oi.order_item_id,
                 oi.order_id,
                 oi.product_id,
-                p.name as product_name,
+                COALESCE(p.name, 'Removed product') as product_name,
                 oi.quantity,
                 oi.unit_price,
                 (oi.quantity * oi.unit_price) as total_price,
                 oi.customizations
-            FROM order_items oi
-            JOIN products p ON oi.product_id = p.product_id
-            WHERE oi.order_id = ?
-            ORDER BY oi.order_item_id
-            """;
+            FROM %s oi
+            LEFT JOIN products p ON oi.product_id = p.product_id
+            WHERE oi.order_id = ?""".formatted(table);
+    }
+    
+    /**
+     * Get a user's 50 most recent orders, archived ones included
+     */
+    public List<Order> getUserOrders(int userId) {
+        List<Order> orders = getOrdersPage(OrderQuery.forUser(userId), null, 0, 50);
+        return orders != null ? orders : new ArrayList<>();
+    }
+    
+    /**
+     * Stream order summaries, newest first, without building a list.
+     * 
+     * @param userId only this user's orders, or null for all orders
+     * @param limit maximum number of orders
+     * @param consumer receives each order as it is read
+     * @return number of orders passed to the consumer
+     */
+    public int forEachOrder(Integer userId, int limit, Consumer<Order> consumer) {
+        String sql = ORDER_SUMMARY_SELECT
+                + (userId != null ? "WHERE o.user_id = ?\n" : "")
+                + "ORDER BY o.order_date DESC\n"
+                + "LIMIT ?";
         
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setInt(1, orderId);
+            int index = 1;
+            if (userId != null) {
+                stmt.setInt(index++, userId);
+            }
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return OrderMapper.INSTANCE.forEach(rs, consumer);
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error getting orders (user {}): {}", userId, e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * Update order status
+     */
+    public boolean updateOrderStatus(int orderId, Order.Status status) {
+        String sql = "UPDATE orders SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE order_id = ?";
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, status.name());
+            stmt.setInt(2, orderId);
+            
+            int rowsUpdated = stmt.executeUpdate();
+            if (rowsUpdated > 0) {
+                fireOrderStatusChanged(orderId, status);
+            }
+            return rowsUpdated > 0;
+            
+        } catch (SQLException e) {
+            LOG.error("Error updating order status: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Stream the units of each product in every order placed since the given time,
+     * cancelled orders left out, one row per order and product
+     * 
+     * @return number of rows passed to the consumer, or -1 on error
+     */
+    public int forEachProductSale(LocalDateTime placedFrom, Consumer<ProductSale> consumer) {
+        String sql = PRODUCT_SALE_SELECT
+                + "WHERE o.order_date >= ? AND o.status != 'CANCELLED'\n"
+                + PRODUCT_SALE_GROUP_BY;
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(placedFrom));
             
+            int count = 0;
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    OrderItem item = new OrderItem();
-                    item.setOrderItemId(rs.getInt("order_item_id"));
-                    item.setOrderId(rs.getInt("order_id"));
-                    item.setProductId(rs.getInt("product_id"));
-                    item.setProductName(rs.getString("product_name"));
-                    item.setQuantity(rs.getInt("quantity"));
-                    item.setUnitPrice(rs.getBigDecimal("unit_price"));
-                    item.setTotalPrice(rs.getBigDecimal("total_price"));
-                    item.setCustomizations(rs.getString("customizations"));
-                    
-                    items.add(item);
+                    consumer.accept(mapProductSale(rs));
+                    count++;
                 }
             }
+            return count;
             
         } catch (SQLException e) {
-            System.err.println("Error getting order items: " + e.getMessage());
+            LOG.error("Error reading product sales since {}: {}", placedFrom, e.getMessage());
+            return -1;
         }
-        
-        return items;
     }
     
     /**
-     * Get orders for a user - using direct SQL for reliability
+     * Ids of the cancelled orders after the given order id, lowest first
+     * 
+     * @return the ids, or null on error
      */
-    public List<Order> getUserOrders(int userId) {
-        List<Order> orders = new ArrayList<>();
-        String sql = """
-            SELECT 
-                o.order_id,
-                o.user_id,
-                o.order_date,
-                o.total_amount,
-                c.currency_code,
-                c.symbol as currency_symbol,
-                o.status,
-                o.delivery_address,
-                o.notes,
-                COUNT(oi.order_item_id) as item_count,
-                o.created_at,
-                o.updated_at
-            FROM orders o
-            JOIN currencies c ON o.currency_id = c.currency_id
-            LEFT JOIN order_items oi ON o.order_id = oi.order_id
-            WHERE o.user_id = ?
-            GROUP BY o.order_id
-            ORDER BY o.order_date DESC
-            LIMIT 50
-            """;
+    public List<Integer> getCancelledOrderIdsAfter(int afterOrderId) {
+        String sql = "SELECT order_id FROM orders WHERE order_id > ? AND status = 'CANCELLED' ORDER BY order_id";
         
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setInt(1, userId);
+            stmt.setInt(1, afterOrderId);
             
+            List<Integer> orderIds = new ArrayList<>();
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Order order = new Order();
-                    order.setOrderId(rs.getInt("order_id"));
-                    order.setUserId(userId);
-                    order.setOrderDate(rs.getTimestamp("order_date").toLocalDateTime());
-                    order.setTotalAmount(rs.getBigDecimal("total_amount"));
-                    order.setCurrencyCode(rs.getString("currency_code"));
-                    order.setCurrencySymbol(rs.getString("currency_symbol"));
-                    order.setStatus(Order.Status.valueOf(rs.getString("status")));
-                    order.setDeliveryAddress(rs.getString("delivery_address"));
-                    order.setNotes(rs.getString("notes"));
-                    order.setItemCount(rs.getInt("item_count"));
-                    order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    order.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-                    
-                    orders.add(order);
+                    orderIds.add(rs.getInt(1));
                 }
             }
+            return orderIds;
             
         } catch (SQLException e) {
-            System.err.println("Error getting user orders: " + e.getMessage());
+            LOG.error("Error reading cancelled orders after {}: {}", afterOrderId, e.getMessage());
+            return null;
         }
+    }
+    
+    /**
+     * Stream the products of every order after the given order id, cancelled orders
+     * left out, in order id order so each order's rows arrive together. Rows are
+     * streamed, so the whole order history can be read without holding it in memory.
+     * 
+     * @return number of rows passed to the consumer, or -1 on error
+     */
+    public int forEachProductSaleAfter(int afterOrderId, Consumer<ProductSale> consumer) {
+        String sql = PRODUCT_SALE_SELECT
+                + "WHERE o.order_id > ? AND o.status != 'CANCELLED'\n"
+                + PRODUCT_SALE_GROUP_BY + "\n"
+                + "ORDER BY o.order_id";
         
-        return orders;
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            stmt.setInt(1, afterOrderId);
+            
+            int count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapProductSale(rs));
+                    count++;
+                }
+            }
+            return count;
+            
+        } catch (SQLException e) {
+            LOG.error("Error reading product sales after order {}: {}", afterOrderId, e.getMessage());
+            return -1;
+        }
     }
     
     /**
-     * Update order status
+     * The units of each product in one order, whatever its status
+     * 
+     * @return the rows, or null on error
      */
-    public boolean updateOrderStatus(int orderId, Order.Status status) {
-        String sql = "UPDATE orders SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE order_id = ?";
+    public List<ProductSale> getProductSales(int orderId) {
+        String sql = PRODUCT_SALE_SELECT + "WHERE o.order_id = ?\n" + PRODUCT_SALE_GROUP_BY;
         
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, status.name());
-            stmt.setInt(2, orderId);
+            stmt.setInt(1, orderId);
             
-            int rowsUpdated = stmt.executeUpdate();
-            return rowsUpdated > 0;
+            List<ProductSale> sales = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(mapProductSale(rs));
+                }
+            }
+            return sales;
             
         } catch (SQLException e) {
-            System.err.println("Error updating order status: " + e.getMessage());
-            return false;
+            LOG.error("Error reading product sales of order {}: {}", orderId, e.getMessage());
+            return null;
+        }
+    }
+    
+    private static ProductSale mapProductSale(ResultSet rs) throws SQLException {
+        return new ProductSale(rs.getInt("order_id"),
+                               rs.getTimestamp("order_date").toLocalDateTime(),
+                               Order.Status.valueOf(rs.getString("status")),
+                               rs.getInt("product_id"),
+                               Product.Category.valueOf(rs.getString("category")),
+                               rs.getInt("quantity"));
+    }
+    
+    /**
+     * Move one batch of closed orders placed before the cutoff, with their items and
+     * log rows, into the archive tables using sp_archive_orders
+     */
+    public ArchiveResult archiveClosedOrders(LocalDateTime cutoff, int batchSize) {
+        String sql = "{CALL sp_archive_orders(?, ?, ?, ?, ?, ?)}";
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = conn.prepareCall(sql)) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            stmt.setInt(2, batchSize);
+            stmt.registerOutParameter(3, Types.INTEGER); // archived_count
+            stmt.registerOutParameter(4, Types.INTEGER); // log_count
+            stmt.registerOutParameter(5, Types.BOOLEAN); // success
+            stmt.registerOutParameter(6, Types.VARCHAR); // message
+            
+            stmt.execute();
+            
+            boolean success = stmt.getBoolean(5);
+            String message = stmt.getString(6);
+            if (!success) {
+                LOG.warn("Order archive batch failed: {}", message);
+            }
+            return new ArchiveResult(success, message, stmt.getInt(3), stmt.getInt(4));
+            
+        } catch (SQLException e) {
+            LOG.error("Error archiving orders before {}: {}", cutoff, e.getMessage());
+            return new ArchiveResult(false, "Database error while archiving orders", 0, 0);
         }
     }
     
@@ -267,6 +755,99 @@ public class OrderDAO {
      */
     public List<Order> getAllOrders() {
         List<Order> orders = new ArrayList<>();
+        forEachOrder(null, 100, orders::add);
+        return orders;
+    }
+
+    /**
+     * Get one page of orders matching the query, starting after a cursor (null for the
+     * first page) and skipping a number of rows past it. Paging from the previous page's
+     * cursor with skip 0 reads only the rows it returns; skip is for jumping ahead of the
+     * pages loaded so far. When the query spans the archive, each table contributes its
+     * own first skip + limit rows past the cursor and the page is cut from their union.
+     *
+     * @return the orders, or null on error
+     */
+    public List<Order> getOrdersPage(OrderQuery query, OrderCursor after, int skip, int limit) {
+        boolean spansArchive = query.spansArchive();
+        String sql = pageSql(query, after);
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = query.bindWhere(stmt, 1, after);
+            if (spansArchive) {
+                stmt.setInt(index++, skip + limit);
+                index = query.bindWhere(stmt, index, after);
+                stmt.setInt(index++, skip + limit);
+            }
+            stmt.setInt(index++, limit);
+            stmt.setInt(index, skip);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return OrderMapper.INSTANCE.mapAll(rs);
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error getting orders page after order {} (skip {}): {}",
+                      after != null ? after.getOrderId() : null, skip, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * The statement getOrdersPage runs: its parameters are the query's where clause
+     * (then LIMIT, the where clause again and LIMIT when it spans the archive),
+     * followed by LIMIT and OFFSET
+     */
+    static String pageSql(OrderQuery query, OrderCursor after) {
+        boolean spansArchive = query.spansArchive();
+        String source;
+        if (spansArchive) {
+            String branch = " o\n" + query.whereClause(after) + query.orderByClause() + "LIMIT ?";
+            source = "((SELECT " + ORDER_PAGE_COLUMNS + " FROM orders" + branch + ")\n"
+                    + "UNION ALL\n"
+                    + "(SELECT " + ORDER_PAGE_COLUMNS + " FROM orders_archive" + branch + "))";
+        } else {
+            source = "orders";
+        }
+        return """
+            SELECT 
+                o.order_id,
+                o.user_id,
+                o.order_date,
+                o.total_amount,
+                c.currency_code,
+                c.symbol as currency_symbol,
+                o.status,
+                o.item_count,
+                o.total_quantity,
+                o.created_at,
+                o.updated_at
+            FROM %s o
+            JOIN currencies c ON o.currency_id = c.currency_id
+            """.formatted(source)
+                + (spansArchive ? query.unionOrderByClause() : query.whereClause(after) + query.orderByClause())
+                + "LIMIT ? OFFSET ?";
+    }
+    
+    /**
+     * Stream every order matching the query, in its sort order, with delivery address,
+     * notes and the exchange rate the order was placed at. Rows are streamed, so a year
+     * of orders or more can be read without holding it in memory.
+     * 
+     * @return number of orders passed to the consumer, or -1 on error
+     */
+    public int forEachOrder(OrderQuery query, Consumer<Order> consumer) {
+        String columns = ORDER_PAGE_COLUMNS + ", o.exchange_rate_to_usd, o.delivery_address, o.notes";
+        String source;
+        if (query.spansArchive()) {
+            source = "(SELECT " + columns + " FROM orders o\n" + query.whereClause()
+                    + "UNION ALL\n"
+                    + "SELECT " + columns + " FROM orders_archive o\n" + query.whereClause() + ")";
+        } else {
+            source = "orders";
+        }
         String sql = """
             SELECT 
                 o.order_id,
@@ -275,48 +856,100 @@ public class OrderDAO {
                 o.total_amount,
                 c.currency_code,
                 c.symbol as currency_symbol,
+                o.exchange_rate_to_usd,
                 o.status,
                 o.delivery_address,
                 o.notes,
-                COUNT(oi.order_item_id) as item_count,
+                o.item_count,
+                o.total_quantity,
                 o.created_at,
                 o.updated_at
-            FROM orders o
+            FROM %s o
             JOIN currencies c ON o.currency_id = c.currency_id
-            LEFT JOIN order_items oi ON o.order_id = oi.order_id
-            GROUP BY o.order_id
-            ORDER BY o.order_date DESC
-            LIMIT 100
-            """;
+            """.formatted(source)
+                + (query.spansArchive() ? query.unionOrderByClause() : query.whereClause() + query.orderByClause());
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            int index = query.bindWhere(stmt);
+            if (query.spansArchive()) {
+                query.bindWhere(stmt, index);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return OrderMapper.INSTANCE.forEach(rs, consumer);
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error streaming orders: {}", e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Count orders matching the query's filters
+     */
+    public int countOrders(OrderQuery query) {
+        String sql = "SELECT COUNT(*) FROM orders o\n" + query.whereClause();
+        if (query.spansArchive()) {
+            sql = "SELECT (" + sql + ") + (SELECT COUNT(*) FROM orders_archive o\n" + query.whereClause() + ")";
+        }
         
         try (Connection conn = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            int index = query.bindWhere(stmt);
+            if (query.spansArchive()) {
+                query.bindWhere(stmt, index);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error counting orders: {}", e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * Order counts per status in one query, for dashboard summaries
+     * 
+     * @param userId only this user's orders, archived ones included, or null for all current orders
+     */
+    public Map<Order.Status, Integer> countOrdersGroupedByStatus(Integer userId) {
+        Map<Order.Status, Integer> counts = new EnumMap<>(Order.Status.class);
+        for (Order.Status status : Order.Status.values()) {
+            counts.put(status, 0);
+        }
+        // A customer's history lists archived orders too, so their counts must include them
+        String sql = userId != null
+                ? "SELECT status, COUNT(*) FROM (SELECT status FROM orders WHERE user_id = ? "
+                  + "UNION ALL SELECT status FROM orders_archive WHERE user_id = ?) o GROUP BY status"
+                : "SELECT status, COUNT(*) FROM orders GROUP BY status";
+        
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            if (userId != null) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, userId);
+            }
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Order order = new Order();
-                    order.setOrderId(rs.getInt("order_id"));
-                    order.setUserId(rs.getInt("user_id"));
-                    order.setOrderDate(rs.getTimestamp("order_date").toLocalDateTime());
-                    order.setTotalAmount(rs.getBigDecimal("total_amount"));
-                    order.setCurrencyCode(rs.getString("currency_code"));
-                    order.setCurrencySymbol(rs.getString("currency_symbol"));
-                    order.setStatus(Order.Status.valueOf(rs.getString("status")));
-                    order.setDeliveryAddress(rs.getString("delivery_address"));
-                    order.setNotes(rs.getString("notes"));
-                    order.setItemCount(rs.getInt("item_count"));
-                    order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    order.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-                    
-                    orders.add(order);
+                    counts.put(Order.Status.valueOf(rs.getString(1)), rs.getInt(2));
                 }
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting all orders: " + e.getMessage());
+            LOG.error("Error counting orders by status: {}", e.getMessage());
         }
-        
-        return orders;
+        return counts;
     }
 
     public int countOrders() {
@@ -330,7 +963,7 @@ public class OrderDAO {
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Error counting orders: {}", e.getMessage());
         }
         return 0;
     }
@@ -348,7 +981,7 @@ public class OrderDAO {
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Error counting orders with status {}: {}", status, e.getMessage());
         }
         return 0;
     }
@@ -0,0 +1,285 @@
+package com.neosburritos.dao;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neosburritos.dao.mapper.PriceListMapper;
+import com.neosburritos.model.PriceList;
+import com.neosburritos.model.Product;
+import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
+
+/**
+ * Data Access Object for price lists and bulk repricing.
+ * Prices change through set-based statements (sp_activate_price_list, sp_adjust_prices)
+ * rather than one sp_update_product call per product. Product listeners get a single
+ * catalogChanged notification per operation.
+ */
+public class PriceListDAO {
+
+    private static final Logger LOG = Logger.getLogger(PriceListDAO.class);
+
+    private static final String PRICE_LIST_SELECT =
+        "SELECT pl.price_list_id, pl.name, pl.status, pl.effective_at, pl.activated_at, pl.created_at, " +
+        "(SELECT COUNT(*) FROM price_list_items i WHERE i.price_list_id = pl.price_list_id) AS item_count " +
+        "FROM price_lists pl ";
+
+    private final ProductDAO productDAO;
+
+    public PriceListDAO(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+
+    /**
+     * All price lists, newest first
+     */
+    public List<PriceList> getPriceLists() {
+        String sql = PRICE_LIST_SELECT + "ORDER BY pl.created_at DESC, pl.price_list_id DESC";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            return PriceListMapper.INSTANCE.mapAll(rs);
+
+        } catch (SQLException e) {
+            LOG.error("Error retrieving price lists: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Scheduled lists whose effective time has passed, oldest first, so that when several
+     * are overdue the newest one ends up active
+     */
+    public List<PriceList> getDuePriceLists() {
+        String sql = PRICE_LIST_SELECT +
+            "WHERE pl.status = 'SCHEDULED' AND pl.effective_at <= CURRENT_TIMESTAMP " +
+            "ORDER BY pl.effective_at, pl.price_list_id";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            return PriceListMapper.INSTANCE.mapAll(rs);
+
+        } catch (SQLException e) {
+            LOG.error("Error retrieving due price lists: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Create a draft price list from the current catalog in one INSERT ... SELECT.
+     * Products matching the currency/category filters (null for any) are copied with
+     * their price adjusted by the given percentage; other products are not in the list
+     * and keep their price when it is activated.
+     */
+    public PricingResult createFromCatalog(String name, BigDecimal percent,
+                                           String currencyCode, Product.Category category) {
+        if (percent.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            return new PricingResult(false, "Adjustment would make prices zero or negative", 0, null);
+        }
+        String insertList = "INSERT INTO price_lists (name) VALUES (?)";
+        String copyPrices =
+            "INSERT INTO price_list_items (price_list_id, product_id, base_price) " +
+            "SELECT ?, p.product_id, GREATEST(0.01, ROUND(p.base_price * (1 + ? / 100), 2)) " +
+            "FROM products p JOIN currencies c ON p.currency_id = c.currency_id " +
+            "WHERE (? IS NULL OR c.currency_code = ?) AND (? IS NULL OR p.category = ?)";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement listStmt = connection.prepareStatement(insertList, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement itemsStmt = connection.prepareStatement(copyPrices)) {
+
+                listStmt.setString(1, name);
+                listStmt.executeUpdate();
+                int priceListId;
+                try (ResultSet keys = listStmt.getGeneratedKeys()) {
+                    keys.next();
+                    priceListId = keys.getInt(1);
+                }
+
+                String categoryName = category != null ? category.name() : null;
+                itemsStmt.setInt(1, priceListId);
+                itemsStmt.setBigDecimal(2, percent);
+                itemsStmt.setString(3, currencyCode);
+                itemsStmt.setString(4, currencyCode);
+                itemsStmt.setString(5, categoryName);
+                itemsStmt.setString(6, categoryName);
+                int items = itemsStmt.executeUpdate();
+
+                connection.commit();
+                LOG.info("Created price list {} '{}' with {} prices", priceListId, name, items);
+                return new PricingResult(true, "Price list created with " + items + " prices", items, priceListId);
+
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOG.error("Error creating price list '{}': {}", name, e.getMessage());
+            return new PricingResult(false, "Database error while creating price list", 0, null);
+        }
+    }
+
+    /**
+     * Schedule a pending list for activation at the given time
+     */
+    public PricingResult schedule(int priceListId, LocalDateTime effectiveAt) {
+        String sql = "UPDATE price_lists SET status = 'SCHEDULED', effective_at = ? " +
+                     "WHERE price_list_id = ? AND status IN ('DRAFT', 'SCHEDULED')";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(effectiveAt));
+            stmt.setInt(2, priceListId);
+
+            if (stmt.executeUpdate() > 0) {
+                LOG.info("Price list {} scheduled for {}", priceListId, effectiveAt);
+                return new PricingResult(true, "Price list scheduled", 0, priceListId);
+            }
+            return new PricingResult(false, "Price list not found or already applied", 0, priceListId);
+
+        } catch (SQLException e) {
+            LOG.error("Error scheduling price list {}: {}", priceListId, e.getMessage());
+            return new PricingResult(false, "Database error while scheduling price list", 0, priceListId);
+        }
+    }
+
+    /**
+     * Cancel a pending list so it is never activated
+     */
+    public PricingResult cancel(int priceListId) {
+        String sql = "UPDATE price_lists SET status = 'CANCELLED' " +
+                     "WHERE price_list_id = ? AND status IN ('DRAFT', 'SCHEDULED')";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+
+            stmt.setInt(1, priceListId);
+
+            if (stmt.executeUpdate() > 0) {
+                LOG.info("Price list {} cancelled", priceListId);
+                return new PricingResult(true, "Price list cancelled", 0, priceListId);
+            }
+            return new PricingResult(false, "Price list not found or already applied", 0, priceListId);
+
+        } catch (SQLException e) {
+            LOG.error("Error cancelling price list {}: {}", priceListId, e.getMessage());
+            return new PricingResult(false, "Database error while cancelling price list", 0, priceListId);
+        }
+    }
+
+    /**
+     * Apply a price list to the catalog using sp_activate_price_list.
+     * Safe to call concurrently: only the first activation of a list succeeds.
+     */
+    public PricingResult activate(int priceListId) {
+        String sql = "{CALL sp_activate_price_list(?, ?, ?, ?)}";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = connection.prepareCall(sql)) {
+
+            stmt.setInt(1, priceListId);
+            stmt.registerOutParameter(2, Types.INTEGER); // updated_count
+            stmt.registerOutParameter(3, Types.BOOLEAN); // success
+            stmt.registerOutParameter(4, Types.VARCHAR); // message
+
+            stmt.execute();
+
+            int updated = stmt.getInt(2);
+            boolean success = stmt.getBoolean(3);
+            String message = stmt.getString(4);
+
+            if (success) {
+                LOG.info("Price list {} activated, {} prices changed", priceListId, updated);
+                productDAO.fireCatalogChanged();
+            } else {
+                LOG.warn("Price list {} not activated: {}", priceListId, message);
+            }
+            return new PricingResult(success, message, updated, priceListId);
+
+        } catch (SQLException e) {
+            LOG.error("Error activating price list {}: {}", priceListId, e.getMessage());
+            return new PricingResult(false, "Database error while activating price list", 0, priceListId);
+        }
+    }
+
+    /**
+     * Adjust current prices by a percentage in one statement using sp_adjust_prices.
+     *
+     * @param currencyCode only products priced in this currency, or null for all
+     * @param category only products in this category, or null for all
+     */
+    public PricingResult adjustPrices(BigDecimal percent, String currencyCode, Product.Category category) {
+        String sql = "{CALL sp_adjust_prices(?, ?, ?, ?, ?, ?)}";
+
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = connection.prepareCall(sql)) {
+
+            stmt.setBigDecimal(1, percent);
+            stmt.setString(2, currencyCode);
+            if (category != null) {
+                stmt.setString(3, category.name());
+            } else {
+                stmt.setNull(3, Types.VARCHAR);
+            }
+            stmt.registerOutParameter(4, Types.INTEGER); // updated_count
+            stmt.registerOutParameter(5, Types.BOOLEAN); // success
+            stmt.registerOutParameter(6, Types.VARCHAR); // message
+
+            stmt.execute();
+
+            int updated = stmt.getInt(4);
+            boolean success = stmt.getBoolean(5);
+            String message = stmt.getString(6);
+
+            if (success) {
+                LOG.info("Adjusted {} prices by {}% (currency: {}, category: {})",
+                        updated, percent, currencyCode, category);
+                if (updated > 0) {
+                    productDAO.fireCatalogChanged();
+                }
+            } else {
+                LOG.warn("Price adjustment failed: {}", message);
+            }
+            return new PricingResult(success, message, updated, null);
+
+        } catch (SQLException e) {
+            LOG.error("Error adjusting prices by {}%: {}", percent, e.getMessage());
+            return new PricingResult(false, "Database error while adjusting prices", 0, null);
+        }
+    }
+
+    public static class PricingResult {
+        private final boolean success;
+        private final String message;
+        private final int affectedCount;
+        private final Integer priceListId;
+
+        public PricingResult(boolean success, String message, int affectedCount, Integer priceListId) {
+            this.success = success;
+            this.message = message;
+            this.affectedCount = affectedCount;
+            this.priceListId = priceListId;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        /** Prices changed, or items copied when creating a list */
+        public int getAffectedCount() { return affectedCount; }
+        public Integer getPriceListId() { return priceListId; }
+    }
+}
@@ -8,16 +8,66 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.neosburritos.dao.mapper.ProductMapper;
 import com.neosburritos.model.Product;
 import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
 
 /**
  * Enhanced Data Access Object for Product operations
  * Includes full CRUD operations for admin management
  */
 public class ProductDAO {
+    
+    private static final Logger LOG = Logger.getLogger(ProductDAO.class);
+    
+    /**
+     * Notified after a successful product write, on the thread that made it
+     */
+    public interface ProductChangeListener {
+        void productChanged(int productId);
+        void productRemoved(int productId);
+        
+        /**
+         * Many products changed at once (a price list activation or bulk adjustment).
+         * Sent once per operation instead of one productChanged per row.
+         */
+        default void catalogChanged() {
+        }
+    }
+    
+    private final List<ProductChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    
+    public void addChangeListener(ProductChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    public void removeChangeListener(ProductChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+    
+    private void fireProductChanged(int productId) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.productChanged(productId);
+        }
+    }
+    
+    private void fireProductRemoved(int productId) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.productRemoved(productId);
+        }
+    }
+    
+    void fireCatalogChanged() {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.catalogChanged();
+        }
+    }
 
     public ProductDAO() {
         // No instance connection - each method manages its own connection lifecycle
@@ -39,28 +89,14 @@ public class ProductDAO {
                 stmt.setNull(2, Types.VARCHAR);
             }
             
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Product product = new Product();
-                product.setProductId(rs.getInt("product_id"));
-                product.setName(rs.getString("name"));
-                product.setDescription(rs.getString("description"));
-                product.setBasePrice(rs.getBigDecimal("converted_price"));
-                product.setCurrencyCode(rs.getString("display_currency"));
-                product.setCurrencySymbol(rs.getString("currency_symbol"));
-                product.setStockQuantity(rs.getInt("stock_quantity"));
-                product.setCategory(Product.Category.valueOf(rs.getString("category")));
-                product.setCustomizable(rs.getBoolean("is_customizable"));
-                product.setActive(rs.getBoolean("is_active"));
-                
-                products.add(product);
+            try (ResultSet rs = stmt.executeQuery()) {
+                ProductMapper.INSTANCE.forEach(rs, products::add);
             }
             
-            System.out.println("Retrieved " + products.size() + " products for currency: " + currencyCode);
+            LOG.debug("Retrieved {} products for currency: {}", products.size(), currencyCode);
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving products for currency: " + currencyCode + " - " + e.getMessage());
+            LOG.error("Error retrieving products for currency: {} - {}", currencyCode, e.getMessage());
         }
         
         return products;
@@ -76,33 +112,18 @@ public class ProductDAO {
                     "FROM products p " +
                     "JOIN currencies c ON p.currency_id = c.currency_id " +
                     "ORDER BY p.created_at DESC";
-        List<Product> products = new ArrayList<>();
         
         try (Connection connection = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
-            while (rs.next()) {
-                Product product = new Product();
-                product.setProductId(rs.getInt("product_id"));
-                product.setName(rs.getString("name"));
-                product.setDescription(rs.getString("description"));
-                product.setBasePrice(rs.getBigDecimal("base_price"));
-                product.setStockQuantity(rs.getInt("stock_quantity"));
-                product.setCategory(Product.Category.valueOf(rs.getString("category")));
-                product.setCustomizable(rs.getBoolean("is_customizable"));
-                product.setActive(rs.getBoolean("is_active"));
-                product.setCurrencyCode(rs.getString("currency_code"));
-                product.setCurrencySymbol(rs.getString("symbol"));
-                product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                products.add(product);
-            }
+            List<Product> products = ProductMapper.INSTANCE.mapAll(rs);
             
-            System.out.println("Retrieved " + products.size() + " products for admin management");
+            LOG.debug("Retrieved {} products for admin management", products.size());
             return products;
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving all products: " + e.getMessage());
+            LOG.error("Error retrieving all products: {}", e.getMessage());
             return new ArrayList<>();
         }
     }
@@ -124,29 +145,43 @@ public class ProductDAO {
             stmt.setInt(1, productId);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Product product = new Product();
-                    product.setProductId(rs.getInt("product_id"));
-                    product.setName(rs.getString("name"));
-                    product.setDescription(rs.getString("description"));
-                    product.setBasePrice(rs.getBigDecimal("base_price"));
-                    product.setStockQuantity(rs.getInt("stock_quantity"));
-                    product.setCategory(Product.Category.valueOf(rs.getString("category")));
-                    product.setCustomizable(rs.getBoolean("is_customizable"));
-                    product.setActive(rs.getBoolean("is_active"));
-                    product.setCurrencyCode(rs.getString("currency_code"));
-                    product.setCurrencySymbol(rs.getString("symbol"));
-                    product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    return product;
-                }
+                return ProductMapper.INSTANCE.mapFirst(rs);
             }
             
+        } catch (SQLException e) {
+            LOG.error("Error retrieving product by ID: {} - {}", productId, e.getMessage());
             return null;
+        }
+    }
+
+    /**
+     * Get default ingredient names per product, for menu search
+     * 
+     * @param productId a single product, or null for every product
+     */
+    public Map<Integer, List<String>> getIngredientNames(Integer productId) {
+        String sql = "SELECT pi.product_id, i.name FROM product_ingredients pi " +
+                    "JOIN ingredients i ON pi.ingredient_id = i.ingredient_id" +
+                    (productId != null ? " WHERE pi.product_id = ?" : "");
+        Map<Integer, List<String>> names = new HashMap<>();
+        
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            
+            if (productId != null) {
+                stmt.setInt(1, productId);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    names.computeIfAbsent(rs.getInt(1), id -> new ArrayList<>()).add(rs.getString(2));
+                }
+            }
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving product by ID: " + productId + " - " + e.getMessage());
-            return null;
+            LOG.error("Error retrieving ingredient names: {}", e.getMessage());
         }
+        return names;
     }
 
     /**
@@ -180,15 +215,16 @@ public class ProductDAO {
             Integer productId = success ? stmt.getInt(8) : null;
             
             if (success) {
-                System.out.println("Product added successfully: " + name);
+                LOG.info("Product added successfully: {}", name);
+                fireProductChanged(productId);
             } else {
-                System.out.println("Failed to add product: " + message);
+                LOG.warn("Failed to add product: {}", message);
             }
             
             return new AddProductResult(success, message, productId);
             
         } catch (SQLException e) {
-            System.err.println("Error adding product: " + name + " - " + e.getMessage());
+            LOG.error("Error adding product: {} - {}", name, e.getMessage());
             return new AddProductResult(false, "Database error while adding product", null);
         }
     }
@@ -220,15 +256,16 @@ public class ProductDAO {
             String message = stmt.getString(8);
             
             if (success) {
-                System.out.println("Product updated successfully: ID " + productId);
+                LOG.info("Product updated successfully: ID {}", productId);
+                fireProductChanged(productId);
             } else {
-                System.out.println("Failed to update product ID " + productId + ": " + message);
+                LOG.warn("Failed to update product ID {}: {}", productId, message);
             }
             
             return new UpdateProductResult(success, message);
             
         } catch (SQLException e) {
-            System.err.println("Error updating product ID: " + productId + " - " + e.getMessage());
+            LOG.error("Error updating product ID: {} - {}", productId, e.getMessage());
             return new UpdateProductResult(false, "Database error while updating product");
         }
     }
@@ -258,11 +295,235 @@ public class ProductDAO {
             return new ConversionResult(success, convertedAmount);
             
         } catch (SQLException e) {
-            System.err.println("Error converting currency: " + amount + " " + fromCurrency + " to " + toCurrency + " - " + e.getMessage());
+            LOG.error("Error converting currency: {} {} to {} - {}", amount, fromCurrency, toCurrency, e.getMessage());
             return new ConversionResult(false, null);
         }
     }
 
+    private static final int BULK_INSERT_CHUNK_SIZE = 500;
+    
+    /**
+     * Insert many products at once, for catalog imports.
+     * Currency codes are resolved with one query, then rows are written as multi-row
+     * INSERTs, BULK_INSERT_CHUNK_SIZE rows per statement, each chunk in its own transaction.
+     * A chunk rejected for bad data is rolled back and its rows are inserted one at a time,
+     * so only the offending rows are reported. Listeners get one catalogChanged at the end.
+     */
+    public BulkInsertResult bulkAddProducts(List<ProductDraft> drafts) {
+        BulkInsertResult result = new BulkInsertResult();
+        if (drafts.isEmpty()) {
+            return result;
+        }
+        
+        try (Connection connection = DatabaseConnectionManager.getConnection()) {
+            Map<String, Integer> currencyIds = loadCurrencyIds(connection);
+            
+            List<ProductDraft> chunk = new ArrayList<>(BULK_INSERT_CHUNK_SIZE);
+            for (ProductDraft draft : drafts) {
+                if (!currencyIds.containsKey(draft.getCurrencyCode())) {
+                    result.addError(draft.getSourceRow(), "Invalid currency code: " + draft.getCurrencyCode());
+                    continue;
+                }
+                chunk.add(draft);
+                if (chunk.size() == BULK_INSERT_CHUNK_SIZE) {
+                    insertChunk(connection, chunk, currencyIds, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(connection, chunk, currencyIds, result);
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error during bulk product insert: {}", e.getMessage());
+            result.addError(0, "Database error: " + e.getMessage());
+        }
+        
+        LOG.info("Bulk insert added {} products, {} rows rejected",
+                result.getInsertedIds().size(), result.getErrors().size());
+        if (!result.getInsertedIds().isEmpty()) {
+            fireCatalogChanged();
+        }
+        return result;
+    }
+    
+    private Map<String, Integer> loadCurrencyIds(Connection connection) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT currency_id, currency_code FROM currencies");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.put(rs.getString(2), rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+    
+    private void insertChunk(Connection connection, List<ProductDraft> chunk,
+                             Map<String, Integer> currencyIds, BulkInsertResult result) {
+        try {
+            result.insertedIds.addAll(insertRows(connection, chunk, currencyIds));
+            return;
+        } catch (SQLException e) {
+            String state = e.getSQLState();
+            boolean badData = state != null && (state.startsWith("22") || state.startsWith("23"));
+            if (chunk.size() == 1 || !badData) {
+                LOG.error("Bulk insert chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+                for (ProductDraft draft : chunk) {
+                    result.addError(draft.getSourceRow(), "Not saved: " + e.getMessage());
+                }
+                return;
+            }
+            LOG.warn("Bulk insert chunk of {} rows rejected ({}); inserting its rows one at a time",
+                     chunk.size(), e.getMessage());
+        }
+        for (ProductDraft draft : chunk) {
+            insertChunk(connection, List.of(draft), currencyIds, result);
+        }
+    }
+    
+    /** Insert the rows in one statement and transaction, rolling back on failure */
+    private List<Integer> insertRows(Connection connection, List<ProductDraft> chunk,
+                                     Map<String, Integer> currencyIds) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO products (name, description, base_price, currency_id, category, " +
+            "is_customizable, stock_quantity, is_active) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(sql.toString(),
+                    java.sql.Statement.RETURN_GENERATED_KEYS)) {
+                int index = 1;
+                for (ProductDraft draft : chunk) {
+                    stmt.setString(index++, draft.getName());
+                    stmt.setString(index++, draft.getDescription());
+                    stmt.setBigDecimal(index++, draft.getBasePrice());
+                    stmt.setInt(index++, currencyIds.get(draft.getCurrencyCode()));
+                    stmt.setString(index++, draft.getCategory().name());
+                    stmt.setBoolean(index++, draft.isCustomizable());
+                    stmt.setInt(index++, draft.getStockQuantity());
+                    stmt.setBoolean(index++, draft.isActive());
+                }
+                stmt.executeUpdate();
+                
+                List<Integer> ids = new ArrayList<>(chunk.size());
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getInt(1));
+                    }
+                }
+                connection.commit();
+                return ids;
+            }
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                LOG.error("Rollback failed: {}", rollbackError.getMessage());
+            }
+            throw e;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                LOG.error("Could not restore auto-commit: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Stream every product to a consumer, for catalog exports.
+     * Rows are read with a streaming result set, so the catalog is never held in memory;
+     * the connection stays open until the consumer has seen the last row.
+     *
+     * @return number of products visited, or -1 if the query failed
+     */
+    public int forEachProduct(java.util.function.Consumer<Product> consumer) {
+        String sql = "SELECT p.product_id, p.name, p.description, p.base_price, p.stock_quantity, " +
+                    "p.category, p.is_customizable, p.is_active, p.created_at, " +
+                    "c.currency_code, c.symbol " +
+                    "FROM products p " +
+                    "JOIN currencies c ON p.currency_id = c.currency_id " +
+                    "ORDER BY p.product_id";
+        
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            
+            int[] count = {0};
+            try (ResultSet rs = stmt.executeQuery()) {
+                ProductMapper.INSTANCE.forEach(rs, product -> {
+                    consumer.accept(product);
+                    count[0]++;
+                });
+            }
+            LOG.debug("Streamed {} products", count[0]);
+            return count[0];
+            
+        } catch (SQLException e) {
+            LOG.error("Error streaming products: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * A validated product row waiting to be inserted by {@link #bulkAddProducts}
+     */
+    public static class ProductDraft {
+        private final int sourceRow;
+        private final String name;
+        private final String description;
+        private final BigDecimal basePrice;
+        private final String currencyCode;
+        private final Product.Category category;
+        private final boolean customizable;
+        private final int stockQuantity;
+        private final boolean active;
+
+        public ProductDraft(int sourceRow, String name, String description, BigDecimal basePrice,
+                            String currencyCode, Product.Category category, boolean customizable,
+                            int stockQuantity, boolean active) {
+            this.sourceRow = sourceRow;
+            this.name = name;
+            this.description = description;
+            this.basePrice = basePrice;
+            this.currencyCode = currencyCode;
+            this.category = category;
+            this.customizable = customizable;
+            this.stockQuantity = stockQuantity;
+            this.active = active;
+        }
+
+        /** Row number in the imported file, used in error reports */
+        public int getSourceRow() { return sourceRow; }
+        public String getName() { return name; }
+        public String getDescription() { return description; }
+        public BigDecimal getBasePrice() { return basePrice; }
+        public String getCurrencyCode() { return currencyCode; }
+        public Product.Category getCategory() { return category; }
+        public boolean isCustomizable() { return customizable; }
+        public int getStockQuantity() { return stockQuantity; }
+        public boolean isActive() { return active; }
+    }
+
+    public static class BulkInsertResult {
+        private final List<Integer> insertedIds = new ArrayList<>();
+        // Source row -> reason, in row order
+        private final Map<Integer, String> errors = new java.util.TreeMap<>();
+
+        void addError(int sourceRow, String message) {
+            errors.put(sourceRow, message);
+        }
+
+        public List<Integer> getInsertedIds() { return insertedIds; }
+        public Map<Integer, String> getErrors() { return errors; }
+    }
+
     // Result classes
     public static class AddProductResult {
         private final boolean success;
@@ -305,7 +566,7 @@ public class ProductDAO {
             return rs.getString("description");
         }
     } catch (SQLException e) {
-        System.err.println("Error fetching description for product ID " + productId + ": " + e.getMessage());
+        LOG.error("Error fetching description for product ID {}: {}", productId, e.getMessage());
     }
     return "";
 }
@@ -316,10 +577,13 @@ public class ProductDAO {
 
         stmt.setInt(1, productId);
         int affectedRows = stmt.executeUpdate();
+        if (affectedRows > 0) {
+            fireProductRemoved(productId);
+        }
 
         return affectedRows > 0;
     } catch (SQLException e) {
-        System.err.println("Error deleting product ID " + productId + ": " + e.getMessage());
+        LOG.error("Error deleting product ID {}: {}", productId, e.getMessage());
         return false;
     }
 }
@@ -349,7 +613,7 @@ public class ProductDAO {
             }
 
         } catch (Exception e) {
-            e.printStackTrace(); // Or use your logger
+            LOG.error("Error counting products: {}", e.getMessage());
         }
         return 0;
     }
@@ -365,7 +629,7 @@ public class ProductDAO {
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Error counting active products: {}", e.getMessage());
         }
         return 0;
     }
@@ -0,0 +1,226 @@
+package com.neosburritos.dao;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
+
+/**
+ * Data Access Object for revenue reports. Reads only sales_rollup_hourly and
+ * sales_rollup_daily, never orders, so a report costs the same however many orders
+ * there are. The rollups are kept current by tr_sales_rollup_on_status; backfillDay
+ * rebuilds a day from the orders.
+ */
+public class SalesReportDAO {
+
+    private static final Logger LOG = Logger.getLogger(SalesReportDAO.class);
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+
+    public enum Granularity {
+        HOURLY("sales_rollup_hourly", "bucket_start"),
+        DAILY("sales_rollup_daily", "bucket_date");
+
+        private final String table;
+        private final String bucketColumn;
+
+        Granularity(String table, String bucketColumn) {
+            this.table = table;
+            this.bucketColumn = bucketColumn;
+        }
+    }
+
+    /** What the report rows are grouped by */
+    public enum Dimension {
+        PERIOD, PRODUCT, CATEGORY, CURRENCY
+    }
+
+    /**
+     * One report row. Revenue in the order currency is only set when grouping by currency;
+     * the other groupings mix currencies and compare in USD.
+     */
+    public static class SalesRow {
+        private final String label;
+        private final String currencyCode;
+        private final BigDecimal revenue;
+        private final BigDecimal revenueUsd;
+        private final long units;
+        private final long orderCount;
+
+        public SalesRow(String label, String currencyCode, BigDecimal revenue, BigDecimal revenueUsd,
+                        long units, long orderCount) {
+            this.label = label;
+            this.currencyCode = currencyCode;
+            this.revenue = revenue;
+            this.revenueUsd = revenueUsd;
+            this.units = units;
+            this.orderCount = orderCount;
+        }
+
+        public String getLabel() { return label; }
+        public String getCurrencyCode() { return currencyCode; }
+        public BigDecimal getRevenue() { return revenue; }
+        public BigDecimal getRevenueUsd() { return revenueUsd; }
+        public long getUnits() { return units; }
+        /** Orders that included this product, category or currency */
+        public long getOrderCount() { return orderCount; }
+    }
+
+    /**
+     * Result of rebuilding one day with sp_backfill_sales_rollups
+     */
+    public static class BackfillResult {
+        private final boolean success;
+        private final String message;
+        private final int orderCount;
+
+        public BackfillResult(boolean success, String message, int orderCount) {
+            this.success = success;
+            this.message = message;
+            this.orderCount = orderCount;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public int getOrderCount() { return orderCount; }
+    }
+
+    /**
+     * Sales in [from, to), grouped by the dimension. Daily reports cover whole days.
+     * Rows are in time order when grouped by period, otherwise by USD revenue, highest first.
+     */
+    public List<SalesRow> getSales(Granularity granularity, Dimension dimension, LocalDateTime from, LocalDateTime to) {
+        String bucket = "r." + granularity.bucketColumn;
+        String range = " FROM " + granularity.table + " r ";
+        String where = "WHERE " + bucket + " >= ? AND " + bucket + " < ? ";
+        String measures = "SUM(r.revenue_usd) AS revenue_usd, SUM(r.units) AS units, SUM(r.order_count) AS order_count";
+        String sql;
+        switch (dimension) {
+            case PERIOD:
+                sql = "SELECT " + bucket + " AS label, " + measures + range + where +
+                      "AND r.category = 'ALL' GROUP BY " + bucket + " ORDER BY " + bucket;
+                break;
+            case PRODUCT:
+                sql = "SELECT COALESCE(p.name, CONCAT('Product #', r.product_id)) AS label, " + measures + range +
+                      "LEFT JOIN products p ON r.product_id = p.product_id " + where +
+                      "AND r.product_id != 0 GROUP BY r.product_id, p.name ORDER BY revenue_usd DESC";
+                break;
+            case CATEGORY:
+                sql = "SELECT r.category AS label, " + measures + range + where +
+                      "AND r.product_id = 0 AND r.category != 'ALL' GROUP BY r.category ORDER BY revenue_usd DESC";
+                break;
+            default:
+                sql = "SELECT c.currency_code AS label, SUM(r.revenue) AS revenue, " + measures + range +
+                      "JOIN currencies c ON r.currency_id = c.currency_id " + where +
+                      "AND r.category = 'ALL' GROUP BY r.currency_id, c.currency_code ORDER BY revenue_usd DESC";
+                break;
+        }
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            if (granularity == Granularity.DAILY) {
+                stmt.setDate(1, Date.valueOf(from.toLocalDate()));
+                // A partial last day still counts as a day
+                LocalDate end = to.toLocalTime().equals(LocalTime.MIDNIGHT)
+                        ? to.toLocalDate() : to.toLocalDate().plusDays(1);
+                stmt.setDate(2, Date.valueOf(end));
+            } else {
+                stmt.setTimestamp(1, Timestamp.valueOf(from.withMinute(0).withSecond(0).withNano(0)));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+            }
+
+            List<SalesRow> rows = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    boolean byCurrency = dimension == Dimension.CURRENCY;
+                    rows.add(new SalesRow(label(rs, dimension, granularity),
+                                          byCurrency ? rs.getString("label") : null,
+                                          byCurrency ? rs.getBigDecimal("revenue") : null,
+                                          rs.getBigDecimal("revenue_usd"),
+                                          rs.getLong("units"),
+                                          rs.getLong("order_count")));
+                }
+            }
+            return rows;
+
+        } catch (SQLException e) {
+            LOG.error("Error reading {} sales by {}: {}", granularity, dimension, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private static String label(ResultSet rs, Dimension dimension, Granularity granularity) throws SQLException {
+        if (dimension != Dimension.PERIOD) {
+            return rs.getString("label");
+        }
+        if (granularity == Granularity.DAILY) {
+            return rs.getDate("label").toLocalDate().toString();
+        }
+        return rs.getTimestamp("label").toLocalDateTime().format(HOUR_FORMAT);
+    }
+
+    /**
+     * Rebuild one day of both rollups from the orders placed that day, hot and archived
+     */
+    public BackfillResult backfillDay(LocalDate day) {
+        String sql = "{CALL sp_backfill_sales_rollups(?, ?, ?, ?)}";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = conn.prepareCall(sql)) {
+
+            stmt.setDate(1, Date.valueOf(day));
+            stmt.registerOutParameter(2, Types.INTEGER); // order_count
+            stmt.registerOutParameter(3, Types.BOOLEAN); // success
+            stmt.registerOutParameter(4, Types.VARCHAR); // message
+
+            stmt.execute();
+
+            boolean success = stmt.getBoolean(3);
+            String message = stmt.getString(4);
+            if (!success) {
+                LOG.warn("Sales rollup backfill for {} failed: {}", day, message);
+            }
+            return new BackfillResult(success, message, stmt.getInt(2));
+
+        } catch (SQLException e) {
+            LOG.error("Error rebuilding sales rollups for {}: {}", day, e.getMessage());
+            return new BackfillResult(false, "Database error while rebuilding sales rollups", 0);
+        }
+    }
+
+    /**
+     * The day of the earliest order, hot or archived, or null if there are none
+     */
+    public LocalDate getFirstOrderDate() {
+        String sql = "SELECT MIN(d) FROM (SELECT MIN(order_date) AS d FROM orders " +
+                     "UNION ALL SELECT MIN(order_date) FROM orders_archive) t";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            Timestamp first = rs.next() ? rs.getTimestamp(1) : null;
+            return first != null ? first.toLocalDateTime().toLocalDate() : null;
+
+        } catch (SQLException e) {
+            LOG.error("Error finding the first order date: {}", e.getMessage());
+            return null;
+        }
+    }
+}
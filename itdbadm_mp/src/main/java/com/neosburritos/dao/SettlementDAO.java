@@ -0,0 +1,357 @@
+package com.neosburritos.dao;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
+
+/**
+ * Data Access Object for end-of-day settlement: completing paid orders in batches,
+ * checking each order's payments in transaction_log against its total, and storing
+ * the day's totals in daily_settlements and settlement_totals.
+ */
+public class SettlementDAO {
+
+    private static final Logger LOG = Logger.getLogger(SettlementDAO.class);
+
+    /**
+     * Result of one sp_settle_orders batch
+     */
+    public static class SettleBatchResult {
+        private final boolean success;
+        private final String message;
+        private final int completedCount;
+
+        public SettleBatchResult(boolean success, String message, int completedCount) {
+            this.success = success;
+            this.message = message;
+            this.completedCount = completedCount;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        public int getCompletedCount() { return completedCount; }
+    }
+
+    /**
+     * An order whose captured payments minus refunds do not match what it should have cost
+     */
+    public static class Mismatch {
+        public enum Kind {
+            /** Confirmed or completed without any captured payment */
+            UNPAID,
+            /** Paid, but not the order total */
+            AMOUNT_MISMATCH,
+            /** Cancelled with money still captured */
+            UNREFUNDED
+        }
+
+        private final int orderId;
+        private final String status;
+        private final String currencyCode;
+        private final BigDecimal orderTotal;
+        private final BigDecimal paid;
+        private final BigDecimal refunded;
+        private final Kind kind;
+
+        public Mismatch(int orderId, String status, String currencyCode, BigDecimal orderTotal,
+                        BigDecimal paid, BigDecimal refunded, Kind kind) {
+            this.orderId = orderId;
+            this.status = status;
+            this.currencyCode = currencyCode;
+            this.orderTotal = orderTotal;
+            this.paid = paid;
+            this.refunded = refunded;
+            this.kind = kind;
+        }
+
+        public int getOrderId() { return orderId; }
+        public String getStatus() { return status; }
+        public String getCurrencyCode() { return currencyCode; }
+        public BigDecimal getOrderTotal() { return orderTotal; }
+        public BigDecimal getPaid() { return paid; }
+        public BigDecimal getRefunded() { return refunded; }
+        public BigDecimal getNetPaid() { return paid.subtract(refunded); }
+        public Kind getKind() { return kind; }
+
+        @Override
+        public String toString() {
+            return String.format("Order %d (%s) %s: total %s %s, paid %s, refunded %s",
+                    orderId, status, kind, currencyCode, orderTotal, paid, refunded);
+        }
+    }
+
+    /**
+     * Result of checking one day's orders against their payments
+     */
+    public static class Reconciliation {
+        private final boolean success;
+        private final int ordersChecked;
+        private final List<Mismatch> mismatches;
+
+        public Reconciliation(boolean success, int ordersChecked, List<Mismatch> mismatches) {
+            this.success = success;
+            this.ordersChecked = ordersChecked;
+            this.mismatches = mismatches;
+        }
+
+        public boolean isSuccess() { return success; }
+        public int getOrdersChecked() { return ordersChecked; }
+        public int getOrdersReconciled() { return ordersChecked - mismatches.size(); }
+        public List<Mismatch> getMismatches() { return mismatches; }
+    }
+
+    /**
+     * One currency's captured payments and refunds for a day
+     */
+    public static class CurrencyTotal {
+        private final int currencyId;
+        private final String currencyCode;
+        private final int paymentCount;
+        private final BigDecimal paymentAmount;
+        private final int refundCount;
+        private final BigDecimal refundAmount;
+
+        public CurrencyTotal(int currencyId, String currencyCode, int paymentCount, BigDecimal paymentAmount,
+                             int refundCount, BigDecimal refundAmount) {
+            this.currencyId = currencyId;
+            this.currencyCode = currencyCode;
+            this.paymentCount = paymentCount;
+            this.paymentAmount = paymentAmount;
+            this.refundCount = refundCount;
+            this.refundAmount = refundAmount;
+        }
+
+        public int getCurrencyId() { return currencyId; }
+        public String getCurrencyCode() { return currencyCode; }
+        public int getPaymentCount() { return paymentCount; }
+        public BigDecimal getPaymentAmount() { return paymentAmount; }
+        public int getRefundCount() { return refundCount; }
+        public BigDecimal getRefundAmount() { return refundAmount; }
+        public BigDecimal getNetAmount() { return paymentAmount.subtract(refundAmount); }
+    }
+
+    /**
+     * Complete one batch of reconciled CONFIRMED orders placed before the cutoff using
+     * sp_settle_orders. Each batch is its own transaction.
+     *
+     * @param requirePayment false to also complete orders with no payment entries at all
+     */
+    public SettleBatchResult completeSettledOrders(LocalDateTime cutoff, int batchSize, boolean requirePayment) {
+        String sql = "{CALL sp_settle_orders(?, ?, ?, ?, ?, ?)}";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             CallableStatement stmt = conn.prepareCall(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            stmt.setInt(2, batchSize);
+            stmt.setBoolean(3, requirePayment);
+            stmt.registerOutParameter(4, Types.INTEGER); // completed_count
+            stmt.registerOutParameter(5, Types.BOOLEAN); // success
+            stmt.registerOutParameter(6, Types.VARCHAR); // message
+
+            stmt.execute();
+
+            boolean success = stmt.getBoolean(5);
+            String message = stmt.getString(6);
+            if (!success) {
+                LOG.warn("Settlement batch failed: {}", message);
+            }
+            return new SettleBatchResult(success, message, stmt.getInt(4));
+
+        } catch (SQLException e) {
+            LOG.error("Error settling orders before {}: {}", cutoff, e.getMessage());
+            return new SettleBatchResult(false, "Database error while settling orders", 0);
+        }
+    }
+
+    /**
+     * Check every non-pending order placed in [from, to) against its captured payments
+     * and refunds. Only the orders that do not match are returned.
+     */
+    public Reconciliation reconcile(LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT o.order_id, o.status, o.total_amount, c.currency_code, " +
+                     "COALESCE(SUM(CASE WHEN t.event_kind = 'PAYMENT' THEN t.amount END), 0) AS paid, " +
+                     "COALESCE(SUM(CASE WHEN t.event_kind = 'REFUND' THEN t.amount END), 0) AS refunded, " +
+                     "COUNT(t.order_id) AS entries " +
+                     "FROM orders o " +
+                     "JOIN currencies c ON o.currency_id = c.currency_id " +
+                     // A ledger entry written twice counts once: one row per transaction reference
+                     "LEFT JOIN (SELECT t.order_id, t.event_kind, MIN(t.amount) AS amount " +
+                     "           FROM orders ro " +
+                     "           JOIN transaction_log t ON t.order_id = ro.order_id " +
+                     "           AND t.event_kind IN ('PAYMENT', 'REFUND') AND t.payment_status = 'COMPLETED' " +
+                     "           WHERE ro.order_date >= ? AND ro.order_date < ? AND ro.status != 'PENDING' " +
+                     "           GROUP BY t.order_id, t.event_kind, " +
+                     "                    COALESCE(t.transaction_reference, t.transaction_id)) t " +
+                     "ON t.order_id = o.order_id " +
+                     "WHERE o.order_date >= ? AND o.order_date < ? AND o.status != 'PENDING' " +
+                     "GROUP BY o.order_id, o.status, o.total_amount, c.currency_code";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            stmt.setTimestamp(3, Timestamp.valueOf(from));
+            stmt.setTimestamp(4, Timestamp.valueOf(to));
+
+            int checked = 0;
+            List<Mismatch> mismatches = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    checked++;
+                    String status = rs.getString("status");
+                    BigDecimal total = rs.getBigDecimal("total_amount");
+                    BigDecimal paid = rs.getBigDecimal("paid");
+                    BigDecimal refunded = rs.getBigDecimal("refunded");
+                    BigDecimal net = paid.subtract(refunded);
+
+                    Mismatch.Kind kind = null;
+                    if ("CANCELLED".equals(status)) {
+                        if (net.signum() > 0) {
+                            kind = Mismatch.Kind.UNREFUNDED;
+                        }
+                    } else if (rs.getInt("entries") == 0) {
+                        kind = Mismatch.Kind.UNPAID;
+                    } else if (net.compareTo(total) != 0) {
+                        kind = Mismatch.Kind.AMOUNT_MISMATCH;
+                    }
+                    if (kind != null) {
+                        mismatches.add(new Mismatch(rs.getInt("order_id"), status, rs.getString("currency_code"),
+                                                    total, paid, refunded, kind));
+                    }
+                }
+            }
+            return new Reconciliation(true, checked, mismatches);
+
+        } catch (SQLException e) {
+            LOG.error("Error reconciling orders from {} to {}: {}", from, to, e.getMessage());
+            return new Reconciliation(false, 0, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Captured payments and refunds processed in [from, to), per currency
+     *
+     * @return the totals, or null on error
+     */
+    public List<CurrencyTotal> getCurrencyTotals(LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT t.currency_id, c.currency_code, " +
+                     "SUM(t.event_kind = 'PAYMENT') AS payment_count, " +
+                     "COALESCE(SUM(CASE WHEN t.event_kind = 'PAYMENT' THEN t.amount END), 0) AS payment_amount, " +
+                     "SUM(t.event_kind = 'REFUND') AS refund_count, " +
+                     "COALESCE(SUM(CASE WHEN t.event_kind = 'REFUND' THEN t.amount END), 0) AS refund_amount " +
+                     // Same rule as reconcile(): each transaction reference counts once
+                     "FROM (SELECT MIN(currency_id) AS currency_id, event_kind, MIN(amount) AS amount " +
+                     "      FROM transaction_log " +
+                     "      WHERE event_kind IN ('PAYMENT', 'REFUND') AND payment_status = 'COMPLETED' " +
+                     "      AND processed_at >= ? AND processed_at < ? " +
+                     "      GROUP BY event_kind, COALESCE(transaction_reference, transaction_id)) t " +
+                     "JOIN currencies c ON t.currency_id = c.currency_id " +
+                     "GROUP BY t.currency_id, c.currency_code " +
+                     "ORDER BY c.currency_code";
+
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+
+            List<CurrencyTotal> totals = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(new CurrencyTotal(rs.getInt("currency_id"), rs.getString("currency_code"),
+                                                 rs.getInt("payment_count"), rs.getBigDecimal("payment_amount"),
+                                                 rs.getInt("refund_count"), rs.getBigDecimal("refund_amount")));
+                }
+            }
+            return totals;
+
+        } catch (SQLException e) {
+            LOG.error("Error totalling payments from {} to {}: {}", from, to, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the day's summary row and replace its per-currency totals in one transaction.
+     * Orders completed are added to what earlier runs for the same day completed.
+     */
+    public boolean saveSettlement(LocalDate businessDate, int ordersCompleted, int ordersReconciled,
+                                  int mismatchCount, long durationMillis, List<CurrencyTotal> totals) {
+        String upsertDay =
+            "INSERT INTO daily_settlements (business_date, orders_completed, orders_reconciled, mismatch_count, " +
+            "payment_count, refund_count, duration_ms) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE orders_completed = orders_completed + VALUES(orders_completed), " +
+            "orders_reconciled = VALUES(orders_reconciled), mismatch_count = VALUES(mismatch_count), " +
+            "payment_count = VALUES(payment_count), refund_count = VALUES(refund_count), " +
+            "duration_ms = VALUES(duration_ms), settled_at = CURRENT_TIMESTAMP";
+        String deleteTotals = "DELETE FROM settlement_totals WHERE business_date = ?";
+        String insertTotal =
+            "INSERT INTO settlement_totals (business_date, currency_id, payment_count, payment_amount, " +
+            "refund_count, refund_amount, net_amount) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        int payments = 0;
+        int refunds = 0;
+        for (CurrencyTotal total : totals) {
+            payments += total.getPaymentCount();
+            refunds += total.getRefundCount();
+        }
+        Date day = Date.valueOf(businessDate);
+
+        try (Connection connection = DatabaseConnectionManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement dayStmt = connection.prepareStatement(upsertDay);
+                 PreparedStatement deleteStmt = connection.prepareStatement(deleteTotals);
+                 PreparedStatement totalStmt = connection.prepareStatement(insertTotal)) {
+
+                dayStmt.setDate(1, day);
+                dayStmt.setInt(2, ordersCompleted);
+                dayStmt.setInt(3, ordersReconciled);
+                dayStmt.setInt(4, mismatchCount);
+                dayStmt.setInt(5, payments);
+                dayStmt.setInt(6, refunds);
+                dayStmt.setInt(7, (int) Math.min(Integer.MAX_VALUE, durationMillis));
+                dayStmt.executeUpdate();
+
+                deleteStmt.setDate(1, day);
+                deleteStmt.executeUpdate();
+
+                for (CurrencyTotal total : totals) {
+                    totalStmt.setDate(1, day);
+                    totalStmt.setInt(2, total.getCurrencyId());
+                    totalStmt.setInt(3, total.getPaymentCount());
+                    totalStmt.setBigDecimal(4, total.getPaymentAmount());
+                    totalStmt.setInt(5, total.getRefundCount());
+                    totalStmt.setBigDecimal(6, total.getRefundAmount());
+                    totalStmt.setBigDecimal(7, total.getNetAmount());
+                    totalStmt.addBatch();
+                }
+                totalStmt.executeBatch();
+
+                connection.commit();
+                return true;
+
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOG.error("Error saving settlement for {}: {}", businessDate, e.getMessage());
+            return false;
+        }
+    }
+}
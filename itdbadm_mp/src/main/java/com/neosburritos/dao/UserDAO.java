@@ -6,15 +6,21 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.neosburritos.dao.mapper.UserMapper;
 import com.neosburritos.model.User;
 import com.neosburritos.util.DatabaseConnectionManager;
+import com.neosburritos.util.Logger;
 
 /**
  * Data Access Object for User operations
  * Demonstrates stored procedure calls for authentication and user management
  */
 public class UserDAO {
+    
+    private static final Logger LOG = Logger.getLogger(UserDAO.class);
 
     public UserDAO() {
         // No instance connection - each method manages its own connection lifecycle
@@ -55,15 +61,15 @@ public class UserDAO {
                 user.setEmail(email);
                 user.setRole(User.Role.valueOf(roleStr));
                 
-                System.out.println("User authenticated successfully: " + email);
+                LOG.info("User authenticated successfully: {}", email);
                 return new AuthResult(true, message, user);
             } else {
-                System.out.println("Authentication failed for user: " + email);
+                LOG.warn("Authentication failed for user: {}", email);
                 return new AuthResult(false, message, null);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error during authentication for user: " + email + " - " + e.getMessage());
+            LOG.error("Error during authentication for user: {} - {}", email, e.getMessage());
             return new AuthResult(false, "Database error during authentication", null);
         }
     }
@@ -97,15 +103,15 @@ public class UserDAO {
             Integer userId = success ? stmt.getInt(7) : null;
             
             if (success) {
-                System.out.println("User registered successfully: " + email);
+                LOG.info("User registered successfully: {}", email);
             } else {
-                System.out.println("User registration failed: " + message);
+                LOG.warn("User registration failed: {}", message);
             }
             
             return new RegisterResult(success, message, userId);
             
         } catch (SQLException e) {
-            System.err.println("Error during user registration for email: " + email + " - " + e.getMessage());
+            LOG.error("Error during user registration for email: {} - {}", email, e.getMessage());
             return new RegisterResult(false, "Database error during registration", null);
         }
     }
@@ -134,15 +140,15 @@ public class UserDAO {
             String message = stmt.getString(6);
             
             if (success) {
-                System.out.println("Profile updated successfully for user ID: " + userId);
+                LOG.info("Profile updated successfully for user ID: {}", userId);
             } else {
-                System.out.println("Profile update failed for user ID: " + userId);
+                LOG.warn("Profile update failed for user ID: {}", userId);
             }
             
             return new UpdateResult(success, message);
             
         } catch (SQLException e) {
-            System.err.println("Error updating profile for user ID: " + userId + " - " + e.getMessage());
+            LOG.error("Error updating profile for user ID: {} - {}", userId, e.getMessage());
             return new UpdateResult(false, "Database error during profile update");
         }
     }
@@ -150,33 +156,81 @@ public class UserDAO {
     /**
      * Get all users for admin management
      */
-    public java.util.List<User> getAllUsers() {
+    public List<User> getAllUsers() {
         String sql = "SELECT user_id, name, email, role, phone, address, is_active, created_at FROM users ORDER BY created_at DESC";
-        java.util.List<User> users = new java.util.ArrayList<>();
         
         try (Connection connection = DatabaseConnectionManager.getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
-            while (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setName(rs.getString("name"));
-                user.setEmail(rs.getString("email"));
-                user.setRole(User.Role.valueOf(rs.getString("role")));
-                user.setPhone(rs.getString("phone"));
-                user.setAddress(rs.getString("address"));
-                user.setActive(rs.getBoolean("is_active"));
-                user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                users.add(user);
-            }
+            List<User> users = UserMapper.INSTANCE.mapAll(rs);
             
-            System.out.println("Retrieved " + users.size() + " users");
+            LOG.debug("Retrieved {} users", users.size());
             return users;
             
         } catch (SQLException e) {
-            System.err.println("Error retrieving all users: " + e.getMessage());
-            return new java.util.ArrayList<>();
+            LOG.error("Error retrieving all users: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Get one page of users for admin management, newest first.
+     * Uses keyset pagination on user_id so later pages cost the same as the first one;
+     * pass the returned next cursor to continue, or null to start from the top.
+     */
+    public UserPage getUsersPage(UserFilter filter, Integer afterUserId, int limit) {
+        String sql = pageSql(filter, afterUserId != null);
+        
+        try (Connection connection = DatabaseConnectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            
+            // One extra row tells us whether another page exists without a COUNT(*)
+            bindPage(stmt, filter, afterUserId, limit + 1);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<User> users = UserMapper.INSTANCE.mapAll(rs);
+                Integer nextCursor = null;
+                if (users.size() > limit) {
+                    users = new ArrayList<>(users.subList(0, limit));
+                    nextCursor = users.get(limit - 1).getUserId();
+                }
+                LOG.debug("Retrieved page of {} users after ID {}", users.size(), afterUserId);
+                return new UserPage(users, nextCursor);
+            }
+            
+        } catch (SQLException e) {
+            LOG.error("Error retrieving users page: {}", e.getMessage());
+            return new UserPage(new ArrayList<>(), null);
+        }
+    }
+
+    /**
+     * The statement behind getUsersPage. A prefix search runs as one branch per column so
+     * each branch range-scans its own prefix index (idx_users_name, the email unique key)
+     * instead of an OR over both; neither index is in user_id order, so each branch sorts
+     * its matches and stops at the page size, and the UNION merges the two short lists.
+     */
+    static String pageSql(UserFilter filter, boolean afterCursor) {
+        String select = "SELECT user_id, name, email, role, phone, address, is_active, created_at FROM users\n";
+        if (filter.getPrefix() == null) {
+            return select + filter.whereClause(null, afterCursor) + "ORDER BY user_id DESC LIMIT ?";
+        }
+        return "(" + select + filter.whereClause("name", afterCursor) + "ORDER BY user_id DESC LIMIT ?)\n"
+             + "UNION\n"
+             + "(" + select + filter.whereClause("email", afterCursor) + "ORDER BY user_id DESC LIMIT ?)\n"
+             + "ORDER BY user_id DESC LIMIT ?";
+    }
+
+    /**
+     * Bind the parameters of pageSql, fetching at most rows users
+     */
+    static void bindPage(PreparedStatement stmt, UserFilter filter, Integer afterUserId, int rows)
+            throws SQLException {
+        int index = filter.bind(stmt, 1, afterUserId, rows);
+        if (filter.getPrefix() != null) {
+            index = filter.bind(stmt, index, afterUserId, rows);
+            stmt.setInt(index, rows);
         }
     }
 
@@ -196,16 +250,16 @@ public class UserDAO {
             
             if (rowsAffected > 0) {
                 String message = "User status updated to " + (isActive ? "active" : "inactive");
-                System.out.println(message + " for user ID: " + userId);
+                LOG.info("{} for user ID: {}", message, userId);
                 return new UpdateResult(true, message);
             } else {
                 String message = "User not found or no changes made";
-                System.out.println(message + " for user ID: " + userId);
+                LOG.info("{} for user ID: {}", message, userId);
                 return new UpdateResult(false, message);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error updating user status for user ID: " + userId + " - " + e.getMessage());
+            LOG.error("Error updating user status for user ID: {} - {}", userId, e.getMessage());
             return new UpdateResult(false, "Database error during status update");
         }
     }
@@ -226,16 +280,16 @@ public class UserDAO {
             
             if (rowsAffected > 0) {
                 String message = "User role updated to " + newRole;
-                System.out.println(message + " for user ID: " + userId);
+                LOG.info("{} for user ID: {}", message, userId);
                 return new UpdateResult(true, message);
             } else {
                 String message = "User not found or no changes made";
-                System.out.println(message + " for user ID: " + userId);
+                LOG.info("{} for user ID: {}", message, userId);
                 return new UpdateResult(false, message);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error updating user role for user ID: " + userId + " - " + e.getMessage());
+            LOG.error("Error updating user role for user ID: {} - {}", userId, e.getMessage());
             return new UpdateResult(false, "Database error during role update");
         }
     }
@@ -252,24 +306,11 @@ public class UserDAO {
             stmt.setInt(1, userId);
             
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    User user = new User();
-                    user.setUserId(rs.getInt("user_id"));
-                    user.setName(rs.getString("name"));
-                    user.setEmail(rs.getString("email"));
-                    user.setRole(User.Role.valueOf(rs.getString("role")));
-                    user.setPhone(rs.getString("phone"));
-                    user.setAddress(rs.getString("address"));
-                    user.setActive(rs.getBoolean("is_active"));
-                    user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                    return user;
-                }
+                return UserMapper.INSTANCE.mapFirst(rs);
             }
             
-            return null;
-            
         } catch (SQLException e) {
-            System.err.println("Error retrieving user by ID: " + userId + " - " + e.getMessage());
+            LOG.error("Error retrieving user by ID: {} - {}", userId, e.getMessage());
             return null;
         }
     }
@@ -320,6 +361,108 @@ public class UserDAO {
         public String getMessage() { return message; }
     }
 
+    /**
+     * Server-side filter for the user admin list. Immutable; each with... call returns a copy.
+     */
+    public static final class UserFilter {
+        private final User.Role role;
+        private final Boolean active;
+        private final String prefix;
+        
+        private UserFilter(User.Role role, Boolean active, String prefix) {
+            this.role = role;
+            this.active = active;
+            this.prefix = prefix;
+        }
+        
+        /** Every user */
+        public static UserFilter all() {
+            return new UserFilter(null, null, null);
+        }
+        
+        /** Restrict to a role, or null for any role */
+        public UserFilter withRole(User.Role newRole) {
+            return new UserFilter(newRole, active, prefix);
+        }
+        
+        /** Restrict to active or inactive accounts, or null for both */
+        public UserFilter withActive(Boolean newActive) {
+            return new UserFilter(role, newActive, prefix);
+        }
+        
+        /** Restrict to names or emails starting with the text, or null/blank for no restriction */
+        public UserFilter withPrefix(String newPrefix) {
+            String trimmed = newPrefix != null ? newPrefix.trim() : "";
+            return new UserFilter(role, active, trimmed.isEmpty() ? null : trimmed);
+        }
+        
+        public User.Role getRole() { return role; }
+        public Boolean getActive() { return active; }
+        public String getPrefix() { return prefix; }
+        
+        /**
+         * WHERE clause for one query over users; with a prefix, prefixColumn names the
+         * column it is matched against
+         */
+        String whereClause(String prefixColumn, boolean afterCursor) {
+            List<String> conditions = new ArrayList<>();
+            if (role != null) {
+                conditions.add("role = ?");
+            }
+            if (active != null) {
+                conditions.add("is_active = ?");
+            }
+            if (prefix != null) {
+                // Left-anchored, so it stays a range scan on the column's index
+                conditions.add(prefixColumn + " LIKE ?");
+            }
+            if (afterCursor) {
+                conditions.add("user_id < ?");
+            }
+            return conditions.isEmpty() ? "" : "WHERE " + String.join("\nAND ", conditions) + "\n";
+        }
+        
+        /**
+         * Bind the parameters of one whereClause query and its LIMIT, starting at index;
+         * returns the next free index
+         */
+        int bind(PreparedStatement stmt, int index, Integer afterUserId, int rows) throws SQLException {
+            if (role != null) {
+                stmt.setString(index++, role.name());
+            }
+            if (active != null) {
+                stmt.setBoolean(index++, active);
+            }
+            if (prefix != null) {
+                stmt.setString(index++, escapeLike(prefix) + "%");
+            }
+            if (afterUserId != null) {
+                stmt.setInt(index++, afterUserId);
+            }
+            stmt.setInt(index++, rows);
+            return index;
+        }
+        
+        private static String escapeLike(String text) {
+            return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+    }
+    
+    public static class UserPage {
+        private final List<User> users;
+        private final Integer nextCursor;
+        
+        public UserPage(List<User> users, Integer nextCursor) {
+            this.users = users;
+            this.nextCursor = nextCursor;
+        }
+        
+        public List<User> getUsers() { return users; }
+        /** The user_id to pass as afterUserId for the next page, or null on the last page */
+        public Integer getNextCursor() { return nextCursor; }
+        public boolean hasMore() { return nextCursor != null; }
+    }
+
     public int countUsers() {
         String sql = "SELECT COUNT(*) FROM users";
         try (Connection conn = DatabaseConnectionManager.getConnection();
@@ -0,0 +1,61 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.AuditEvent;
+
+/**
+ * Maps transaction_log rows. currency_code is optional and only set when the query joins currencies.
+ */
+public final class AuditEventMapper extends IndexedRowMapper<AuditEvent> {
+
+    public static final AuditEventMapper INSTANCE = new AuditEventMapper();
+
+    private static final int TRANSACTION_ID = 0;
+    private static final int ORDER_ID = 1;
+    private static final int EVENT_KIND = 2;
+    private static final int PAYMENT_STATUS = 3;
+    private static final int AMOUNT = 4;
+    private static final int CURRENCY_CODE = 5;
+    private static final int REFERENCE = 6;
+    private static final int PROCESSED_AT = 7;
+
+    private AuditEventMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("transaction_id"),
+            columns.required("order_id"),
+            columns.required("event_kind"),
+            columns.optional("payment_status"),
+            columns.required("amount"),
+            columns.optional("currency_code"),
+            columns.optional("transaction_reference"),
+            columns.required("processed_at")
+        };
+    }
+
+    @Override
+    protected AuditEvent map(ResultSet rs, int[] columns) throws SQLException {
+        AuditEvent event = new AuditEvent();
+        event.setTransactionId(rs.getInt(columns[TRANSACTION_ID]));
+        int orderId = rs.getInt(columns[ORDER_ID]);
+        event.setOrderId(rs.wasNull() ? null : orderId);
+        event.setKind(AuditEvent.Kind.valueOf(rs.getString(columns[EVENT_KIND])));
+        if (columns[PAYMENT_STATUS] != ABSENT) {
+            event.setPaymentStatus(rs.getString(columns[PAYMENT_STATUS]));
+        }
+        event.setAmount(rs.getBigDecimal(columns[AMOUNT]));
+        if (columns[CURRENCY_CODE] != ABSENT) {
+            event.setCurrencyCode(rs.getString(columns[CURRENCY_CODE]));
+        }
+        if (columns[REFERENCE] != ABSENT) {
+            event.setReference(rs.getString(columns[REFERENCE]));
+        }
+        event.setProcessedAt(getLocalDateTime(rs, columns[PROCESSED_AT]));
+        return event;
+    }
+}
@@ -0,0 +1,67 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.CartItem;
+
+/**
+ * Maps rows from sp_get_cart_items. user_id is optional because the procedure
+ * filters by user and does not return it; callers set it when absent.
+ */
+public final class CartItemMapper extends IndexedRowMapper<CartItem> {
+
+    public static final CartItemMapper INSTANCE = new CartItemMapper();
+
+    private static final int CART_ID = 0;
+    private static final int USER_ID = 1;
+    private static final int PRODUCT_ID = 2;
+    private static final int PRODUCT_NAME = 3;
+    private static final int QUANTITY = 4;
+    private static final int UNIT_PRICE = 5;
+    private static final int TOTAL_PRICE = 6;
+    private static final int CUSTOMIZATIONS = 7;
+    private static final int CURRENCY_SYMBOL = 8;
+    private static final int ADDED_AT = 9;
+
+    private CartItemMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("cart_id"),
+            columns.optional("user_id"),
+            columns.required("product_id"),
+            columns.required("product_name"),
+            columns.required("quantity"),
+            columns.required("unit_price"),
+            columns.required("total_price"),
+            columns.optional("customizations"),
+            columns.optional("currency_symbol"),
+            columns.optional("added_at")
+        };
+    }
+
+    @Override
+    protected CartItem map(ResultSet rs, int[] columns) throws SQLException {
+        CartItem item = new CartItem();
+        item.setCartId(rs.getInt(columns[CART_ID]));
+        if (columns[USER_ID] != ABSENT) {
+            item.setUserId(rs.getInt(columns[USER_ID]));
+        }
+        item.setProductId(rs.getInt(columns[PRODUCT_ID]));
+        item.setProductName(rs.getString(columns[PRODUCT_NAME]));
+        item.setQuantity(rs.getInt(columns[QUANTITY]));
+        item.setUnitPrice(rs.getBigDecimal(columns[UNIT_PRICE]));
+        item.setTotalPrice(rs.getBigDecimal(columns[TOTAL_PRICE]));
+        if (columns[CUSTOMIZATIONS] != ABSENT) {
+            item.setCustomizations(rs.getString(columns[CUSTOMIZATIONS]));
+        }
+        if (columns[CURRENCY_SYMBOL] != ABSENT) {
+            item.setCurrencySymbol(rs.getString(columns[CURRENCY_SYMBOL]));
+        }
+        item.setAddedAt(getLocalDateTime(rs, columns[ADDED_AT]));
+        return item;
+    }
+}
@@ -0,0 +1,77 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.CheckoutSaga;
+
+/**
+ * Maps checkout_sagas rows
+ */
+public final class CheckoutSagaMapper extends IndexedRowMapper<CheckoutSaga> {
+
+    public static final CheckoutSagaMapper INSTANCE = new CheckoutSagaMapper();
+
+    private static final int SAGA_ID = 0;
+    private static final int USER_ID = 1;
+    private static final int ORDER_ID = 2;
+    private static final int AMOUNT = 3;
+    private static final int CURRENCY_CODE = 4;
+    private static final int PAYMENT_REQUEST_ID = 5;
+    private static final int PAYMENT_STATE = 6;
+    private static final int PAYMENT_REFERENCE = 7;
+    private static final int STATE = 8;
+    private static final int FAILURE_REASON = 9;
+    private static final int COMPENSATION_ATTEMPTS = 10;
+    private static final int NEXT_ATTEMPT_AT = 11;
+    private static final int CREATED_AT = 12;
+    private static final int UPDATED_AT = 13;
+
+    private CheckoutSagaMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("saga_id"),
+            columns.required("user_id"),
+            columns.required("order_id"),
+            columns.required("amount"),
+            columns.required("currency_code"),
+            columns.required("payment_request_id"),
+            columns.required("payment_state"),
+            columns.required("payment_reference"),
+            columns.required("state"),
+            columns.optional("failure_reason"),
+            columns.optional("compensation_attempts"),
+            columns.optional("next_attempt_at"),
+            columns.optional("created_at"),
+            columns.optional("updated_at")
+        };
+    }
+
+    @Override
+    protected CheckoutSaga map(ResultSet rs, int[] columns) throws SQLException {
+        CheckoutSaga saga = new CheckoutSaga();
+        saga.setSagaId(rs.getInt(columns[SAGA_ID]));
+        saga.setUserId(rs.getInt(columns[USER_ID]));
+        int orderId = rs.getInt(columns[ORDER_ID]);
+        saga.setOrderId(rs.wasNull() ? null : orderId);
+        saga.setAmount(rs.getBigDecimal(columns[AMOUNT]));
+        saga.setCurrencyCode(rs.getString(columns[CURRENCY_CODE]));
+        saga.setPaymentRequestId(rs.getString(columns[PAYMENT_REQUEST_ID]));
+        saga.setPaymentState(CheckoutSaga.PaymentState.valueOf(rs.getString(columns[PAYMENT_STATE])));
+        saga.setPaymentReference(rs.getString(columns[PAYMENT_REFERENCE]));
+        saga.setState(CheckoutSaga.State.valueOf(rs.getString(columns[STATE])));
+        if (columns[FAILURE_REASON] != ABSENT) {
+            saga.setFailureReason(rs.getString(columns[FAILURE_REASON]));
+        }
+        if (columns[COMPENSATION_ATTEMPTS] != ABSENT) {
+            saga.setCompensationAttempts(rs.getInt(columns[COMPENSATION_ATTEMPTS]));
+        }
+        saga.setNextAttemptAt(getLocalDateTime(rs, columns[NEXT_ATTEMPT_AT]));
+        saga.setCreatedAt(getLocalDateTime(rs, columns[CREATED_AT]));
+        saga.setUpdatedAt(getLocalDateTime(rs, columns[UPDATED_AT]));
+        return saga;
+    }
+}
@@ -0,0 +1,101 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for mappers that read columns by position.
+ * Subclasses translate column labels to positions once in {@link #resolve}; the resulting
+ * index array is cached per result set shape (the ordered list of column labels), so
+ * repeated queries of the same statement skip label resolution entirely.
+ */
+public abstract class IndexedRowMapper<T> implements RowMapper<T> {
+
+    /** Position returned for columns the result set does not contain */
+    protected static final int ABSENT = 0;
+
+    private final Map<String, int[]> shapes = new ConcurrentHashMap<>();
+
+    @Override
+    public final RowReader<T> prepare(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        String shape = shapeOf(meta);
+        int[] columns = shapes.get(shape);
+        if (columns == null) {
+            columns = resolve(new ColumnLookup(meta));
+            shapes.put(shape, columns);
+        }
+        int[] resolved = columns;
+        return row -> map(row, resolved);
+    }
+
+    /**
+     * Translates the column labels this mapper needs into 1-based positions.
+     */
+    protected abstract int[] resolve(ColumnLookup columns) throws SQLException;
+
+    /**
+     * Maps the current row using positions produced by {@link #resolve}.
+     */
+    protected abstract T map(ResultSet rs, int[] columns) throws SQLException;
+
+    private static String shapeOf(ResultSetMetaData meta) throws SQLException {
+        StringBuilder shape = new StringBuilder();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            shape.append(meta.getColumnLabel(i)).append(',');
+        }
+        return shape.toString();
+    }
+
+    protected static LocalDateTime getLocalDateTime(ResultSet rs, int column) throws SQLException {
+        if (column == ABSENT) {
+            return null;
+        }
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Case-insensitive label to position lookup for one result set
+     */
+    protected static final class ColumnLookup {
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        ColumnLookup(ResultSetMetaData meta) throws SQLException {
+            for (int i = meta.getColumnCount(); i >= 1; i--) {
+                positions.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        /**
+         * Position of a column that must be present.
+         */
+        public int required(String label) throws SQLException {
+            int position = optional(label);
+            if (position == ABSENT) {
+                throw new SQLException("Result set has no column '" + label + "'");
+            }
+            return position;
+        }
+
+        /**
+         * Position of the first label present, or {@link #ABSENT}.
+         */
+        public int optional(String... labels) {
+            for (String label : labels) {
+                Integer position = positions.get(label.toLowerCase(Locale.ROOT));
+                if (position != null) {
+                    return position;
+                }
+            }
+            return ABSENT;
+        }
+    }
+}
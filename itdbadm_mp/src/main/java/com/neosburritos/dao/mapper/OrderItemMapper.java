@@ -0,0 +1,56 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.OrderItem;
+
+/**
+ * Maps order line rows joined with the product name
+ */
+public final class OrderItemMapper extends IndexedRowMapper<OrderItem> {
+
+    public static final OrderItemMapper INSTANCE = new OrderItemMapper();
+
+    private static final int ORDER_ITEM_ID = 0;
+    private static final int ORDER_ID = 1;
+    private static final int PRODUCT_ID = 2;
+    private static final int PRODUCT_NAME = 3;
+    private static final int QUANTITY = 4;
+    private static final int UNIT_PRICE = 5;
+    private static final int TOTAL_PRICE = 6;
+    private static final int CUSTOMIZATIONS = 7;
+
+    private OrderItemMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("order_item_id"),
+            columns.required("order_id"),
+            columns.required("product_id"),
+            columns.required("product_name"),
+            columns.required("quantity"),
+            columns.required("unit_price"),
+            columns.required("total_price"),
+            columns.optional("customizations")
+        };
+    }
+
+    @Override
+    protected OrderItem map(ResultSet rs, int[] columns) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(rs.getInt(columns[ORDER_ITEM_ID]));
+        item.setOrderId(rs.getInt(columns[ORDER_ID]));
+        item.setProductId(rs.getInt(columns[PRODUCT_ID]));
+        item.setProductName(rs.getString(columns[PRODUCT_NAME]));
+        item.setQuantity(rs.getInt(columns[QUANTITY]));
+        item.setUnitPrice(rs.getBigDecimal(columns[UNIT_PRICE]));
+        item.setTotalPrice(rs.getBigDecimal(columns[TOTAL_PRICE]));
+        if (columns[CUSTOMIZATIONS] != ABSENT) {
+            item.setCustomizations(rs.getString(columns[CUSTOMIZATIONS]));
+        }
+        return item;
+    }
+}
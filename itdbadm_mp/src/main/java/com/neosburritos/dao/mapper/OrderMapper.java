@@ -0,0 +1,85 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.Order;
+
+/**
+ * Maps order header rows. item_count, total_quantity and exchange_rate_to_usd are optional
+ * and only set when the query selects them.
+ */
+public final class OrderMapper extends IndexedRowMapper<Order> {
+
+    public static final OrderMapper INSTANCE = new OrderMapper();
+
+    private static final int ORDER_ID = 0;
+    private static final int USER_ID = 1;
+    private static final int ORDER_DATE = 2;
+    private static final int TOTAL_AMOUNT = 3;
+    private static final int CURRENCY_CODE = 4;
+    private static final int CURRENCY_SYMBOL = 5;
+    private static final int STATUS = 6;
+    private static final int DELIVERY_ADDRESS = 7;
+    private static final int NOTES = 8;
+    private static final int ITEM_COUNT = 9;
+    private static final int TOTAL_QUANTITY = 10;
+    private static final int CREATED_AT = 11;
+    private static final int UPDATED_AT = 12;
+    private static final int EXCHANGE_RATE_TO_USD = 13;
+
+    private OrderMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("order_id"),
+            columns.required("user_id"),
+            columns.required("order_date"),
+            columns.required("total_amount"),
+            columns.required("currency_code"),
+            columns.optional("currency_symbol", "symbol"),
+            columns.required("status"),
+            columns.optional("delivery_address"),
+            columns.optional("notes"),
+            columns.optional("item_count"),
+            columns.optional("total_quantity"),
+            columns.optional("created_at"),
+            columns.optional("updated_at"),
+            columns.optional("exchange_rate_to_usd")
+        };
+    }
+
+    @Override
+    protected Order map(ResultSet rs, int[] columns) throws SQLException {
+        Order order = new Order();
+        order.setOrderId(rs.getInt(columns[ORDER_ID]));
+        order.setUserId(rs.getInt(columns[USER_ID]));
+        order.setOrderDate(getLocalDateTime(rs, columns[ORDER_DATE]));
+        order.setTotalAmount(rs.getBigDecimal(columns[TOTAL_AMOUNT]));
+        order.setCurrencyCode(rs.getString(columns[CURRENCY_CODE]));
+        if (columns[CURRENCY_SYMBOL] != ABSENT) {
+            order.setCurrencySymbol(rs.getString(columns[CURRENCY_SYMBOL]));
+        }
+        order.setStatus(Order.Status.valueOf(rs.getString(columns[STATUS])));
+        if (columns[DELIVERY_ADDRESS] != ABSENT) {
+            order.setDeliveryAddress(rs.getString(columns[DELIVERY_ADDRESS]));
+        }
+        if (columns[NOTES] != ABSENT) {
+            order.setNotes(rs.getString(columns[NOTES]));
+        }
+        if (columns[ITEM_COUNT] != ABSENT) {
+            order.setItemCount(rs.getInt(columns[ITEM_COUNT]));
+        }
+        if (columns[TOTAL_QUANTITY] != ABSENT) {
+            order.setTotalQuantity(rs.getInt(columns[TOTAL_QUANTITY]));
+        }
+        order.setCreatedAt(getLocalDateTime(rs, columns[CREATED_AT]));
+        order.setUpdatedAt(getLocalDateTime(rs, columns[UPDATED_AT]));
+        if (columns[EXCHANGE_RATE_TO_USD] != ABSENT) {
+            order.setExchangeRateToUsd(rs.getBigDecimal(columns[EXCHANGE_RATE_TO_USD]));
+        }
+        return order;
+    }
+}
@@ -0,0 +1,53 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.PriceList;
+
+/**
+ * Maps price list rows, with the optional item_count aggregate.
+ */
+public final class PriceListMapper extends IndexedRowMapper<PriceList> {
+
+    public static final PriceListMapper INSTANCE = new PriceListMapper();
+
+    private static final int PRICE_LIST_ID = 0;
+    private static final int NAME = 1;
+    private static final int STATUS = 2;
+    private static final int EFFECTIVE_AT = 3;
+    private static final int ACTIVATED_AT = 4;
+    private static final int CREATED_AT = 5;
+    private static final int ITEM_COUNT = 6;
+
+    private PriceListMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("price_list_id"),
+            columns.required("name"),
+            columns.required("status"),
+            columns.optional("effective_at"),
+            columns.optional("activated_at"),
+            columns.optional("created_at"),
+            columns.optional("item_count")
+        };
+    }
+
+    @Override
+    protected PriceList map(ResultSet rs, int[] columns) throws SQLException {
+        PriceList priceList = new PriceList();
+        priceList.setPriceListId(rs.getInt(columns[PRICE_LIST_ID]));
+        priceList.setName(rs.getString(columns[NAME]));
+        priceList.setStatus(PriceList.Status.valueOf(rs.getString(columns[STATUS])));
+        priceList.setEffectiveAt(getLocalDateTime(rs, columns[EFFECTIVE_AT]));
+        priceList.setActivatedAt(getLocalDateTime(rs, columns[ACTIVATED_AT]));
+        priceList.setCreatedAt(getLocalDateTime(rs, columns[CREATED_AT]));
+        if (columns[ITEM_COUNT] != ABSENT) {
+            priceList.setItemCount(rs.getInt(columns[ITEM_COUNT]));
+        }
+        return priceList;
+    }
+}
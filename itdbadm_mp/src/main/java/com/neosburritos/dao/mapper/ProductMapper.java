@@ -0,0 +1,76 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.Product;
+
+/**
+ * Maps product rows from both the admin queries (base_price, currency_code, symbol)
+ * and sp_get_products_by_currency (converted_price, display_currency, currency_symbol).
+ */
+public final class ProductMapper extends IndexedRowMapper<Product> {
+
+    public static final ProductMapper INSTANCE = new ProductMapper();
+
+    private static final int PRODUCT_ID = 0;
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int PRICE = 3;
+    private static final int CURRENCY_CODE = 4;
+    private static final int CURRENCY_SYMBOL = 5;
+    private static final int STOCK_QUANTITY = 6;
+    private static final int CATEGORY = 7;
+    private static final int IS_CUSTOMIZABLE = 8;
+    private static final int IS_ACTIVE = 9;
+    private static final int CREATED_AT = 10;
+
+    private ProductMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        int price = columns.optional("converted_price", "base_price");
+        if (price == ABSENT) {
+            throw new SQLException("Result set has no product price column");
+        }
+        return new int[] {
+            columns.required("product_id"),
+            columns.required("name"),
+            columns.optional("description"),
+            price,
+            columns.optional("display_currency", "currency_code"),
+            columns.optional("currency_symbol", "symbol"),
+            columns.required("stock_quantity"),
+            columns.required("category"),
+            columns.required("is_customizable"),
+            columns.required("is_active"),
+            columns.optional("created_at")
+        };
+    }
+
+    @Override
+    protected Product map(ResultSet rs, int[] columns) throws SQLException {
+        Product product = new Product();
+        product.setProductId(rs.getInt(columns[PRODUCT_ID]));
+        product.setName(rs.getString(columns[NAME]));
+        if (columns[DESCRIPTION] != ABSENT) {
+            product.setDescription(rs.getString(columns[DESCRIPTION]));
+        }
+        product.setBasePrice(rs.getBigDecimal(columns[PRICE]));
+        if (columns[CURRENCY_CODE] != ABSENT) {
+            product.setCurrencyCode(rs.getString(columns[CURRENCY_CODE]));
+        }
+        if (columns[CURRENCY_SYMBOL] != ABSENT) {
+            product.setCurrencySymbol(rs.getString(columns[CURRENCY_SYMBOL]));
+        }
+        product.setStockQuantity(rs.getInt(columns[STOCK_QUANTITY]));
+        product.setCategory(Product.Category.valueOf(rs.getString(columns[CATEGORY])));
+        product.setCustomizable(rs.getBoolean(columns[IS_CUSTOMIZABLE]));
+        product.setActive(rs.getBoolean(columns[IS_ACTIVE]));
+        if (columns[CREATED_AT] != ABSENT) {
+            product.setCreatedAt(getLocalDateTime(rs, columns[CREATED_AT]));
+        }
+        return product;
+    }
+}
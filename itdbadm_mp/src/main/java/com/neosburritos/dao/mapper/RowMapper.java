@@ -0,0 +1,62 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Maps ResultSet rows to model objects.
+ * Column positions are resolved once per result set (see {@link IndexedRowMapper}),
+ * so reading a row never looks columns up by label.
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Functional reader for a single row, bound to one result set's column layout
+     */
+    @FunctionalInterface
+    interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Resolves column positions for this result set and returns a reader for its rows.
+     */
+    RowReader<T> prepare(ResultSet rs) throws SQLException;
+
+    /**
+     * Maps every remaining row into a list.
+     */
+    default List<T> mapAll(ResultSet rs) throws SQLException {
+        List<T> results = new ArrayList<>();
+        forEach(rs, results::add);
+        return results;
+    }
+
+    /**
+     * Maps the next row, or returns null if there is none.
+     */
+    default T mapFirst(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        return prepare(rs).read(rs);
+    }
+
+    /**
+     * Streams every remaining row to the consumer without building a list.
+     *
+     * @return number of rows passed to the consumer
+     */
+    default int forEach(ResultSet rs, Consumer<? super T> consumer) throws SQLException {
+        RowReader<T> reader = prepare(rs);
+        int count = 0;
+        while (rs.next()) {
+            consumer.accept(reader.read(rs));
+            count++;
+        }
+        return count;
+    }
+}
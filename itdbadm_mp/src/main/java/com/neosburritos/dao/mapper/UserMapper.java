@@ -0,0 +1,63 @@
+package com.neosburritos.dao.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.neosburritos.model.User;
+
+/**
+ * Maps user rows. Never reads the password column.
+ */
+public final class UserMapper extends IndexedRowMapper<User> {
+
+    public static final UserMapper INSTANCE = new UserMapper();
+
+    private static final int USER_ID = 0;
+    private static final int NAME = 1;
+    private static final int EMAIL = 2;
+    private static final int ROLE = 3;
+    private static final int PHONE = 4;
+    private static final int ADDRESS = 5;
+    private static final int IS_ACTIVE = 6;
+    private static final int CREATED_AT = 7;
+    private static final int UPDATED_AT = 8;
+
+    private UserMapper() {
+    }
+
+    @Override
+    protected int[] resolve(ColumnLookup columns) throws SQLException {
+        return new int[] {
+            columns.required("user_id"),
+            columns.required("name"),
+            columns.required("email"),
+            columns.required("role"),
+            columns.optional("phone"),
+            columns.optional("address"),
+            columns.required("is_active"),
+            columns.optional("created_at"),
+            columns.optional("updated_at")
+        };
+    }
+
+    @Override
+    protected User map(ResultSet rs, int[] columns) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt(columns[USER_ID]));
+        user.setName(rs.getString(columns[NAME]));
+        user.setEmail(rs.getString(columns[EMAIL]));
+        user.setRole(User.Role.valueOf(rs.getString(columns[ROLE])));
+        if (columns[PHONE] != ABSENT) {
+            user.setPhone(rs.getString(columns[PHONE]));
+        }
+        if (columns[ADDRESS] != ABSENT) {
+            user.setAddress(rs.getString(columns[ADDRESS]));
+        }
+        user.setActive(rs.getBoolean(columns[IS_ACTIVE]));
+        user.setCreatedAt(getLocalDateTime(rs, columns[CREATED_AT]));
+        if (columns[UPDATED_AT] != ABSENT) {
+            user.setUpdatedAt(getLocalDateTime(rs, columns[UPDATED_AT]));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,58 @@
+package com.neosburritos.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One transaction_log row: a payment attempt or outcome, refund, order status change,
+ * role change or rate change
+ */
+public class AuditEvent {
+    public enum Kind {
+        PAYMENT, REFUND, STATUS_CHANGE, ROLE_CHANGE, RATE_CHANGE
+    }
+
+    private int transactionId;
+    private Integer orderId;
+    private Kind kind;
+    private String paymentStatus;
+    private BigDecimal amount;
+    private String currencyCode;
+    private String reference;
+    private LocalDateTime processedAt;
+
+    // Constructors
+    public AuditEvent() {}
+
+    // Getters and Setters
+    public int getTransactionId() { return transactionId; }
+    public void setTransactionId(int transactionId) { this.transactionId = transactionId; }
+
+    /** The order the event belongs to, or null for role and rate changes */
+    public Integer getOrderId() { return orderId; }
+    public void setOrderId(Integer orderId) { this.orderId = orderId; }
+
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getCurrencyCode() { return currencyCode; }
+    public void setCurrencyCode(String currencyCode) { this.currencyCode = currencyCode; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+
+    @Override
+    public String toString() {
+        return String.format("AuditEvent{id=%d, kind=%s, order=%s, reference='%s'}",
+                transactionId, kind, orderId, reference);
+    }
+}
@@ -0,0 +1,102 @@
+package com.neosburritos.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One checkout_sagas row: how far a checkout got and what is left to undo
+ */
+public class CheckoutSaga {
+    public enum State {
+        /** Saga recorded, order not placed yet */
+        STARTED,
+        /** Order placed and cart emptied, not paid yet */
+        ORDER_CREATED,
+        /** Payment captured, order not confirmed yet */
+        PAID,
+        /** Order confirmed; nothing to undo */
+        COMPLETED,
+        /** Being undone; the recovery sweep retries until it is */
+        COMPENSATING,
+        /** Undone: refunded if charged, order cancelled, cart restored */
+        COMPENSATED,
+        /** Stopped before an order existed; nothing to undo */
+        ABORTED,
+        /** Cannot be undone because the order was completed first; needs a person */
+        FAILED
+    }
+
+    public enum PaymentState {
+        NONE, CAPTURED, DECLINED, UNKNOWN, REFUNDED
+    }
+
+    private int sagaId;
+    private int userId;
+    private Integer orderId;
+    private BigDecimal amount;
+    private String currencyCode;
+    private String paymentRequestId;
+    private PaymentState paymentState;
+    private String paymentReference;
+    private State state;
+    private String failureReason;
+    private int compensationAttempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public CheckoutSaga() {}
+
+    // Getters and Setters
+    public int getSagaId() { return sagaId; }
+    public void setSagaId(int sagaId) { this.sagaId = sagaId; }
+
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    /** The placed order, or null while the saga is STARTED */
+    public Integer getOrderId() { return orderId; }
+    public void setOrderId(Integer orderId) { this.orderId = orderId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getCurrencyCode() { return currencyCode; }
+    public void setCurrencyCode(String currencyCode) { this.currencyCode = currencyCode; }
+
+    /** Idempotency key for every charge attempt of this checkout */
+    public String getPaymentRequestId() { return paymentRequestId; }
+    public void setPaymentRequestId(String paymentRequestId) { this.paymentRequestId = paymentRequestId; }
+
+    public PaymentState getPaymentState() { return paymentState; }
+    public void setPaymentState(PaymentState paymentState) { this.paymentState = paymentState; }
+
+    /** Gateway transaction id of the captured charge, or null */
+    public String getPaymentReference() { return paymentReference; }
+    public void setPaymentReference(String paymentReference) { this.paymentReference = paymentReference; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+
+    public int getCompensationAttempts() { return compensationAttempts; }
+    public void setCompensationAttempts(int compensationAttempts) { this.compensationAttempts = compensationAttempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    @Override
+    public String toString() {
+        return String.format("CheckoutSaga{id=%d, order=%s, state=%s, payment=%s}",
+                sagaId, orderId, state, paymentState);
+    }
+}
@@ -18,10 +18,12 @@ public class Order {
     private BigDecimal totalAmount;
     private String currencyCode;
     private String currencySymbol;
+    private BigDecimal exchangeRateToUsd;
     private Status status;
     private String deliveryAddress;
     private String notes;
     private int itemCount;
+    private int totalQuantity;
     private List<OrderItem> items;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -54,6 +56,10 @@ public class Order {
     public String getCurrencySymbol() { return currencySymbol; }
     public void setCurrencySymbol(String currencySymbol) { this.currencySymbol = currencySymbol; }
 
+    /** Units of the order currency per USD when the order was placed */
+    public BigDecimal getExchangeRateToUsd() { return exchangeRateToUsd; }
+    public void setExchangeRateToUsd(BigDecimal exchangeRateToUsd) { this.exchangeRateToUsd = exchangeRateToUsd; }
+
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
 
@@ -66,6 +72,9 @@ public class Order {
     public int getItemCount() { return itemCount; }
     public void setItemCount(int itemCount) { this.itemCount = itemCount; }
 
+    public int getTotalQuantity() { return totalQuantity; }
+    public void setTotalQuantity(int totalQuantity) { this.totalQuantity = totalQuantity; }
+
     public List<OrderItem> getItems() { return items; }
     public void setItems(List<OrderItem> items) { this.items = items; }
 
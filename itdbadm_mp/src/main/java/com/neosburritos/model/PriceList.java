@@ -0,0 +1,57 @@
+package com.neosburritos.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A versioned set of product prices, prepared in advance and applied in one step
+ */
+public class PriceList {
+    public enum Status {
+        DRAFT, SCHEDULED, ACTIVE, SUPERSEDED, CANCELLED
+    }
+
+    private int priceListId;
+    private String name;
+    private Status status;
+    private LocalDateTime effectiveAt;
+    private LocalDateTime activatedAt;
+    private LocalDateTime createdAt;
+    private int itemCount;
+
+    // Constructors
+    public PriceList() {}
+
+    // Getters and Setters
+    public int getPriceListId() { return priceListId; }
+    public void setPriceListId(int priceListId) { this.priceListId = priceListId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getEffectiveAt() { return effectiveAt; }
+    public void setEffectiveAt(LocalDateTime effectiveAt) { this.effectiveAt = effectiveAt; }
+
+    public LocalDateTime getActivatedAt() { return activatedAt; }
+    public void setActivatedAt(LocalDateTime activatedAt) { this.activatedAt = activatedAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+
+    /**
+     * Only lists that have not been applied yet can be scheduled, activated or cancelled
+     */
+    public boolean isPending() {
+        return status == Status.DRAFT || status == Status.SCHEDULED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PriceList{id=%d, name='%s', status=%s}", priceListId, name, status);
+    }
+}
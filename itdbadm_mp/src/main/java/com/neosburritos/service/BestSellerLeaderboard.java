@@ -0,0 +1,341 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.model.Order;
+import com.neosburritos.model.Product;
+import com.neosburritos.util.Logger;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory best-seller rankings over rolling windows, so the store never aggregates
+ * order_items to sort or badge its products.
+ *
+ * Units sold are kept in hourly buckets covering the longest window, with a running
+ * total per product for each window. As the clock passes an hour the bucket that falls
+ * out of a window is subtracted from that window's totals, and buckets older than every
+ * window are dropped. Placed orders are added and cancelled orders taken out again
+ * through {@link OrderDAO.OrderChangeListener}; the orders counted are remembered, so a
+ * repeated or late notification never counts an order twice.
+ *
+ * Notifications only come from this application, so the buckets are rebuilt from the
+ * database at start and then periodically to pick up orders placed elsewhere.
+ *
+ * Settings (system properties): neos.bestSellers.reloadMinutes (30).
+ */
+public class BestSellerLeaderboard implements OrderDAO.OrderChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(BestSellerLeaderboard.class);
+
+    /** Rolling windows, each ending at the current hour */
+    public enum Window {
+        DAY(24),
+        WEEK(7 * 24);
+
+        private final int hours;
+
+        Window(int hours) {
+            this.hours = hours;
+        }
+
+        public int getHours() { return hours; }
+    }
+
+    private static final Window LONGEST = Window.WEEK;
+
+    /**
+     * Snapshot of one window's rankings; never changes once handed out
+     */
+    public static final class Ranking {
+        private final Map<Integer, Long> unitsSold;
+        private final Map<Integer, Integer> categoryRanks;
+
+        private Ranking(Map<Integer, Long> unitsSold, Map<Integer, Integer> categoryRanks) {
+            this.unitsSold = unitsSold;
+            this.categoryRanks = categoryRanks;
+        }
+
+        public long getUnitsSold(int productId) {
+            return unitsSold.getOrDefault(productId, 0L);
+        }
+
+        /** 1 for the best seller in the product's category, 0 if it sold nothing */
+        public int getCategoryRank(int productId) {
+            return categoryRanks.getOrDefault(productId, 0);
+        }
+    }
+
+    /** Units sold per product in one hour, and the orders they came from */
+    private static final class Bucket {
+        final Map<Integer, Long> units = new HashMap<>();
+        final Set<Integer> orderIds = new HashSet<>();
+    }
+
+    private final OrderDAO orderDAO;
+    private final long reloadMinutes;
+    private final Clock clock;
+
+    // Guarded by this
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private final Map<Integer, Long> countedOrders = new HashMap<>();
+    private final Map<Integer, Product.Category> categories = new HashMap<>();
+    private final Map<Window, Map<Integer, Long>> totals = new EnumMap<>(Window.class);
+    private final Map<Window, Long> windowStarts = new EnumMap<>(Window.class);
+    private final Map<Window, Ranking> rankings = new EnumMap<>(Window.class);
+
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    /** Loads and order updates both query the database, so they run off the caller's thread, one at a time */
+    private final ScheduledJob job = new ScheduledJob("best-sellers", "Best-seller leaderboard update", LOG);
+
+    public BestSellerLeaderboard(OrderDAO orderDAO) {
+        this(orderDAO, Long.getLong("neos.bestSellers.reloadMinutes", 30));
+    }
+
+    public BestSellerLeaderboard(OrderDAO orderDAO, long reloadMinutes) {
+        this(orderDAO, reloadMinutes, Clock.systemDefaultZone());
+    }
+
+    /** Order dates are local times, so the clock's zone must match the database's */
+    BestSellerLeaderboard(OrderDAO orderDAO, long reloadMinutes, Clock clock) {
+        this.orderDAO = orderDAO;
+        this.reloadMinutes = reloadMinutes;
+        this.clock = clock;
+        long now = currentHour();
+        for (Window window : Window.values()) {
+            totals.put(window, new HashMap<>());
+            windowStarts.put(window, now - window.hours + 1);
+        }
+        orderDAO.addChangeListener(this);
+    }
+
+    public void start() {
+        if (job.schedule(this::load, 0, reloadMinutes, TimeUnit.MINUTES)) {
+            LOG.info("Best-seller leaderboard reloads every {} minutes", reloadMinutes);
+        }
+    }
+
+    public void stop() {
+        job.stop();
+    }
+
+    /**
+     * Called on the thread that applied a change, after the rankings moved
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Rebuilds every bucket from the orders placed within the longest window.
+     * The database read happens before the lock is taken, so rankings stay readable meanwhile.
+     */
+    public void load() {
+        long now = currentHour();
+        long from = now - LONGEST.hours + 1;
+        TreeMap<Long, Bucket> loaded = new TreeMap<>();
+        Map<Integer, Long> loadedOrders = new HashMap<>();
+        Map<Integer, Product.Category> loadedCategories = new HashMap<>();
+        int rows = orderDAO.forEachProductSale(toDateTime(from), sale -> {
+            long hour = hourOf(sale.getOrderDate());
+            Bucket bucket = loaded.computeIfAbsent(hour, h -> new Bucket());
+            bucket.units.merge(sale.getProductId(), (long) sale.getQuantity(), Long::sum);
+            bucket.orderIds.add(sale.getOrderId());
+            loadedOrders.put(sale.getOrderId(), hour);
+            loadedCategories.put(sale.getProductId(), sale.getCategory());
+        });
+        if (rows < 0) {
+            LOG.warn("Best-seller leaderboard not reloaded; keeping the current rankings");
+            return;
+        }
+
+        synchronized (this) {
+            buckets.clear();
+            buckets.putAll(loaded);
+            countedOrders.clear();
+            countedOrders.putAll(loadedOrders);
+            categories.putAll(loadedCategories);
+            for (Window window : Window.values()) {
+                long start = now - window.hours + 1;
+                Map<Integer, Long> windowTotals = totals.get(window);
+                windowTotals.clear();
+                for (Bucket bucket : buckets.tailMap(start).values()) {
+                    bucket.units.forEach((productId, units) -> windowTotals.merge(productId, units, Long::sum));
+                }
+                windowStarts.put(window, start);
+            }
+            rankings.clear();
+        }
+        LOG.debug("Best-seller leaderboard loaded: {} orders in {} hourly buckets", loadedOrders.size(), loaded.size());
+        fireChanged();
+    }
+
+    /**
+     * The rankings for one window as of now
+     */
+    public synchronized Ranking getRanking(Window window) {
+        advance(currentHour());
+        Ranking ranking = rankings.get(window);
+        if (ranking == null) {
+            ranking = rank(totals.get(window));
+            rankings.put(window, ranking);
+        }
+        return ranking;
+    }
+
+    @Override
+    public void orderPlaced(int orderId) {
+        submit(() -> refreshOrder(orderId));
+    }
+
+    @Override
+    public void orderStatusChanged(int orderId, Order.Status status) {
+        // Only a cancellation, or an order coming back from one, changes what it counts for
+        boolean counted;
+        synchronized (this) {
+            counted = countedOrders.containsKey(orderId);
+        }
+        if (counted == (status == Order.Status.CANCELLED)) {
+            submit(() -> refreshOrder(orderId));
+        }
+    }
+
+    private void submit(Runnable update) {
+        if (!job.execute(update)) {
+            LOG.debug("Best-seller leaderboard stopped; update dropped");
+        }
+    }
+
+    /**
+     * Re-reads one order and makes its units counted or not to match its current status
+     */
+    private void refreshOrder(int orderId) {
+        List<OrderDAO.ProductSale> sales = orderDAO.getProductSales(orderId);
+        if (sales == null) {
+            LOG.warn("Order {} not applied to the best-seller leaderboard; the next reload will include it", orderId);
+            return;
+        }
+        if (sales.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            advance(currentHour());
+            long hour = hourOf(sales.get(0).getOrderDate());
+            if (hour < windowStarts.get(LONGEST)) {
+                return;
+            }
+            boolean counted = sales.get(0).getStatus() != Order.Status.CANCELLED;
+            if (counted == countedOrders.containsKey(orderId)) {
+                return;
+            }
+
+            long sign = counted ? 1 : -1;
+            Bucket bucket = buckets.computeIfAbsent(hour, h -> new Bucket());
+            for (OrderDAO.ProductSale sale : sales) {
+                long units = sign * sale.getQuantity();
+                add(bucket.units, sale.getProductId(), units);
+                categories.put(sale.getProductId(), sale.getCategory());
+                for (Window window : Window.values()) {
+                    if (hour >= windowStarts.get(window)) {
+                        add(totals.get(window), sale.getProductId(), units);
+                        rankings.remove(window);
+                    }
+                }
+            }
+            if (counted) {
+                bucket.orderIds.add(orderId);
+                countedOrders.put(orderId, hour);
+            } else {
+                bucket.orderIds.remove(orderId);
+                countedOrders.remove(orderId);
+            }
+        }
+        fireChanged();
+    }
+
+    /**
+     * Slides every window forward to end at the given hour
+     */
+    private void advance(long now) {
+        for (Window window : Window.values()) {
+            long start = now - window.hours + 1;
+            long oldStart = windowStarts.get(window);
+            if (start <= oldStart) {
+                continue;
+            }
+            Map<Integer, Long> windowTotals = totals.get(window);
+            for (Bucket bucket : buckets.subMap(oldStart, start).values()) {
+                bucket.units.forEach((productId, units) -> add(windowTotals, productId, -units));
+            }
+            windowStarts.put(window, start);
+            rankings.remove(window);
+        }
+
+        Map<Long, Bucket> expired = buckets.headMap(windowStarts.get(LONGEST));
+        for (Bucket bucket : expired.values()) {
+            bucket.orderIds.forEach(countedOrders::remove);
+        }
+        expired.clear();
+    }
+
+    private Ranking rank(Map<Integer, Long> windowTotals) {
+        Map<Product.Category, List<Integer>> byCategory = new EnumMap<>(Product.Category.class);
+        for (Map.Entry<Integer, Long> entry : windowTotals.entrySet()) {
+            Product.Category category = categories.get(entry.getKey());
+            if (category != null && entry.getValue() > 0) {
+                byCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        Map<Integer, Integer> ranks = new HashMap<>();
+        Comparator<Integer> bestFirst = Comparator.<Integer>comparingLong(windowTotals::get).reversed()
+                .thenComparing(Comparator.naturalOrder());
+        for (List<Integer> productIds : byCategory.values()) {
+            productIds.sort(bestFirst);
+            for (int i = 0; i < productIds.size(); i++) {
+                ranks.put(productIds.get(i), i + 1);
+            }
+        }
+        return new Ranking(Collections.unmodifiableMap(new HashMap<>(windowTotals)),
+                           Collections.unmodifiableMap(ranks));
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    private static void add(Map<Integer, Long> units, int productId, long delta) {
+        if (units.merge(productId, delta, Long::sum) == 0) {
+            units.remove(productId);
+        }
+    }
+
+    private long currentHour() {
+        return hourOf(LocalDateTime.now(clock));
+    }
+
+    private static long hourOf(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static LocalDateTime toDateTime(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * 3600, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,142 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.CartDAO;
+import com.neosburritos.util.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background maintenance that removes abandoned carts.
+ * A cart is abandoned when nothing was added to it for longer than the TTL. Carts are
+ * deleted a chunk at a time, each chunk in its own short transaction, with a pause in
+ * between so checkouts are never queued behind a long lock.
+ *
+ * Settings (system properties):
+ * neos.cartPurge.ttlDays (30), neos.cartPurge.intervalMinutes (360),
+ * neos.cartPurge.chunkSize (200 carts), neos.cartPurge.archive (true).
+ */
+public class CartPurgeJob {
+
+    private static final Logger LOG = Logger.getLogger(CartPurgeJob.class);
+
+    private static final long PAUSE_BETWEEN_CHUNKS_MS = 50;
+
+    /**
+     * What one run removed
+     */
+    public static class PurgeReport {
+        private final int cartsRemoved;
+        private final int rowsRemoved;
+        private final int chunks;
+        private final boolean completed;
+        private final Duration duration;
+
+        public PurgeReport(int cartsRemoved, int rowsRemoved, int chunks, boolean completed, Duration duration) {
+            this.cartsRemoved = cartsRemoved;
+            this.rowsRemoved = rowsRemoved;
+            this.chunks = chunks;
+            this.completed = completed;
+            this.duration = duration;
+        }
+
+        public int getCartsRemoved() { return cartsRemoved; }
+        public int getRowsRemoved() { return rowsRemoved; }
+        public int getChunks() { return chunks; }
+        /** False when a chunk failed and the run stopped early */
+        public boolean isCompleted() { return completed; }
+        public Duration getDuration() { return duration; }
+    }
+
+    private final CartDAO cartDAO;
+    private final Duration ttl;
+    private final long intervalMinutes;
+    private final int chunkSize;
+    private final boolean archive;
+
+    private final ScheduledJob job = new ScheduledJob("cart-purge", "Cart purge", LOG);
+    private volatile PurgeReport lastReport;
+
+    public CartPurgeJob(CartDAO cartDAO) {
+        this(cartDAO,
+             Duration.ofDays(Long.getLong("neos.cartPurge.ttlDays", 30)),
+             Long.getLong("neos.cartPurge.intervalMinutes", 360),
+             Math.max(1, Integer.getInteger("neos.cartPurge.chunkSize", 200)),
+             Boolean.parseBoolean(System.getProperty("neos.cartPurge.archive", "true")));
+    }
+
+    public CartPurgeJob(CartDAO cartDAO, Duration ttl, long intervalMinutes, int chunkSize, boolean archive) {
+        this.cartDAO = cartDAO;
+        this.ttl = ttl;
+        this.intervalMinutes = intervalMinutes;
+        this.chunkSize = chunkSize;
+        this.archive = archive;
+    }
+
+    public void start() {
+        // First run shortly after startup rather than while the UI is loading
+        if (job.schedule(this::runOnce, 5, intervalMinutes * 60, TimeUnit.SECONDS)) {
+            LOG.info("Cart purge scheduled every {} minutes (TTL {} days, archive {})",
+                    intervalMinutes, ttl.toDays(), archive);
+        }
+    }
+
+    public void stop() {
+        job.stop();
+    }
+
+    /**
+     * The most recent run's result, or null if none has finished yet
+     */
+    public PurgeReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Purge carts idle since before now minus the TTL, chunk by chunk until none are left.
+     */
+    public PurgeReport runOnce() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int carts = 0;
+        int rows = 0;
+        int chunks = 0;
+        boolean completed = true;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Integer> userIds = cartDAO.findIdleCartUsers(cutoff, chunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            CartDAO.PurgeResult result = cartDAO.purgeIdleCarts(userIds, cutoff, archive);
+            if (!result.isSuccess()) {
+                completed = false;
+                break;
+            }
+            chunks++;
+            carts += result.getCartsRemoved();
+            rows += result.getRowsRemoved();
+            if (userIds.size() < chunkSize || result.getCartsRemoved() == 0) {
+                break;
+            }
+            try {
+                Thread.sleep(PAUSE_BETWEEN_CHUNKS_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        PurgeReport report = new PurgeReport(carts, rows, chunks, completed,
+                Duration.ofNanos(System.nanoTime() - start));
+        lastReport = report;
+        if (completed) {
+            LOG.info("Cart purge removed {} rows from {} carts idle since {} in {} chunks ({} ms)",
+                    rows, carts, cutoff, chunks, report.getDuration().toMillis());
+        } else {
+            LOG.warn("Cart purge stopped after {} chunks with {} rows removed; will retry next run", chunks, rows);
+        }
+        return report;
+    }
+}
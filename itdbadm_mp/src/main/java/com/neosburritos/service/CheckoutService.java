@@ -0,0 +1,381 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.CheckoutSagaDAO;
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.model.CheckoutSaga;
+import com.neosburritos.model.Order;
+import com.neosburritos.util.Logger;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs checkout as a saga: place the order (sp_place_order reserves the stock, creates
+ * the order and empties the cart in one transaction), charge, then confirm. Progress is
+ * written to checkout_sagas before and after each step. If a step fails, the steps
+ * already done are undone in the background: the order is cancelled, which releases its
+ * stock, its lines go back into the cart, and a captured payment is refunded. A payment whose outcome was lost
+ * is settled first by looking up its request id at the gateway, never by charging again.
+ * A checkout whose order was completed before it could be cancelled is marked FAILED
+ * and left for a person, since neither the order nor the payment may be undone.
+ *
+ * A periodic recovery sweep retries compensations that failed, with backoff. It also
+ * picks up checkouts the app stopped in the middle of, and deletes finished sagas
+ * after the retention period.
+ *
+ * Settings (system properties):
+ * neos.checkout.recoveryIntervalSeconds (60), neos.checkout.stallMinutes (15),
+ * neos.checkout.sagaRetentionDays (30).
+ */
+public class CheckoutService {
+
+    private static final Logger LOG = Logger.getLogger(CheckoutService.class);
+
+    private static final int SWEEP_BATCH = 100;
+    private static final long FIRST_RETRY_SECONDS = 60;
+    private static final long MAX_RETRY_SECONDS = 3600;
+    /**
+     * A charge still in flight could land after a lookup that found nothing, so NOT_FOUND
+     * is only trusted once the checkout is older than any charge can take
+     */
+    private static final long LOOKUP_SETTLE_SECONDS = 120;
+
+    /**
+     * What the customer is told about one checkout
+     */
+    public static class CheckoutResult {
+        private final boolean success;
+        private final String message;
+        private final int orderId;
+        private final String transactionId;
+
+        public CheckoutResult(boolean success, String message, int orderId, String transactionId) {
+            this.success = success;
+            this.message = message;
+            this.orderId = orderId;
+            this.transactionId = transactionId;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+        /** The placed order; on failure, the order being cancelled or 0 if none was placed */
+        public int getOrderId() { return orderId; }
+        public String getTransactionId() { return transactionId; }
+    }
+
+    /**
+     * What one recovery sweep did
+     */
+    public static class RecoveryReport {
+        private final int stalledRecovered;
+        private final int compensated;
+        private final int retriesScheduled;
+        private final int failed;
+        private final int purged;
+        private final Duration duration;
+
+        public RecoveryReport(int stalledRecovered, int compensated, int retriesScheduled, int failed,
+                              int purged, Duration duration) {
+            this.stalledRecovered = stalledRecovered;
+            this.compensated = compensated;
+            this.retriesScheduled = retriesScheduled;
+            this.failed = failed;
+            this.purged = purged;
+            this.duration = duration;
+        }
+
+        /** Interrupted checkouts that were completed, aborted or queued for compensation */
+        public int getStalledRecovered() { return stalledRecovered; }
+        public int getCompensated() { return compensated; }
+        /** Compensations that failed again and were put off */
+        public int getRetriesScheduled() { return retriesScheduled; }
+        /** Checkouts that cannot be undone and were marked FAILED */
+        public int getFailed() { return failed; }
+        public int getPurged() { return purged; }
+        public Duration getDuration() { return duration; }
+    }
+
+    private final OrderDAO orderDAO;
+    private final CheckoutSagaDAO sagaDAO;
+    private final PaymentService paymentService;
+    private final long recoveryIntervalSeconds;
+    private final long stallMinutes;
+    private final long retentionDays;
+
+    // Compensations and sweeps share one thread, so a saga is never undone twice at once
+    private final ScheduledJob job = new ScheduledJob("checkout-saga", "Checkout recovery", LOG);
+    private volatile RecoveryReport lastReport;
+
+    public CheckoutService(OrderDAO orderDAO, CheckoutSagaDAO sagaDAO, PaymentService paymentService) {
+        this(orderDAO, sagaDAO, paymentService,
+             Long.getLong("neos.checkout.recoveryIntervalSeconds", 60),
+             Long.getLong("neos.checkout.stallMinutes", 15),
+             Long.getLong("neos.checkout.sagaRetentionDays", 30));
+    }
+
+    public CheckoutService(OrderDAO orderDAO, CheckoutSagaDAO sagaDAO, PaymentService paymentService,
+                           long recoveryIntervalSeconds, long stallMinutes, long retentionDays) {
+        this.orderDAO = orderDAO;
+        this.sagaDAO = sagaDAO;
+        this.paymentService = paymentService;
+        this.recoveryIntervalSeconds = recoveryIntervalSeconds;
+        this.stallMinutes = stallMinutes;
+        this.retentionDays = retentionDays;
+    }
+
+    public void start() {
+        // First sweep shortly after startup picks up whatever the last run left unfinished
+        if (job.schedule(this::runOnce, 10, recoveryIntervalSeconds, TimeUnit.SECONDS)) {
+            LOG.info("Checkout recovery scheduled every {} seconds", recoveryIntervalSeconds);
+        }
+    }
+
+    /**
+     * Stop sweeping. A compensation already running is given a few seconds to finish;
+     * anything left is still COMPENSATING and is picked up on the next start.
+     */
+    public void stop() {
+        job.stopGracefully(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The most recent sweep's result, or null if none has finished yet
+     */
+    public RecoveryReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Place, pay for and confirm an order from the customer's cart. Blocks for as long
+     * as the payment takes, so never call it on the EDT.
+     */
+    public CheckoutResult checkout(int userId, String currencyCode, String deliveryAddress, String notes) {
+        String paymentRequestId = PaymentService.newAttemptId();
+        int sagaId = sagaDAO.startSaga(userId, currencyCode, paymentRequestId);
+        if (sagaId == 0) {
+            return new CheckoutResult(false, "Could not start checkout. Please try again.", 0, null);
+        }
+
+        // Step 1: reserve the cart's stock and create the order
+        OrderDAO.OrderResult order = orderDAO.createOrderFromCart(userId, currencyCode, deliveryAddress, notes);
+        if (!order.isSuccess()) {
+            sagaDAO.transition(sagaId, CheckoutSaga.State.STARTED, CheckoutSaga.State.ABORTED, order.getMessage());
+            return new CheckoutResult(false, "Failed to create order: " + order.getMessage(), 0, null);
+        }
+        int orderId = order.getOrderId();
+        BigDecimal amount = order.getTotalAmount();
+        if (!sagaDAO.recordOrderCreated(sagaId, orderId, amount)) {
+            // Without the order on record a charge could not be traced back, so do not take one
+            CheckoutSagaDAO.CancelResult cancel = sagaDAO.cancelCheckout(orderId);
+            LOG.error("Checkout saga {} could not record order {}; cancelled it: {}", sagaId, orderId, cancel.getMessage());
+            return new CheckoutResult(false, "Checkout could not be completed and your order was cancelled. " +
+                                      "Please try again.", orderId, null);
+        }
+
+        // Step 2: charge
+        PaymentService.PaymentResult payment = paymentService.processPayment(orderId, amount, currencyCode,
+                                                                             paymentRequestId);
+        if (!payment.isSuccess()) {
+            CheckoutSaga.PaymentState paymentState = payment.isOutcomeUnknown()
+                    ? CheckoutSaga.PaymentState.UNKNOWN : CheckoutSaga.PaymentState.DECLINED;
+            sagaDAO.recordPayment(sagaId, paymentState, null);
+            beginCompensation(sagaId, orderId, CheckoutSaga.State.ORDER_CREATED, "Payment failed: " + payment.getMessage());
+            return new CheckoutResult(false, payment.getMessage() + "\nOrder " + orderId +
+                                      " has been cancelled and its items are going back into your cart.",
+                                      orderId, null);
+        }
+        sagaDAO.recordPayment(sagaId, CheckoutSaga.PaymentState.CAPTURED, payment.getTransactionId());
+        if (!sagaDAO.transition(sagaId, CheckoutSaga.State.ORDER_CREATED, CheckoutSaga.State.PAID, null)) {
+            // The recovery sweep will find the saga stalled and settle it
+            LOG.warn("Checkout saga {} could not record payment {}", sagaId, payment.getTransactionId());
+        }
+
+        // Step 3: confirm, which takes the stock (tr_update_stock_on_order)
+        if (!orderDAO.updateOrderStatus(orderId, Order.Status.CONFIRMED)) {
+            beginCompensation(sagaId, orderId, CheckoutSaga.State.PAID, "Order could not be confirmed");
+            return new CheckoutResult(false, "Your order could not be confirmed. Order " + orderId +
+                                      " has been cancelled and your payment will be refunded.", orderId, null);
+        }
+        sagaDAO.transition(sagaId, CheckoutSaga.State.PAID, CheckoutSaga.State.COMPLETED, null);
+        return new CheckoutResult(true, payment.getMessage(), orderId, payment.getTransactionId());
+    }
+
+    /**
+     * Retry due compensations, settle interrupted checkouts and purge old finished sagas
+     */
+    public RecoveryReport runOnce() {
+        long start = System.nanoTime();
+
+        int stalledRecovered = 0;
+        List<CheckoutSaga> stalled = sagaDAO.findStalled(LocalDateTime.now().minusMinutes(stallMinutes), SWEEP_BATCH);
+        for (CheckoutSaga saga : stalled) {
+            if (recoverStalled(saga)) {
+                stalledRecovered++;
+            }
+        }
+
+        int compensated = 0;
+        int retriesScheduled = 0;
+        int failed = 0;
+        for (CheckoutSaga saga : sagaDAO.findDueCompensations(SWEEP_BATCH)) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            switch (compensate(saga)) {
+                case COMPENSATED: compensated++; break;
+                case FAILED: failed++; break;
+                default: retriesScheduled++; break;
+            }
+        }
+
+        int purged = Math.max(0, sagaDAO.purgeFinished(LocalDateTime.now().minusDays(retentionDays), 1_000));
+
+        RecoveryReport report = new RecoveryReport(stalledRecovered, compensated, retriesScheduled, failed, purged,
+                Duration.ofNanos(System.nanoTime() - start));
+        lastReport = report;
+        if (stalledRecovered + compensated + retriesScheduled + failed + purged > 0) {
+            LOG.info("Checkout recovery: {} interrupted checkouts settled, {} compensated, {} put off, {} failed, " +
+                     "{} purged ({} ms)", stalledRecovered, compensated, retriesScheduled, failed, purged,
+                     report.getDuration().toMillis());
+        }
+        return report;
+    }
+
+    /**
+     * Mark the saga for compensation and cancel its order straight away, so the cart is
+     * full again by the time the customer sees it. Settling the payment can take as long
+     * as a charge, so that part runs in the background.
+     */
+    private void beginCompensation(int sagaId, int orderId, CheckoutSaga.State from, String reason) {
+        if (!sagaDAO.transition(sagaId, from, CheckoutSaga.State.COMPENSATING, reason)) {
+            LOG.error("Checkout saga {} could not be marked for compensation ({}); the recovery sweep will retry",
+                      sagaId, reason);
+            return;
+        }
+        CheckoutSagaDAO.CancelResult cancel = sagaDAO.cancelCheckout(orderId);
+        if (!cancel.isSuccess()) {
+            LOG.warn("Checkout saga {}: order {} not cancelled yet: {}", sagaId, orderId, cancel.getMessage());
+        }
+        // Dropped when shutting down; the saga is durable and the next start finishes it
+        job.execute(() -> {
+            CheckoutSaga saga = sagaDAO.getSaga(sagaId);
+            if (saga != null && saga.getState() == CheckoutSaga.State.COMPENSATING) {
+                compensate(saga);
+            }
+        });
+    }
+
+    /**
+     * Work out how far an interrupted checkout got and move it on
+     */
+    private boolean recoverStalled(CheckoutSaga saga) {
+        int sagaId = saga.getSagaId();
+        switch (saga.getState()) {
+            case STARTED: {
+                // The saga is marked ORDER_CREATED before any charge, so no money has moved
+                int orderId = sagaDAO.findUnclaimedOrder(saga.getUserId(), saga.getCreatedAt());
+                if (orderId == 0) {
+                    return sagaDAO.transition(sagaId, CheckoutSaga.State.STARTED, CheckoutSaga.State.ABORTED,
+                                              "Checkout stopped before an order was placed");
+                }
+                Order order = orderDAO.getOrderById(orderId);
+                BigDecimal amount = order != null ? order.getTotalAmount() : null;
+                return sagaDAO.recordOrderCreated(sagaId, orderId, amount)
+                        && sagaDAO.transition(sagaId, CheckoutSaga.State.ORDER_CREATED,
+                                              CheckoutSaga.State.COMPENSATING, "Checkout interrupted before payment");
+            }
+            case ORDER_CREATED:
+                // A charge may have been sent; compensation looks up how it turned out
+                if (saga.getPaymentState() == CheckoutSaga.PaymentState.NONE) {
+                    sagaDAO.recordPayment(sagaId, CheckoutSaga.PaymentState.UNKNOWN, null);
+                }
+                return sagaDAO.transition(sagaId, CheckoutSaga.State.ORDER_CREATED,
+                                          CheckoutSaga.State.COMPENSATING, "Checkout interrupted during payment");
+            case PAID: {
+                Order order = orderDAO.getOrderById(saga.getOrderId());
+                if (order != null && (order.getStatus() == Order.Status.CONFIRMED
+                                      || order.getStatus() == Order.Status.COMPLETED)) {
+                    // Confirmed before the app stopped; only the bookkeeping is missing
+                    return sagaDAO.transition(sagaId, CheckoutSaga.State.PAID, CheckoutSaga.State.COMPLETED, null);
+                }
+                return sagaDAO.transition(sagaId, CheckoutSaga.State.PAID, CheckoutSaga.State.COMPENSATING,
+                                          "Checkout interrupted before confirmation");
+            }
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Undo one checkout: cancel the order and restore the cart, then give back any money
+     * taken. Every step can be repeated safely, so a failure just schedules another try.
+     *
+     * @return COMPENSATED or FAILED if the saga is now finished, COMPENSATING if it was put off
+     */
+    private CheckoutSaga.State compensate(CheckoutSaga saga) {
+        int sagaId = saga.getSagaId();
+        Integer orderId = saga.getOrderId();
+
+        // Cancel first: an order that can no longer be cancelled must not be refunded
+        if (orderId != null) {
+            CheckoutSagaDAO.CancelResult cancel = sagaDAO.cancelCheckout(orderId);
+            if (cancel.isOrderCompleted()) {
+                LOG.error("Checkout saga {}: order {} was completed before it could be undone; " +
+                          "payment {} left as it is", sagaId, orderId, saga.getPaymentState());
+                return sagaDAO.transition(sagaId, CheckoutSaga.State.COMPENSATING, CheckoutSaga.State.FAILED,
+                                          "Order completed before it could be cancelled")
+                        ? CheckoutSaga.State.FAILED : CheckoutSaga.State.COMPENSATING;
+            }
+            if (!cancel.isSuccess()) {
+                return retryLater(saga, "Cancel failed: " + cancel.getMessage());
+            }
+            if (cancel.getRestoredCount() > 0) {
+                LOG.info("Checkout saga {}: order {} cancelled, {} lines back in the cart", sagaId, orderId,
+                         cancel.getRestoredCount());
+            }
+        }
+
+        CheckoutSaga.PaymentState paymentState = saga.getPaymentState();
+        String reference = saga.getPaymentReference();
+        if (paymentState == CheckoutSaga.PaymentState.UNKNOWN) {
+            PaymentService.PaymentResult lookup = paymentService.lookupPayment(
+                    orderId, saga.getAmount(), saga.getCurrencyCode(), saga.getPaymentRequestId());
+            if (lookup.isOutcomeUnknown()) {
+                return retryLater(saga, "Payment outcome still unknown: " + lookup.getMessage());
+            }
+            if (lookup.getOutcome() == PaymentGateway.Outcome.NOT_FOUND
+                    && saga.getCreatedAt() != null
+                    && saga.getCreatedAt().isAfter(LocalDateTime.now().minusSeconds(LOOKUP_SETTLE_SECONDS))) {
+                return retryLater(saga, "Payment not found yet; it may still be in flight");
+            }
+            paymentState = lookup.isSuccess() ? CheckoutSaga.PaymentState.CAPTURED : CheckoutSaga.PaymentState.DECLINED;
+            reference = lookup.getTransactionId();
+            sagaDAO.recordPayment(sagaId, paymentState, reference);
+        }
+        if (paymentState == CheckoutSaga.PaymentState.CAPTURED) {
+            PaymentService.PaymentResult refund = paymentService.refundPayment(
+                    orderId, reference, saga.getAmount(), saga.getCurrencyCode(), "R" + saga.getPaymentRequestId());
+            if (!refund.isSuccess()) {
+                return retryLater(saga, "Refund failed: " + refund.getMessage());
+            }
+            sagaDAO.recordPayment(sagaId, CheckoutSaga.PaymentState.REFUNDED, null);
+        }
+
+        if (!sagaDAO.transition(sagaId, CheckoutSaga.State.COMPENSATING, CheckoutSaga.State.COMPENSATED, null)) {
+            return CheckoutSaga.State.COMPENSATING;
+        }
+        LOG.info("Checkout saga {} compensated (order {}, payment {})", sagaId, orderId, paymentState);
+        return CheckoutSaga.State.COMPENSATED;
+    }
+
+    private CheckoutSaga.State retryLater(CheckoutSaga saga, String error) {
+        long delay = Math.min(MAX_RETRY_SECONDS, FIRST_RETRY_SECONDS << Math.min(saga.getCompensationAttempts(), 10));
+        LOG.warn("Checkout saga {} compensation attempt {} failed ({}); retrying in {} s",
+                 saga.getSagaId(), saga.getCompensationAttempts() + 1, error, delay);
+        sagaDAO.scheduleRetry(saga.getSagaId(), LocalDateTime.now().plusSeconds(delay), error);
+        return CheckoutSaga.State.COMPENSATING;
+    }
+}
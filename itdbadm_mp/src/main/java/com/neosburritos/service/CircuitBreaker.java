@@ -0,0 +1,120 @@
+package com.neosburritos.service;
+
+import com.neosburritos.util.Logger;
+
+/**
+ * Stops calling a dependency that keeps failing.
+ * While CLOSED every call goes through and the outcomes of the last windowSize calls are
+ * kept. Once at least minimumCalls are recorded and the failure share reaches the
+ * threshold, the breaker OPENs and rejects calls for openMillis. After that a single
+ * trial call is let through (HALF_OPEN): success closes the breaker, failure opens it again.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = Logger.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long openCount;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls,
+                          double failureRateThreshold, long openMillis) {
+        this.name = name;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMillis * 1_000_000;
+    }
+
+    /**
+     * Ask to make a call. Every true must be followed by onSuccess or onFailure.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                LOG.info("Circuit breaker {} half-open; sending a trial call", name);
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            LOG.info("Circuit breaker {} closed", name);
+            state = State.CLOSED;
+            trialInFlight = false;
+            clearWindow();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open("the trial call failed");
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                open(failures + " of the last " + recorded + " calls failed");
+            }
+        }
+    }
+
+    public synchronized State getState() { return state; }
+    /** How many times the breaker has opened */
+    public synchronized long getOpenCount() { return openCount; }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open(String reason) {
+        LOG.warn("Circuit breaker {} open for {} ms: {}", name, openNanos / 1_000_000, reason);
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        trialInFlight = false;
+        openCount++;
+        clearWindow();
+    }
+
+    private void clearWindow() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,499 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.model.Order;
+import com.neosburritos.model.Product;
+import com.neosburritos.util.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Frequently-bought-together counts: for every pair of products, the number of
+ * (not cancelled) orders that contained both. Each product has a sparse row of
+ * partner id to count in primitive arrays, so a top-K query scans one row and
+ * never touches the database.
+ *
+ * Orders are added when placed and taken out when cancelled through
+ * {@link OrderDAO.OrderChangeListener}. A bit per order id records what has been
+ * counted, which keeps repeated notifications and catch-up reads from counting an
+ * order twice. The counts are saved to a gzipped snapshot file, so a restart only
+ * reads the orders placed since; without a snapshot the whole order history is read
+ * once. Orders placed by other clients are picked up by a periodic catch-up, which also
+ * takes out the orders in the range it re-reads that have been cancelled since.
+ *
+ * Settings (system properties): neos.cooccurrence.snapshotFile (cooccurrence.snapshot),
+ * neos.cooccurrence.refreshMinutes (15).
+ */
+public class CoOccurrenceIndex implements OrderDAO.OrderChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(CoOccurrenceIndex.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x4E42434F;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /** Orders can commit out of id order, so a catch-up re-reads this many ids below the newest counted */
+    private static final int CATCH_UP_MARGIN = 1000;
+
+    /** A product ordered together with another one, and in how many orders */
+    public record Partner(int productId, int count) {
+    }
+
+    /** Fewest orders first, then the higher id, so a bounded heap keeps the best */
+    private static final Comparator<Partner> WORST_FIRST = Comparator.comparingInt(Partner::count)
+            .thenComparing(Partner::productId, Comparator.reverseOrder());
+
+    private final OrderDAO orderDAO;
+    private final Path snapshotFile;
+    private final long refreshMinutes;
+
+    // Guarded by this
+    private final Map<Integer, SparseRow> rows = new HashMap<>();
+    private final Map<Integer, Product.Category> categories = new HashMap<>();
+    private final BitSet countedOrders = new BitSet();
+    private int newestOrderId;
+
+    /** Catch-ups and order updates both query the database, so they run off the caller's thread, one at a time */
+    private final ScheduledJob job = new ScheduledJob("co-occurrence", "Co-occurrence index update", LOG);
+    /** stop() can save while a catch-up that outlived it is still saving; one writer at a time */
+    private final Object snapshotLock = new Object();
+    /** Until the snapshot has been read, saving one would overwrite it with nothing */
+    private volatile boolean restored;
+
+    public CoOccurrenceIndex(OrderDAO orderDAO) {
+        this(orderDAO,
+             Paths.get(System.getProperty("neos.cooccurrence.snapshotFile", "cooccurrence.snapshot")),
+             Long.getLong("neos.cooccurrence.refreshMinutes", 15));
+    }
+
+    public CoOccurrenceIndex(OrderDAO orderDAO, Path snapshotFile, long refreshMinutes) {
+        this.orderDAO = orderDAO;
+        this.snapshotFile = snapshotFile;
+        this.refreshMinutes = refreshMinutes;
+        orderDAO.addChangeListener(this);
+    }
+
+    public void start() {
+        if (job.schedule(this::refresh, refreshMinutes, refreshMinutes, TimeUnit.MINUTES)) {
+            job.execute(() -> {
+                if (!readSnapshot()) {
+                    LOG.info("No usable co-occurrence snapshot at {}; reading the order history", snapshotFile);
+                }
+                restored = true;
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Stops the background work and saves a final snapshot
+     */
+    public void stop() {
+        job.stop();
+        job.awaitTermination(5, TimeUnit.SECONDS);
+        if (restored) {
+            saveSnapshot();
+        }
+    }
+
+    /**
+     * The products most often ordered together with the given one, most orders first
+     *
+     * @param categories only partners in these categories
+     */
+    public synchronized List<Partner> topPartners(int productId, int limit, Set<Product.Category> categories) {
+        SparseRow row = rows.get(productId);
+        if (row == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Partner> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        for (int i = 0; i < row.keys.length; i++) {
+            int partnerId = row.keys[i];
+            if (partnerId != 0 && categories.contains(this.categories.get(partnerId))) {
+                best.add(new Partner(partnerId, row.counts[i]));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Partner> partners = new ArrayList<>(best);
+        partners.sort(WORST_FIRST.reversed());
+        return partners;
+    }
+
+    /**
+     * Number of orders containing both products
+     */
+    public synchronized int getCount(int productId, int otherProductId) {
+        SparseRow row = rows.get(productId);
+        return row != null ? row.get(otherProductId) : 0;
+    }
+
+    @Override
+    public void orderPlaced(int orderId) {
+        submit(() -> refreshOrder(orderId));
+    }
+
+    @Override
+    public void orderStatusChanged(int orderId, Order.Status status) {
+        // Only a cancellation, or an order coming back from one, changes what it counts for
+        boolean counted;
+        synchronized (this) {
+            counted = countedOrders.get(orderId);
+        }
+        if (counted == (status == Order.Status.CANCELLED)) {
+            submit(() -> refreshOrder(orderId));
+        }
+    }
+
+    private void submit(Runnable update) {
+        if (!job.execute(update)) {
+            LOG.debug("Co-occurrence index stopped; update dropped");
+        }
+    }
+
+    /**
+     * Count the orders placed since the newest one counted, take out the counted ones in
+     * that range cancelled since, then save a snapshot
+     */
+    private void refresh() {
+        int afterOrderId;
+        synchronized (this) {
+            afterOrderId = Math.max(0, newestOrderId - CATCH_UP_MARGIN);
+        }
+        long start = System.nanoTime();
+        int[] added = {0};
+        List<OrderDAO.ProductSale> order = new ArrayList<>();
+        int rowsRead = orderDAO.forEachProductSaleAfter(afterOrderId, sale -> {
+            // Rows arrive grouped by order; a new id means the previous order is complete
+            if (!order.isEmpty() && order.get(0).getOrderId() != sale.getOrderId()) {
+                added[0] += addIfNew(order) ? 1 : 0;
+                order.clear();
+            }
+            order.add(sale);
+        });
+        if (rowsRead < 0) {
+            // The last order may be incomplete; the next refresh reads it again
+            LOG.warn("Co-occurrence catch-up failed after {} orders", added[0]);
+            return;
+        }
+        if (!order.isEmpty()) {
+            added[0] += addIfNew(order) ? 1 : 0;
+        }
+
+        // Another client's cancellation sends no notification here
+        int removed = 0;
+        List<Integer> cancelled = orderDAO.getCancelledOrderIdsAfter(afterOrderId);
+        if (cancelled == null) {
+            LOG.warn("Co-occurrence catch-up could not check for cancelled orders");
+        } else {
+            for (int orderId : cancelled) {
+                boolean counted;
+                synchronized (this) {
+                    counted = countedOrders.get(orderId);
+                }
+                if (counted) {
+                    refreshOrder(orderId);
+                    removed++;
+                }
+            }
+        }
+
+        if (added[0] > 0 || removed > 0) {
+            LOG.info("Co-occurrence index: {} orders added, {} cancelled ones taken out in {} ms", added[0],
+                    removed, (System.nanoTime() - start) / 1_000_000);
+            saveSnapshot();
+        }
+    }
+
+    private synchronized boolean addIfNew(List<OrderDAO.ProductSale> order) {
+        int orderId = order.get(0).getOrderId();
+        if (countedOrders.get(orderId)) {
+            return false;
+        }
+        apply(order, 1);
+        countedOrders.set(orderId);
+        newestOrderId = Math.max(newestOrderId, orderId);
+        return true;
+    }
+
+    /**
+     * Re-reads one order and makes it counted or not to match its current status
+     */
+    private void refreshOrder(int orderId) {
+        List<OrderDAO.ProductSale> order = orderDAO.getProductSales(orderId);
+        if (order == null) {
+            LOG.warn("Order {} not applied to the co-occurrence index", orderId);
+            return;
+        }
+        if (order.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            boolean counted = order.get(0).getStatus() != Order.Status.CANCELLED;
+            if (counted == countedOrders.get(orderId)) {
+                return;
+            }
+            apply(order, counted ? 1 : -1);
+            countedOrders.set(orderId, counted);
+            if (counted) {
+                newestOrderId = Math.max(newestOrderId, orderId);
+            }
+        }
+    }
+
+    /**
+     * Adds (or with -1 removes) one to the count of every pair of products in the order.
+     * The rows hold one entry per product, so the pairs are distinct.
+     */
+    private void apply(List<OrderDAO.ProductSale> order, int delta) {
+        for (int i = 0; i < order.size(); i++) {
+            OrderDAO.ProductSale first = order.get(i);
+            categories.put(first.getProductId(), first.getCategory());
+            for (int j = i + 1; j < order.size(); j++) {
+                int secondId = order.get(j).getProductId();
+                addToRow(first.getProductId(), secondId, delta);
+                addToRow(secondId, first.getProductId(), delta);
+            }
+        }
+    }
+
+    private void addToRow(int productId, int partnerId, int delta) {
+        SparseRow row = rows.computeIfAbsent(productId, id -> new SparseRow());
+        row.add(partnerId, delta);
+        if (row.size == 0) {
+            rows.remove(productId);
+        }
+    }
+
+    /**
+     * Writes the counts to a temporary file and moves it over the snapshot, so a crash
+     * mid-write leaves the previous snapshot intact. Each pair is stored once.
+     */
+    private void saveSnapshot() {
+        synchronized (snapshotLock) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            synchronized (this) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(newestOrderId);
+
+                out.writeInt(categories.size());
+                for (Map.Entry<Integer, Product.Category> entry : categories.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeByte(entry.getValue().ordinal());
+                }
+
+                out.writeInt(rows.size());
+                for (Map.Entry<Integer, SparseRow> entry : rows.entrySet()) {
+                    int productId = entry.getKey();
+                    SparseRow row = entry.getValue();
+                    int higher = 0;
+                    for (int key : row.keys) {
+                        if (key > productId) {
+                            higher++;
+                        }
+                    }
+                    out.writeInt(productId);
+                    out.writeInt(higher);
+                    for (int i = 0; i < row.keys.length; i++) {
+                        if (row.keys[i] > productId) {
+                            out.writeInt(row.keys[i]);
+                            out.writeInt(row.counts[i]);
+                        }
+                    }
+                }
+
+                long[] words = countedOrders.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Could not write co-occurrence snapshot {}: {}", temp, e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error("Could not replace co-occurrence snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the counts with the snapshot's
+     *
+     * @return false if there is no snapshot or it could not be read
+     */
+    private boolean readSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return false;
+        }
+        Map<Integer, SparseRow> loadedRows = new HashMap<>();
+        Map<Integer, Product.Category> loadedCategories = new HashMap<>();
+        BitSet loadedOrders;
+        int loadedNewest;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                LOG.warn("Ignoring co-occurrence snapshot {} written by another version", snapshotFile);
+                return false;
+            }
+            loadedNewest = in.readInt();
+
+            Product.Category[] allCategories = Product.Category.values();
+            int categoryCount = in.readInt();
+            for (int i = 0; i < categoryCount; i++) {
+                loadedCategories.put(in.readInt(), allCategories[in.readByte()]);
+            }
+
+            int rowCount = in.readInt();
+            for (int i = 0; i < rowCount; i++) {
+                int productId = in.readInt();
+                int partners = in.readInt();
+                for (int j = 0; j < partners; j++) {
+                    int partnerId = in.readInt();
+                    int count = in.readInt();
+                    loadedRows.computeIfAbsent(productId, id -> new SparseRow()).add(partnerId, count);
+                    loadedRows.computeIfAbsent(partnerId, id -> new SparseRow()).add(productId, count);
+                }
+            }
+
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            loadedOrders = BitSet.valueOf(words);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not read co-occurrence snapshot {}: {}", snapshotFile, e.getMessage());
+            return false;
+        }
+
+        synchronized (this) {
+            rows.clear();
+            rows.putAll(loadedRows);
+            categories.clear();
+            categories.putAll(loadedCategories);
+            countedOrders.clear();
+            countedOrders.or(loadedOrders);
+            newestOrderId = loadedNewest;
+        }
+        LOG.info("Co-occurrence snapshot loaded: {} products, {} orders", loadedRows.size(),
+                loadedOrders.cardinality());
+        return true;
+    }
+
+    /**
+     * Partner id to count, open addressing with linear probing. Product ids are
+     * positive, so 0 marks a free slot.
+     */
+    static final class SparseRow {
+        int[] keys = new int[8];
+        int[] counts = new int[8];
+        int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return counts[i];
+                }
+            }
+            return 0;
+        }
+
+        /** Adds to a count; a count that drops to zero removes the entry */
+        void add(int key, int delta) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    counts[i] += delta;
+                    if (counts[i] <= 0) {
+                        removeAt(i);
+                    }
+                    return;
+                }
+            }
+            if (delta <= 0) {
+                return;
+            }
+            keys[i] = key;
+            counts[i] = delta;
+            size++;
+            if (size * 3 > keys.length * 2) {
+                resize(keys.length * 2);
+            }
+        }
+
+        /** Shifts later entries of the probe run back, so lookups never need tombstones */
+        private void removeAt(int hole) {
+            int mask = keys.length - 1;
+            keys[hole] = 0;
+            counts[hole] = 0;
+            size--;
+            for (int i = (hole + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                int home = slot(keys[i], mask);
+                // The entry can move into the hole unless its home lies cyclically after the hole
+                boolean homeAfterHole = hole <= i ? (home > hole && home <= i) : (home > hole || home <= i);
+                if (!homeAfterHole) {
+                    keys[hole] = keys[i];
+                    counts[hole] = counts[i];
+                    keys[i] = 0;
+                    counts[i] = 0;
+                    hole = i;
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[capacity];
+            counts = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int j = slot(oldKeys[i], mask);
+                    while (keys[j] != 0) {
+                        j = (j + 1) & mask;
+                    }
+                    keys[j] = oldKeys[i];
+                    counts[j] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slot(int key, int mask) {
+            int h = key * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
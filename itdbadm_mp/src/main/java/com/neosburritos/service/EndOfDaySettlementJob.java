@@ -0,0 +1,216 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.SettlementDAO;
+import com.neosburritos.util.Logger;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * End-of-day settlement, run at close from the command line without the Swing UI.
+ * Three independent stages run in parallel on a fork/join pool:
+ * CONFIRMED orders whose payments reconcile are moved to COMPLETED a batch at a time,
+ * each batch its own transaction; every order placed that day is checked against its
+ * payments and refunds in transaction_log; and the day's payments and refunds are
+ * totalled per currency. Completing an order does not change whether it reconciles,
+ * so the stages do not need to wait for each other. The summary and totals are then
+ * written to daily_settlements and settlement_totals.
+ *
+ * Settings (system properties, overridden by the command line options):
+ * neos.settlement.batchSize (500 orders), neos.settlement.requirePayment (true).
+ */
+public class EndOfDaySettlementJob {
+
+    private static final Logger LOG = Logger.getLogger(EndOfDaySettlementJob.class);
+
+    private static final int MISMATCHES_PRINTED = 20;
+
+    /**
+     * What one run did
+     */
+    public static class SettlementReport {
+        private final LocalDate businessDate;
+        private final int ordersCompleted;
+        private final int batches;
+        private final SettlementDAO.Reconciliation reconciliation;
+        private final List<SettlementDAO.CurrencyTotal> totals;
+        private final boolean completed;
+        private final Duration duration;
+
+        public SettlementReport(LocalDate businessDate, int ordersCompleted, int batches,
+                                SettlementDAO.Reconciliation reconciliation, List<SettlementDAO.CurrencyTotal> totals,
+                                boolean completed, Duration duration) {
+            this.businessDate = businessDate;
+            this.ordersCompleted = ordersCompleted;
+            this.batches = batches;
+            this.reconciliation = reconciliation;
+            this.totals = totals;
+            this.completed = completed;
+            this.duration = duration;
+        }
+
+        public LocalDate getBusinessDate() { return businessDate; }
+        public int getOrdersCompleted() { return ordersCompleted; }
+        public int getBatches() { return batches; }
+        public SettlementDAO.Reconciliation getReconciliation() { return reconciliation; }
+        /** Per-currency totals, or null if they could not be read */
+        public List<SettlementDAO.CurrencyTotal> getTotals() { return totals; }
+        /** False when a stage failed or the summary could not be saved */
+        public boolean isCompleted() { return completed; }
+        public Duration getDuration() { return duration; }
+    }
+
+    private record CompletionOutcome(int ordersCompleted, int batches, boolean finished) {
+    }
+
+    private final SettlementDAO settlementDAO;
+    private final int batchSize;
+    private final boolean requirePayment;
+
+    public EndOfDaySettlementJob(SettlementDAO settlementDAO) {
+        this(settlementDAO,
+             Math.max(1, Integer.getInteger("neos.settlement.batchSize", 500)),
+             Boolean.parseBoolean(System.getProperty("neos.settlement.requirePayment", "true")));
+    }
+
+    public EndOfDaySettlementJob(SettlementDAO settlementDAO, int batchSize, boolean requirePayment) {
+        this.settlementDAO = settlementDAO;
+        this.batchSize = batchSize;
+        this.requirePayment = requirePayment;
+    }
+
+    /**
+     * Settle one business day. Orders confirmed on earlier days that are still open
+     * are completed too; reconciliation and totals cover the given day only.
+     */
+    public SettlementReport run(LocalDate businessDate) {
+        long start = System.nanoTime();
+        LocalDateTime from = businessDate.atStartOfDay();
+        LocalDateTime to = businessDate.plusDays(1).atStartOfDay();
+
+        CompletionOutcome completion;
+        SettlementDAO.Reconciliation reconciliation;
+        List<SettlementDAO.CurrencyTotal> totals;
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ForkJoinTask<CompletionOutcome> completionTask = pool.submit(() -> completeOrders(to));
+            ForkJoinTask<SettlementDAO.Reconciliation> reconcileTask = pool.submit(() -> settlementDAO.reconcile(from, to));
+            ForkJoinTask<List<SettlementDAO.CurrencyTotal>> totalsTask =
+                    pool.submit(() -> settlementDAO.getCurrencyTotals(from, to));
+            completion = completionTask.join();
+            reconciliation = reconcileTask.join();
+            totals = totalsTask.join();
+        } finally {
+            pool.shutdown();
+        }
+
+        boolean completed = completion.finished() && reconciliation.isSuccess() && totals != null;
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        if (reconciliation.isSuccess() && totals != null) {
+            completed &= settlementDAO.saveSettlement(businessDate, completion.ordersCompleted(),
+                    reconciliation.getOrdersReconciled(), reconciliation.getMismatches().size(),
+                    elapsedMillis, totals);
+        }
+
+        SettlementReport report = new SettlementReport(businessDate, completion.ordersCompleted(),
+                completion.batches(), reconciliation, totals, completed, Duration.ofNanos(System.nanoTime() - start));
+        if (completed) {
+            LOG.info("Settled {}: {} orders completed in {} batches, {} of {} orders reconciled ({} ms)",
+                    businessDate, completion.ordersCompleted(), completion.batches(),
+                    reconciliation.getOrdersReconciled(), reconciliation.getOrdersChecked(),
+                    report.getDuration().toMillis());
+        } else {
+            LOG.warn("Settlement of {} did not finish; {} orders completed so far. Run it again to resume",
+                    businessDate, completion.ordersCompleted());
+        }
+        return report;
+    }
+
+    /**
+     * Complete reconciled orders placed before the cutoff, batch by batch until none are left
+     */
+    private CompletionOutcome completeOrders(LocalDateTime cutoff) {
+        int orders = 0;
+        int batches = 0;
+        while (true) {
+            SettlementDAO.SettleBatchResult result =
+                    settlementDAO.completeSettledOrders(cutoff, batchSize, requirePayment);
+            if (!result.isSuccess()) {
+                return new CompletionOutcome(orders, batches, false);
+            }
+            if (result.getCompletedCount() > 0) {
+                batches++;
+                orders += result.getCompletedCount();
+            }
+            // A short batch means nothing eligible is left
+            if (result.getCompletedCount() < batchSize) {
+                return new CompletionOutcome(orders, batches, true);
+            }
+        }
+    }
+
+    /**
+     * Options: --date=YYYY-MM-DD (default today), --batch=N, --require-payment=true|false.
+     * Exits with status 1 if the run did not finish.
+     */
+    public static void main(String[] args) {
+        LocalDate businessDate = LocalDate.now();
+        int batchSize = Math.max(1, Integer.getInteger("neos.settlement.batchSize", 500));
+        boolean requirePayment = Boolean.parseBoolean(System.getProperty("neos.settlement.requirePayment", "true"));
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "date": businessDate = LocalDate.parse(parts[1]); break;
+                case "batch": batchSize = Math.max(1, Integer.parseInt(parts[1])); break;
+                case "require-payment": requirePayment = Boolean.parseBoolean(parts[1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + parts[0]);
+            }
+        }
+
+        SettlementReport report = new EndOfDaySettlementJob(new SettlementDAO(), batchSize, requirePayment)
+                .run(businessDate);
+        print(report);
+        System.exit(report.isCompleted() ? 0 : 1);
+    }
+
+    private static void print(SettlementReport report) {
+        System.out.printf("Settlement for %s%s%n", report.getBusinessDate(),
+                report.isCompleted() ? "" : " (INCOMPLETE - run again to resume)");
+        System.out.printf("  Orders completed: %d in %d batches%n", report.getOrdersCompleted(), report.getBatches());
+
+        SettlementDAO.Reconciliation reconciliation = report.getReconciliation();
+        if (reconciliation.isSuccess()) {
+            System.out.printf("  Orders reconciled: %d of %d%n",
+                    reconciliation.getOrdersReconciled(), reconciliation.getOrdersChecked());
+            List<SettlementDAO.Mismatch> mismatches = reconciliation.getMismatches();
+            for (int i = 0; i < Math.min(MISMATCHES_PRINTED, mismatches.size()); i++) {
+                System.out.println("    " + mismatches.get(i));
+            }
+            if (mismatches.size() > MISMATCHES_PRINTED) {
+                System.out.printf("    ... and %d more%n", mismatches.size() - MISMATCHES_PRINTED);
+            }
+        } else {
+            System.out.println("  Reconciliation failed");
+        }
+
+        if (report.getTotals() != null) {
+            System.out.printf("  %-8s %9s %14s %8s %14s %14s%n",
+                    "Currency", "Payments", "Amount", "Refunds", "Amount", "Net");
+            for (SettlementDAO.CurrencyTotal total : report.getTotals()) {
+                System.out.printf("  %-8s %9d %14s %8d %14s %14s%n", total.getCurrencyCode(),
+                        total.getPaymentCount(), total.getPaymentAmount(), total.getRefundCount(),
+                        total.getRefundAmount(), total.getNetAmount());
+            }
+        } else {
+            System.out.println("  Currency totals failed");
+        }
+        System.out.printf("  Took %d ms%n", report.getDuration().toMillis());
+    }
+}
@@ -0,0 +1,421 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.ProductDAO;
+import com.neosburritos.model.Product;
+import com.neosburritos.util.Logger;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product names, descriptions and ingredient names.
+ * Built once from the catalog and kept current through {@link ProductDAO.ProductChangeListener},
+ * so searching never touches the database. Updates are applied one at a time on a background
+ * thread, in the order the changes were made.
+ *
+ * Every query word must match a product. A word matches a term exactly, as a prefix
+ * (so partially typed words work) or, for longer words, within a small edit distance.
+ * Matches in the name outrank ingredients, which outrank the description.
+ */
+public class MenuSearchIndex implements ProductDAO.ProductChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(MenuSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int INGREDIENT_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.6;
+    private static final double FUZZY_MATCH = 0.4;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final ProductDAO productDAO;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Products live in dense slots so scoring can use plain arrays instead of maps
+    private int[] slotProductIds = new int[64];
+    private String[] slotNames = new String[64];
+    private int slotCount;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Integer, Integer> slotByProductId = new HashMap<>();
+    // slot -> terms it contributed, so updates can remove old postings
+    private final Map<Integer, Map<String, Integer>> slotTerms = new HashMap<>();
+
+    // term -> postings; sorted so a prefix is a range scan
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    // terms grouped by length, so fuzzy matching only compares plausible lengths
+    private final List<Set<String>> termsByLength = new ArrayList<>();
+
+    /** Index refreshes after writes query the database, so they run off the caller's thread */
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "menu-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MenuSearchIndex(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+        productDAO.addChangeListener(this);
+    }
+
+    /**
+     * Rebuilds the whole index from the catalog. The database reads happen before the
+     * write lock is taken, so searches are only blocked while postings are rebuilt in memory.
+     */
+    public void load() {
+        List<Product> products = productDAO.getAllProducts();
+        Map<Integer, List<String>> ingredients = productDAO.getIngredientNames(null);
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByLength.clear();
+            slotByProductId.clear();
+            slotTerms.clear();
+            freeSlots.clear();
+            slotCount = 0;
+            for (Product product : products) {
+                addDocument(product, ingredients.getOrDefault(product.getProductId(), Collections.emptyList()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.debug("Menu search index loaded: {} products, {} terms", products.size(), postings.size());
+    }
+
+    /**
+     * Loads the index in the background, then runs the callback on the loading thread
+     */
+    public void loadAsync(Runnable onLoaded) {
+        updater.execute(() -> {
+            load();
+            onLoaded.run();
+        });
+    }
+
+    @Override
+    public void productChanged(int productId) {
+        updater.execute(() -> {
+            Product product = productDAO.getProductById(productId);
+            List<String> ingredients = productDAO.getIngredientNames(productId)
+                    .getOrDefault(productId, Collections.emptyList());
+            lock.writeLock().lock();
+            try {
+                removeDocument(productId);
+                if (product != null) {
+                    addDocument(product, ingredients);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void productRemoved(int productId) {
+        // Queued behind any pending update for the product, which would otherwise add it back
+        updater.execute(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void catalogChanged() {
+        updater.execute(this::load);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns matching product IDs, best match first.
+     *
+     * @param query free text as typed; any word may be incomplete
+     * @param limit maximum results
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            double[] total = new double[slotCount];
+            // Number of words matched so far; a slot stays a candidate only if it matched every word
+            int[] matchedWords = new int[slotCount];
+            double[] wordScore = new double[slotCount];
+
+            for (int w = 0; w < words.size(); w++) {
+                Arrays.fill(wordScore, 0);
+                scoreWord(words.get(w), wordScore);
+                boolean anyMatch = false;
+                for (int slot = 0; slot < slotCount; slot++) {
+                    if (wordScore[slot] > 0 && matchedWords[slot] == w) {
+                        total[slot] += wordScore[slot];
+                        matchedWords[slot]++;
+                        anyMatch = true;
+                    }
+                }
+                if (!anyMatch) {
+                    return Collections.emptyList();
+                }
+            }
+
+            // Keep only the best `limit` slots: the heap's head is the weakest one kept
+            Comparator<Integer> ranking = (a, b) -> {
+                int byScore = Double.compare(total[b], total[a]);
+                return byScore != 0 ? byScore : slotNames[a].compareTo(slotNames[b]);
+            };
+            PriorityQueue<Integer> best = new PriorityQueue<>(ranking.reversed());
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (matchedWords[slot] != words.size()) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(slot);
+                } else if (ranking.compare(slot, best.peek()) < 0) {
+                    best.poll();
+                    best.add(slot);
+                }
+            }
+
+            Integer[] ranked = best.toArray(new Integer[0]);
+            Arrays.sort(ranked, ranking);
+            List<Integer> result = new ArrayList<>(ranked.length);
+            for (Integer slot : ranked) {
+                result.add(slotProductIds[slot]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best score per slot for one query word across exact, prefix and fuzzy term matches.
+     */
+    private void scoreWord(String word, double[] scores) {
+        PostingList exact = postings.get(word);
+        if (exact != null) {
+            exact.accumulate(scores, EXACT_MATCH);
+        }
+
+        for (Map.Entry<String, PostingList> entry
+                : postings.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+            // Closer to a full-word match scores higher
+            double completeness = (double) word.length() / entry.getKey().length();
+            entry.getValue().accumulate(scores, PREFIX_MATCH * completeness);
+        }
+
+        int maxDistance = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+        for (int length = word.length() - maxDistance; maxDistance > 0 && length <= word.length() + maxDistance; length++) {
+            if (length >= termsByLength.size()) {
+                break;
+            }
+            for (String term : termsByLength.get(length)) {
+                if (term.equals(word) || !sharesLeadingLetter(word, term)) {
+                    continue;
+                }
+                int distance = boundedEditDistance(word, term, maxDistance);
+                if (distance <= maxDistance) {
+                    postings.get(term).accumulate(scores, FUZZY_MATCH / distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cheap pre-check before computing edit distance: typos rarely hit both of the first two
+     * letters, so a fuzzy candidate must agree with the word on one of them (allowing a swap).
+     */
+    private static boolean sharesLeadingLetter(String word, String term) {
+        char w0 = word.charAt(0);
+        char w1 = word.charAt(1);
+        char t0 = term.charAt(0);
+        char t1 = term.length() > 1 ? term.charAt(1) : 0;
+        return w0 == t0 || w1 == t1 || w0 == t1 || w1 == t0;
+    }
+
+    /**
+     * Levenshtein distance, giving up (returning max + 1) once every alignment exceeds max.
+     */
+    static int boundedEditDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private void addDocument(Product product, Collection<String> ingredients) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        for (String ingredient : ingredients) {
+            addTerms(terms, ingredient, INGREDIENT_WEIGHT);
+        }
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        int slot = allocateSlot();
+        slotProductIds[slot] = product.getProductId();
+        slotNames[slot] = product.getName() != null ? product.getName() : "";
+        slotByProductId.put(product.getProductId(), slot);
+        slotTerms.put(slot, terms);
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            PostingList postingList = postings.get(term.getKey());
+            if (postingList == null) {
+                postingList = new PostingList();
+                postings.put(term.getKey(), postingList);
+                lengthBucket(term.getKey().length()).add(term.getKey());
+            }
+            postingList.add(slot, term.getValue());
+        }
+    }
+
+    private void removeDocument(int productId) {
+        Integer slot = slotByProductId.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        for (String term : slotTerms.remove(slot).keySet()) {
+            PostingList postingList = postings.get(term);
+            if (postingList != null && postingList.remove(slot) && postingList.size == 0) {
+                postings.remove(term);
+                termsByLength.get(term.length()).remove(term);
+            }
+        }
+        slotNames[slot] = "";
+        freeSlots.push(slot);
+    }
+
+    private int allocateSlot() {
+        Integer free = freeSlots.poll();
+        if (free != null) {
+            return free;
+        }
+        if (slotCount == slotProductIds.length) {
+            slotProductIds = Arrays.copyOf(slotProductIds, slotCount * 2);
+            slotNames = Arrays.copyOf(slotNames, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    private Set<String> lengthBucket(int length) {
+        while (termsByLength.size() <= length) {
+            termsByLength.add(new HashSet<>());
+        }
+        return termsByLength.get(length);
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    /**
+     * Lower-cases, strips accents so unaccented spellings match, and splits on non-word characters.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Slots containing a term, with the weight of the best field it appeared in.
+     */
+    private static final class PostingList {
+        private int[] slots = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        void add(int slot, int weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = (byte) weight;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void accumulate(double[] scores, double quality) {
+            for (int i = 0; i < size; i++) {
+                double score = quality * weights[i];
+                if (score > scores[slots[i]]) {
+                    scores[slots[i]] = score;
+                }
+            }
+        }
+    }
+}
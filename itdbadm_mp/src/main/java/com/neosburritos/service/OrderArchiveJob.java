@@ -0,0 +1,142 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.util.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background maintenance that moves closed orders out of the hot tables.
+ * COMPLETED and CANCELLED orders placed more than the retention period ago are moved,
+ * with their items and log rows, into the archive tables a batch at a time. Each batch
+ * is its own short transaction and batches are spaced out so order placement is never
+ * queued behind a long lock. Archived orders stay readable through OrderDAO.
+ *
+ * Settings (system properties):
+ * neos.orderArchive.retentionMonths (12), neos.orderArchive.intervalMinutes (1440),
+ * neos.orderArchive.batchSize (500 orders).
+ */
+public class OrderArchiveJob {
+
+    private static final Logger LOG = Logger.getLogger(OrderArchiveJob.class);
+
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 100;
+
+    /**
+     * What one run moved
+     */
+    public static class ArchiveReport {
+        private final int ordersArchived;
+        private final int logEntriesArchived;
+        private final int batches;
+        private final boolean completed;
+        private final Duration duration;
+
+        public ArchiveReport(int ordersArchived, int logEntriesArchived, int batches,
+                             boolean completed, Duration duration) {
+            this.ordersArchived = ordersArchived;
+            this.logEntriesArchived = logEntriesArchived;
+            this.batches = batches;
+            this.completed = completed;
+            this.duration = duration;
+        }
+
+        public int getOrdersArchived() { return ordersArchived; }
+        public int getLogEntriesArchived() { return logEntriesArchived; }
+        public int getBatches() { return batches; }
+        /** False when a batch failed and the run stopped early */
+        public boolean isCompleted() { return completed; }
+        public Duration getDuration() { return duration; }
+    }
+
+    private final OrderDAO orderDAO;
+    private final long retentionMonths;
+    private final long intervalMinutes;
+    private final int batchSize;
+
+    private final ScheduledJob job = new ScheduledJob("order-archive", "Order archive", LOG);
+    private volatile ArchiveReport lastReport;
+
+    public OrderArchiveJob(OrderDAO orderDAO) {
+        this(orderDAO,
+             Long.getLong("neos.orderArchive.retentionMonths", 12),
+             Long.getLong("neos.orderArchive.intervalMinutes", 1440),
+             Math.max(1, Integer.getInteger("neos.orderArchive.batchSize", 500)));
+    }
+
+    public OrderArchiveJob(OrderDAO orderDAO, long retentionMonths, long intervalMinutes, int batchSize) {
+        this.orderDAO = orderDAO;
+        this.retentionMonths = retentionMonths;
+        this.intervalMinutes = intervalMinutes;
+        this.batchSize = batchSize;
+    }
+
+    public void start() {
+        // First run a minute after startup, after the cart purge has had its turn
+        if (job.schedule(this::runOnce, 60, intervalMinutes * 60, TimeUnit.SECONDS)) {
+            LOG.info("Order archive scheduled every {} minutes (retention {} months)",
+                    intervalMinutes, retentionMonths);
+        }
+    }
+
+    public void stop() {
+        job.stop();
+    }
+
+    /**
+     * The most recent run's result, or null if none has finished yet
+     */
+    public ArchiveReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Archive closed orders placed before now minus the retention period, batch by
+     * batch until none are left.
+     */
+    public ArchiveReport runOnce() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(retentionMonths);
+        int orders = 0;
+        int logEntries = 0;
+        int batches = 0;
+        boolean completed = true;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            OrderDAO.ArchiveResult result = orderDAO.archiveClosedOrders(cutoff, batchSize);
+            if (!result.isSuccess()) {
+                completed = false;
+                break;
+            }
+            if (result.getOrdersArchived() == 0 && result.getLogEntriesArchived() == 0) {
+                break;
+            }
+            batches++;
+            orders += result.getOrdersArchived();
+            logEntries += result.getLogEntriesArchived();
+            // A short batch means the backlog before the cutoff is drained
+            if (result.getOrdersArchived() < batchSize && result.getLogEntriesArchived() < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        ArchiveReport report = new ArchiveReport(orders, logEntries, batches, completed,
+                Duration.ofNanos(System.nanoTime() - start));
+        lastReport = report;
+        if (completed) {
+            LOG.info("Order archive moved {} orders and {} log entries placed before {} in {} batches ({} ms)",
+                    orders, logEntries, cutoff, batches, report.getDuration().toMillis());
+        } else {
+            LOG.warn("Order archive stopped after {} batches with {} orders moved; will retry next run",
+                    batches, orders);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,292 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
+import com.neosburritos.model.Order;
+import com.neosburritos.util.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports orders for accounting as CSV or JSON, optionally gzipped.
+ *
+ * Orders stream from the database straight into a buffered file channel one row at a
+ * time, so memory use stays the same however many orders match. The file is written
+ * next to the target under a .part name and only moved into place once complete, so a
+ * failed export never leaves a truncated file behind or replaces an earlier one.
+ *
+ * Both formats use the same field names:
+ * order_id, order_date, user_id, status, currency_code, total_amount,
+ * exchange_rate_to_usd, total_usd, item_count, total_quantity, delivery_address, notes,
+ * created_at, updated_at. Times are ISO-8601 local date-times; total_usd is the total at
+ * the rate the order was placed at. JSON files are an array of flat objects.
+ */
+public class OrderExporter {
+
+    private static final Logger LOG = Logger.getLogger(OrderExporter.class);
+
+    private static final String[] FIELDS = {
+        "order_id", "order_date", "user_id", "status", "currency_code", "total_amount",
+        "exchange_rate_to_usd", "total_usd", "item_count", "total_quantity",
+        "delivery_address", "notes", "created_at", "updated_at"
+    };
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV, JSON;
+
+        /** Picks the format from a file extension, ignoring a trailing .gz, defaulting to CSV */
+        public static Format fromFileName(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            return name.endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    /**
+     * Outcome of a completed export
+     */
+    public static class ExportReport {
+        private final int orderCount;
+        private final long fileSize;
+        private final long elapsedMillis;
+
+        public ExportReport(int orderCount, long fileSize, long elapsedMillis) {
+            this.orderCount = orderCount;
+            this.fileSize = fileSize;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getOrderCount() { return orderCount; }
+        /** Bytes written, after compression */
+        public long getFileSize() { return fileSize; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    private final OrderDAO orderDAO;
+
+    public OrderExporter(OrderDAO orderDAO) {
+        this.orderDAO = orderDAO;
+    }
+
+    /**
+     * Export to a file, picking the format and compression from its name
+     * (.csv, .json, .csv.gz or .json.gz)
+     */
+    public ExportReport exportOrders(OrderQuery query, Path file) throws IOException {
+        String name = file.getFileName().toString();
+        return exportOrders(query, file, Format.fromFileName(name), name.toLowerCase(Locale.ROOT).endsWith(".gz"));
+    }
+
+    /**
+     * Export every order matching the query, in its sort order. Replaces the file if it exists.
+     */
+    public ExportReport exportOrders(OrderQuery query, Path file, Format format, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        Path target = file.toAbsolutePath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+
+        int count;
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                    count = write(query, writer, format);
+                    if (gzipOut != null) {
+                        gzipOut.finish();
+                    }
+                    // Make sure the data is on disk before the file appears under its real name
+                    channel.force(true);
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        ExportReport report = new ExportReport(count, Files.size(target), (System.nanoTime() - start) / 1_000_000);
+        LOG.info("Exported {} orders as {}{} to {} ({} bytes, {} ms)", count, format, gzip ? " (gzip)" : "",
+                target.getFileName(), report.getFileSize(), report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Write matching orders to a writer one at a time as rows arrive from the database
+     *
+     * @return number of orders written
+     */
+    public int write(OrderQuery query, Writer writer, Format format) throws IOException {
+        OrderWriter orderWriter = format == Format.JSON ? new JsonOrderWriter(writer) : new CsvOrderWriter(writer);
+        orderWriter.begin();
+        int count;
+        try {
+            count = orderDAO.forEachOrder(query, order -> {
+                try {
+                    orderWriter.write(order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (count < 0) {
+            throw new IOException("Could not read orders from the database");
+        }
+        orderWriter.end();
+        writer.flush();
+        return count;
+    }
+
+    // ---- Writers ----
+
+    private interface OrderWriter {
+        void begin() throws IOException;
+        void write(Order order) throws IOException;
+        void end() throws IOException;
+    }
+
+    private static Object[] valuesOf(Order order) {
+        BigDecimal rate = order.getExchangeRateToUsd();
+        BigDecimal total = order.getTotalAmount();
+        BigDecimal totalUsd = rate != null && total != null && rate.signum() > 0
+                ? total.divide(rate, 2, RoundingMode.HALF_UP) : null;
+        return new Object[] {
+            order.getOrderId(), order.getOrderDate(), order.getUserId(),
+            order.getStatus() != null ? order.getStatus().name() : null, order.getCurrencyCode(),
+            total != null ? total.toPlainString() : null, rate != null ? rate.toPlainString() : null,
+            totalUsd != null ? totalUsd.toPlainString() : null,
+            order.getItemCount(), order.getTotalQuantity(), order.getDeliveryAddress(), order.getNotes(),
+            order.getCreatedAt(), order.getUpdatedAt()
+        };
+    }
+
+    /** Amounts are written as JSON numbers so they add up without parsing strings */
+    private static boolean isAmount(int field) {
+        return field == 5 || field == 6 || field == 7;
+    }
+
+    private static final class CsvOrderWriter implements OrderWriter {
+        private final Writer writer;
+
+        CsvOrderWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", FIELDS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Order order) throws IOException {
+            Object[] values = valuesOf(order);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(quote(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class JsonOrderWriter implements OrderWriter {
+        private final Writer writer;
+        private boolean first = true;
+
+        JsonOrderWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write('[');
+        }
+
+        @Override
+        public void write(Order order) throws IOException {
+            writer.write(first ? "\n  {" : ",\n  {");
+            first = false;
+            Object[] values = valuesOf(order);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write('"');
+                writer.write(FIELDS[i]);
+                writer.write("\": ");
+                Object value = values[i];
+                if (value == null || value instanceof Number || isAmount(i)) {
+                    writer.write(String.valueOf(value));
+                } else {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('}');
+        }
+
+        @Override
+        public void end() throws IOException {
+            writer.write(first ? "]\n" : "\n]\n");
+        }
+
+        private static String escape(String value) {
+            StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': escaped.append("\\\""); break;
+                    case '\\': escaped.append("\\\\"); break;
+                    case '\n': escaped.append("\\n"); break;
+                    case '\r': escaped.append("\\r"); break;
+                    case '\t': escaped.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            escaped.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            escaped.append(c);
+                        }
+                }
+            }
+            return escaped.append('"').toString();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.neosburritos.service;
+
+import java.math.BigDecimal;
+
+/**
+ * The external service that captures and refunds payments.
+ * Calls block until the gateway answers or gives up, so never call them on the EDT.
+ */
+public interface PaymentGateway {
+
+    enum Outcome {
+        /** The gateway took the money (or gave it back) */
+        APPROVED,
+        /** The gateway answered and refused */
+        DECLINED,
+        /** No answer in time; the request may or may not have gone through */
+        TIMEOUT,
+        /** The gateway could not be reached */
+        UNAVAILABLE,
+        /** Lookups only: the gateway has no record of the request */
+        NOT_FOUND
+    }
+
+    /**
+     * Capture a payment.
+     *
+     * @param requestId caller-generated id for this attempt
+     */
+    Response charge(String requestId, BigDecimal amount, String currencyCode);
+
+    /**
+     * Give back all or part of an earlier charge.
+     *
+     * @param transactionId the gateway reference of the original charge
+     */
+    Response refund(String requestId, String transactionId, BigDecimal amount, String currencyCode);
+
+    /**
+     * What the gateway decided for an earlier charge or refund, without sending it again.
+     * APPROVED with the reference, DECLINED, or NOT_FOUND if the request never arrived;
+     * TIMEOUT or UNAVAILABLE if the gateway could not be asked.
+     */
+    Response lookup(String requestId);
+
+    /**
+     * What the gateway said about one request
+     */
+    final class Response {
+        private final Outcome outcome;
+        private final String reference;
+        private final String message;
+        private final long latencyMillis;
+        private final boolean sent;
+
+        public Response(Outcome outcome, String reference, String message, long latencyMillis) {
+            this(outcome, reference, message, latencyMillis, true);
+        }
+
+        private Response(Outcome outcome, String reference, String message, long latencyMillis, boolean sent) {
+            this.outcome = outcome;
+            this.reference = reference;
+            this.message = message;
+            this.latencyMillis = latencyMillis;
+            this.sent = sent;
+        }
+
+        /** UNAVAILABLE for a request that was refused before it was sent, so cannot have taken effect */
+        public static Response notSent(String message) {
+            return new Response(Outcome.UNAVAILABLE, null, message, 0, false);
+        }
+
+        /** The same answer with a different latency */
+        public Response withLatency(long newLatencyMillis) {
+            return new Response(outcome, reference, message, newLatencyMillis, sent);
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public boolean isApproved() { return outcome == Outcome.APPROVED; }
+        /** Gateway transaction id for an approved request, otherwise null */
+        public String getReference() { return reference; }
+        public String getMessage() { return message; }
+        /** How long the caller waited for this response */
+        public long getLatencyMillis() { return latencyMillis; }
+        /** False only when the request certainly never reached the gateway */
+        public boolean wasSent() { return sent; }
+    }
+}
@@ -0,0 +1,349 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.AuditLogDAO;
+import com.neosburritos.model.AuditEvent;
+import com.neosburritos.util.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes payment ledger entries to transaction_log off the caller's thread.
+ * record() only puts the entry on a bounded queue; a background thread writes queued
+ * entries in multi-row batches. A failed batch is retried with backoff. A batch that
+ * still cannot be written is tried again row by row, so one bad entry cannot hold
+ * back the rest: entries the database rejects (say, for an order that has since been
+ * archived) go to a quarantine file for someone to look at, and entries that could not
+ * be written at all go to a local spill file. The spill file, which also takes entries
+ * that arrive while the queue is full or after stop(), is replayed on the next start.
+ * stop() drains the queue before returning.
+ *
+ * Delivery is at least once: a batch whose commit succeeded but was reported as a
+ * failure can be written again. transaction_log stores each payment and refund
+ * reference once, so the second write is skipped.
+ *
+ * Settings (system properties):
+ * neos.ledger.queueCapacity (10000), neos.ledger.batchSize (200),
+ * neos.ledger.flushIntervalMs (500), neos.ledger.spillFile (payment-ledger.spill),
+ * neos.ledger.quarantineFile (payment-ledger.quarantine).
+ */
+public class PaymentLedgerWriter {
+
+    private static final Logger LOG = Logger.getLogger(PaymentLedgerWriter.class);
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long INITIAL_BACKOFF_MS = 200;
+    private static final long SHUTDOWN_WAIT_MS = 10_000;
+
+    private final AuditLogDAO auditLogDAO;
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Path spillFile;
+    private final Path quarantineFile;
+    private final Object spillLock = new Object();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong quarantinedCount = new AtomicLong();
+
+    private Thread flusher;
+    private volatile boolean running;
+    /** Set once stop() has taken the last entries off the queue */
+    private volatile boolean closed = true;
+
+    public PaymentLedgerWriter(AuditLogDAO auditLogDAO) {
+        this(auditLogDAO,
+             Math.max(1, Integer.getInteger("neos.ledger.queueCapacity", 10_000)),
+             Math.max(1, Integer.getInteger("neos.ledger.batchSize", 200)),
+             Long.getLong("neos.ledger.flushIntervalMs", 500),
+             Paths.get(System.getProperty("neos.ledger.spillFile", "payment-ledger.spill")),
+             Paths.get(System.getProperty("neos.ledger.quarantineFile", "payment-ledger.quarantine")));
+    }
+
+    public PaymentLedgerWriter(AuditLogDAO auditLogDAO, int queueCapacity, int batchSize,
+                               long flushIntervalMs, Path spillFile, Path quarantineFile) {
+        this.auditLogDAO = auditLogDAO;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.spillFile = spillFile;
+        this.quarantineFile = quarantineFile;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        closed = false;
+        running = true;
+        flusher = new Thread(this::runFlusher, "payment-ledger");
+        flusher.setDaemon(true);
+        flusher.start();
+        LOG.info("Payment ledger writer started (batch {}, spill file {})", batchSize, spillFile);
+    }
+
+    /**
+     * Stop accepting queued writes and wait for the queue to be written out.
+     * Whatever is still queued after the wait goes to the spill file.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(SHUTDOWN_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        List<AuditEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            LOG.warn("Payment ledger stopped with {} entries unwritten; spilling them", remaining.size());
+            spill(remaining);
+        }
+        LOG.info("Payment ledger writer stopped ({} written, {} spilled, {} quarantined)",
+                 writtenCount.get(), spilledCount.get(), quarantinedCount.get());
+    }
+
+    /**
+     * Queue an entry for writing. Never blocks and never touches the database.
+     */
+    public void record(AuditEvent event) {
+        if (event.getProcessedAt() == null) {
+            event.setProcessedAt(LocalDateTime.now());
+        }
+        if (!running || !queue.offer(event)) {
+            // Full queue or not started: keep the entry on disk for the next replay
+            spill(List.of(event));
+            return;
+        }
+        if (closed) {
+            // stop() emptied the queue between the running check and the offer; nobody else will
+            List<AuditEvent> late = new ArrayList<>();
+            queue.drainTo(late);
+            if (!late.isEmpty()) {
+                spill(late);
+            }
+        }
+    }
+
+    /** Entries waiting in the queue */
+    public int getPendingCount() { return queue.size(); }
+    /** Entries written to transaction_log since start */
+    public long getWrittenCount() { return writtenCount.get(); }
+    /** Entries sent to the spill file since start */
+    public long getSpilledCount() { return spilledCount.get(); }
+    /** Entries the database rejected, sent to the quarantine file since start */
+    public long getQuarantinedCount() { return quarantinedCount.get(); }
+
+    private void runFlusher() {
+        replaySpillFile();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, and it waits for the queue to empty
+                continue;
+            }
+            writeWithRetry(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(List<AuditEvent> batch) {
+        long backoff = INITIAL_BACKOFF_MS;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            AuditLogDAO.AppendStatus status = auditLogDAO.appendEvents(batch);
+            if (status == AuditLogDAO.AppendStatus.APPENDED) {
+                writtenCount.addAndGet(batch.size());
+                return;
+            }
+            if (status == AuditLogDAO.AppendStatus.REJECTED) {
+                LOG.warn("Ledger batch of {} was rejected; writing it row by row", batch.size());
+                break;
+            }
+            if (attempt < MAX_ATTEMPTS) {
+                LOG.warn("Ledger batch of {} failed (attempt {}), retrying in {} ms", batch.size(), attempt, backoff);
+                sleepQuietly(backoff);
+                backoff *= 2;
+            }
+        }
+        writeRowByRow(batch);
+    }
+
+    /**
+     * Last resort for a batch that would not go in whole: write each entry on its own,
+     * quarantine the ones the database rejects and spill the rest once it stops answering
+     */
+    private void writeRowByRow(List<AuditEvent> batch) {
+        List<AuditEvent> rejected = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            AuditLogDAO.AppendStatus status = auditLogDAO.appendEvents(List.of(batch.get(i)));
+            if (status == AuditLogDAO.AppendStatus.APPENDED) {
+                writtenCount.incrementAndGet();
+            } else if (status == AuditLogDAO.AppendStatus.REJECTED) {
+                rejected.add(batch.get(i));
+            } else {
+                // The database is not answering; no point trying the others one at a time
+                List<AuditEvent> unwritten = batch.subList(i, batch.size());
+                LOG.error("Ledger database unavailable; spilling {} entries to {}", unwritten.size(), spillFile);
+                spill(unwritten);
+                break;
+            }
+        }
+        if (!rejected.isEmpty()) {
+            LOG.error("Ledger rejected {} entries; quarantining them in {}", rejected.size(), quarantineFile);
+            quarantine(rejected);
+        }
+    }
+
+    /**
+     * Write entries left over from an earlier run. The file is moved aside first so that
+     * anything spilled while replaying lands in a fresh file instead of being deleted.
+     */
+    private void replaySpillFile() {
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        List<String> lines = new ArrayList<>();
+        synchronized (spillLock) {
+            try {
+                // A .replaying file means the last replay was cut short; take it first
+                if (Files.exists(replaying)) {
+                    lines.addAll(Files.readAllLines(replaying, StandardCharsets.UTF_8));
+                }
+                if (Files.exists(spillFile)) {
+                    lines.addAll(Files.readAllLines(spillFile, StandardCharsets.UTF_8));
+                    Files.write(replaying, lines, StandardCharsets.UTF_8);
+                    Files.delete(spillFile);
+                }
+            } catch (IOException e) {
+                LOG.error("Could not read ledger spill file {}: {}", spillFile, e.getMessage());
+                return;
+            }
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        LOG.info("Replaying {} spilled ledger entries", lines.size());
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        for (String line : lines) {
+            AuditEvent event = parseSpillLine(line);
+            if (event == null) {
+                LOG.warn("Skipping unreadable ledger spill line: {}", line);
+                continue;
+            }
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                writeWithRetry(batch);
+                batch.clear();
+            }
+        }
+        writeWithRetry(batch);
+        try {
+            Files.deleteIfExists(replaying);
+        } catch (IOException e) {
+            LOG.error("Could not remove replayed ledger spill file {}: {}", replaying, e.getMessage());
+        }
+    }
+
+    private void spill(List<AuditEvent> events) {
+        if (append(spillFile, events)) {
+            spilledCount.addAndGet(events.size());
+        }
+    }
+
+    /** Rejected entries are kept in the spill format but never replayed automatically */
+    private void quarantine(List<AuditEvent> events) {
+        if (append(quarantineFile, events)) {
+            quarantinedCount.addAndGet(events.size());
+        }
+    }
+
+    private boolean append(Path file, List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditEvent event : events) {
+                    writer.write(toSpillLine(event));
+                    writer.newLine();
+                }
+                return true;
+            } catch (IOException e) {
+                // Nowhere left to keep them; make sure they are at least in the log
+                for (AuditEvent event : events) {
+                    LOG.error("LOST ledger entry {}: {}", toSpillLine(event), e.getMessage());
+                }
+                return false;
+            }
+        }
+    }
+
+    private static String toSpillLine(AuditEvent event) {
+        return String.join("\t",
+            event.getProcessedAt().toString(),
+            event.getOrderId() != null ? event.getOrderId().toString() : "",
+            event.getKind().name(),
+            nullToEmpty(event.getPaymentStatus()),
+            event.getAmount().toPlainString(),
+            nullToEmpty(event.getCurrencyCode()),
+            nullToEmpty(event.getReference()));
+    }
+
+    private static AuditEvent parseSpillLine(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 7) {
+            return null;
+        }
+        try {
+            AuditEvent event = new AuditEvent();
+            event.setProcessedAt(LocalDateTime.parse(fields[0]));
+            event.setOrderId(fields[1].isEmpty() ? null : Integer.valueOf(fields[1]));
+            event.setKind(AuditEvent.Kind.valueOf(fields[2]));
+            event.setPaymentStatus(emptyToNull(fields[3]));
+            event.setAmount(new BigDecimal(fields[4]));
+            event.setCurrencyCode(emptyToNull(fields[5]));
+            event.setReference(emptyToNull(fields[6]));
+            return event;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
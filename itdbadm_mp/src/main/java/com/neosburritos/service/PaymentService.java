@@ -1,14 +1,20 @@
 package com.neosburritos.service;
 
+import com.neosburritos.model.AuditEvent;
+import com.neosburritos.util.Logger;
 import java.math.BigDecimal;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Simplified Payment processing service
- * Simulates payment processing without unnecessary payment method complexity
+ * Sends charges and refunds to a PaymentGateway without unnecessary payment method complexity.
+ * Every attempt, outcome and refund is recorded in transaction_log through the
+ * payment ledger, which writes in the background.
  */
 public class PaymentService {
     
+    private static final Logger LOG = Logger.getLogger(PaymentService.class);
+    
     /**
      * Result class for payment operations
      */
@@ -16,90 +22,174 @@ public class PaymentService {
         private final boolean success;
         private final String message;
         private final String transactionId;
+        private final PaymentGateway.Outcome outcome;
+        private final boolean outcomeUnknown;
         
         public PaymentResult(boolean success, String message, String transactionId) {
+            this(success, message, transactionId,
+                 success ? PaymentGateway.Outcome.APPROVED : PaymentGateway.Outcome.DECLINED, false);
+        }
+        
+        public PaymentResult(boolean success, String message, String transactionId, PaymentGateway.Outcome outcome,
+                             boolean outcomeUnknown) {
             this.success = success;
             this.message = message;
             this.transactionId = transactionId;
+            this.outcome = outcome;
+            this.outcomeUnknown = outcomeUnknown;
         }
         
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public String getTransactionId() { return transactionId; }
+        public PaymentGateway.Outcome getOutcome() { return outcome; }
+        /**
+         * True when the request may have reached the gateway but no answer came back, so the
+         * money may or may not have moved. A request refused before it was sent is a decline.
+         */
+        public boolean isOutcomeUnknown() { return outcomeUnknown; }
     }
     
-    private final Random random = new Random();
+    private final PaymentGateway gateway;
+    private final PaymentLedgerWriter ledger;
+    
+    public PaymentService(PaymentGateway gateway, PaymentLedgerWriter ledger) {
+        this.gateway = gateway;
+        this.ledger = ledger;
+    }
     
     /**
      * Process payment for an order (simplified)
      */
     public PaymentResult processPayment(int orderId, BigDecimal amount, String currencyCode) {
+        return processPayment(orderId, amount, currencyCode, newAttemptId());
+    }
+    
+    /**
+     * Process payment for an order under a caller-chosen attempt id. The gateway treats
+     * the id as an idempotency key, so calling again with the same id returns the first
+     * outcome instead of charging twice.
+     */
+    public PaymentResult processPayment(int orderId, BigDecimal amount, String currencyCode, String attemptId) {
+        recordLedgerEntry(orderId, AuditEvent.Kind.PAYMENT, "PENDING", amount, currencyCode,
+                          "ATTEMPT_" + attemptId);
         
-        // Simulate payment processing delay
-        try {
-            Thread.sleep(1000 + random.nextInt(2000)); // 1-3 seconds
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        // Simulate payment success/failure (95% success rate)
-        boolean success = random.nextDouble() < 0.95;
+        PaymentGateway.Response response = gateway.charge(attemptId, amount, currencyCode);
         
-        if (success) {
-            String transactionId = generateTransactionId();
+        if (response.isApproved()) {
+            String transactionId = response.getReference();
             String message = String.format("Payment of %s %s processed successfully", 
                                           currencyCode, amount.toString());
             
-            System.out.println("Payment processed: " + message + " (Transaction ID: " + transactionId + ")");
-            return new PaymentResult(true, message, transactionId);
+            LOG.info("Payment processed: {} (Transaction ID: {}, {} ms)", message, transactionId,
+                     response.getLatencyMillis());
+            recordLedgerEntry(orderId, AuditEvent.Kind.PAYMENT, "COMPLETED", amount, currencyCode,
+                              "PAYMENT_" + transactionId);
+            return new PaymentResult(true, message, transactionId, response.getOutcome(), false);
             
         } else {
-            String message = "Payment failed. Please try again or contact support.";
-            System.out.println("Payment failed for order " + orderId);
-            return new PaymentResult(false, message, null);
+            String message = response.getMessage() + ". Please try again or contact support.";
+            LOG.warn("Payment failed for order {}: {} ({})", orderId, response.getOutcome(), response.getMessage());
+            recordLedgerEntry(orderId, AuditEvent.Kind.PAYMENT, "CANCELLED", amount, currencyCode,
+                              "FAILED_" + attemptId);
+            boolean unknown = response.getOutcome() == PaymentGateway.Outcome.TIMEOUT
+                    || (response.getOutcome() == PaymentGateway.Outcome.UNAVAILABLE && response.wasSent());
+            return new PaymentResult(false, message, null, response.getOutcome(), unknown);
+        }
+    }
+    
+    /**
+     * Find out how an earlier charge whose answer was lost turned out, without charging
+     * again. A charge that turns out approved is recorded in the ledger as if its answer
+     * had arrived. NOT_FOUND means the gateway never received it.
+     */
+    public PaymentResult lookupPayment(int orderId, BigDecimal amount, String currencyCode, String attemptId) {
+        PaymentGateway.Response response = gateway.lookup(attemptId);
+        switch (response.getOutcome()) {
+            case APPROVED:
+                String transactionId = response.getReference();
+                LOG.info("Payment {} for order {} was approved (Transaction ID: {})", attemptId, orderId, transactionId);
+                recordLedgerEntry(orderId, AuditEvent.Kind.PAYMENT, "COMPLETED", amount, currencyCode,
+                                  "PAYMENT_" + transactionId);
+                return new PaymentResult(true, "Payment was approved", transactionId, response.getOutcome(), false);
+            case DECLINED:
+                return new PaymentResult(false, "Payment was declined", null, response.getOutcome(), false);
+            case NOT_FOUND:
+                return new PaymentResult(false, "Payment never reached the gateway", null, response.getOutcome(), false);
+            default:
+                return new PaymentResult(false, response.getMessage(), null, response.getOutcome(), true);
         }
     }
     
     /**
-     * Generate a random transaction ID
+     * A fresh attempt id for processPayment
      */
-    private String generateTransactionId() {
+    public static String newAttemptId() {
+        return generateId("ATT");
+    }
+    
+    /**
+     * Generate a random ID such as ATT4F9K2QZ81B7C
+     */
+    private static String generateId(String prefix) {
         StringBuilder sb = new StringBuilder();
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         
         for (int i = 0; i < 12; i++) {
             sb.append(chars.charAt(random.nextInt(chars.length())));
         }
         
-        return "TXN" + sb.toString();
+        return prefix + sb.toString();
     }
     
     /**
      * Refund a payment (simulation)
      */
-    public PaymentResult refundPayment(String transactionId, BigDecimal amount, String currencyCode) {
-        // Simulate refund processing
-        try {
-            Thread.sleep(500 + random.nextInt(1000));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        // Simulate refund success (95% success rate)
-        boolean success = random.nextDouble() < 0.95;
+    public PaymentResult refundPayment(int orderId, String transactionId, BigDecimal amount, String currencyCode) {
+        return refundPayment(orderId, transactionId, amount, currencyCode, generateId("RRQ"));
+    }
+    
+    /**
+     * Refund a payment under a caller-chosen request id, so that retrying a refund whose
+     * outcome was lost cannot pay the money back twice
+     */
+    public PaymentResult refundPayment(int orderId, String transactionId, BigDecimal amount, String currencyCode,
+                                       String requestId) {
+        PaymentGateway.Response response = gateway.refund(requestId, transactionId, amount, currencyCode);
         
-        if (success) {
-            String refundId = generateTransactionId();
+        if (response.isApproved()) {
+            String refundId = response.getReference();
             String message = String.format("Refund of %s %s processed successfully", 
                                           currencyCode, amount.toString());
             
-            System.out.println("Refund processed: " + message + " (Refund ID: " + refundId + ")");
-            return new PaymentResult(true, message, refundId);
+            LOG.info("Refund processed: {} (Refund ID: {})", message, refundId);
+            recordLedgerEntry(orderId, AuditEvent.Kind.REFUND, "COMPLETED", amount, currencyCode,
+                              "REFUND_" + refundId + "_OF_" + transactionId);
+            return new PaymentResult(true, message, refundId, response.getOutcome(), false);
             
         } else {
-            String message = "Refund failed. Please contact customer support.";
-            System.out.println("Refund failed for transaction " + transactionId);
-            return new PaymentResult(false, message, null);
+            String message = response.getMessage() + ". Please contact customer support.";
+            LOG.warn("Refund failed for transaction {}: {} ({})", transactionId, response.getOutcome(),
+                     response.getMessage());
+            // The saga retries under the same request id, so each failed try gets its own suffix;
+            // a replay of this entry keeps the reference and is still stored only once
+            recordLedgerEntry(orderId, AuditEvent.Kind.REFUND, "CANCELLED", amount, currencyCode,
+                              "REFUND_FAILED_" + requestId + "_" + generateId("T") + "_OF_" + transactionId);
+            return new PaymentResult(false, message, null, response.getOutcome(),
+                                     response.getOutcome() != PaymentGateway.Outcome.DECLINED && response.wasSent());
         }
     }
-}
\ No newline at end of file
+    
+    private void recordLedgerEntry(int orderId, AuditEvent.Kind kind, String status,
+                                   BigDecimal amount, String currencyCode, String reference) {
+        AuditEvent entry = new AuditEvent();
+        entry.setOrderId(orderId);
+        entry.setKind(kind);
+        entry.setPaymentStatus(status);
+        entry.setAmount(amount);
+        entry.setCurrencyCode(currencyCode);
+        entry.setReference(reference);
+        ledger.record(entry);
+    }
+}
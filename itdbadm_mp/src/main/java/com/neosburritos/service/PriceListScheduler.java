@@ -0,0 +1,55 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.PriceListDAO;
+import com.neosburritos.model.PriceList;
+import com.neosburritos.util.Logger;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activates scheduled price lists once their effective time has passed.
+ * Polls with one indexed query per interval on a background thread. Several running
+ * copies of the application are safe: sp_activate_price_list locks the list row, so
+ * only one of them applies it.
+ */
+public class PriceListScheduler {
+
+    private static final Logger LOG = Logger.getLogger(PriceListScheduler.class);
+
+    private static final long POLL_INTERVAL_SECONDS = 30;
+
+    private final PriceListDAO priceListDAO;
+    private final ScheduledJob job = new ScheduledJob("price-list-scheduler", "Price list scheduler check", LOG);
+
+    public PriceListScheduler(PriceListDAO priceListDAO) {
+        this.priceListDAO = priceListDAO;
+    }
+
+    public void start() {
+        if (job.schedule(this::activateDueLists, 0, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+            LOG.info("Price list scheduler started");
+        }
+    }
+
+    public void stop() {
+        job.stop();
+    }
+
+    /**
+     * Run a check now instead of waiting for the next poll, e.g. right after scheduling
+     */
+    public void checkNow() {
+        job.execute(this::activateDueLists);
+    }
+
+    private void activateDueLists() {
+        List<PriceList> due = priceListDAO.getDuePriceLists();
+        for (PriceList priceList : due) {
+            PriceListDAO.PricingResult result = priceListDAO.activate(priceList.getPriceListId());
+            if (result.isSuccess()) {
+                LOG.info("Scheduled price list '{}' activated: {}", priceList.getName(), result.getMessage());
+            }
+        }
+    }
+}
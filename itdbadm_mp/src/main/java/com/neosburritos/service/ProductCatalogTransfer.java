@@ -0,0 +1,594 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.ProductDAO;
+import com.neosburritos.dao.ProductDAO.ProductDraft;
+import com.neosburritos.model.Product;
+import com.neosburritos.util.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bulk product import and export in CSV or JSON.
+ * Imports are parsed and validated row by row, then handed to
+ * {@link ProductDAO#bulkAddProducts} in one call so currencies are resolved once and rows
+ * are written in batches. Exports stream from the database straight to the writer.
+ *
+ * Both formats use the same field names:
+ * product_id, name, description, base_price, currency_code, category, is_customizable,
+ * stock_quantity, is_active. product_id is written on export and ignored on import.
+ * JSON files are an array of flat objects.
+ */
+public class ProductCatalogTransfer {
+
+    private static final Logger LOG = Logger.getLogger(ProductCatalogTransfer.class);
+
+    private static final String[] FIELDS = {
+        "product_id", "name", "description", "base_price", "currency_code",
+        "category", "is_customizable", "stock_quantity", "is_active"
+    };
+    private static final int DEFAULT_STOCK = 100;
+    private static final int MAX_NAME_LENGTH = 100;
+
+    public enum Format {
+        CSV, JSON;
+
+        /** Picks the format from a file extension, defaulting to CSV */
+        public static Format fromFileName(String fileName) {
+            return fileName.toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    /**
+     * Outcome of an import. Row numbers are data rows counted from 1
+     * (for CSV the header line is not counted).
+     */
+    public static class ImportReport {
+        private final int totalRows;
+        private final int importedCount;
+        private final Map<Integer, String> errors;
+
+        public ImportReport(int totalRows, int importedCount, Map<Integer, String> errors) {
+            this.totalRows = totalRows;
+            this.importedCount = importedCount;
+            this.errors = errors;
+        }
+
+        public int getTotalRows() { return totalRows; }
+        public int getImportedCount() { return importedCount; }
+        public Map<Integer, String> getErrors() { return errors; }
+        public boolean hasErrors() { return !errors.isEmpty(); }
+    }
+
+    private final ProductDAO productDAO;
+
+    public ProductCatalogTransfer(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+
+    /**
+     * Parse, validate and insert products. Invalid rows are skipped and reported;
+     * valid rows are inserted even when others fail.
+     */
+    public ImportReport importProducts(Reader reader, Format format) throws IOException {
+        List<Map<String, String>> records = format == Format.JSON
+                ? new JsonRecordReader(reader).readAll()
+                : new CsvRecordReader(reader).readAll();
+
+        Map<Integer, String> errors = new TreeMap<>();
+        List<ProductDraft> drafts = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            int row = i + 1;
+            try {
+                drafts.add(toDraft(row, records.get(i)));
+            } catch (IllegalArgumentException e) {
+                errors.put(row, e.getMessage());
+            }
+        }
+
+        ProductDAO.BulkInsertResult result = productDAO.bulkAddProducts(drafts);
+        errors.putAll(result.getErrors());
+
+        LOG.info("Imported {} of {} product rows ({} errors)",
+                result.getInsertedIds().size(), records.size(), errors.size());
+        return new ImportReport(records.size(), result.getInsertedIds().size(), errors);
+    }
+
+    /**
+     * Write the whole catalog, one product at a time as rows arrive from the database.
+     *
+     * @return number of products written
+     */
+    public int exportProducts(Writer writer, Format format) throws IOException {
+        ProductWriter productWriter = format == Format.JSON ? new JsonProductWriter(writer) : new CsvProductWriter(writer);
+        productWriter.begin();
+        int count;
+        try {
+            count = productDAO.forEachProduct(product -> {
+                try {
+                    productWriter.write(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (count < 0) {
+            throw new IOException("Could not read products from the database");
+        }
+        productWriter.end();
+        writer.flush();
+        LOG.info("Exported {} products as {}", count, format);
+        return count;
+    }
+
+    // ---- Validation ----
+
+    private static ProductDraft toDraft(int row, Map<String, String> fields) {
+        String name = trimToNull(fields.get("name"));
+        if (name == null) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+
+        BigDecimal price;
+        String priceText = trimToNull(fields.get("base_price"));
+        if (priceText == null) {
+            throw new IllegalArgumentException("Price is required");
+        }
+        try {
+            price = new BigDecimal(priceText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + priceText);
+        }
+        if (price.signum() <= 0) {
+            throw new IllegalArgumentException("Price must be greater than zero");
+        }
+        if (price.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Price has more than two decimal places: " + priceText);
+        }
+
+        String currency = trimToNull(fields.get("currency_code"));
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Currency code must be three letters");
+        }
+
+        Product.Category category;
+        String categoryText = trimToNull(fields.get("category"));
+        if (categoryText == null) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        try {
+            category = Product.Category.valueOf(categoryText.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category: " + categoryText);
+        }
+
+        int stock = DEFAULT_STOCK;
+        String stockText = trimToNull(fields.get("stock_quantity"));
+        if (stockText != null) {
+            try {
+                stock = Integer.parseInt(stockText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid stock quantity: " + stockText);
+            }
+            if (stock < 0) {
+                throw new IllegalArgumentException("Stock quantity cannot be negative");
+            }
+        }
+
+        return new ProductDraft(row, name, trimToNull(fields.get("description")), price,
+                currency.toUpperCase(Locale.ROOT), category,
+                parseBoolean(fields.get("is_customizable"), false, "is_customizable"), stock,
+                parseBoolean(fields.get("is_active"), true, "is_active"));
+    }
+
+    private static boolean parseBoolean(String text, boolean defaultValue, String field) {
+        String value = trimToNull(text);
+        if (value == null) {
+            return defaultValue;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true": case "yes": case "1": return true;
+            case "false": case "no": case "0": return false;
+            default: throw new IllegalArgumentException("Invalid " + field + " value: " + value);
+        }
+    }
+
+    private static String trimToNull(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // ---- CSV ----
+
+    /**
+     * RFC 4180 style reader: comma separated, double-quoted fields may contain commas,
+     * quotes ("") and line breaks. The first record is the header.
+     */
+    private static final class CsvRecordReader {
+        private final Reader reader;
+        private int peeked = -2;
+
+        CsvRecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<Map<String, String>> readAll() throws IOException {
+            List<String> header = readRecord();
+            List<Map<String, String>> records = new ArrayList<>();
+            if (header == null) {
+                return records;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+                // Spreadsheet tools sometimes prepend a byte order mark
+                header.set(i, column.startsWith("\uFEFF") ? column.substring(1) : column);
+            }
+
+            List<String> values;
+            while ((values = readRecord()) != null) {
+                if (values.size() == 1 && values.get(0).isEmpty()) {
+                    continue; // blank line
+                }
+                Map<String, String> record = new HashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    record.put(header.get(i), values.get(i));
+                }
+                records.add(record);
+            }
+            return records;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = reader.read();
+            }
+            return peeked;
+        }
+    }
+
+    // ---- JSON ----
+
+    /**
+     * Reads an array of flat objects whose values are strings, numbers, booleans or null.
+     * Values are returned as their text so both formats share one validation path.
+     */
+    private static final class JsonRecordReader {
+        private final Reader reader;
+        private int peeked = -2;
+
+        JsonRecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<Map<String, String>> readAll() throws IOException {
+            List<Map<String, String>> records = new ArrayList<>();
+            expect('[');
+            if (peekToken() == ']') {
+                read();
+                return records;
+            }
+            while (true) {
+                records.add(readObject());
+                int c = readToken();
+                if (c == ']') {
+                    return records;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'", c);
+                }
+            }
+        }
+
+        private Map<String, String> readObject() throws IOException {
+            Map<String, String> record = new HashMap<>();
+            expect('{');
+            if (peekToken() == '}') {
+                read();
+                return record;
+            }
+            while (true) {
+                expect('"');
+                String key = readString().toLowerCase(Locale.ROOT);
+                expect(':');
+                record.put(key, readValue());
+                int c = readToken();
+                if (c == '}') {
+                    return record;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'", c);
+                }
+            }
+        }
+
+        private String readValue() throws IOException {
+            int c = readToken();
+            if (c == '"') {
+                return readString();
+            }
+            StringBuilder literal = new StringBuilder();
+            while (c != -1 && (Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.')) {
+                literal.append((char) c);
+                int next = peek();
+                if (!(Character.isLetterOrDigit(next) || next == '-' || next == '+' || next == '.')) {
+                    break;
+                }
+                c = read();
+            }
+            String text = literal.toString();
+            if (text.isEmpty()) {
+                throw error("Nested objects and arrays are not supported", c);
+            }
+            return "null".equals(text) ? null : text;
+        }
+
+        private String readString() throws IOException {
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    throw new IOException("Unterminated string");
+                }
+                if (c == '"') {
+                    return text.toString();
+                }
+                if (c == '\\') {
+                    int escaped = read();
+                    switch (escaped) {
+                        case 'n': text.append('\n'); break;
+                        case 'r': text.append('\r'); break;
+                        case 't': text.append('\t'); break;
+                        case 'b': text.append('\b'); break;
+                        case 'f': text.append('\f'); break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++) {
+                                hex[i] = (char) read();
+                            }
+                            try {
+                                text.append((char) Integer.parseInt(new String(hex), 16));
+                            } catch (NumberFormatException e) {
+                                throw new IOException("Invalid unicode escape: \\u" + new String(hex));
+                            }
+                            break;
+                        case -1: throw new IOException("Unterminated string");
+                        default: text.append((char) escaped); // \" \\ \/
+                    }
+                } else {
+                    text.append((char) c);
+                }
+            }
+        }
+
+        private void expect(char expected) throws IOException {
+            int c = readToken();
+            if (c != expected) {
+                throw error("Expected '" + expected + "'", c);
+            }
+        }
+
+        private int readToken() throws IOException {
+            int c = read();
+            while (c != -1 && Character.isWhitespace(c)) {
+                c = read();
+            }
+            return c;
+        }
+
+        private int peekToken() throws IOException {
+            int c = peek();
+            while (c != -1 && Character.isWhitespace(c)) {
+                read();
+                c = peek();
+            }
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = reader.read();
+            }
+            return peeked;
+        }
+
+        private static IOException error(String message, int found) {
+            return new IOException(message + " but found " + (found == -1 ? "end of file" : "'" + (char) found + "'"));
+        }
+    }
+
+    // ---- Writers ----
+
+    private interface ProductWriter {
+        void begin() throws IOException;
+        void write(Product product) throws IOException;
+        void end() throws IOException;
+    }
+
+    private static Object[] valuesOf(Product product) {
+        return new Object[] {
+            product.getProductId(), product.getName(), product.getDescription(),
+            product.getBasePrice() != null ? product.getBasePrice().toPlainString() : null,
+            product.getCurrencyCode(), product.getCategory() != null ? product.getCategory().name() : null,
+            product.isCustomizable(), product.getStockQuantity(), product.isActive()
+        };
+    }
+
+    private static final class CsvProductWriter implements ProductWriter {
+        private final Writer writer;
+
+        CsvProductWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", FIELDS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Product product) throws IOException {
+            Object[] values = valuesOf(product);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(quote(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class JsonProductWriter implements ProductWriter {
+        private final Writer writer;
+        private boolean first = true;
+
+        JsonProductWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write('[');
+        }
+
+        @Override
+        public void write(Product product) throws IOException {
+            writer.write(first ? "\n  {" : ",\n  {");
+            first = false;
+            Object[] values = valuesOf(product);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(", ");
+                }
+                writer.write('"');
+                writer.write(FIELDS[i]);
+                writer.write("\": ");
+                Object value = values[i];
+                // Prices are written as JSON numbers so they round-trip without quoting
+                if (value == null || value instanceof Number || value instanceof Boolean || i == 3) {
+                    writer.write(String.valueOf(value));
+                } else {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('}');
+        }
+
+        @Override
+        public void end() throws IOException {
+            writer.write(first ? "]\n" : "\n]\n");
+        }
+
+        private static String escape(String value) {
+            StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': escaped.append("\\\""); break;
+                    case '\\': escaped.append("\\\\"); break;
+                    case '\n': escaped.append("\\n"); break;
+                    case '\r': escaped.append("\\r"); break;
+                    case '\t': escaped.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            escaped.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            escaped.append(c);
+                        }
+                }
+            }
+            return escaped.append('"').toString();
+        }
+    }
+}
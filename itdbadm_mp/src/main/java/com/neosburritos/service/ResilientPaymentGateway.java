@@ -0,0 +1,284 @@
+package com.neosburritos.service;
+
+import com.neosburritos.util.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Wraps a PaymentGateway so that no call takes longer than a fixed deadline.
+ * Each attempt gets its own timeout. An attempt still running after the recent p95
+ * latency is hedged with a second copy, and whichever answers first wins. Attempts
+ * that time out or find the gateway unavailable are retried while the deadline
+ * allows. Every copy and retry reuses the caller's request id, which the gateway
+ * treats as an idempotency key, so none of them can charge twice.
+ *
+ * A circuit breaker counts timeouts and unavailable answers. While it is open, calls
+ * fail at once instead of waiting on a gateway that is down. Declines are answers,
+ * not failures. A call that gives up without any attempt reaching the gateway is
+ * reported as not sent, so the caller knows nothing was charged.
+ *
+ * Settings (system properties):
+ * neos.payment.deadlineMs (10000), neos.payment.attemptTimeoutMs (4000),
+ * neos.payment.maxAttempts (3), neos.payment.hedge (true),
+ * neos.payment.hedgeDelayMs (3000, used until enough latencies are seen),
+ * neos.payment.breakerWindow (20), neos.payment.breakerFailureRate (0.5),
+ * neos.payment.breakerOpenMs (30000).
+ */
+public class ResilientPaymentGateway implements PaymentGateway {
+
+    private static final Logger LOG = Logger.getLogger(ResilientPaymentGateway.class);
+
+    /** Answered attempt latencies kept for the hedge delay */
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final PaymentGateway delegate;
+    private final long deadlineNanos;
+    private final long attemptTimeoutNanos;
+    private final int maxAttempts;
+    private final boolean hedgeEnabled;
+    private final long initialHedgeDelayNanos;
+    private final CircuitBreaker breaker;
+    private final ExecutorService executor;
+
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+    private int latencySampleCount;
+    private int nextLatencySample;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder attemptTimeouts = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ResilientPaymentGateway(PaymentGateway delegate) {
+        this(delegate,
+             Long.getLong("neos.payment.deadlineMs", 10_000),
+             Long.getLong("neos.payment.attemptTimeoutMs", 4_000),
+             Math.max(1, Integer.getInteger("neos.payment.maxAttempts", 3)),
+             Boolean.parseBoolean(System.getProperty("neos.payment.hedge", "true")),
+             Long.getLong("neos.payment.hedgeDelayMs", 3_000),
+             breakerFromSystemProperties());
+    }
+
+    public ResilientPaymentGateway(PaymentGateway delegate, long deadlineMs, long attemptTimeoutMs,
+                                   int maxAttempts, boolean hedgeEnabled, long initialHedgeDelayMs,
+                                   CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.attemptTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(attemptTimeoutMs);
+        this.maxAttempts = maxAttempts;
+        this.hedgeEnabled = hedgeEnabled;
+        this.initialHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(initialHedgeDelayMs);
+        this.breaker = breaker;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static CircuitBreaker breakerFromSystemProperties() {
+        int window = Math.max(1, Integer.getInteger("neos.payment.breakerWindow", 20));
+        // Judge the failure rate only once half the window is filled
+        return new CircuitBreaker("payment-gateway", window, (window + 1) / 2,
+                                  Double.parseDouble(System.getProperty("neos.payment.breakerFailureRate", "0.5")),
+                                  Long.getLong("neos.payment.breakerOpenMs", 30_000));
+    }
+
+    @Override
+    public Response charge(String requestId, BigDecimal amount, String currencyCode) {
+        return execute("charge " + requestId, () -> delegate.charge(requestId, amount, currencyCode));
+    }
+
+    @Override
+    public Response refund(String requestId, String transactionId, BigDecimal amount, String currencyCode) {
+        return execute("refund " + requestId,
+                       () -> delegate.refund(requestId, transactionId, amount, currencyCode));
+    }
+
+    @Override
+    public Response lookup(String requestId) {
+        return execute("lookup " + requestId, () -> delegate.lookup(requestId));
+    }
+
+    /**
+     * Counter values so far. Calls are what callers asked for; attempts include retries and hedges.
+     */
+    public Stats getStats() {
+        return new Stats(calls.sum(), attempts.sum(), retries.sum(), hedges.sum(), hedgeWins.sum(),
+                         attemptTimeouts.sum(), shortCircuits.sum(), answered.sum(), failed.sum(),
+                         breaker.getState(), breaker.getOpenCount(),
+                         TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos()));
+    }
+
+    public record Stats(long calls, long attempts, long retries, long hedges, long hedgeWins,
+                        long attemptTimeouts, long shortCircuits, long answered, long failed,
+                        CircuitBreaker.State breakerState, long breakerOpens, long hedgeDelayMillis) {
+    }
+
+    private Response execute(String description, Supplier<Response> request) {
+        calls.increment();
+        long start = System.nanoTime();
+        long deadline = start + deadlineNanos;
+        Response last = new Response(Outcome.TIMEOUT, null, "Payment gateway did not respond in time", 0);
+        boolean sent = false;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            if (!breaker.tryAcquire()) {
+                shortCircuits.increment();
+                if (attempt == 1) {
+                    // The breaker already logged why it opened; one line per rejected call is noise
+                    failed.increment();
+                    return Response.notSent("Payment gateway is temporarily unavailable");
+                }
+                break;
+            }
+            if (attempt > 1) {
+                retries.increment();
+                LOG.debug("Retrying {} (attempt {}) after {}", description, attempt, last.getOutcome());
+            }
+
+            Response response = race(request, Math.min(attemptTimeoutNanos, remaining));
+            if (isAnswer(response.getOutcome())) {
+                breaker.onSuccess();
+                answered.increment();
+                return withLatency(response, start);
+            }
+            breaker.onFailure();
+            sent |= response.wasSent();
+            last = response;
+        }
+
+        failed.increment();
+        LOG.warn("Gave up on {} after {} ms: {}", description,
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), last.getMessage());
+        // Any attempt that may have reached the gateway leaves the outcome unknown
+        if (!sent) {
+            return withLatency(Response.notSent(last.getMessage()), start);
+        }
+        return withLatency(new Response(last.getOutcome(), null, last.getMessage(), 0), start);
+    }
+
+    private static boolean isAnswer(Outcome outcome) {
+        return outcome == Outcome.APPROVED || outcome == Outcome.DECLINED || outcome == Outcome.NOT_FOUND;
+    }
+
+    /**
+     * One attempt, plus a hedged copy if it is still running after the hedge delay.
+     * Returns the first answer, the last failure if every copy failed, or TIMEOUT.
+     */
+    private Response race(Supplier<Response> request, long timeoutNanos) {
+        BlockingQueue<AttemptResult> results = new LinkedBlockingQueue<>();
+        List<Future<?>> running = new ArrayList<>(2);
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+        long hedgeAt = hedgeEnabled ? start + hedgeDelayNanos() : Long.MAX_VALUE;
+        running.add(submit(request, false, results));
+        boolean hedged = false;
+        int outstanding = 1;
+        Response lastFailure = null;
+
+        try {
+            while (outstanding > 0) {
+                boolean hedgeNext = hedgeEnabled && !hedged && hedgeAt - deadline < 0;
+                long waitUntil = hedgeNext ? hedgeAt : deadline;
+                AttemptResult result = results.poll(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (result == null) {
+                    if (!hedgeNext) {
+                        break;
+                    }
+                    running.add(submit(request, true, results));
+                    hedges.increment();
+                    hedged = true;
+                    outstanding++;
+                    continue;
+                }
+                outstanding--;
+                if (isAnswer(result.response().getOutcome())) {
+                    recordLatency(System.nanoTime() - start);
+                    if (result.hedge()) {
+                        hedgeWins.increment();
+                    }
+                    return result.response();
+                }
+                // A copy that may have reached the gateway says more than one that did not
+                if (lastFailure == null || result.response().wasSent()) {
+                    lastFailure = result.response();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(Outcome.UNAVAILABLE, null, "Payment request was interrupted", 0);
+        } finally {
+            // The losers' answers are not needed; the idempotency key makes abandoning them safe
+            for (Future<?> future : running) {
+                future.cancel(true);
+            }
+        }
+
+        if (outstanding == 0) {
+            return lastFailure;
+        }
+        attemptTimeouts.increment();
+        return new Response(Outcome.TIMEOUT, null, "Payment gateway did not respond in time",
+                            TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+    }
+
+    private Future<?> submit(Supplier<Response> request, boolean hedge, BlockingQueue<AttemptResult> results) {
+        attempts.increment();
+        return executor.submit(() -> {
+            Response response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                response = new Response(Outcome.UNAVAILABLE, null, "Payment gateway error: " + e.getMessage(), 0);
+            }
+            results.add(new AttemptResult(hedge, response));
+        });
+    }
+
+    private record AttemptResult(boolean hedge, Response response) {
+    }
+
+    private static Response withLatency(Response response, long start) {
+        return response.withLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencySamples[nextLatencySample] = nanos;
+        nextLatencySample = (nextLatencySample + 1) % LATENCY_SAMPLES;
+        latencySampleCount = Math.min(LATENCY_SAMPLES, latencySampleCount + 1);
+    }
+
+    /** p95 of recent answered attempts, or the configured delay until enough are seen */
+    private synchronized long hedgeDelayNanos() {
+        if (latencySampleCount < MIN_LATENCY_SAMPLES) {
+            return initialHedgeDelayNanos;
+        }
+        long[] sorted = Arrays.copyOf(latencySamples, latencySampleCount);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+    }
+}
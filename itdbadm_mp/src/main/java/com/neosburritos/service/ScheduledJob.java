@@ -0,0 +1,108 @@
+package com.neosburritos.service;
+
+import com.neosburritos.util.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The background thread behind a maintenance service: one named daemon thread that runs a
+ * task on a fixed delay and any one-off work queued with {@link #execute}, one at a time.
+ * A run that throws is logged and the schedule carries on; a plain scheduled executor
+ * would silently cancel the task instead. Once stopped the job cannot be started again.
+ */
+final class ScheduledJob {
+
+    private final String name;
+    private final Logger log;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+
+    /**
+     * @param threadName name of the background thread
+     * @param name what failures are logged as, e.g. "Cart purge"
+     * @param log the owning service's logger
+     */
+    ScheduledJob(String threadName, String name, Logger log) {
+        this.name = name;
+        this.log = log;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run the task after the initial delay and then the given delay after each run ends
+     *
+     * @return false if the job is already scheduled or has been stopped
+     */
+    synchronized boolean schedule(Runnable periodic, long initialDelay, long delay, TimeUnit unit) {
+        if (task != null || executor.isShutdown()) {
+            return false;
+        }
+        task = executor.scheduleWithFixedDelay(() -> runSafely(periodic), initialDelay, delay, unit);
+        return true;
+    }
+
+    /**
+     * Queue one-off work on the job's thread
+     *
+     * @return false if the job has been stopped and the work was dropped
+     */
+    boolean execute(Runnable work) {
+        try {
+            executor.execute(() -> runSafely(work));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stop now, interrupting a run in progress
+     */
+    synchronized void stop() {
+        executor.shutdownNow();
+        task = null;
+    }
+
+    /**
+     * Stop taking work, give a run in progress up to the timeout to finish, then interrupt it
+     */
+    void stopGracefully(long timeout, TimeUnit unit) {
+        synchronized (this) {
+            executor.shutdown();
+            task = null;
+        }
+        if (!awaitTermination(timeout, unit)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for a stopped job's last run to end
+     *
+     * @return false if it was still running when the timeout passed
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) {
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runSafely(Runnable work) {
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            log.error("{} failed: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.neosburritos.service;
+
+import com.neosburritos.util.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the payment gateway, used by the app and by load tests.
+ * Each call sleeps for a latency drawn from the configured distribution, then
+ * approves or declines at the configured failure rate. A call whose latency would
+ * exceed the timeout waits out the timeout and reports TIMEOUT; a call that falls in
+ * an outage window fails at once with UNAVAILABLE and is never sent.
+ *
+ * Request ids are idempotency keys. The first call with an id decides the outcome and
+ * reference, and later calls with the same id (retries, hedged copies) get the same
+ * answer, so retrying never charges twice. A timed-out call has still been decided,
+ * as with a real gateway whose reply is lost on the way back, and a lookup finds it.
+ *
+ * With a seed, the n-th call always draws the same latency, outcome and reference,
+ * whichever thread makes it. Outage windows are measured from construction, so they
+ * depend on wall-clock time.
+ *
+ * Settings (system properties):
+ * neos.gateway.latency (normal: fixed, normal or longtail), neos.gateway.latencyMs (2000,
+ * the mean, or the median for longtail), neos.gateway.latencyStdDevMs (500, normal only),
+ * neos.gateway.latencyP99Ms (8000, longtail only), neos.gateway.failureRate (0.05),
+ * neos.gateway.timeoutMs (10000), neos.gateway.seed (none),
+ * neos.gateway.outages (none; startMs+durationMs pairs separated by commas).
+ */
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final Logger LOG = Logger.getLogger(SimulatedPaymentGateway.class);
+
+    private static final String ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    /** z-score of the 99th percentile of a standard normal distribution */
+    private static final double Z_99 = 2.3263;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    /** How many decided request ids are kept for idempotent replays */
+    private static final int REMEMBERED_REQUESTS = 100_000;
+
+    public enum LatencyModel { FIXED, NORMAL, LONG_TAIL }
+
+    private final Config config;
+    private final long seed;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong approvedCount = new AtomicLong();
+    /** Guarded by itself */
+    private final Map<String, Response> decided = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Response> eldest) {
+            return size() > REMEMBERED_REQUESTS;
+        }
+    };
+
+    public SimulatedPaymentGateway() {
+        this(Config.fromSystemProperties());
+    }
+
+    public SimulatedPaymentGateway(Config config) {
+        this.config = config.copy();
+        this.seed = config.seed != null ? config.seed : ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Simulator settings. Defaults roughly match a real gateway on a good day.
+     */
+    public static final class Config {
+        private LatencyModel latencyModel = LatencyModel.NORMAL;
+        private long latencyMs = 2_000;
+        private long latencyStdDevMs = 500;
+        private long latencyP99Ms = 8_000;
+        private double failureRate = 0.05;
+        private long timeoutMs = 10_000;
+        private Long seed;
+        private final List<long[]> outages = new ArrayList<>();
+
+        /** Every call takes exactly latencyMs */
+        public Config fixedLatency(long newLatencyMs) {
+            latencyModel = LatencyModel.FIXED;
+            latencyMs = newLatencyMs;
+            return this;
+        }
+
+        /** Latency is normally distributed around the mean, never below zero */
+        public Config normalLatency(long meanMs, long stdDevMs) {
+            latencyModel = LatencyModel.NORMAL;
+            latencyMs = meanMs;
+            latencyStdDevMs = stdDevMs;
+            return this;
+        }
+
+        /** Log-normal latency: most calls near the median, one in a hundred slower than p99Ms */
+        public Config longTailLatency(long medianMs, long p99Ms) {
+            latencyModel = LatencyModel.LONG_TAIL;
+            latencyMs = medianMs;
+            latencyP99Ms = p99Ms;
+            return this;
+        }
+
+        /** Share of answered calls that are declined, from 0 to 1 */
+        public Config failureRate(double newFailureRate) {
+            failureRate = newFailureRate;
+            return this;
+        }
+
+        public Config timeoutMs(long newTimeoutMs) {
+            timeoutMs = newTimeoutMs;
+            return this;
+        }
+
+        /** Make the draws repeatable; null for a different sequence every run */
+        public Config seed(Long newSeed) {
+            seed = newSeed;
+            return this;
+        }
+
+        /** Refuse every call from startMs to startMs + durationMs after the gateway is created */
+        public Config outage(long startMs, long durationMs) {
+            outages.add(new long[] {startMs, startMs + durationMs});
+            return this;
+        }
+
+        public LatencyModel getLatencyModel() { return latencyModel; }
+        public long getLatencyMs() { return latencyMs; }
+        public double getFailureRate() { return failureRate; }
+        public long getTimeoutMs() { return timeoutMs; }
+        public Long getSeed() { return seed; }
+
+        public static Config fromSystemProperties() {
+            Config config = new Config();
+            long latency = Long.getLong("neos.gateway.latencyMs", config.latencyMs);
+            switch (System.getProperty("neos.gateway.latency", "normal").toLowerCase(Locale.ROOT)) {
+                case "fixed":
+                    config.fixedLatency(latency);
+                    break;
+                case "longtail":
+                    config.longTailLatency(latency, Long.getLong("neos.gateway.latencyP99Ms", config.latencyP99Ms));
+                    break;
+                default:
+                    config.normalLatency(latency, Long.getLong("neos.gateway.latencyStdDevMs", config.latencyStdDevMs));
+                    break;
+            }
+            config.failureRate(Double.parseDouble(System.getProperty("neos.gateway.failureRate", "0.05")));
+            config.timeoutMs(Long.getLong("neos.gateway.timeoutMs", config.timeoutMs));
+            config.seed(Long.getLong("neos.gateway.seed"));
+            String outages = System.getProperty("neos.gateway.outages", "").trim();
+            if (!outages.isEmpty()) {
+                config.outages(outages);
+            }
+            return config;
+        }
+
+        /**
+         * Add outage windows written as startMs+durationMs pairs separated by commas,
+         * e.g. "60000+30000,300000+60000"
+         */
+        public Config outages(String windows) {
+            for (String window : windows.split(",")) {
+                String[] parts = window.trim().split("\\+");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected startMs+durationMs but got: " + window);
+                }
+                outage(Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim()));
+            }
+            return this;
+        }
+
+        Config copy() {
+            Config copy = new Config();
+            copy.latencyModel = latencyModel;
+            copy.latencyMs = latencyMs;
+            copy.latencyStdDevMs = latencyStdDevMs;
+            copy.latencyP99Ms = latencyP99Ms;
+            copy.failureRate = failureRate;
+            copy.timeoutMs = timeoutMs;
+            copy.seed = seed;
+            copy.outages.addAll(outages);
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            String latency;
+            switch (latencyModel) {
+                case FIXED: latency = "fixed " + latencyMs + " ms"; break;
+                case LONG_TAIL: latency = "long-tail median " + latencyMs + " ms, p99 " + latencyP99Ms + " ms"; break;
+                default: latency = "normal " + latencyMs + " \u00b1 " + latencyStdDevMs + " ms"; break;
+            }
+            return String.format(Locale.ROOT, "%s, %.1f%% declined, timeout %d ms, %d outage window(s), seed %s",
+                    latency, failureRate * 100, timeoutMs, outages.size(), seed != null ? seed : "random");
+        }
+    }
+
+    @Override
+    public Response charge(String requestId, BigDecimal amount, String currencyCode) {
+        return call(requestId, "TXN", "Payment declined by the card issuer");
+    }
+
+    @Override
+    public Response refund(String requestId, String transactionId, BigDecimal amount, String currencyCode) {
+        return call(requestId, "RFD", "Refund rejected by the gateway");
+    }
+
+    @Override
+    public Response lookup(String requestId) {
+        if (inOutage()) {
+            return Response.notSent("Payment gateway is unavailable");
+        }
+        // Lookups take no draws, so they do not shift the seeded sequence of calls
+        long latency = Math.min(config.latencyMs, config.timeoutMs);
+        if (!sleep(latency)) {
+            return interrupted();
+        }
+        Response decision;
+        synchronized (decided) {
+            decision = decided.get(requestId);
+        }
+        if (decision == null) {
+            return new Response(Outcome.NOT_FOUND, null, "No request " + requestId, latency);
+        }
+        return decision.withLatency(latency);
+    }
+
+    /** Distinct request ids approved so far; with idempotent retries this is the number of real charges */
+    public long getApprovedCount() { return approvedCount.get(); }
+
+    private Response call(String requestId, String referencePrefix, String declineMessage) {
+        // One independent stream per call keeps draws repeatable regardless of thread interleaving
+        SplittableRandom random = new SplittableRandom(seed + sequence.getAndIncrement() * GOLDEN_GAMMA);
+        long latency = sampleLatency(random);
+        boolean declined = random.nextDouble() < config.failureRate;
+        String reference = referencePrefix + randomId(random);
+
+        if (inOutage()) {
+            return Response.notSent("Payment gateway is unavailable");
+        }
+        Response decision = decide(requestId, declined
+                ? new Response(Outcome.DECLINED, null, declineMessage, 0)
+                : new Response(Outcome.APPROVED, reference, "Approved", 0));
+        if (latency > config.timeoutMs) {
+            if (!sleep(config.timeoutMs)) {
+                return interrupted();
+            }
+            LOG.debug("Simulated gateway timed out after {} ms (drew {} ms)", config.timeoutMs, latency);
+            return new Response(Outcome.TIMEOUT, null, "Payment gateway did not respond in time", config.timeoutMs);
+        }
+        if (!sleep(latency)) {
+            return interrupted();
+        }
+        return decision.withLatency(latency);
+    }
+
+    /** The stored answer for a request id, storing the given one if the id is new */
+    private Response decide(String requestId, Response proposed) {
+        synchronized (decided) {
+            Response existing = decided.get(requestId);
+            if (existing != null) {
+                return existing;
+            }
+            decided.put(requestId, proposed);
+        }
+        if (proposed.isApproved()) {
+            approvedCount.incrementAndGet();
+        }
+        return proposed;
+    }
+
+    private long sampleLatency(SplittableRandom random) {
+        switch (config.latencyModel) {
+            case FIXED:
+                return config.latencyMs;
+            case LONG_TAIL:
+                // Log-normal with the configured median; sigma puts the 99th percentile at p99
+                double median = Math.max(1, config.latencyMs);
+                double sigma = Math.log(Math.max(config.latencyP99Ms, median) / median) / Z_99;
+                return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+            default:
+                return Math.max(0, Math.round(config.latencyMs + config.latencyStdDevMs * random.nextGaussian()));
+        }
+    }
+
+    private boolean inOutage() {
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        for (long[] window : config.outages) {
+            if (elapsedMs >= window[0] && elapsedMs < window[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomId(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder(12);
+        for (int i = 0; i < 12; i++) {
+            sb.append(ID_CHARS.charAt(random.nextInt(ID_CHARS.length())));
+        }
+        return sb.toString();
+    }
+
+    private static Response interrupted() {
+        return new Response(Outcome.UNAVAILABLE, null, "Payment request was interrupted", 0);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
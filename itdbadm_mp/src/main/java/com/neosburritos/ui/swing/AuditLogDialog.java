@@ -0,0 +1,349 @@
+package com.neosburritos.ui.swing;
+
+import com.neosburritos.dao.AuditLogDAO;
+import com.neosburritos.model.AuditEvent;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Audit Log Dialog for Admin Panel
+ * Read-only view of transaction_log: payments, order status changes, role changes and
+ * exchange rate changes. Entries are fetched a page at a time as the table scrolls.
+ */
+public class AuditLogDialog extends JDialog {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int SEARCH_DELAY_MS = 250;
+    private static final String ALL_KINDS = "All Events";
+    private static final String[] PERIODS = {"Last 24 Hours", "Last 7 Days", "Last 30 Days", "All Time"};
+
+    private final AuditLogDAO auditLogDAO;
+
+    // UI Components
+    private JTable eventTable;
+    private EventTableModel tableModel;
+    private JButton refreshButton;
+    private JButton closeButton;
+    private JComboBox<Object> kindFilterCombo;
+    private JComboBox<String> periodFilterCombo;
+    private JTextField orderField;
+    private JCheckBox archiveCheckBox;
+    private JLabel countLabel;
+    private JScrollPane scrollPane;
+    private Timer searchTimer;
+
+    // Data
+    private AuditLogDAO.AuditQuery query = AuditLogDAO.AuditQuery.all();
+    private AuditLogDAO.AuditCursor nextCursor;
+    private boolean loadingPage;
+    // Bumped on every reload so pages still loading for an old filter are discarded
+    private int generation;
+
+    public AuditLogDialog(JFrame parent, AuditLogDAO auditLogDAO) {
+        super(parent, "Audit Log", true);
+        this.auditLogDAO = auditLogDAO;
+
+        initializeComponents();
+        layoutComponents();
+        setupEventHandlers();
+        applyFilters();
+
+        setSize(1000, 600);
+        setLocationRelativeTo(parent);
+    }
+
+    private void initializeComponents() {
+        // Table setup
+        tableModel = new EventTableModel();
+        eventTable = new JTable(tableModel);
+        eventTable.setFont(SwingUIConstants.BODY_FONT);
+        eventTable.setRowHeight(28);
+        eventTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        eventTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+
+        eventTable.getColumnModel().getColumn(0).setPreferredWidth(140); // Time
+        eventTable.getColumnModel().getColumn(1).setPreferredWidth(110); // Event
+        eventTable.getColumnModel().getColumn(2).setPreferredWidth(70);  // Order
+        eventTable.getColumnModel().getColumn(3).setPreferredWidth(90);  // Status
+        eventTable.getColumnModel().getColumn(4).setPreferredWidth(100); // Amount
+        eventTable.getColumnModel().getColumn(5).setPreferredWidth(360); // Reference
+
+        // Buttons
+        refreshButton = SwingUIConstants.createSecondaryButton("Refresh");
+        closeButton = SwingUIConstants.createPrimaryButton("Close");
+
+        // Filters
+        kindFilterCombo = new JComboBox<>();
+        kindFilterCombo.addItem(ALL_KINDS);
+        for (AuditEvent.Kind kind : AuditEvent.Kind.values()) {
+            kindFilterCombo.addItem(kind);
+        }
+        kindFilterCombo.setFont(SwingUIConstants.BODY_FONT);
+
+        periodFilterCombo = new JComboBox<>(PERIODS);
+        periodFilterCombo.setSelectedIndex(1);
+        periodFilterCombo.setFont(SwingUIConstants.BODY_FONT);
+
+        orderField = new JTextField(8);
+        orderField.setFont(SwingUIConstants.BODY_FONT);
+        orderField.setToolTipText("Only events for this order number");
+
+        archiveCheckBox = new JCheckBox("Include archived");
+        archiveCheckBox.setFont(SwingUIConstants.BODY_FONT);
+        archiveCheckBox.setOpaque(false);
+
+        countLabel = SwingUIConstants.createSecondaryLabel("");
+
+        // Typing restarts the timer, so only the pause after the last keystroke queries
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> applyFilters());
+        searchTimer.setRepeats(false);
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(
+            SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM,
+            SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM
+        ));
+        headerPanel.add(SwingUIConstants.createTitleLabel("Audit Log"), BorderLayout.WEST);
+        headerPanel.add(refreshButton, BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // Main content - filters and table
+        scrollPane = new JScrollPane(eventTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
+            "Events, newest first",
+            javax.swing.border.TitledBorder.LEFT,
+            javax.swing.border.TitledBorder.TOP,
+            SwingUIConstants.HEADER_FONT,
+            SwingUIConstants.TEXT_PRIMARY
+        ));
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_SMALL));
+        filterPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        filterPanel.add(SwingUIConstants.createBodyLabel("Event:"));
+        filterPanel.add(kindFilterCombo);
+        filterPanel.add(SwingUIConstants.createBodyLabel("Period:"));
+        filterPanel.add(periodFilterCombo);
+        filterPanel.add(SwingUIConstants.createBodyLabel("Order #:"));
+        filterPanel.add(orderField);
+        filterPanel.add(archiveCheckBox);
+
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        centerPanel.add(filterPanel, BorderLayout.NORTH);
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+        add(centerPanel, BorderLayout.CENTER);
+
+        // Footer
+        JPanel footerPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+        footerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        footerPanel.add(countLabel);
+        footerPanel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
+        footerPanel.add(closeButton);
+        add(footerPanel, BorderLayout.SOUTH);
+    }
+
+    private void setupEventHandlers() {
+        refreshButton.addActionListener(e -> applyFilters());
+        closeButton.addActionListener(e -> dispose());
+
+        kindFilterCombo.addActionListener(e -> applyFilters());
+        periodFilterCombo.addActionListener(e -> applyFilters());
+        archiveCheckBox.addActionListener(e -> applyFilters());
+        orderField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+        });
+
+        // Fetch the next page when the table is scrolled near its end
+        scrollPane.getViewport().addChangeListener(e -> loadMoreIfNeeded());
+    }
+
+    @Override
+    public void dispose() {
+        searchTimer.stop();
+        super.dispose();
+    }
+
+    private void applyFilters() {
+        searchTimer.stop();
+        Object kind = kindFilterCombo.getSelectedItem();
+        query = AuditLogDAO.AuditQuery.all()
+            .withKind(kind instanceof AuditEvent.Kind ? (AuditEvent.Kind) kind : null)
+            .withOrderId(parseOrderId(orderField.getText()))
+            .withTimeRange(periodStart(), null)
+            .withArchive(archiveCheckBox.isSelected());
+        loadEvents();
+    }
+
+    private LocalDateTime periodStart() {
+        LocalDateTime now = LocalDateTime.now();
+        switch (periodFilterCombo.getSelectedIndex()) {
+            case 0: return now.minusHours(24);
+            case 1: return now.minusDays(7);
+            case 2: return now.minusDays(30);
+            default: return null;
+        }
+    }
+
+    private static Integer parseOrderId(String text) {
+        try {
+            String trimmed = text.trim();
+            return trimmed.isEmpty() ? null : Integer.valueOf(trimmed);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Clears the table and loads the first page for the current filters.
+     */
+    private void loadEvents() {
+        generation++;
+        nextCursor = null;
+        loadingPage = false;
+        tableModel.clear();
+        loadPage(null);
+    }
+
+    private void loadMoreIfNeeded() {
+        if (loadingPage || nextCursor == null) {
+            return;
+        }
+        Rectangle visible = scrollPane.getViewport().getViewRect();
+        int lastVisibleRow = eventTable.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        // -1 means the rows end above the bottom of the viewport
+        if (lastVisibleRow < 0 || tableModel.getRowCount() - lastVisibleRow <= PAGE_SIZE / 4) {
+            loadPage(nextCursor);
+        }
+    }
+
+    private void loadPage(AuditLogDAO.AuditCursor after) {
+        loadingPage = true;
+        refreshButton.setEnabled(false);
+        refreshButton.setText("Loading...");
+
+        int requestGeneration = generation;
+        AuditLogDAO.AuditQuery pageQuery = query;
+        SwingWorker<AuditLogDAO.AuditPage, Void> worker = new SwingWorker<AuditLogDAO.AuditPage, Void>() {
+            @Override
+            protected AuditLogDAO.AuditPage doInBackground() throws Exception {
+                return auditLogDAO.getEvents(pageQuery, after, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                try {
+                    AuditLogDAO.AuditPage page = get();
+                    tableModel.addEvents(page.getEvents());
+                    nextCursor = page.getNextCursor();
+                    updateCountLabel();
+
+                } catch (Exception e) {
+                    nextCursor = null;
+                    SwingUIConstants.showErrorDialog(AuditLogDialog.this,
+                        "Failed to load audit log: " + e.getMessage(),
+                        "Load Error");
+                } finally {
+                    loadingPage = false;
+                    refreshButton.setEnabled(true);
+                    refreshButton.setText("Refresh");
+                }
+                // A short first page may not fill the viewport, so keep going until it does
+                SwingUtilities.invokeLater(AuditLogDialog.this::loadMoreIfNeeded);
+            }
+        };
+
+        worker.execute();
+    }
+
+    private void updateCountLabel() {
+        int loaded = tableModel.getRowCount();
+        String noun = loaded == 1 ? " event" : " events";
+        countLabel.setText(nextCursor != null
+            ? "Showing " + loaded + noun + " (scroll for more)"
+            : "Showing " + loaded + noun);
+    }
+
+    /**
+     * Table model for audit events
+     */
+    private static class EventTableModel extends AbstractTableModel {
+        private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm:ss");
+
+        private final String[] columnNames = {
+            "Time", "Event", "Order", "Status", "Amount", "Reference"
+        };
+
+        private final List<AuditEvent> events = new java.util.ArrayList<>();
+
+        public void clear() {
+            events.clear();
+            fireTableDataChanged();
+        }
+
+        public void addEvents(List<AuditEvent> page) {
+            if (page.isEmpty()) {
+                return;
+            }
+            int first = events.size();
+            events.addAll(page);
+            fireTableRowsInserted(first, events.size() - 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return events.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            if (rowIndex >= events.size()) return null;
+
+            AuditEvent event = events.get(rowIndex);
+            switch (columnIndex) {
+                case 0: return event.getProcessedAt() != null ? event.getProcessedAt().format(TIME_FORMAT) : "N/A";
+                case 1: return event.getKind();
+                case 2: return event.getOrderId() != null ? "#" + event.getOrderId() : "";
+                case 3: return event.getPaymentStatus() != null ? event.getPaymentStatus() : "";
+                case 4: return event.getCurrencyCode() != null
+                    ? event.getCurrencyCode() + " " + event.getAmount() : String.valueOf(event.getAmount());
+                case 5: return event.getReference() != null ? event.getReference() : "";
+                default: return null;
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 1 ? AuditEvent.Kind.class : String.class;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.neosburritos.ui.swing;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import com.neosburritos.service.ResilientPaymentGateway;
+import com.neosburritos.util.DaoMetrics;
+import com.neosburritos.util.SlowQueryLog;
+
+/**
+ * Diagnostics Dialog for Admin Panel
+ * Displays per-operation database latency, row counts, connection wait and errors,
+ * plus the slow query log with bound parameters and sampled EXPLAIN plans
+ * and the payment gateway's retry, hedge and circuit breaker counters
+ */
+public class DiagnosticsDialog extends JDialog {
+
+    private static final int AUTO_REFRESH_MS = 2000;
+
+    private final ResilientPaymentGateway paymentGateway;
+
+    private JTable metricsTable;
+    private MetricsTableModel tableModel;
+    private JTable slowQueryTable;
+    private SlowQueryTableModel slowQueryModel;
+    private JTextArea slowQueryDetailsArea;
+    private JTextArea paymentStatsArea;
+    private JSpinner thresholdSpinner;
+    private JLabel summaryLabel;
+    private JButton refreshButton;
+    private JButton resetButton;
+    private JButton closeButton;
+    private Timer refreshTimer;
+
+    public DiagnosticsDialog(JFrame parent, ResilientPaymentGateway paymentGateway) {
+        super(parent, "Diagnostics", true);
+        this.paymentGateway = paymentGateway;
+
+        initializeComponents();
+        layoutComponents();
+        setupEventHandlers();
+        loadMetrics();
+
+        setSize(1100, 600);
+        setLocationRelativeTo(parent);
+    }
+
+    private void initializeComponents() {
+        tableModel = new MetricsTableModel();
+        metricsTable = new JTable(tableModel);
+        metricsTable.setFont(SwingUIConstants.BODY_FONT);
+        metricsTable.setRowHeight(26);
+        metricsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        metricsTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+        metricsTable.setAutoCreateRowSorter(true);
+        metricsTable.getColumnModel().getColumn(0).setPreferredWidth(280);
+
+        slowQueryModel = new SlowQueryTableModel();
+        slowQueryTable = new JTable(slowQueryModel);
+        slowQueryTable.setFont(SwingUIConstants.BODY_FONT);
+        slowQueryTable.setRowHeight(26);
+        slowQueryTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        slowQueryTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+        slowQueryTable.getColumnModel().getColumn(1).setPreferredWidth(220);
+        slowQueryTable.getColumnModel().getColumn(2).setPreferredWidth(420);
+
+        slowQueryDetailsArea = SwingUIConstants.createStyledTextArea(8, 40);
+        slowQueryDetailsArea.setEditable(false);
+        slowQueryDetailsArea.setFont(new java.awt.Font(java.awt.Font.MONOSPACED, java.awt.Font.PLAIN, 12));
+
+        paymentStatsArea = SwingUIConstants.createStyledTextArea(12, 40);
+        paymentStatsArea.setEditable(false);
+        paymentStatsArea.setFont(new java.awt.Font(java.awt.Font.MONOSPACED, java.awt.Font.PLAIN, 12));
+
+        thresholdSpinner = new JSpinner(new SpinnerNumberModel(
+                (int) SlowQueryLog.getThresholdMillis(), 0, 60_000, 50));
+
+        summaryLabel = SwingUIConstants.createSecondaryLabel("");
+        refreshButton = SwingUIConstants.createSecondaryButton("Refresh");
+        resetButton = SwingUIConstants.createWarningButton("Reset");
+        closeButton = SwingUIConstants.createPrimaryButton("Close");
+
+        // Counters are in memory, so polling them is cheap
+        refreshTimer = new Timer(AUTO_REFRESH_MS, e -> loadMetrics());
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(
+                SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM,
+                SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM
+        ));
+
+        JLabel titleLabel = SwingUIConstants.createTitleLabel("Diagnostics");
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        headerPanel.add(summaryLabel, BorderLayout.CENTER);
+
+        JPanel headerButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_SMALL, 0));
+        headerButtons.setOpaque(false);
+        headerButtons.add(SwingUIConstants.createBodyLabel("Slow threshold (ms):"));
+        headerButtons.add(thresholdSpinner);
+        headerButtons.add(resetButton);
+        headerButtons.add(refreshButton);
+        headerPanel.add(headerButtons, BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        JScrollPane scrollPane = new JScrollPane(metricsTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
+                "Database Operations (times in ms)",
+                javax.swing.border.TitledBorder.LEFT,
+                javax.swing.border.TitledBorder.TOP,
+                SwingUIConstants.HEADER_FONT,
+                SwingUIConstants.TEXT_PRIMARY
+        ));
+
+        JScrollPane slowScrollPane = new JScrollPane(slowQueryTable);
+        JScrollPane detailsScrollPane = new JScrollPane(slowQueryDetailsArea);
+        JSplitPane slowSplitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, slowScrollPane, detailsScrollPane);
+        slowSplitPane.setResizeWeight(0.6);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.setFont(SwingUIConstants.BODY_FONT);
+        tabs.addTab("Operations", scrollPane);
+        tabs.addTab("Slow Queries", slowSplitPane);
+        tabs.addTab("Payment Gateway", new JScrollPane(paymentStatsArea));
+        add(tabs, BorderLayout.CENTER);
+
+        JPanel footerPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+        footerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        footerPanel.add(closeButton);
+        add(footerPanel, BorderLayout.SOUTH);
+    }
+
+    private void setupEventHandlers() {
+        refreshButton.addActionListener(e -> loadMetrics());
+        resetButton.addActionListener(e -> {
+            if (SwingUIConstants.showConfirmDialog(this, "Clear all collected metrics and slow queries?", "Reset Metrics")) {
+                DaoMetrics.reset();
+                SlowQueryLog.clear();
+                loadMetrics();
+            }
+        });
+        closeButton.addActionListener(e -> dispose());
+        thresholdSpinner.addChangeListener(e ->
+                SlowQueryLog.setThresholdMillis(((Number) thresholdSpinner.getValue()).longValue()));
+        slowQueryTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSlowQueryDetails();
+            }
+        });
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        if (visible) {
+            refreshTimer.start();
+        } else {
+            refreshTimer.stop();
+        }
+        super.setVisible(visible);
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+
+    private void loadMetrics() {
+        List<DaoMetrics.Snapshot> snapshots = DaoMetrics.snapshot();
+        tableModel.setMetrics(snapshots);
+
+        long calls = 0;
+        long errors = 0;
+        for (DaoMetrics.Snapshot snapshot : snapshots) {
+            if (!snapshot.name().startsWith("CALL ")) {
+                calls += snapshot.calls();
+                errors += snapshot.errors();
+            }
+        }
+        List<SlowQueryLog.Entry> slowQueries = SlowQueryLog.entries();
+        if (!slowQueries.equals(slowQueryModel.entries)) {
+            // Keep the selected entry selected as newer entries push it down
+            SlowQueryLog.Entry selected = slowQueryTable.getSelectedRow() >= 0
+                    ? slowQueryModel.getEntry(slowQueryTable.getSelectedRow()) : null;
+            slowQueryModel.setEntries(slowQueries);
+            int row = slowQueries.indexOf(selected);
+            if (row >= 0) {
+                slowQueryTable.setRowSelectionInterval(row, row);
+            }
+        }
+
+        summaryLabel.setText(String.format("  %d operations tracked | %d DAO calls | %d errors | %d slow queries",
+                snapshots.size(), calls, errors, slowQueries.size()));
+        loadPaymentStats();
+    }
+
+    private void loadPaymentStats() {
+        ResilientPaymentGateway.Stats stats = paymentGateway.getStats();
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Circuit breaker:   %s (opened %d times)%n", stats.breakerState(), stats.breakerOpens()));
+        text.append(String.format("Hedge delay:       %d ms%n%n", stats.hedgeDelayMillis()));
+        text.append(String.format("Calls:             %d%n", stats.calls()));
+        text.append(String.format("  answered:        %d%n", stats.answered()));
+        text.append(String.format("  gave up:         %d%n", stats.failed()));
+        text.append(String.format("Attempts:          %d%n", stats.attempts()));
+        text.append(String.format("  retries:         %d%n", stats.retries()));
+        text.append(String.format("  hedges:          %d (%d won)%n", stats.hedges(), stats.hedgeWins()));
+        text.append(String.format("  timed out:       %d%n", stats.attemptTimeouts()));
+        text.append(String.format("Short-circuited:   %d%n", stats.shortCircuits()));
+        if (!text.toString().equals(paymentStatsArea.getText())) {
+            paymentStatsArea.setText(text.toString());
+        }
+    }
+
+    private void showSlowQueryDetails() {
+        int row = slowQueryTable.getSelectedRow();
+        if (row < 0) {
+            slowQueryDetailsArea.setText("");
+            return;
+        }
+        SlowQueryLog.Entry entry = slowQueryModel.getEntry(row);
+        StringBuilder details = new StringBuilder();
+        details.append("Operation:  ").append(entry.getOperation()).append("\n");
+        details.append("Elapsed:    ").append(String.format("%.2f ms", entry.getElapsedMillis()));
+        details.append(entry.isFailed() ? " (failed)" : "").append("\n");
+        details.append("Rows:       ").append(entry.getRows()).append("\n");
+        details.append("Parameters: ").append(entry.getParameters().isEmpty() ? "(none)" : entry.getParameters());
+        details.append("\n\n").append(entry.getSql().strip()).append("\n");
+        if (entry.getExplain() != null) {
+            details.append("\nEXPLAIN\n").append(entry.getExplain());
+        }
+        slowQueryDetailsArea.setText(details.toString());
+        slowQueryDetailsArea.setCaretPosition(0);
+    }
+
+    private static class MetricsTableModel extends AbstractTableModel {
+        private final String[] columnNames = {
+            "Operation", "Calls", "Errors", "Rows", "Avg", "p50", "p95", "p99", "Max", "Avg Conn Wait"
+        };
+        private List<DaoMetrics.Snapshot> metrics = new ArrayList<>();
+
+        public void setMetrics(List<DaoMetrics.Snapshot> metrics) {
+            this.metrics = metrics;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return metrics.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            DaoMetrics.Snapshot metric = metrics.get(rowIndex);
+            switch (columnIndex) {
+                case 0: return metric.name();
+                case 1: return metric.calls();
+                case 2: return metric.errors();
+                case 3: return metric.rows();
+                case 4: return round(metric.averageMillis());
+                case 5: return round(metric.p50Millis());
+                case 6: return round(metric.p95Millis());
+                case 7: return round(metric.p99Millis());
+                case 8: return round(metric.maxMillis());
+                case 9: return round(metric.averageConnectionWaitMillis());
+                default: return null;
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            if (columnIndex == 0) {
+                return String.class;
+            }
+            return columnIndex <= 3 ? Long.class : Double.class;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    private static class SlowQueryTableModel extends AbstractTableModel {
+        private static final java.time.format.DateTimeFormatter TIME_FORMAT =
+                java.time.format.DateTimeFormatter.ofPattern("HH:mm:ss");
+        private final String[] columnNames = { "Time", "Operation", "SQL", "Elapsed (ms)", "Rows", "EXPLAIN" };
+        private List<SlowQueryLog.Entry> entries = new ArrayList<>();
+
+        public void setEntries(List<SlowQueryLog.Entry> entries) {
+            this.entries = entries;
+            fireTableDataChanged();
+        }
+
+        public SlowQueryLog.Entry getEntry(int row) {
+            return entries.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return entries.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SlowQueryLog.Entry entry = entries.get(rowIndex);
+            switch (columnIndex) {
+                case 0: return entry.getTimestamp().format(TIME_FORMAT);
+                case 1: return entry.getOperation();
+                case 2: return entry.getSql().strip().replaceAll("\\s+", " ");
+                case 3: return Math.round(entry.getElapsedMillis() * 100) / 100.0;
+                case 4: return entry.getRows();
+                case 5: return entry.getExplain() != null ? "Yes" : "";
+                default: return null;
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            if (columnIndex == 3) {
+                return Double.class;
+            }
+            return columnIndex == 4 ? Long.class : String.class;
+        }
+    }
+}
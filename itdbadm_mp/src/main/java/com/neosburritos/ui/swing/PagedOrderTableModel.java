@@ -0,0 +1,313 @@
+package com.neosburritos.ui.swing;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
+import com.neosburritos.model.Order;
+import com.neosburritos.util.Logger;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.JTableHeader;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Table model over the orders table that loads pages on demand.
+ * Only the row count is fetched up front; pages are fetched in the background the first
+ * time the table asks for one of their rows, and the most recently used pages are kept.
+ * Each page is read from the end of the nearest loaded page before it, so scrolling
+ * through a large table never makes the database count its way past earlier rows.
+ * Sorting (by clicking a header) and status filtering are done by the database.
+ * Cells hold the Order itself and are formatted by the renderer only when painted.
+ */
+public class PagedOrderTableModel extends AbstractTableModel {
+
+    private static final Logger LOG = Logger.getLogger(PagedOrderTableModel.class);
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
+
+    public enum Column {
+        ORDER_ID("Order #", OrderQuery.SortKey.ORDER_ID, 70),
+        USER_ID("Customer", OrderQuery.SortKey.USER_ID, 80),
+        ORDER_DATE("Date", OrderQuery.SortKey.ORDER_DATE, 140),
+        TOTAL("Total", OrderQuery.SortKey.TOTAL, 100),
+        STATUS("Status", OrderQuery.SortKey.STATUS, 100);
+
+        private final String title;
+        private final OrderQuery.SortKey sortKey;
+        private final int preferredWidth;
+
+        Column(String title, OrderQuery.SortKey sortKey, int preferredWidth) {
+            this.title = title;
+            this.sortKey = sortKey;
+            this.preferredWidth = preferredWidth;
+        }
+    }
+
+    private final OrderDAO orderDAO;
+    private final Column[] columns;
+
+    private OrderQuery query;
+    private int rowCount;
+    // Bumped on every refresh so pages still loading for an old query are discarded
+    private int generation;
+    private final Map<Integer, List<Order>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Order>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // Where each page loaded so far ended; kept after the page itself is evicted
+    private final Map<Integer, OrderDAO.OrderCursor> pageEnds = new HashMap<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private IntConsumer countListener;
+
+    public PagedOrderTableModel(OrderDAO orderDAO, OrderQuery query, Column... columns) {
+        this.orderDAO = orderDAO;
+        this.query = query;
+        this.columns = columns;
+    }
+
+    /**
+     * Called on the EDT with the row count after each refresh
+     */
+    public void setCountListener(IntConsumer countListener) {
+        this.countListener = countListener;
+    }
+
+    public OrderQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Replaces the filter/sort and reloads
+     */
+    public void setQuery(OrderQuery newQuery) {
+        this.query = newQuery;
+        refresh();
+    }
+
+    /**
+     * Drops cached pages and re-counts; rows reload as they become visible.
+     */
+    public void refresh() {
+        int refreshGeneration = ++generation;
+        OrderQuery countQuery = query;
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return orderDAO.countOrders(countQuery);
+            }
+
+            @Override
+            protected void done() {
+                if (refreshGeneration != generation) {
+                    return;
+                }
+                try {
+                    rowCount = get();
+                } catch (Exception e) {
+                    LOG.error("Error counting orders: {}", e.getMessage());
+                    rowCount = 0;
+                }
+                pages.clear();
+                pageEnds.clear();
+                loadingPages.clear();
+                fireTableDataChanged();
+                if (countListener != null) {
+                    countListener.accept(rowCount);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * The order shown at a row, or null while its page is still loading
+     */
+    public Order getOrderAt(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int page = row / PAGE_SIZE;
+        List<Order> orders = pages.get(page);
+        if (orders == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = row % PAGE_SIZE;
+        return offset < orders.size() ? orders.get(offset) : null;
+    }
+
+    private void requestPage(int page) {
+        if (!loadingPages.add(page)) {
+            return;
+        }
+        int requestGeneration = generation;
+        OrderQuery pageQuery = query;
+        int anchor = page - 1;
+        while (anchor >= 0 && !pageEnds.containsKey(anchor)) {
+            anchor--;
+        }
+        OrderDAO.OrderCursor after = anchor >= 0 ? pageEnds.get(anchor) : null;
+        int skip = (page - anchor - 1) * PAGE_SIZE;
+        new SwingWorker<List<Order>, Void>() {
+            @Override
+            protected List<Order> doInBackground() {
+                return orderDAO.getOrdersPage(pageQuery, after, skip, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loadingPages.remove(page);
+                List<Order> orders;
+                try {
+                    orders = get();
+                } catch (Exception e) {
+                    orders = null;
+                }
+                if (orders == null) {
+                    // Not cached, so the page is asked for again the next time its rows are shown
+                    LOG.error("Error loading orders page {}", page);
+                    return;
+                }
+                pages.put(page, orders);
+                if (!orders.isEmpty()) {
+                    pageEnds.put(page, pageQuery.cursorAfter(orders.get(orders.size() - 1)));
+                }
+                int first = page * PAGE_SIZE;
+                int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                if (first <= last) {
+                    fireTableRowsUpdated(first, last);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Toggles the sort on a column: a new column starts descending, the same column flips.
+     */
+    public void sortBy(int columnIndex) {
+        OrderQuery.SortKey key = columns[columnIndex].sortKey;
+        boolean descending = key != query.getSortKey() || !query.isDescending();
+        setQuery(query.sortedBy(key, descending));
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        Column col = columns[column];
+        if (col.sortKey == query.getSortKey()) {
+            return col.title + (query.isDescending() ? " \u25BC" : " \u25B2");
+        }
+        return col.title;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return getOrderAt(rowIndex);
+    }
+
+    /**
+     * Sets up the renderer, column widths and click-to-sort header on a table.
+     *
+     * @param statusFormatter how the status column is displayed
+     * @param dateFormatter how the date column is displayed
+     */
+    public void install(JTable table, Function<Order.Status, String> statusFormatter, DateTimeFormatter dateFormatter) {
+        table.setModel(this);
+        table.setAutoCreateRowSorter(false);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setDefaultRenderer(Object.class, new OrderCellRenderer(statusFormatter, dateFormatter));
+        for (int i = 0; i < columns.length; i++) {
+            table.getColumnModel().getColumn(i).setPreferredWidth(columns[i].preferredWidth);
+        }
+
+        JTableHeader header = table.getTableHeader();
+        header.setReorderingAllowed(false);
+        header.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int viewColumn = header.columnAtPoint(e.getPoint());
+                if (viewColumn >= 0) {
+                    sortBy(table.convertColumnIndexToModel(viewColumn));
+                }
+            }
+        });
+        // Header titles carry the sort arrow
+        addTableModelListener(e -> {
+            for (int i = 0; i < columns.length; i++) {
+                table.getColumnModel().getColumn(i).setHeaderValue(getColumnName(i));
+            }
+            header.repaint();
+        });
+    }
+
+    /**
+     * Formats the cell's order for its column at paint time.
+     */
+    private final class OrderCellRenderer extends DefaultTableCellRenderer {
+        private final Function<Order.Status, String> statusFormatter;
+        private final DateTimeFormatter dateFormatter;
+
+        OrderCellRenderer(Function<Order.Status, String> statusFormatter, DateTimeFormatter dateFormatter) {
+            this.statusFormatter = statusFormatter;
+            this.dateFormatter = dateFormatter;
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+            setFont(SwingUIConstants.BODY_FONT);
+            Column col = columns[table.convertColumnIndexToModel(column)];
+            setHorizontalAlignment(col == Column.TOTAL ? SwingConstants.RIGHT : SwingConstants.LEFT);
+
+            if (!(value instanceof Order)) {
+                setText(col == Column.ORDER_ID ? "Loading..." : "");
+                if (!isSelected) {
+                    setForeground(SwingUIConstants.TEXT_SECONDARY);
+                }
+                return this;
+            }
+
+            Order order = (Order) value;
+            switch (col) {
+                case ORDER_ID -> setText("#" + order.getOrderId());
+                case USER_ID -> setText("User " + order.getUserId());
+                case ORDER_DATE -> setText(formatDate(order.getOrderDate()));
+                case TOTAL -> setText(order.getFormattedTotal());
+                case STATUS -> setText(statusFormatter.apply(order.getStatus()));
+            }
+            return this;
+        }
+
+        private String formatDate(LocalDateTime dateTime) {
+            return dateTime != null ? dateTime.format(dateFormatter) : "N/A";
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.neosburritos.ui.swing;
+
+import com.neosburritos.dao.PriceListDAO;
+import com.neosburritos.model.PriceList;
+import com.neosburritos.model.Product;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Price List Dialog for Admin Panel
+ * Prepares price lists from the current catalog, schedules or activates them,
+ * and applies bulk percentage adjustments. Every change runs as one set-based statement.
+ */
+public class PriceListDialog extends JDialog {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String ANY = "Any";
+    private static final String[] CURRENCIES = {ANY, "USD", "PHP", "KRW"};
+
+    private final PriceListDAO priceListDAO;
+
+    // UI Components
+    private JTable priceListTable;
+    private PriceListTableModel tableModel;
+    private JButton refreshButton;
+    private JButton newListButton;
+    private JButton scheduleButton;
+    private JButton activateButton;
+    private JButton cancelListButton;
+    private JButton adjustButton;
+    private JButton closeButton;
+
+    // Data
+    private PriceList selectedList;
+
+    public PriceListDialog(JFrame parent, PriceListDAO priceListDAO) {
+        super(parent, "Price Lists", true);
+        this.priceListDAO = priceListDAO;
+
+        initializeComponents();
+        layoutComponents();
+        setupEventHandlers();
+        loadPriceLists();
+
+        setSize(950, 550);
+        setLocationRelativeTo(parent);
+    }
+
+    private void initializeComponents() {
+        // Table setup
+        tableModel = new PriceListTableModel();
+        priceListTable = new JTable(tableModel);
+        priceListTable.setFont(SwingUIConstants.BODY_FONT);
+        priceListTable.setRowHeight(30);
+        priceListTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        priceListTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+
+        // Set column widths
+        priceListTable.getColumnModel().getColumn(0).setPreferredWidth(50);  // ID
+        priceListTable.getColumnModel().getColumn(1).setPreferredWidth(220); // Name
+        priceListTable.getColumnModel().getColumn(2).setPreferredWidth(100); // Status
+        priceListTable.getColumnModel().getColumn(3).setPreferredWidth(60);  // Items
+        priceListTable.getColumnModel().getColumn(4).setPreferredWidth(140); // Effective
+        priceListTable.getColumnModel().getColumn(5).setPreferredWidth(140); // Activated
+
+        // Buttons
+        refreshButton = SwingUIConstants.createSecondaryButton("Refresh");
+        newListButton = SwingUIConstants.createSuccessButton("New From Catalog");
+        scheduleButton = SwingUIConstants.createSecondaryButton("Schedule");
+        activateButton = SwingUIConstants.createWarningButton("Activate Now");
+        cancelListButton = SwingUIConstants.createSecondaryButton("Cancel List");
+        adjustButton = SwingUIConstants.createSecondaryButton("Bulk Adjust");
+        closeButton = SwingUIConstants.createPrimaryButton("Close");
+
+        newListButton.setPreferredSize(new Dimension(160, 36));
+        activateButton.setPreferredSize(new Dimension(140, 36));
+        cancelListButton.setPreferredSize(new Dimension(130, 36));
+        adjustButton.setPreferredSize(new Dimension(130, 36));
+
+        updateButtonStates();
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(
+            SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM,
+            SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM
+        ));
+        headerPanel.add(SwingUIConstants.createTitleLabel("Price Lists"), BorderLayout.WEST);
+        headerPanel.add(SwingUIConstants.createSecondaryLabel(
+            "  Prepare prices ahead of time and apply them in one step"), BorderLayout.CENTER);
+        headerPanel.add(refreshButton, BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // Main content - table
+        JScrollPane scrollPane = new JScrollPane(priceListTable);
+        scrollPane.setBorder(BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR));
+        add(scrollPane, BorderLayout.CENTER);
+
+        // Footer - action buttons
+        JPanel footerPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_MEDIUM));
+        footerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        footerPanel.add(newListButton);
+        footerPanel.add(scheduleButton);
+        footerPanel.add(activateButton);
+        footerPanel.add(cancelListButton);
+        footerPanel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_MEDIUM));
+        footerPanel.add(adjustButton);
+        footerPanel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_MEDIUM));
+        footerPanel.add(closeButton);
+        add(footerPanel, BorderLayout.SOUTH);
+    }
+
+    private void setupEventHandlers() {
+        priceListTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                int row = priceListTable.getSelectedRow();
+                selectedList = row >= 0 ? tableModel.getPriceListAt(row) : null;
+                updateButtonStates();
+            }
+        });
+
+        refreshButton.addActionListener(e -> loadPriceLists());
+        newListButton.addActionListener(this::handleNewList);
+        scheduleButton.addActionListener(this::handleSchedule);
+        activateButton.addActionListener(this::handleActivate);
+        cancelListButton.addActionListener(this::handleCancelList);
+        adjustButton.addActionListener(this::handleBulkAdjust);
+        closeButton.addActionListener(e -> dispose());
+    }
+
+    private void updateButtonStates() {
+        boolean pending = selectedList != null && selectedList.isPending();
+        scheduleButton.setEnabled(pending);
+        activateButton.setEnabled(pending);
+        cancelListButton.setEnabled(pending);
+    }
+
+    private void handleNewList(ActionEvent e) {
+        JTextField nameField = new JTextField(20);
+        JTextField percentField = new JTextField("0", 6);
+        JComboBox<String> currencyCombo = new JComboBox<>(CURRENCIES);
+        JComboBox<Object> categoryCombo = createCategoryCombo();
+
+        JPanel form = createForm(
+            new String[] {"Name:", "Change (%):", "Currency:", "Category:"},
+            new JComponent[] {nameField, percentField, currencyCombo, categoryCombo});
+        if (JOptionPane.showConfirmDialog(this, form, "New Price List From Catalog",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        String name = nameField.getText().trim();
+        BigDecimal percent = parsePercent(percentField.getText());
+        if (name.isEmpty() || percent == null) {
+            SwingUIConstants.showErrorDialog(this, "Enter a name and a numeric percentage", "Invalid Input");
+            return;
+        }
+        String currency = selectedCurrency(currencyCombo);
+        Product.Category category = selectedCategory(categoryCombo);
+        runPricingTask(() -> priceListDAO.createFromCatalog(name, percent, currency, category), "Price List Created");
+    }
+
+    private void handleSchedule(ActionEvent e) {
+        if (selectedList == null) return;
+
+        String defaultTime = (selectedList.getEffectiveAt() != null
+            ? selectedList.getEffectiveAt() : LocalDateTime.now().plusDays(1).withHour(6).withMinute(0))
+            .format(DATE_FORMAT);
+        String input = (String) JOptionPane.showInputDialog(this,
+            "Activate '" + selectedList.getName() + "' at (yyyy-MM-dd HH:mm):",
+            "Schedule Price List", JOptionPane.QUESTION_MESSAGE, null, null, defaultTime);
+        if (input == null) return;
+
+        LocalDateTime effectiveAt;
+        try {
+            effectiveAt = LocalDateTime.parse(input.trim(), DATE_FORMAT);
+        } catch (DateTimeParseException ex) {
+            SwingUIConstants.showErrorDialog(this, "Use the format yyyy-MM-dd HH:mm", "Invalid Date");
+            return;
+        }
+        int priceListId = selectedList.getPriceListId();
+        runPricingTask(() -> priceListDAO.schedule(priceListId, effectiveAt), "Price List Scheduled");
+    }
+
+    private void handleActivate(ActionEvent e) {
+        if (selectedList == null) return;
+
+        boolean confirmed = SwingUIConstants.showConfirmDialog(this,
+            "Apply " + selectedList.getItemCount() + " prices from '" + selectedList.getName() + "' now?",
+            "Confirm Activation");
+        if (confirmed) {
+            int priceListId = selectedList.getPriceListId();
+            runPricingTask(() -> priceListDAO.activate(priceListId), "Price List Activated");
+        }
+    }
+
+    private void handleCancelList(ActionEvent e) {
+        if (selectedList == null) return;
+
+        boolean confirmed = SwingUIConstants.showConfirmDialog(this,
+            "Cancel price list '" + selectedList.getName() + "'? It will never be applied.",
+            "Confirm Cancellation");
+        if (confirmed) {
+            int priceListId = selectedList.getPriceListId();
+            runPricingTask(() -> priceListDAO.cancel(priceListId), "Price List Cancelled");
+        }
+    }
+
+    private void handleBulkAdjust(ActionEvent e) {
+        JTextField percentField = new JTextField("0", 6);
+        JComboBox<String> currencyCombo = new JComboBox<>(CURRENCIES);
+        JComboBox<Object> categoryCombo = createCategoryCombo();
+
+        JPanel form = createForm(
+            new String[] {"Change (%):", "Currency:", "Category:"},
+            new JComponent[] {percentField, currencyCombo, categoryCombo});
+        if (JOptionPane.showConfirmDialog(this, form, "Bulk Price Adjustment",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        BigDecimal percent = parsePercent(percentField.getText());
+        if (percent == null || percent.signum() == 0) {
+            SwingUIConstants.showErrorDialog(this, "Enter a non-zero percentage", "Invalid Input");
+            return;
+        }
+        String currency = selectedCurrency(currencyCombo);
+        Product.Category category = selectedCategory(categoryCombo);
+
+        boolean confirmed = SwingUIConstants.showConfirmDialog(this,
+            "Change current prices by " + percent.toPlainString() + "% for "
+                + (category != null ? category.name() : "all categories") + " in "
+                + (currency != null ? currency : "all currencies") + "? This applies immediately.",
+            "Confirm Adjustment");
+        if (confirmed) {
+            runPricingTask(() -> priceListDAO.adjustPrices(percent, currency, category), "Prices Adjusted");
+        }
+    }
+
+    /**
+     * Runs a pricing operation in the background, reports the result and reloads the list.
+     */
+    private void runPricingTask(Supplier<PriceListDAO.PricingResult> task, String successTitle) {
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<PriceListDAO.PricingResult, Void>() {
+            @Override
+            protected PriceListDAO.PricingResult doInBackground() {
+                return task.get();
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    PriceListDAO.PricingResult result = get();
+                    if (result.isSuccess()) {
+                        SwingUIConstants.showSuccessDialog(PriceListDialog.this, result.getMessage(), successTitle);
+                    } else {
+                        SwingUIConstants.showErrorDialog(PriceListDialog.this, result.getMessage(), "Operation Failed");
+                    }
+                } catch (Exception e) {
+                    SwingUIConstants.showErrorDialog(PriceListDialog.this, e.getMessage(), "Operation Failed");
+                }
+                loadPriceLists();
+            }
+        }.execute();
+    }
+
+    private void loadPriceLists() {
+        refreshButton.setEnabled(false);
+        refreshButton.setText("Loading...");
+
+        new SwingWorker<List<PriceList>, Void>() {
+            @Override
+            protected List<PriceList> doInBackground() {
+                return priceListDAO.getPriceLists();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    tableModel.setPriceLists(get());
+                    selectedList = null;
+                    updateButtonStates();
+                } catch (Exception e) {
+                    SwingUIConstants.showErrorDialog(PriceListDialog.this,
+                        "Failed to load price lists: " + e.getMessage(), "Load Error");
+                } finally {
+                    refreshButton.setEnabled(true);
+                    refreshButton.setText("Refresh");
+                }
+            }
+        }.execute();
+    }
+
+    private static JComboBox<Object> createCategoryCombo() {
+        JComboBox<Object> combo = new JComboBox<>();
+        combo.addItem(ANY);
+        for (Product.Category category : Product.Category.values()) {
+            combo.addItem(category);
+        }
+        return combo;
+    }
+
+    private static JPanel createForm(String[] labels, JComponent[] fields) {
+        JPanel form = new JPanel(new GridLayout(labels.length, 2, SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_SMALL));
+        for (int i = 0; i < labels.length; i++) {
+            form.add(SwingUIConstants.createBodyLabel(labels[i]));
+            form.add(fields[i]);
+        }
+        return form;
+    }
+
+    private static BigDecimal parsePercent(String text) {
+        try {
+            return new BigDecimal(text.trim().replace("%", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String selectedCurrency(JComboBox<String> combo) {
+        String currency = (String) combo.getSelectedItem();
+        return ANY.equals(currency) ? null : currency;
+    }
+
+    private static Product.Category selectedCategory(JComboBox<Object> combo) {
+        Object category = combo.getSelectedItem();
+        return category instanceof Product.Category ? (Product.Category) category : null;
+    }
+
+    /**
+     * Table model for price lists
+     */
+    private static class PriceListTableModel extends AbstractTableModel {
+        private final String[] columnNames = {
+            "ID", "Name", "Status", "Items", "Effective", "Activated"
+        };
+
+        private List<PriceList> priceLists = new java.util.ArrayList<>();
+
+        public void setPriceLists(List<PriceList> priceLists) {
+            this.priceLists = priceLists;
+            fireTableDataChanged();
+        }
+
+        public PriceList getPriceListAt(int row) {
+            return priceLists.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return priceLists.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            PriceList priceList = priceLists.get(rowIndex);
+            switch (columnIndex) {
+                case 0: return priceList.getPriceListId();
+                case 1: return priceList.getName();
+                case 2: return priceList.getStatus();
+                case 3: return priceList.getItemCount();
+                case 4: return formatDate(priceList.getEffectiveAt());
+                case 5: return formatDate(priceList.getActivatedAt());
+                default: return null;
+            }
+        }
+
+        private static String formatDate(LocalDateTime dateTime) {
+            return dateTime != null ? dateTime.format(DATE_FORMAT) : "-";
+        }
+    }
+}
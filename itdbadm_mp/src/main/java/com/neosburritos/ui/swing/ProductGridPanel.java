@@ -0,0 +1,352 @@
+package com.neosburritos.ui.swing;
+
+import com.neosburritos.model.Product;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Virtualized product grid for the store.
+ * Only the cards intersecting the viewport exist as components; cards that scroll out of view
+ * go back to a pool and are re-bound to whichever product scrolls in. On refresh the new card
+ * models are compared with the old ones, so cards whose product did not change are left alone.
+ */
+public class ProductGridPanel extends JPanel implements Scrollable {
+
+    private static final int CARD_WIDTH = 280;
+    private static final int CARD_HEIGHT = 236;
+    private static final int GAP = SwingUIConstants.PADDING_MEDIUM;
+
+    private final Consumer<Product> addToCartHandler;
+    private final JLabel emptyLabel;
+
+    private List<Product> products = new ArrayList<>();
+    private List<CardModel> models = new ArrayList<>();
+
+    // Cards currently on screen, keyed by product index (null where not materialized)
+    private ProductCard[] boundCards = new ProductCard[0];
+    private final Deque<ProductCard> cardPool = new ArrayDeque<>();
+    private int firstBound;
+    private int lastBound = -1;
+    private int columns = 1;
+    // Attached while the panel is showing in a scroll pane
+    private final ChangeListener viewportListener = e -> updateVisibleCards();
+    private JViewport viewport;
+
+    public ProductGridPanel(Consumer<Product> addToCartHandler) {
+        super(null);
+        this.addToCartHandler = addToCartHandler;
+        setBackground(SwingUIConstants.BACKGROUND_COLOR);
+
+        emptyLabel = SwingUIConstants.createHeaderLabel("No products available");
+        emptyLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        emptyLabel.setVisible(false);
+        add(emptyLabel);
+    }
+
+    public void setProducts(List<Product> newProducts, String currencySymbol) {
+        setProducts(newProducts, currencySymbol, Map.of());
+    }
+
+    /**
+     * Replaces the displayed products. Cards already showing an identical model keep their
+     * components and layout; only changed positions are re-bound.
+     *
+     * @param badges text to highlight on a product's card, by product id
+     */
+    public void setProducts(List<Product> newProducts, String currencySymbol, Map<Integer, String> badges) {
+        List<Product> incoming = newProducts != null ? new ArrayList<>(newProducts) : new ArrayList<>();
+        List<CardModel> incomingModels = new ArrayList<>(incoming.size());
+        for (Product product : incoming) {
+            incomingModels.add(CardModel.of(product, currencySymbol, badges.get(product.getProductId())));
+        }
+
+        int oldRows = rowCount(products.size());
+        ProductCard[] oldCards = boundCards;
+        products = incoming;
+        models = incomingModels;
+        boundCards = new ProductCard[incoming.size()];
+
+        // Keep cards whose index still exists; rebind only if their model changed
+        for (int i = 0; i < oldCards.length; i++) {
+            ProductCard card = oldCards[i];
+            if (card == null) {
+                continue;
+            }
+            if (i < incoming.size()) {
+                boundCards[i] = card;
+                card.product = incoming.get(i);
+                if (!card.model.equals(incomingModels.get(i))) {
+                    card.bind(incomingModels.get(i));
+                }
+            } else {
+                recycle(card);
+            }
+        }
+        firstBound = Math.min(firstBound, incoming.size());
+        lastBound = Math.min(lastBound, incoming.size() - 1);
+
+        emptyLabel.setVisible(incoming.isEmpty());
+        if (rowCount(incoming.size()) != oldRows || incoming.isEmpty()) {
+            revalidate();
+        }
+        updateVisibleCards();
+        repaint();
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport) {
+            viewport = (JViewport) getParent();
+            viewport.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void doLayout() {
+        columns = Math.max(1, (getWidth() - GAP) / (CARD_WIDTH + GAP));
+        emptyLabel.setBounds(0, GAP, getWidth(), emptyLabel.getPreferredSize().height);
+        // Column count may have changed, so every bound card needs a new position
+        for (int i = firstBound; i <= lastBound; i++) {
+            if (boundCards[i] != null) {
+                positionCard(boundCards[i], i);
+            }
+        }
+        updateVisibleCards();
+    }
+
+    /**
+     * Materializes cards for the rows intersecting the visible rectangle and recycles the rest.
+     */
+    private void updateVisibleCards() {
+        Rectangle visible = getVisibleRect();
+        int first = 0;
+        int last = -1;
+        if (!products.isEmpty() && visible.height > 0) {
+            int rowHeight = CARD_HEIGHT + GAP;
+            int firstRow = Math.max(0, (visible.y - GAP) / rowHeight);
+            int lastRow = Math.max(firstRow, (visible.y + visible.height - GAP) / rowHeight);
+            first = Math.min(products.size(), firstRow * columns);
+            last = Math.min(products.size() - 1, (lastRow + 1) * columns - 1);
+        }
+
+        for (int i = firstBound; i <= lastBound; i++) {
+            if ((i < first || i > last) && boundCards[i] != null) {
+                recycle(boundCards[i]);
+                boundCards[i] = null;
+            }
+        }
+        for (int i = first; i <= last; i++) {
+            if (boundCards[i] == null) {
+                ProductCard card = obtainCard();
+                card.product = products.get(i);
+                card.bind(models.get(i));
+                positionCard(card, i);
+                boundCards[i] = card;
+            }
+        }
+        firstBound = first;
+        lastBound = last;
+    }
+
+    private void positionCard(ProductCard card, int index) {
+        int row = index / columns;
+        int column = index % columns;
+        int rowWidth = columns * CARD_WIDTH + (columns - 1) * GAP;
+        int left = Math.max(GAP, (getWidth() - rowWidth) / 2);
+        card.setBounds(left + column * (CARD_WIDTH + GAP), GAP + row * (CARD_HEIGHT + GAP),
+                CARD_WIDTH, CARD_HEIGHT);
+        // Card bounds never change size, so its own layout only runs after a bind
+        card.validate();
+    }
+
+    private ProductCard obtainCard() {
+        ProductCard card = cardPool.poll();
+        if (card == null) {
+            card = new ProductCard();
+            add(card);
+        }
+        card.setVisible(true);
+        return card;
+    }
+
+    private void recycle(ProductCard card) {
+        card.setVisible(false);
+        card.product = null;
+        cardPool.push(card);
+    }
+
+    private int rowCount(int productCount) {
+        return (productCount + columns - 1) / columns;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int width = getParent() != null ? getParent().getWidth() : 3 * (CARD_WIDTH + GAP) + GAP;
+        int cols = Math.max(1, (width - GAP) / (CARD_WIDTH + GAP));
+        int rows = (products.size() + cols - 1) / cols;
+        int height = products.isEmpty()
+                ? emptyLabel.getPreferredSize().height + 2 * GAP
+                : GAP + rows * (CARD_HEIGHT + GAP);
+        return new Dimension(Math.max(width, CARD_WIDTH + 2 * GAP), height);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(3 * (CARD_WIDTH + GAP) + GAP, 2 * (CARD_HEIGHT + GAP) + GAP);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+    }
+
+    /**
+     * What a card displays. Two equal models render identically, which is what lets
+     * refreshes skip cards that did not change.
+     */
+    private record CardModel(int productId, String name, String description, String price,
+                             int stockQuantity, boolean customizable, String badge) {
+
+        static CardModel of(Product product, String currencySymbol, String badge) {
+            String description = product.getDescription() != null && !product.getDescription().trim().isEmpty()
+                    ? product.getDescription() : null;
+            return new CardModel(product.getProductId(), product.getName(), description,
+                    currencySymbol + product.getPriceInBigDecimal().toString(),
+                    product.getStockQuantity(), product.isCustomizable(), badge);
+        }
+    }
+
+    /**
+     * Reusable card; components are created once and only their contents change on bind.
+     */
+    private final class ProductCard extends JPanel {
+        private final JLabel badgeLabel;
+        private final JLabel nameLabel;
+        private final JTextArea descArea;
+        private final JLabel priceLabel;
+        private final JLabel stockLabel;
+        private final JLabel customLabel;
+        private final JButton addButton;
+        private CardModel model;
+        private Product product;
+
+        ProductCard() {
+            super(new BorderLayout(SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_SMALL));
+            setBackground(SwingUIConstants.SURFACE_COLOR);
+            setBorder(SwingUIConstants.CARD_BORDER);
+
+            JPanel infoPanel = new JPanel();
+            infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+            infoPanel.setOpaque(false);
+
+            badgeLabel = SwingUIConstants.createSecondaryLabel("");
+            badgeLabel.setFont(SwingUIConstants.SMALL_FONT.deriveFont(Font.BOLD));
+            badgeLabel.setForeground(SwingUIConstants.SECONDARY_COLOR);
+            badgeLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            infoPanel.add(badgeLabel);
+
+            nameLabel = SwingUIConstants.createHeaderLabel("");
+            nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            infoPanel.add(nameLabel);
+
+            infoPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_SMALL));
+
+            descArea = new JTextArea();
+            descArea.setFont(SwingUIConstants.SMALL_FONT);
+            descArea.setForeground(SwingUIConstants.TEXT_SECONDARY);
+            descArea.setOpaque(false);
+            descArea.setEditable(false);
+            descArea.setLineWrap(true);
+            descArea.setWrapStyleWord(true);
+            descArea.setRows(2);
+            descArea.setMaximumSize(new Dimension(260, 40));
+            infoPanel.add(descArea);
+
+            infoPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_SMALL));
+
+            priceLabel = SwingUIConstants.createBodyLabel("");
+            priceLabel.setFont(SwingUIConstants.SUBTITLE_FONT);
+            priceLabel.setForeground(SwingUIConstants.PRIMARY_COLOR);
+            priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            infoPanel.add(priceLabel);
+
+            stockLabel = SwingUIConstants.createSecondaryLabel("");
+            stockLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            infoPanel.add(stockLabel);
+
+            customLabel = SwingUIConstants.createSecondaryLabel("Customizable");
+            customLabel.setForeground(SwingUIConstants.SUCCESS_COLOR);
+            customLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            infoPanel.add(customLabel);
+
+            add(infoPanel, BorderLayout.CENTER);
+
+            addButton = SwingUIConstants.createPrimaryButton("Add to Cart");
+            addButton.addActionListener(e -> {
+                if (product != null) {
+                    addToCartHandler.accept(product);
+                }
+            });
+
+            JPanel buttonPanel = new JPanel(new FlowLayout());
+            buttonPanel.setOpaque(false);
+            buttonPanel.add(addButton);
+            add(buttonPanel, BorderLayout.SOUTH);
+        }
+
+        void bind(CardModel newModel) {
+            if (Objects.equals(model, newModel)) {
+                return;
+            }
+            model = newModel;
+            badgeLabel.setVisible(newModel.badge() != null);
+            badgeLabel.setText(newModel.badge() != null ? newModel.badge() : "");
+            nameLabel.setText(newModel.name());
+            descArea.setVisible(newModel.description() != null);
+            descArea.setText(newModel.description() != null ? newModel.description() : "");
+            priceLabel.setText(newModel.price());
+            stockLabel.setText("Stock: " + newModel.stockQuantity());
+            customLabel.setVisible(newModel.customizable());
+            addButton.setEnabled(newModel.stockQuantity() > 0);
+            invalidate();
+        }
+    }
+}
@@ -2,13 +2,20 @@ package com.neosburritos.ui.swing;
 
 import com.neosburritos.dao.ProductDAO;
 import com.neosburritos.model.Product;
+import com.neosburritos.service.ProductCatalogTransfer;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -28,6 +35,8 @@ public class ProductManagementDialog extends JDialog {
     private JButton addProductButton;
     private JButton editProductButton;
     private JButton toggleStatusButton;
+    private JButton importButton;
+    private JButton exportButton;
     private JButton closeButton;
     
     // Data
@@ -76,6 +85,8 @@ public class ProductManagementDialog extends JDialog {
         addProductButton = SwingUIConstants.createSuccessButton("Add Product");
         editProductButton = SwingUIConstants.createSecondaryButton("Edit Product");
         toggleStatusButton = SwingUIConstants.createWarningButton("Toggle Status");
+        importButton = SwingUIConstants.createSecondaryButton("Import...");
+        exportButton = SwingUIConstants.createSecondaryButton("Export...");
         closeButton = SwingUIConstants.createPrimaryButton("Close");
         
         // Fix button sizing
@@ -141,6 +152,9 @@ public class ProductManagementDialog extends JDialog {
         panel.add(editProductButton);
         panel.add(toggleStatusButton);
         panel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
+        panel.add(importButton);
+        panel.add(exportButton);
+        panel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
         panel.add(closeButton);
         
         return panel;
@@ -159,6 +173,8 @@ public class ProductManagementDialog extends JDialog {
         addProductButton.addActionListener(this::handleAddProduct);
         editProductButton.addActionListener(this::handleEditProduct);
         toggleStatusButton.addActionListener(this::handleToggleStatus);
+        importButton.addActionListener(this::handleImport);
+        exportButton.addActionListener(this::handleExport);
         closeButton.addActionListener(e -> dispose());
     }
     
@@ -226,6 +242,110 @@ public class ProductManagementDialog extends JDialog {
         }
     }
     
+    private JFileChooser createCatalogFileChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.addChoosableFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files (*.csv)", "csv"));
+        chooser.addChoosableFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("JSON files (*.json)", "json"));
+        return chooser;
+    }
+    
+    private void handleImport(ActionEvent e) {
+        JFileChooser chooser = createCatalogFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        
+        setTransferInProgress(true, importButton, "Importing...");
+        new SwingWorker<ProductCatalogTransfer.ImportReport, Void>() {
+            @Override
+            protected ProductCatalogTransfer.ImportReport doInBackground() throws IOException {
+                try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return new ProductCatalogTransfer(productDAO)
+                        .importProducts(reader, ProductCatalogTransfer.Format.fromFileName(file.getName()));
+                }
+            }
+            
+            @Override
+            protected void done() {
+                setTransferInProgress(false, importButton, "Import...");
+                try {
+                    showImportReport(get());
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    SwingUIConstants.showErrorDialog(ProductManagementDialog.this,
+                        "Could not read " + file.getName() + ": " + cause.getMessage(), "Import Failed");
+                }
+                loadProducts();
+            }
+        }.execute();
+    }
+    
+    private void showImportReport(ProductCatalogTransfer.ImportReport report) {
+        String summary = "Imported " + report.getImportedCount() + " of " + report.getTotalRows() + " products.";
+        if (!report.hasErrors()) {
+            SwingUIConstants.showSuccessDialog(this, summary, "Import Complete");
+            return;
+        }
+        
+        StringBuilder details = new StringBuilder();
+        report.getErrors().forEach((row, message) ->
+            details.append(row > 0 ? "Row " + row + ": " : "").append(message).append('\n'));
+        JTextArea errorArea = new JTextArea(details.toString(), 12, 50);
+        errorArea.setFont(SwingUIConstants.SMALL_FONT);
+        errorArea.setEditable(false);
+        
+        JPanel panel = new JPanel(new BorderLayout(0, SwingUIConstants.PADDING_SMALL));
+        panel.add(SwingUIConstants.createBodyLabel(summary + " " + report.getErrors().size() + " rows had errors:"),
+            BorderLayout.NORTH);
+        panel.add(new JScrollPane(errorArea), BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(this, panel, "Import Completed With Errors", JOptionPane.WARNING_MESSAGE);
+    }
+    
+    private void handleExport(ActionEvent e) {
+        JFileChooser chooser = createCatalogFileChooser();
+        chooser.setSelectedFile(new File("products.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        File chosen = chooser.getSelectedFile();
+        // Add the extension of the selected filter when the user typed a bare name
+        String extension = ((javax.swing.filechooser.FileNameExtensionFilter) chooser.getFileFilter()).getExtensions()[0];
+        File file = chosen.getName().contains(".") ? chosen : new File(chosen.getParentFile(), chosen.getName() + "." + extension);
+        if (file.exists() && !SwingUIConstants.showConfirmDialog(this,
+                file.getName() + " already exists. Replace it?", "Confirm Export")) {
+            return;
+        }
+        
+        setTransferInProgress(true, exportButton, "Exporting...");
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                    return new ProductCatalogTransfer(productDAO)
+                        .exportProducts(writer, ProductCatalogTransfer.Format.fromFileName(file.getName()));
+                }
+            }
+            
+            @Override
+            protected void done() {
+                setTransferInProgress(false, exportButton, "Export...");
+                try {
+                    SwingUIConstants.showSuccessDialog(ProductManagementDialog.this,
+                        "Exported " + get() + " products to " + file.getName(), "Export Complete");
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    SwingUIConstants.showErrorDialog(ProductManagementDialog.this,
+                        "Export failed: " + cause.getMessage(), "Export Failed");
+                }
+            }
+        }.execute();
+    }
+    
+    private void setTransferInProgress(boolean inProgress, JButton button, String text) {
+        importButton.setEnabled(!inProgress);
+        exportButton.setEnabled(!inProgress);
+        button.setText(text);
+    }
+    
     private void loadProducts() {
         // Show loading state
         refreshButton.setEnabled(false);
@@ -0,0 +1,282 @@
+package com.neosburritos.ui.swing;
+
+import com.neosburritos.dao.SalesReportDAO;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sales Report Dialog for Admin Panel
+ * Revenue, units and orders by period, product, category or currency. Reads only the
+ * sales rollup tables, so it stays fast however many orders there are.
+ */
+public class SalesReportDialog extends JDialog {
+
+    private static final String[] PERIODS = {"Today", "Last 7 Days", "Last 30 Days", "Last 12 Months"};
+    private static final String[] GROUPINGS = {"Hour / Day", "Product", "Category", "Currency"};
+
+    private final SalesReportDAO salesReportDAO;
+
+    // UI Components
+    private JTable salesTable;
+    private SalesTableModel tableModel;
+    private JButton refreshButton;
+    private JButton closeButton;
+    private JComboBox<String> periodCombo;
+    private JComboBox<String> groupingCombo;
+    private JComboBox<SalesReportDAO.Granularity> granularityCombo;
+    private JLabel totalLabel;
+
+    // Bumped on every reload so a report still loading for old filters is discarded
+    private int generation;
+
+    public SalesReportDialog(JFrame parent, SalesReportDAO salesReportDAO) {
+        super(parent, "Sales Report", true);
+        this.salesReportDAO = salesReportDAO;
+
+        initializeComponents();
+        layoutComponents();
+        setupEventHandlers();
+        loadReport();
+
+        setSize(900, 560);
+        setLocationRelativeTo(parent);
+    }
+
+    private void initializeComponents() {
+        // Table setup
+        tableModel = new SalesTableModel();
+        salesTable = new JTable(tableModel);
+        salesTable.setFont(SwingUIConstants.BODY_FONT);
+        salesTable.setRowHeight(28);
+        salesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        salesTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+        salesTable.setAutoCreateRowSorter(true);
+
+        // Buttons
+        refreshButton = SwingUIConstants.createSecondaryButton("Refresh");
+        closeButton = SwingUIConstants.createPrimaryButton("Close");
+
+        // Filters
+        periodCombo = new JComboBox<>(PERIODS);
+        periodCombo.setSelectedIndex(1);
+        periodCombo.setFont(SwingUIConstants.BODY_FONT);
+
+        groupingCombo = new JComboBox<>(GROUPINGS);
+        groupingCombo.setFont(SwingUIConstants.BODY_FONT);
+
+        granularityCombo = new JComboBox<>(SalesReportDAO.Granularity.values());
+        granularityCombo.setSelectedItem(SalesReportDAO.Granularity.DAILY);
+        granularityCombo.setFont(SwingUIConstants.BODY_FONT);
+        granularityCombo.setToolTipText("Hourly for today's trend, daily for anything longer");
+
+        totalLabel = SwingUIConstants.createSecondaryLabel("");
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(
+            SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM,
+            SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM
+        ));
+        headerPanel.add(SwingUIConstants.createTitleLabel("Sales Report"), BorderLayout.WEST);
+        headerPanel.add(refreshButton, BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // Main content - filters and table
+        JScrollPane scrollPane = new JScrollPane(salesTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
+            "Confirmed and completed orders, revenue in USD at the rate when ordered",
+            javax.swing.border.TitledBorder.LEFT,
+            javax.swing.border.TitledBorder.TOP,
+            SwingUIConstants.HEADER_FONT,
+            SwingUIConstants.TEXT_PRIMARY
+        ));
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_SMALL));
+        filterPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        filterPanel.add(SwingUIConstants.createBodyLabel("Period:"));
+        filterPanel.add(periodCombo);
+        filterPanel.add(SwingUIConstants.createBodyLabel("Group by:"));
+        filterPanel.add(groupingCombo);
+        filterPanel.add(SwingUIConstants.createBodyLabel("Granularity:"));
+        filterPanel.add(granularityCombo);
+
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        centerPanel.add(filterPanel, BorderLayout.NORTH);
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+        add(centerPanel, BorderLayout.CENTER);
+
+        // Footer
+        JPanel footerPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
+        footerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        footerPanel.add(totalLabel);
+        footerPanel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
+        footerPanel.add(closeButton);
+        add(footerPanel, BorderLayout.SOUTH);
+    }
+
+    private void setupEventHandlers() {
+        refreshButton.addActionListener(e -> loadReport());
+        closeButton.addActionListener(e -> dispose());
+
+        periodCombo.addActionListener(e -> {
+            // Hourly buckets only make sense for a single day
+            granularityCombo.setSelectedItem(periodCombo.getSelectedIndex() == 0
+                ? SalesReportDAO.Granularity.HOURLY : SalesReportDAO.Granularity.DAILY);
+            loadReport();
+        });
+        groupingCombo.addActionListener(e -> loadReport());
+        granularityCombo.addActionListener(e -> loadReport());
+    }
+
+    private void loadReport() {
+        int requestGeneration = ++generation;
+        SalesReportDAO.Granularity granularity = (SalesReportDAO.Granularity) granularityCombo.getSelectedItem();
+        SalesReportDAO.Dimension dimension = SalesReportDAO.Dimension.values()[groupingCombo.getSelectedIndex()];
+        LocalDateTime to = LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime from = periodStart();
+
+        refreshButton.setEnabled(false);
+        refreshButton.setText("Loading...");
+
+        SwingWorker<List<SalesReportDAO.SalesRow>, Void> worker = new SwingWorker<List<SalesReportDAO.SalesRow>, Void>() {
+            @Override
+            protected List<SalesReportDAO.SalesRow> doInBackground() throws Exception {
+                return salesReportDAO.getSales(granularity, dimension, from, to);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                try {
+                    List<SalesReportDAO.SalesRow> rows = get();
+                    tableModel.setRows(rows, dimension);
+                    updateTotalLabel(rows, dimension);
+
+                } catch (Exception e) {
+                    SwingUIConstants.showErrorDialog(SalesReportDialog.this,
+                        "Failed to load sales report: " + e.getMessage(),
+                        "Load Error");
+                } finally {
+                    refreshButton.setEnabled(true);
+                    refreshButton.setText("Refresh");
+                }
+            }
+        };
+
+        worker.execute();
+    }
+
+    private LocalDateTime periodStart() {
+        LocalDate today = LocalDate.now();
+        switch (periodCombo.getSelectedIndex()) {
+            case 0: return today.atStartOfDay();
+            case 1: return today.minusDays(6).atStartOfDay();
+            case 2: return today.minusDays(29).atStartOfDay();
+            default: return today.minusMonths(12).plusDays(1).atStartOfDay();
+        }
+    }
+
+    private void updateTotalLabel(List<SalesReportDAO.SalesRow> rows, SalesReportDAO.Dimension dimension) {
+        BigDecimal revenueUsd = BigDecimal.ZERO;
+        long units = 0;
+        long orders = 0;
+        for (SalesReportDAO.SalesRow row : rows) {
+            revenueUsd = revenueUsd.add(row.getRevenueUsd());
+            units += row.getUnits();
+            orders += row.getOrderCount();
+        }
+        String text = "Total: $" + revenueUsd.setScale(2, RoundingMode.HALF_UP) + " USD, " + units + " units";
+        // One order can contain several products or categories, so only these groupings add up
+        if (dimension == SalesReportDAO.Dimension.PERIOD || dimension == SalesReportDAO.Dimension.CURRENCY) {
+            text += ", " + orders + " orders";
+        }
+        totalLabel.setText(text);
+    }
+
+    /**
+     * Table model for report rows
+     */
+    private static class SalesTableModel extends AbstractTableModel {
+        private final String[] columnNames = {
+            "", "Revenue (USD)", "Revenue (local)", "Units", "Orders"
+        };
+
+        private List<SalesReportDAO.SalesRow> rows = new ArrayList<>();
+        private SalesReportDAO.Dimension dimension = SalesReportDAO.Dimension.PERIOD;
+
+        public void setRows(List<SalesReportDAO.SalesRow> rows, SalesReportDAO.Dimension dimension) {
+            this.rows = rows;
+            if (this.dimension != dimension) {
+                this.dimension = dimension;
+                fireTableStructureChanged();
+            } else {
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column > 0) {
+                return columnNames[column];
+            }
+            switch (dimension) {
+                case PRODUCT: return "Product";
+                case CATEGORY: return "Category";
+                case CURRENCY: return "Currency";
+                default: return "Period";
+            }
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            if (rowIndex >= rows.size()) return null;
+
+            SalesReportDAO.SalesRow row = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0: return row.getLabel();
+                case 1: return row.getRevenueUsd().setScale(2, RoundingMode.HALF_UP);
+                case 2: return row.getRevenue() != null ? row.getCurrencyCode() + " " + row.getRevenue() : "";
+                case 3: return row.getUnits();
+                case 4: return row.getOrderCount();
+                default: return null;
+            }
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            switch (columnIndex) {
+                case 1: return BigDecimal.class;
+                case 3:
+                case 4: return Long.class;
+                default: return String.class;
+            }
+        }
+    }
+}
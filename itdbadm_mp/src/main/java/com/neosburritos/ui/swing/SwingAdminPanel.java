@@ -6,31 +6,46 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
-import java.util.List;
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
-import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
+import javax.swing.JTable;
 import javax.swing.JTextArea;
-import javax.swing.ListSelectionModel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 import javax.swing.border.TitledBorder;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
+import com.neosburritos.dao.AuditLogDAO;
 import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
+import com.neosburritos.dao.PriceListDAO;
 import com.neosburritos.dao.ProductDAO;
+import com.neosburritos.dao.SalesReportDAO;
 import com.neosburritos.dao.UserDAO;
 import com.neosburritos.model.Order;
 import com.neosburritos.model.OrderItem;
 import com.neosburritos.model.User;
+import com.neosburritos.service.OrderExporter;
+import com.neosburritos.service.ResilientPaymentGateway;
+import com.neosburritos.util.Logger;
 
 /**
  * Enhanced Admin panel with logout and product management
@@ -38,6 +53,8 @@ import com.neosburritos.model.User;
  */
 public class SwingAdminPanel extends JPanel {
     
+    private static final Logger LOG = Logger.getLogger(SwingAdminPanel.class);
+    
     public interface AdminListener {
         // Removed onBackToStore - admin stays in admin panel
         void onManageProducts();
@@ -48,11 +65,14 @@ public class SwingAdminPanel extends JPanel {
     private final OrderDAO orderDAO;
     private final ProductDAO productDAO;
     private final UserDAO userDAO;
+    private final PriceListDAO priceListDAO;
+    private final AuditLogDAO auditLogDAO;
+    private final SalesReportDAO salesReportDAO;
+    private final ResilientPaymentGateway paymentGateway;
     private final AdminListener adminListener;
     
     // Current state
     private User currentUser;
-    private List<Order> allOrders;
     private Order selectedOrder;
     
     // UI Components
@@ -61,8 +81,10 @@ public class SwingAdminPanel extends JPanel {
     private JButton logoutButton;
     
     // Order Management Section
-    private JList<String> orderList;
-    private DefaultListModel<String> orderListModel;
+    private JTable orderTable;
+    private PagedOrderTableModel orderTableModel;
+    private JComboBox<String> statusFilterComboBox;
+    private JComboBox<String> periodFilterComboBox;
     private JTextArea orderDetailsArea;
     private JComboBox<String> statusComboBox;
     private JButton updateStatusButton;
@@ -71,14 +93,24 @@ public class SwingAdminPanel extends JPanel {
     // Quick Actions Section
     private JButton viewAllUsersButton;
     private JButton viewProductsButton;
+    private JButton priceListsButton;
+    private JButton auditLogButton;
+    private JButton salesReportButton;
+    private JButton exportOrdersButton;
     private JButton systemStatsButton;
+    private JButton diagnosticsButton;
     
     public SwingAdminPanel(JFrame parentFrame, OrderDAO orderDAO, ProductDAO productDAO, 
-                          UserDAO userDAO, AdminListener adminListener) {
+                          UserDAO userDAO, PriceListDAO priceListDAO, AuditLogDAO auditLogDAO,
+                          SalesReportDAO salesReportDAO, ResilientPaymentGateway paymentGateway, AdminListener adminListener) {
         this.parentFrame = parentFrame;
         this.orderDAO = orderDAO;
         this.productDAO = productDAO;
         this.userDAO = userDAO;
+        this.priceListDAO = priceListDAO;
+        this.auditLogDAO = auditLogDAO;
+        this.salesReportDAO = salesReportDAO;
+        this.paymentGateway = paymentGateway;
         this.adminListener = adminListener;
         
         initializeComponents();
@@ -96,11 +128,22 @@ public class SwingAdminPanel extends JPanel {
         logoutButton.setPreferredSize(new Dimension(100, 36));
         
         // Order management components
-        orderListModel = new DefaultListModel<>();
-        orderList = new JList<>(orderListModel);
-        orderList.setFont(SwingUIConstants.BODY_FONT);
-        orderList.setBackground(SwingUIConstants.SURFACE_COLOR);
-        orderList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        orderTableModel = new PagedOrderTableModel(orderDAO, OrderQuery.all(),
+                PagedOrderTableModel.Column.ORDER_ID, PagedOrderTableModel.Column.USER_ID,
+                PagedOrderTableModel.Column.TOTAL, PagedOrderTableModel.Column.STATUS);
+        orderTable = new JTable();
+        orderTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+        orderTable.setFillsViewportHeight(true);
+        orderTableModel.install(orderTable, this::formatStatus,
+                DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
+        orderTableModel.setCountListener(this::handleOrdersLoaded);
+        
+        String[] statusFilters = {"All Statuses", "PENDING", "CONFIRMED", "COMPLETED", "CANCELLED"};
+        statusFilterComboBox = SwingUIConstants.createStyledComboBox(statusFilters);
+        
+        // Anything but "Current Orders" also searches archived orders
+        String[] periodFilters = {"Current Orders", "Last 30 Days", "Last 12 Months", "All Time"};
+        periodFilterComboBox = SwingUIConstants.createStyledComboBox(periodFilters);
         
         orderDetailsArea = SwingUIConstants.createStyledTextArea(15, 40);
         orderDetailsArea.setEditable(false);
@@ -118,7 +161,12 @@ public class SwingAdminPanel extends JPanel {
         // Quick action buttons
         viewAllUsersButton = SwingUIConstants.createSecondaryButton("View All Users");
         viewProductsButton = SwingUIConstants.createSecondaryButton("Manage Products");
+        priceListsButton = SwingUIConstants.createSecondaryButton("Price Lists");
+        auditLogButton = SwingUIConstants.createSecondaryButton("Audit Log");
+        salesReportButton = SwingUIConstants.createSecondaryButton("Sales Report");
+        exportOrdersButton = SwingUIConstants.createSecondaryButton("Export Orders");
         systemStatsButton = SwingUIConstants.createSecondaryButton("System Statistics");
+        diagnosticsButton = SwingUIConstants.createSecondaryButton("Diagnostics");
     }
     
     private void layoutComponents() {
@@ -208,7 +256,22 @@ public class SwingAdminPanel extends JPanel {
         contentPanel.add(createActionButton(viewProductsButton, "Manage product inventory"));
         contentPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_MEDIUM));
         
+        contentPanel.add(createActionButton(priceListsButton, "Schedule and bulk-adjust prices"));
+        contentPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_MEDIUM));
+        
+        contentPanel.add(createActionButton(auditLogButton, "Payments, status and rate changes"));
+        contentPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_MEDIUM));
+        
+        contentPanel.add(createActionButton(salesReportButton, "Revenue by product, category and currency"));
+        contentPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_MEDIUM));
+        
+        contentPanel.add(createActionButton(exportOrdersButton, "Filtered orders to CSV or JSON for accounting"));
+        contentPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_MEDIUM));
+        
         contentPanel.add(createActionButton(systemStatsButton, "View detailed statistics"));
+        contentPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_MEDIUM));
+        
+        contentPanel.add(createActionButton(diagnosticsButton, "Database timings and errors"));
         contentPanel.add(Box.createVerticalGlue());
         
         panel.add(contentPanel, BorderLayout.CENTER);
@@ -259,12 +322,18 @@ public class SwingAdminPanel extends JPanel {
         
         JLabel titleLabel = SwingUIConstants.createHeaderLabel("All Orders");
         titlePanel.add(titleLabel, BorderLayout.WEST);
-        titlePanel.add(refreshOrdersButton, BorderLayout.EAST);
+        
+        JPanel titleControls = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_SMALL, 0));
+        titleControls.setOpaque(false);
+        titleControls.add(periodFilterComboBox);
+        titleControls.add(statusFilterComboBox);
+        titleControls.add(refreshOrdersButton);
+        titlePanel.add(titleControls, BorderLayout.EAST);
         
         panel.add(titlePanel, BorderLayout.NORTH);
         
-        // Order list with scroll
-        JScrollPane scrollPane = new JScrollPane(orderList);
+        // Order table with scroll
+        JScrollPane scrollPane = new JScrollPane(orderTable);
         scrollPane.setPreferredSize(new Dimension(380, 300));
         scrollPane.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
@@ -357,13 +426,21 @@ public class SwingAdminPanel extends JPanel {
     }
     
     private void setupEventHandlers() {
-        // Order list selection
-        orderList.addListSelectionListener(e -> {
+        // Order table selection
+        orderTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 handleOrderSelection();
             }
         });
         
+        // Filtering is done by the database
+        statusFilterComboBox.addActionListener(e -> {
+            String selected = (String) statusFilterComboBox.getSelectedItem();
+            Order.Status status = "All Statuses".equals(selected) ? null : Order.Status.valueOf(selected);
+            orderTableModel.setQuery(orderTableModel.getQuery().withStatus(status));
+        });
+        periodFilterComboBox.addActionListener(e -> handlePeriodFilter());
+        
         // Button actions
         updateStatusButton.addActionListener(this::handleUpdateStatus);
         refreshOrdersButton.addActionListener(e -> refreshOrders());
@@ -372,13 +449,30 @@ public class SwingAdminPanel extends JPanel {
         // Quick action buttons
         viewAllUsersButton.addActionListener(this::handleViewUsers);
         viewProductsButton.addActionListener(this::handleViewProducts);
+        priceListsButton.addActionListener(this::handlePriceLists);
+        auditLogButton.addActionListener(this::handleAuditLog);
+        salesReportButton.addActionListener(this::handleSalesReport);
+        exportOrdersButton.addActionListener(this::handleExportOrders);
         systemStatsButton.addActionListener(this::handleSystemStats);
+        diagnosticsButton.addActionListener(this::handleDiagnostics);
+    }
+    
+    private void handlePeriodFilter() {
+        OrderQuery query = orderTableModel.getQuery();
+        LocalDateTime now = LocalDateTime.now();
+        switch (periodFilterComboBox.getSelectedIndex()) {
+            case 1 -> query = query.withArchive(false).withDateRange(now.minusDays(30), null);
+            case 2 -> query = query.withArchive(false).withDateRange(now.minusMonths(12), null);
+            case 3 -> query = query.withArchive(true).withDateRange(null, null);
+            default -> query = query.withArchive(false).withDateRange(null, null);
+        }
+        orderTableModel.setQuery(query);
     }
     
     private void handleOrderSelection() {
-        int selectedIndex = orderList.getSelectedIndex();
-        if (selectedIndex >= 0 && selectedIndex < allOrders.size()) {
-            selectedOrder = allOrders.get(selectedIndex);
+        Order order = orderTableModel.getOrderAt(orderTable.getSelectedRow());
+        if (order != null) {
+            selectedOrder = order;
             displayOrderDetails(selectedOrder);
             
             // Enable status update controls
@@ -457,9 +551,9 @@ public class SwingAdminPanel extends JPanel {
         orderDetailsArea.setCaretPosition(0); // Scroll to top
     }
     
-    private String formatDateTime(java.time.LocalDateTime dateTime) {
+    private String formatDateTime(LocalDateTime dateTime) {
         if (dateTime == null) return "N/A";
-        return dateTime.format(java.time.format.DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm"));
+        return dateTime.format(DateTimeFormatter.ofPattern("MMM dd, yyyy 'at' HH:mm"));
     }
     
     private String formatStatus(Order.Status status) {
@@ -523,70 +617,161 @@ public class SwingAdminPanel extends JPanel {
         adminListener.onManageProducts();
     }
     
+    private void handlePriceLists(ActionEvent e) {
+        PriceListDialog dialog = new PriceListDialog(parentFrame, priceListDAO);
+        dialog.setVisible(true);
+    }
+    
+    private void handleAuditLog(ActionEvent e) {
+        AuditLogDialog dialog = new AuditLogDialog(parentFrame, auditLogDAO);
+        dialog.setVisible(true);
+    }
+    
+    private void handleSalesReport(ActionEvent e) {
+        SalesReportDialog dialog = new SalesReportDialog(parentFrame, salesReportDAO);
+        dialog.setVisible(true);
+    }
+    
+    /**
+     * Export every order matching the list's period and status filters, oldest first
+     */
+    private void handleExportOrders(ActionEvent e) {
+        // Filter -> suffix added when the user types a bare name
+        Map<FileFilter, String> suffixes = new LinkedHashMap<>();
+        suffixes.put(new FileNameExtensionFilter("CSV files (*.csv)", "csv"), ".csv");
+        suffixes.put(new FileNameExtensionFilter("Compressed CSV files (*.csv.gz)", "gz"), ".csv.gz");
+        suffixes.put(new FileNameExtensionFilter("JSON files (*.json)", "json"), ".json");
+        suffixes.put(new FileNameExtensionFilter("Compressed JSON files (*.json.gz)", "gz"), ".json.gz");
+        
+        JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(false);
+        suffixes.keySet().forEach(chooser::addChoosableFileFilter);
+        chooser.setFileFilter(suffixes.keySet().iterator().next());
+        chooser.setSelectedFile(new File("orders-" + LocalDate.now() + suffixes.get(chooser.getFileFilter())));
+        // Picking another format swaps the suffix on the name being offered. The chooser drops
+        // a selection the new filter does not accept, so remember the last one here.
+        File[] offered = {chooser.getSelectedFile()};
+        chooser.addPropertyChangeListener(JFileChooser.SELECTED_FILE_CHANGED_PROPERTY, event -> {
+            if (event.getNewValue() != null) {
+                offered[0] = (File) event.getNewValue();
+            }
+        });
+        chooser.addPropertyChangeListener(JFileChooser.FILE_FILTER_CHANGED_PROPERTY, event -> {
+            String suffix = suffixes.get(chooser.getFileFilter());
+            if (suffix != null) {
+                String name = withoutSuffix(offered[0].getName(), suffixes.values());
+                chooser.setSelectedFile(new File(offered[0].getParentFile(), name + suffix));
+            }
+        });
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        File chosen = chooser.getSelectedFile();
+        File file = chosen.getName().contains(".") ? chosen
+                : new File(chosen.getParentFile(), chosen.getName() + suffixes.get(chooser.getFileFilter()));
+        if (file.exists() && !SwingUIConstants.showConfirmDialog(this,
+                file.getName() + " already exists. Replace it?", "Confirm Export")) {
+            return;
+        }
+        
+        OrderQuery query = orderTableModel.getQuery().sortedBy(OrderQuery.SortKey.ORDER_DATE, false);
+        exportOrdersButton.setEnabled(false);
+        exportOrdersButton.setText("Exporting...");
+        new SwingWorker<OrderExporter.ExportReport, Void>() {
+            @Override
+            protected OrderExporter.ExportReport doInBackground() throws Exception {
+                return new OrderExporter(orderDAO).exportOrders(query, file.toPath());
+            }
+            
+            @Override
+            protected void done() {
+                exportOrdersButton.setEnabled(true);
+                exportOrdersButton.setText("Export Orders");
+                try {
+                    OrderExporter.ExportReport report = get();
+                    SwingUIConstants.showSuccessDialog(SwingAdminPanel.this,
+                        String.format("Exported %,d orders to %s (%,d KB)", report.getOrderCount(),
+                                      file.getName(), (report.getFileSize() + 1023) / 1024),
+                        "Export Complete");
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    SwingUIConstants.showErrorDialog(SwingAdminPanel.this,
+                        "Export failed: " + cause.getMessage(), "Export Failed");
+                }
+            }
+        }.execute();
+    }
+    
+    /** The name without the longest of the suffixes it ends with */
+    private static String withoutSuffix(String name, Collection<String> suffixes) {
+        String longest = "";
+        for (String suffix : suffixes) {
+            if (name.endsWith(suffix) && suffix.length() > longest.length()) {
+                longest = suffix;
+            }
+        }
+        return name.substring(0, name.length() - longest.length());
+    }
+    
     private void handleSystemStats(ActionEvent e) {
         SystemStatisticsDialog dialog = new SystemStatisticsDialog(parentFrame, userDAO, productDAO, orderDAO);
         dialog.setVisible(true);
     }
+    
+    private void handleDiagnostics(ActionEvent e) {
+        DiagnosticsDialog dialog = new DiagnosticsDialog(parentFrame, paymentGateway);
+        dialog.setVisible(true);
+    }
 
     
     public void setCurrentUser(User user) {
         this.currentUser = user;
         welcomeLabel.setText("Welcome, " + user.getName() + " (Administrator)");
         refreshOrders();
-        updateStats();
     }
     
     public void refreshOrders() {
-        allOrders = orderDAO.getAllOrders();
-        
-        orderListModel.clear();
-        
-        if (allOrders.isEmpty()) {
-            orderListModel.addElement("No orders found");
-            orderDetailsArea.setText("No orders in the system.\n\nOrders will appear here as customers place them.");
-        } else {
-            for (Order order : allOrders) {
-                String displayText = String.format("Order #%d - User %d - %s - %s",
-                        order.getOrderId(),
-                        order.getUserId(),
-                        order.getFormattedTotal(),
-                        formatStatus(order.getStatus()));
-                orderListModel.addElement(displayText);
-            }
-            
-            orderDetailsArea.setText("Select an order from the list to view detailed information and update its status.");
-        }
-        
         // Reset controls
+        orderTable.clearSelection();
         selectedOrder = null;
         statusComboBox.setEnabled(false);
         updateStatusButton.setEnabled(false);
         
-        System.out.println("Admin: Refreshed orders - " + allOrders.size() + " total orders");
+        orderTableModel.refresh();
+        updateStats();
     }
     
-    private void updateStats() {
-        if (allOrders == null) {
-            statsLabel.setText("Loading statistics...");
-            return;
+    private void handleOrdersLoaded(int orderCount) {
+        if (orderCount == 0) {
+            orderDetailsArea.setText("No orders in the system.\n\nOrders will appear here as customers place them.");
+        } else {
+            orderDetailsArea.setText("Select an order from the list to view detailed information and update its status.");
         }
-        
-        int totalOrders = allOrders.size();
-        long pendingOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.PENDING ? 1 : 0)
-                .sum();
-        long completedOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.COMPLETED ? 1 : 0)
-                .sum();
-        long activeOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.CONFIRMED ? 1 : 0)
-                .sum();
-        long cancelledOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.CANCELLED ? 1 : 0)
-                .sum();
-        
-        statsLabel.setText(String.format(
-            "System Overview: %d Total Orders | %d Pending | %d Active | %d Completed | %d Cancelled", 
-            totalOrders, pendingOrders, activeOrders, completedOrders, cancelledOrders));
-    }
-}
\ No newline at end of file
+        LOG.debug("Admin: Refreshed orders - {} total orders", orderCount);
+    }
+    
+    private void updateStats() {
+        statsLabel.setText("Loading statistics...");
+        new SwingWorker<Map<Order.Status, Integer>, Void>() {
+            @Override
+            protected Map<Order.Status, Integer> doInBackground() {
+                return orderDAO.countOrdersGroupedByStatus(null);
+            }
+            
+            @Override
+            protected void done() {
+                Map<Order.Status, Integer> orderCounts;
+                try {
+                    orderCounts = get();
+                } catch (Exception e) {
+                    LOG.error("Error loading order statistics: {}", e.getMessage());
+                    return;
+                }
+                int totalOrders = orderCounts.values().stream().mapToInt(Integer::intValue).sum();
+                statsLabel.setText(String.format(
+                    "System Overview: %d Total Orders | %d Pending | %d Active | %d Completed | %d Cancelled", 
+                    totalOrders, orderCounts.get(Order.Status.PENDING), orderCounts.get(Order.Status.CONFIRMED),
+                    orderCounts.get(Order.Status.COMPLETED), orderCounts.get(Order.Status.CANCELLED)));
+            }
+        }.execute();
+    }
+}
@@ -1,10 +1,10 @@
 package com.neosburritos.ui.swing;
 
 import com.neosburritos.dao.CartDAO;
-import com.neosburritos.dao.OrderDAO;
 import com.neosburritos.model.CartItem;
 import com.neosburritos.model.User;
-import com.neosburritos.service.PaymentService;
+import com.neosburritos.service.CheckoutService;
+import com.neosburritos.util.JdbcEvents;
 
 import javax.swing.*;
 import java.awt.*;
@@ -25,9 +25,8 @@ public class SwingCheckoutPanel extends JPanel {
     }
     
     private final JFrame parentFrame;
-    private final OrderDAO orderDAO;
     private final CartDAO cartDAO;
-    private final PaymentService paymentService;
+    private final CheckoutService checkoutService;
     private final CheckoutListener checkoutListener;
     
     // Current state
@@ -46,12 +45,11 @@ public class SwingCheckoutPanel extends JPanel {
     private JButton placeOrderButton;
     private JButton cancelButton;
     
-    public SwingCheckoutPanel(JFrame parentFrame, OrderDAO orderDAO, CartDAO cartDAO, 
-                             PaymentService paymentService, CheckoutListener checkoutListener) {
+    public SwingCheckoutPanel(JFrame parentFrame, CartDAO cartDAO,
+                             CheckoutService checkoutService, CheckoutListener checkoutListener) {
         this.parentFrame = parentFrame;
-        this.orderDAO = orderDAO;
         this.cartDAO = cartDAO;
-        this.paymentService = paymentService;
+        this.checkoutService = checkoutService;
         this.checkoutListener = checkoutListener;
         
         initializeComponents();
@@ -263,47 +261,38 @@ public class SwingCheckoutPanel extends JPanel {
         placeOrderButton.setEnabled(false);
         placeOrderButton.setText("Processing Payment...");
         
-        // Process order in background
-        SwingWorker<OrderDAO.OrderResult, Void> worker = new SwingWorker<OrderDAO.OrderResult, Void>() {
+        // Place, pay and confirm in the background; payment can take seconds
+        int userId = currentUser.getUserId();
+        String currency = currentCurrency;
+        String orderNotes = orderNotesArea.getText().trim();
+        JdbcEvents.UiActionEvent action = JdbcEvents.UiActionEvent.start("Place order");
+        SwingWorker<CheckoutService.CheckoutResult, Void> worker = new SwingWorker<CheckoutService.CheckoutResult, Void>() {
             @Override
-            protected OrderDAO.OrderResult doInBackground() throws Exception {
-                String orderNotes = orderNotesArea.getText().trim();
-                return orderDAO.createOrderFromCart(
-                    currentUser.getUserId(),
-                    currentCurrency,
-                    deliveryAddress,
-                    orderNotes.isEmpty() ? null : orderNotes
-                );
+            protected CheckoutService.CheckoutResult doInBackground() throws Exception {
+                return checkoutService.checkout(userId, currency, deliveryAddress,
+                                                orderNotes.isEmpty() ? null : orderNotes);
             }
             
             @Override
             protected void done() {
                 try {
-                    OrderDAO.OrderResult orderResult = get();
+                    CheckoutService.CheckoutResult result = get();
                     
-                    if (orderResult.isSuccess()) {
-                        // Process payment (simplified)
-                        PaymentService.PaymentResult paymentResult = paymentService.processPayment(
-                            orderResult.getOrderId(), orderTotal, currentCurrency);
+                    if (result.isSuccess()) {
+                        SwingUIConstants.showSuccessDialog(parentFrame,
+                            "Order placed and payment processed successfully!\n" +
+                            "Order ID: " + result.getOrderId() + "\n" +
+                            "Transaction ID: " + result.getTransactionId(),
+                            "Order Confirmed");
                         
-                        if (paymentResult.isSuccess()) {
-                            SwingUIConstants.showSuccessDialog(parentFrame,
-                                "Order placed and payment processed successfully!\n" +
-                                "Order ID: " + orderResult.getOrderId() + "\n" +
-                                "Transaction ID: " + paymentResult.getTransactionId(),
-                                "Order Confirmed");
-                            
-                            clearForm();
-                            checkoutListener.onOrderPlaced(orderResult.getOrderId());
-                        } else {
-                            SwingUIConstants.showErrorDialog(parentFrame,
-                                "Payment failed: " + paymentResult.getMessage(),
-                                "Payment Failed");
-                        }
+                        clearForm();
+                        checkoutListener.onOrderPlaced(result.getOrderId());
+                    } else if (result.getOrderId() > 0) {
+                        // The order is being undone and the cart refilled; send the customer back to it
+                        SwingUIConstants.showErrorDialog(parentFrame, result.getMessage(), "Payment Failed");
+                        checkoutListener.onBackToCart();
                     } else {
-                        SwingUIConstants.showErrorDialog(parentFrame,
-                            "Failed to create order: " + orderResult.getMessage(),
-                            "Order Failed");
+                        SwingUIConstants.showErrorDialog(parentFrame, result.getMessage(), "Order Failed");
                     }
                 } catch (Exception ex) {
                     SwingUIConstants.showErrorDialog(parentFrame,
@@ -312,6 +301,7 @@ public class SwingCheckoutPanel extends JPanel {
                 } finally {
                     placeOrderButton.setEnabled(true);
                     placeOrderButton.setText("Place Order & Pay");
+                    action.commit();
                 }
             }
         };
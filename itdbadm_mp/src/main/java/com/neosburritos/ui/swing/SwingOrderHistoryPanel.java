@@ -1,14 +1,18 @@
 package com.neosburritos.ui.swing;
 
+import com.neosburritos.dao.CartDAO;
 import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
 import com.neosburritos.model.Order;
 import com.neosburritos.model.OrderItem;
 import com.neosburritos.model.User;
+import com.neosburritos.util.Logger;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
-import java.util.List;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * Modern Swing-based Order History Panel for customers
@@ -16,30 +20,36 @@ import java.util.List;
  */
 public class SwingOrderHistoryPanel extends JPanel {
     
+    private static final Logger LOG = Logger.getLogger(SwingOrderHistoryPanel.class);
+    
     public interface OrderHistoryListener {
         void onBackToStore();
+        void onReordered();
     }
     
     private final JFrame parentFrame;
     private final OrderDAO orderDAO;
+    private final CartDAO cartDAO;
     private final OrderHistoryListener orderHistoryListener;
     
     // Current state
     private User currentUser;
-    private List<Order> currentOrders;
     
     // UI Components
     private JLabel welcomeLabel;
     private JLabel summaryLabel;
-    private JList<String> orderList;
-    private DefaultListModel<String> orderListModel;
+    private JTable orderTable;
+    private PagedOrderTableModel orderTableModel;
     private JTextArea orderDetailsArea;
     private JButton refreshButton;
+    private JButton reorderButton;
     private JButton backButton;
     
-    public SwingOrderHistoryPanel(JFrame parentFrame, OrderDAO orderDAO, OrderHistoryListener orderHistoryListener) {
+    public SwingOrderHistoryPanel(JFrame parentFrame, OrderDAO orderDAO, CartDAO cartDAO,
+                                  OrderHistoryListener orderHistoryListener) {
         this.parentFrame = parentFrame;
         this.orderDAO = orderDAO;
+        this.cartDAO = cartDAO;
         this.orderHistoryListener = orderHistoryListener;
         
         initializeComponents();
@@ -54,12 +64,10 @@ public class SwingOrderHistoryPanel extends JPanel {
         welcomeLabel = SwingUIConstants.createTitleLabel("My Order History");
         summaryLabel = SwingUIConstants.createBodyLabel("Loading your orders...");
         
-        // Order list
-        orderListModel = new DefaultListModel<>();
-        orderList = new JList<>(orderListModel);
-        orderList.setFont(SwingUIConstants.BODY_FONT);
-        orderList.setBackground(SwingUIConstants.SURFACE_COLOR);
-        orderList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Order table; the query is set per user in refreshOrders
+        orderTable = new JTable();
+        orderTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+        orderTable.setFillsViewportHeight(true);
         
         // Order details area
         orderDetailsArea = SwingUIConstants.createStyledTextArea(20, 50);
@@ -67,6 +75,8 @@ public class SwingOrderHistoryPanel extends JPanel {
         
         // Action buttons
         refreshButton = SwingUIConstants.createSecondaryButton("Refresh");
+        reorderButton = SwingUIConstants.createSuccessButton("Reorder");
+        reorderButton.setEnabled(false);
         backButton = SwingUIConstants.createPrimaryButton("Back to Store");
     }
     
@@ -144,12 +154,13 @@ public class SwingOrderHistoryPanel extends JPanel {
         // Controls panel
         JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         controlsPanel.setOpaque(false);
+        controlsPanel.add(reorderButton);
         controlsPanel.add(refreshButton);
         
         panel.add(controlsPanel, BorderLayout.NORTH);
         
-        // Order list with scroll
-        JScrollPane scrollPane = new JScrollPane(orderList);
+        // Order table with scroll
+        JScrollPane scrollPane = new JScrollPane(orderTable);
         scrollPane.setPreferredSize(new Dimension(400, 400));
         scrollPane.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
@@ -203,8 +214,8 @@ public class SwingOrderHistoryPanel extends JPanel {
     }
     
     private void setupEventHandlers() {
-        // Order list selection
-        orderList.addListSelectionListener(e -> {
+        // Order table selection
+        orderTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 handleOrderSelection();
             }
@@ -212,17 +223,77 @@ public class SwingOrderHistoryPanel extends JPanel {
         
         // Button actions
         refreshButton.addActionListener(e -> refreshOrders());
+        reorderButton.addActionListener(e -> handleReorder());
         backButton.addActionListener(e -> orderHistoryListener.onBackToStore());
     }
     
     private void handleOrderSelection() {
-        int selectedIndex = orderList.getSelectedIndex();
-        if (selectedIndex >= 0 && selectedIndex < currentOrders.size()) {
-            Order order = currentOrders.get(selectedIndex);
+        Order order = orderTableModel.getOrderAt(orderTable.getSelectedRow());
+        reorderButton.setEnabled(order != null);
+        if (order != null) {
             displayOrderDetails(order);
         }
     }
     
+    private void handleReorder() {
+        Order order = orderTableModel.getOrderAt(orderTable.getSelectedRow());
+        if (order == null || currentUser == null) return;
+        
+        int orderId = order.getOrderId();
+        int userId = currentUser.getUserId();
+        reorderButton.setEnabled(false);
+        new SwingWorker<CartDAO.ReorderResult, Void>() {
+            @Override
+            protected CartDAO.ReorderResult doInBackground() {
+                return cartDAO.reorder(orderId, userId);
+            }
+            
+            @Override
+            protected void done() {
+                reorderButton.setEnabled(true);
+                CartDAO.ReorderResult result;
+                try {
+                    result = get();
+                } catch (Exception e) {
+                    LOG.error("Error reordering order {}: {}", orderId, e.getMessage());
+                    SwingUIConstants.showErrorDialog(SwingOrderHistoryPanel.this,
+                        "Could not reorder: " + e.getMessage(), "Reorder Failed");
+                    return;
+                }
+                showReorderResult(orderId, result);
+            }
+        }.execute();
+    }
+    
+    private void showReorderResult(int orderId, CartDAO.ReorderResult result) {
+        if (!result.isSuccess()) {
+            SwingUIConstants.showErrorDialog(this, result.getMessage(), "Reorder Failed");
+            return;
+        }
+        if (result.getSkippedItems().isEmpty()) {
+            SwingUIConstants.showSuccessDialog(this,
+                "All items from order #" + orderId + " were added to your cart.", "Reordered");
+        } else {
+            StringBuilder message = new StringBuilder();
+            message.append(result.getAddedCount()).append(" item(s) from order #").append(orderId)
+                   .append(" were added to your cart.\n\nNot added:\n");
+            for (CartDAO.SkippedItem item : result.getSkippedItems()) {
+                message.append("  - ").append(item.getProductName());
+                if (item.getReason() == CartDAO.SkippedItem.Reason.UNAVAILABLE) {
+                    message.append(" (no longer available)");
+                } else {
+                    message.append(" (wanted ").append(item.getRequestedQuantity())
+                           .append(", only ").append(item.getAvailableQuantity()).append(" left)");
+                }
+                message.append('\n');
+            }
+            SwingUIConstants.showWarningDialog(this, message.toString(), "Partially Reordered");
+        }
+        if (result.getAddedCount() > 0) {
+            orderHistoryListener.onReordered();
+        }
+    }
+    
     private void displayOrderDetails(Order order) {
         // Get full order details including items
         Order fullOrder = orderDAO.getOrderById(order.getOrderId());
@@ -330,50 +401,73 @@ public class SwingOrderHistoryPanel extends JPanel {
     public void refreshOrders() {
         if (currentUser == null) return;
         
-        currentOrders = orderDAO.getUserOrders(currentUser.getUserId());
-        
-        orderListModel.clear();
+        OrderQuery query = OrderQuery.forUser(currentUser.getUserId());
+        if (orderTableModel == null) {
+            orderTableModel = new PagedOrderTableModel(orderDAO, query,
+                    PagedOrderTableModel.Column.ORDER_ID, PagedOrderTableModel.Column.ORDER_DATE,
+                    PagedOrderTableModel.Column.TOTAL, PagedOrderTableModel.Column.STATUS);
+            orderTableModel.install(orderTable,
+                    status -> getStatusIcon(status) + " " + formatStatusWithIcon(status),
+                    DateTimeFormatter.ofPattern("MMM dd, yyyy h:mm a"));
+            orderTableModel.setCountListener(this::handleOrdersLoaded);
+        }
         
-        if (currentOrders.isEmpty()) {
-            orderListModel.addElement("No orders found");
+        orderTable.clearSelection();
+        reorderButton.setEnabled(false);
+        // Keep the user's sort when refreshing; a different user starts from the default query
+        if (!query.getUserId().equals(orderTableModel.getQuery().getUserId())) {
+            orderTableModel.setQuery(query);
+        } else {
+            orderTableModel.refresh();
+        }
+        updateSummary();
+    }
+    
+    private void handleOrdersLoaded(int orderCount) {
+        if (orderCount == 0) {
             orderDetailsArea.setText("Welcome to Neo's Burritos!\n\n" +
                                    "You haven't placed any orders yet.\n\n" +
                                    "Ready to try our delicious burritos?\n" +
                                    "Click 'Back to Store' to start shopping!\n\n" +
                                    "Your order history will appear here once you\n" +
                                    "place your first order.");
-            summaryLabel.setText("No orders yet - Start shopping to see your history here!");
         } else {
-            for (Order order : currentOrders) {
-                String statusIcon = getStatusIcon(order.getStatus());
-                String displayText = String.format("%s Order #%d - %s - %s (%s)",
-                        statusIcon,
-                        order.getOrderId(),
-                        order.getFormattedTotal(),
-                        formatStatusWithIcon(order.getStatus()),
-                        formatDateTime(order.getOrderDate()));
-                orderListModel.addElement(displayText);
-            }
-            
             orderDetailsArea.setText("Select an order from the list to view detailed information\n\n" +
                                    "You can see order status, delivery details, items ordered,\n" +
                                    "and track your order progress here.");
-            
-            // Update summary - Fixed to use COMPLETED instead of DELIVERED
-            long completedOrders = currentOrders.stream()
-                    .mapToLong(order -> order.getStatus() == Order.Status.COMPLETED ? 1 : 0)
-                    .sum();
-            long activeOrders = currentOrders.stream()
-                    .mapToLong(order -> order.getStatus() != Order.Status.COMPLETED && 
-                                       order.getStatus() != Order.Status.CANCELLED ? 1 : 0)
-                    .sum();
-            
-            summaryLabel.setText(String.format(
-                "%d Total Orders | %d Active | %d Completed", 
-                currentOrders.size(), activeOrders, completedOrders));
         }
-        
-        System.out.println("Refreshed order history: " + currentOrders.size() + " orders for user " + currentUser.getUserId());
+        LOG.debug("Refreshed order history: {} orders for user {}", orderCount, currentUser.getUserId());
+    }
+    
+    private void updateSummary() {
+        int userId = currentUser.getUserId();
+        new SwingWorker<Map<Order.Status, Integer>, Void>() {
+            @Override
+            protected Map<Order.Status, Integer> doInBackground() {
+                return orderDAO.countOrdersGroupedByStatus(userId);
+            }
+            
+            @Override
+            protected void done() {
+                Map<Order.Status, Integer> counts;
+                try {
+                    counts = get();
+                } catch (Exception e) {
+                    LOG.error("Error loading order summary: {}", e.getMessage());
+                    return;
+                }
+                int totalOrders = counts.values().stream().mapToInt(Integer::intValue).sum();
+                if (totalOrders == 0) {
+                    summaryLabel.setText("No orders yet - Start shopping to see your history here!");
+                    return;
+                }
+                int completedOrders = counts.get(Order.Status.COMPLETED);
+                int activeOrders = counts.get(Order.Status.PENDING) + counts.get(Order.Status.CONFIRMED);
+                summaryLabel.setText(String.format(
+                    "%d Total Orders | %d Active | %d Completed", 
+                    totalOrders, activeOrders, completedOrders));
+            }
+        }.execute();
     }
     
     private String getStatusIcon(Order.Status status) {
@@ -6,30 +6,31 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
-import java.util.List;
+import java.util.Map;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
-import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
+import javax.swing.JTable;
 import javax.swing.JTextArea;
-import javax.swing.ListSelectionModel;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 import javax.swing.border.TitledBorder;
 
 import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
 import com.neosburritos.dao.ProductDAO;
 import com.neosburritos.model.Order;
 import com.neosburritos.model.OrderItem;
 import com.neosburritos.model.User;
+import com.neosburritos.util.Logger;
 
 /**
  * Staff panel for managing orders and viewing products
@@ -37,6 +38,8 @@ import com.neosburritos.model.User;
  */
 public class SwingStaffPanel extends JPanel {
     
+    private static final Logger LOG = Logger.getLogger(SwingStaffPanel.class);
+    
     public interface StaffListener {
         void onLogout();
     }
@@ -48,7 +51,6 @@ public class SwingStaffPanel extends JPanel {
     
     // Current state
     private User currentUser;
-    private List<Order> allOrders;
     private Order selectedOrder;
     
     // UI Components
@@ -57,8 +59,9 @@ public class SwingStaffPanel extends JPanel {
     private JButton logoutButton;
     
     // Order Management Section
-    private JList<String> orderList;
-    private DefaultListModel<String> orderListModel;
+    private JTable orderTable;
+    private PagedOrderTableModel orderTableModel;
+    private JComboBox<String> statusFilterComboBox;
     private JTextArea orderDetailsArea;
     private JComboBox<String> statusComboBox;
     private JButton updateStatusButton;
@@ -90,11 +93,18 @@ public class SwingStaffPanel extends JPanel {
         logoutButton.setPreferredSize(new Dimension(100, 36));
         
         // Order management components
-        orderListModel = new DefaultListModel<>();
-        orderList = new JList<>(orderListModel);
-        orderList.setFont(SwingUIConstants.BODY_FONT);
-        orderList.setBackground(SwingUIConstants.SURFACE_COLOR);
-        orderList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        orderTableModel = new PagedOrderTableModel(orderDAO, OrderQuery.all(),
+                PagedOrderTableModel.Column.ORDER_ID, PagedOrderTableModel.Column.USER_ID,
+                PagedOrderTableModel.Column.TOTAL, PagedOrderTableModel.Column.STATUS);
+        orderTable = new JTable();
+        orderTable.setBackground(SwingUIConstants.SURFACE_COLOR);
+        orderTable.setFillsViewportHeight(true);
+        orderTableModel.install(orderTable, this::formatStatus,
+                java.time.format.DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
+        orderTableModel.setCountListener(this::handleOrdersLoaded);
+        
+        String[] statusFilters = {"All Statuses", "PENDING", "CONFIRMED", "COMPLETED", "CANCELLED"};
+        statusFilterComboBox = SwingUIConstants.createStyledComboBox(statusFilters);
         
         orderDetailsArea = SwingUIConstants.createStyledTextArea(15, 40);
         orderDetailsArea.setEditable(false);
@@ -249,12 +259,17 @@ public class SwingStaffPanel extends JPanel {
         
         JLabel titleLabel = SwingUIConstants.createHeaderLabel("All Orders");
         titlePanel.add(titleLabel, BorderLayout.WEST);
-        titlePanel.add(refreshOrdersButton, BorderLayout.EAST);
+        
+        JPanel titleControls = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_SMALL, 0));
+        titleControls.setOpaque(false);
+        titleControls.add(statusFilterComboBox);
+        titleControls.add(refreshOrdersButton);
+        titlePanel.add(titleControls, BorderLayout.EAST);
         
         panel.add(titlePanel, BorderLayout.NORTH);
         
-        // Order list with scroll
-        JScrollPane scrollPane = new JScrollPane(orderList);
+        // Order table with scroll
+        JScrollPane scrollPane = new JScrollPane(orderTable);
         scrollPane.setPreferredSize(new Dimension(380, 300));
         scrollPane.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
@@ -347,13 +362,20 @@ public class SwingStaffPanel extends JPanel {
     }
     
     private void setupEventHandlers() {
-        // Order list selection
-        orderList.addListSelectionListener(e -> {
+        // Order table selection
+        orderTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 handleOrderSelection();
             }
         });
         
+        // Filtering is done by the database
+        statusFilterComboBox.addActionListener(e -> {
+            String selected = (String) statusFilterComboBox.getSelectedItem();
+            Order.Status status = "All Statuses".equals(selected) ? null : Order.Status.valueOf(selected);
+            orderTableModel.setQuery(orderTableModel.getQuery().withStatus(status));
+        });
+        
         // Button actions
         updateStatusButton.addActionListener(this::handleUpdateStatus);
         refreshOrdersButton.addActionListener(e -> refreshOrders());
@@ -365,9 +387,9 @@ public class SwingStaffPanel extends JPanel {
     }
     
     private void handleOrderSelection() {
-        int selectedIndex = orderList.getSelectedIndex();
-        if (selectedIndex >= 0 && selectedIndex < allOrders.size()) {
-            selectedOrder = allOrders.get(selectedIndex);
+        Order order = orderTableModel.getOrderAt(orderTable.getSelectedRow());
+        if (order != null) {
+            selectedOrder = order;
             displayOrderDetails(selectedOrder);
             
             // Enable status update controls
@@ -515,25 +537,37 @@ public class SwingStaffPanel extends JPanel {
     }
     
     private void showOrderStatistics() {
-        if (allOrders == null || allOrders.isEmpty()) {
+        new SwingWorker<Map<Order.Status, Integer>, Void>() {
+            @Override
+            protected Map<Order.Status, Integer> doInBackground() {
+                return orderDAO.countOrdersGroupedByStatus(null);
+            }
+            
+            @Override
+            protected void done() {
+                Map<Order.Status, Integer> counts;
+                try {
+                    counts = get();
+                } catch (Exception e) {
+                    LOG.error("Error loading order statistics: {}", e.getMessage());
+                    SwingUIConstants.showErrorDialog(SwingStaffPanel.this,
+                        "Could not load order statistics.", "Order Statistics");
+                    return;
+                }
+                showOrderStatistics(counts);
+            }
+        }.execute();
+    }
+    
+    private void showOrderStatistics(Map<Order.Status, Integer> counts) {
+        int totalOrders = counts.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalOrders == 0) {
             SwingUIConstants.showInfoDialog(this, 
                 "No orders available for statistics.", "Order Statistics");
             return;
         }
         
-        int totalOrders = allOrders.size();
-        long pendingOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.PENDING ? 1 : 0)
-                .sum();
-        long completedOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.COMPLETED ? 1 : 0)
-                .sum();
-        long activeOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.CONFIRMED ? 1 : 0)
-                .sum();
-        long cancelledOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.CANCELLED ? 1 : 0)
-                .sum();
+        int completedOrders = counts.get(Order.Status.COMPLETED);
         
         String message = String.format(
             "Order Statistics:\n\n" +
@@ -543,8 +577,9 @@ public class SwingStaffPanel extends JPanel {
             "Completed Orders: %d\n" +
             "Cancelled Orders: %d\n\n" +
             "Completion Rate: %.1f%%",
-            totalOrders, pendingOrders, activeOrders, completedOrders, cancelledOrders,
-            totalOrders > 0 ? (completedOrders * 100.0 / totalOrders) : 0.0
+            totalOrders, counts.get(Order.Status.PENDING), counts.get(Order.Status.CONFIRMED),
+            completedOrders, counts.get(Order.Status.CANCELLED),
+            completedOrders * 100.0 / totalOrders
         );
         
         SwingUIConstants.showInfoDialog(this, message, "Order Statistics");
@@ -554,57 +589,51 @@ public class SwingStaffPanel extends JPanel {
         this.currentUser = user;
         welcomeLabel.setText("Welcome, " + user.getName() + " (Staff)");
         refreshOrders();
-        updateStats();
     }
     
     public void refreshOrders() {
-        allOrders = orderDAO.getAllOrders();
-        
-        orderListModel.clear();
-        
-        if (allOrders.isEmpty()) {
-            orderListModel.addElement("No orders found");
-            orderDetailsArea.setText("No orders in the system.\n\nOrders will appear here as customers place them.");
-        } else {
-            for (Order order : allOrders) {
-                String displayText = String.format("Order #%d - User %d - %s - %s",
-                        order.getOrderId(),
-                        order.getUserId(),
-                        order.getFormattedTotal(),
-                        formatStatus(order.getStatus()));
-                orderListModel.addElement(displayText);
-            }
-            
-            orderDetailsArea.setText("Select an order from the list to view detailed information and update its status.");
-        }
-        
         // Reset controls
+        orderTable.clearSelection();
         selectedOrder = null;
         statusComboBox.setEnabled(false);
         updateStatusButton.setEnabled(false);
         
-        System.out.println("Staff: Refreshed orders - " + allOrders.size() + " total orders");
+        orderTableModel.refresh();
+        updateStats();
     }
     
-    private void updateStats() {
-        if (allOrders == null) {
-            statsLabel.setText("Loading statistics...");
-            return;
+    private void handleOrdersLoaded(int orderCount) {
+        if (orderCount == 0) {
+            orderDetailsArea.setText("No orders in the system.\n\nOrders will appear here as customers place them.");
+        } else {
+            orderDetailsArea.setText("Select an order from the list to view detailed information and update its status.");
         }
-        
-        int totalOrders = allOrders.size();
-        long pendingOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.PENDING ? 1 : 0)
-                .sum();
-        long completedOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.COMPLETED ? 1 : 0)
-                .sum();
-        long activeOrders = allOrders.stream()
-                .mapToLong(order -> order.getStatus() == Order.Status.CONFIRMED ? 1 : 0)
-                .sum();
-        
-        statsLabel.setText(String.format(
-            "Order Overview: %d Total | %d Pending | %d Active | %d Completed", 
-            totalOrders, pendingOrders, activeOrders, completedOrders));
+        LOG.debug("Staff: Refreshed orders - {} total orders", orderCount);
+    }
+    
+    private void updateStats() {
+        statsLabel.setText("Loading statistics...");
+        new SwingWorker<Map<Order.Status, Integer>, Void>() {
+            @Override
+            protected Map<Order.Status, Integer> doInBackground() {
+                return orderDAO.countOrdersGroupedByStatus(null);
+            }
+            
+            @Override
+            protected void done() {
+                Map<Order.Status, Integer> orderCounts;
+                try {
+                    orderCounts = get();
+                } catch (Exception e) {
+                    LOG.error("Error loading order statistics: {}", e.getMessage());
+                    return;
+                }
+                int totalOrders = orderCounts.values().stream().mapToInt(Integer::intValue).sum();
+                statsLabel.setText(String.format(
+                    "Order Overview: %d Total | %d Pending | %d Active | %d Completed", 
+                    totalOrders, orderCounts.get(Order.Status.PENDING),
+                    orderCounts.get(Order.Status.CONFIRMED), orderCounts.get(Order.Status.COMPLETED)));
+            }
+        }.execute();
     }
-}
\ No newline at end of file
+}
@@ -4,13 +4,26 @@ import com.neosburritos.dao.CartDAO;
 import com.neosburritos.dao.ProductDAO;
 import com.neosburritos.model.Product;
 import com.neosburritos.model.User;
+import com.neosburritos.service.BestSellerLeaderboard;
+import com.neosburritos.service.CoOccurrenceIndex;
+import com.neosburritos.service.MenuSearchIndex;
+import com.neosburritos.util.JdbcEvents;
 import com.neosburritos.NeosAppSwing;
+import com.neosburritos.util.Logger;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Enhanced Swing Store Panel with product browsing, currency selection, and cart functionality
@@ -18,6 +31,16 @@ import java.util.List;
  */
 public class SwingStorePanel extends JPanel {
     
+    private static final Logger LOG = Logger.getLogger(SwingStorePanel.class);
+    
+    /** Best sellers ranked this high in their category this week get a badge */
+    private static final int BADGE_RANKS = 3;
+    
+    /** Mains get a drink or side suggested after they are added to the cart */
+    private static final Set<Product.Category> SUGGESTED_WITH = EnumSet.of(Product.Category.BURRITO, Product.Category.BOWL);
+    private static final Set<Product.Category> SUGGESTED = EnumSet.of(Product.Category.DRINK, Product.Category.SIDE);
+    private static final int SUGGESTION_CANDIDATES = 5;
+    
     public interface StoreListener {
         void onViewCart();
         void onViewOrderHistory();
@@ -30,6 +53,9 @@ public class SwingStorePanel extends JPanel {
     private final ProductDAO productDAO;
     private final CartDAO cartDAO;
     private final StoreListener storeListener;
+    private final MenuSearchIndex searchIndex;
+    private final BestSellerLeaderboard bestSellers;
+    private final CoOccurrenceIndex boughtTogether;
     
     // Current state
     private User currentUser;
@@ -42,18 +68,50 @@ public class SwingStorePanel extends JPanel {
     private JLabel cartCountLabel;
     private JComboBox<String> categoryComboBox;
     private JComboBox<String> currencyComboBox;
-    private JPanel productsPanel;
+    private JComboBox<String> sortComboBox;
+    private JTextField searchField;
+    private ProductGridPanel productsPanel;
     private JScrollPane productsScrollPane;
     private JButton refreshButton;
     private JButton cartButton;
     private JButton ordersButton;
     private JButton logoutButton;
     
-    public SwingStorePanel(JFrame parentFrame, ProductDAO productDAO, CartDAO cartDAO, StoreListener storeListener) {
+    public SwingStorePanel(JFrame parentFrame, ProductDAO productDAO, CartDAO cartDAO,
+                           BestSellerLeaderboard bestSellers, CoOccurrenceIndex boughtTogether,
+                           StoreListener storeListener) {
         this.parentFrame = parentFrame;
         this.productDAO = productDAO;
         this.cartDAO = cartDAO;
+        this.bestSellers = bestSellers;
+        this.boughtTogether = boughtTogether;
         this.storeListener = storeListener;
+        this.searchIndex = new MenuSearchIndex(productDAO);
+        // Rankings are in memory, so re-sorting and re-badging costs no query
+        bestSellers.addChangeListener(() -> SwingUtilities.invokeLater(() -> {
+            if (currentUser != null && currentProducts != null) {
+                displayProducts();
+            }
+        }));
+        // Repricing changes many products at once; reload the displayed catalog once
+        productDAO.addChangeListener(new ProductDAO.ProductChangeListener() {
+            @Override
+            public void productChanged(int productId) {
+            }
+            
+            @Override
+            public void productRemoved(int productId) {
+            }
+            
+            @Override
+            public void catalogChanged() {
+                SwingUtilities.invokeLater(() -> {
+                    if (currentUser != null) {
+                        loadProducts();
+                    }
+                });
+            }
+        });
         
         initializeComponents();
         layoutComponents();
@@ -77,10 +135,16 @@ public class SwingStorePanel extends JPanel {
         currencyComboBox = SwingUIConstants.createStyledComboBox(currencies);
         currencyComboBox.setSelectedItem(currentCurrency);
         
-        // Products panel with better layout
-        productsPanel = new JPanel();
-        productsPanel.setLayout(new GridLayout(0, 3, SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
-        productsPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        // Sort order, best sellers come from the in-memory leaderboard
+        String[] sortOrders = {"Menu Order", "Best Sellers This Week", "Best Sellers Today"};
+        sortComboBox = SwingUIConstants.createStyledComboBox(sortOrders);
+        
+        // Search box, answered from the in-memory index
+        searchField = SwingUIConstants.createStyledTextField(18);
+        searchField.setToolTipText("Search by name, ingredient or description");
+        
+        // Products grid only creates cards for the visible rows
+        productsPanel = new ProductGridPanel(this::handleAddToCart);
         
         productsScrollPane = new JScrollPane(productsPanel);
         productsScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -158,6 +222,22 @@ public class SwingStorePanel extends JPanel {
         filterPanel.add(currencyLabel);
         filterPanel.add(currencyComboBox);
         
+        filterPanel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
+        
+        // Sort order
+        JLabel sortLabel = SwingUIConstants.createBodyLabel("Sort:");
+        sortLabel.setForeground(Color.WHITE);
+        filterPanel.add(sortLabel);
+        filterPanel.add(sortComboBox);
+        
+        filterPanel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
+        
+        // Search
+        JLabel searchLabel = SwingUIConstants.createBodyLabel("Search:");
+        searchLabel.setForeground(Color.WHITE);
+        filterPanel.add(searchLabel);
+        filterPanel.add(searchField);
+        
         headerPanel.add(filterPanel, BorderLayout.CENTER);
         
         return headerPanel;
@@ -196,6 +276,19 @@ public class SwingStorePanel extends JPanel {
         // Currency selector
         currencyComboBox.addActionListener(this::handleCurrencyChange);
         
+        // Sorting only reorders the loaded products
+        sortComboBox.addActionListener(e -> displayProducts());
+        
+        // Search as you type
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { displayProducts(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { displayProducts(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { displayProducts(); }
+        });
+        
         // Action buttons
         refreshButton.addActionListener(e -> refreshData());
         cartButton.addActionListener(e -> storeListener.onViewCart());
@@ -227,6 +320,7 @@ public class SwingStorePanel extends JPanel {
     }
     
     private void loadProducts() {
+        JdbcEvents.UiActionEvent action = JdbcEvents.UiActionEvent.start("Load products");
         // Load products in background thread
         SwingWorker<List<Product>, Void> worker = new SwingWorker<List<Product>, Void>() {
             @Override
@@ -242,6 +336,8 @@ public class SwingStorePanel extends JPanel {
                 } catch (Exception e) {
                     SwingUIConstants.showErrorDialog(parentFrame, 
                         "Failed to load products: " + e.getMessage(), "Error");
+                } finally {
+                    action.commit();
                 }
             }
         };
@@ -249,90 +345,54 @@ public class SwingStorePanel extends JPanel {
     }
     
     private void displayProducts() {
-        productsPanel.removeAll();
-        
-        if (currentProducts == null || currentProducts.isEmpty()) {
-            JLabel noProductsLabel = SwingUIConstants.createHeaderLabel("No products available");
-            noProductsLabel.setHorizontalAlignment(SwingConstants.CENTER);
-            productsPanel.add(noProductsLabel);
-        } else {
-            for (Product product : currentProducts) {
-                JPanel productCard = createProductCard(product);
-                productsPanel.add(productCard);
+        List<Product> products = filterBySearch(currentProducts);
+        BestSellerLeaderboard.Ranking weekly = bestSellers.getRanking(BestSellerLeaderboard.Window.WEEK);
+        
+        Map<Integer, String> badges = new HashMap<>();
+        if (products != null) {
+            for (Product product : products) {
+                int rank = weekly.getCategoryRank(product.getProductId());
+                if (rank > 0 && rank <= BADGE_RANKS) {
+                    badges.put(product.getProductId(), "\u2605 #" + rank + " " + categoryName(product.getCategory()) + " this week");
+                }
+            }
+            // Search results stay in relevance order
+            if (sortComboBox.getSelectedIndex() > 0 && searchField.getText().isBlank()) {
+                BestSellerLeaderboard.Ranking ranking = sortComboBox.getSelectedIndex() == 1
+                    ? weekly : bestSellers.getRanking(BestSellerLeaderboard.Window.DAY);
+                products = new ArrayList<>(products);
+                products.sort(Comparator.comparingLong(
+                    (Product product) -> ranking.getUnitsSold(product.getProductId())).reversed());
             }
         }
-        
-        productsPanel.revalidate();
-        productsPanel.repaint();
+        productsPanel.setProducts(products, getCurrencySymbol(currentCurrency), badges);
     }
     
-    private JPanel createProductCard(Product product) {
-        JPanel card = SwingUIConstants.createCardPanel();
-        card.setLayout(new BorderLayout(SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_SMALL));
-        card.setPreferredSize(new Dimension(280, 220));
-        card.setMaximumSize(new Dimension(280, 220));
-        
-        // Product info
-        JPanel infoPanel = new JPanel();
-        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-        infoPanel.setOpaque(false);
-        
-        // Product name
-        JLabel nameLabel = SwingUIConstants.createHeaderLabel(product.getName());
-        nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        infoPanel.add(nameLabel);
-        
-        infoPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_SMALL));
-        
-        // Product description
-        if (product.getDescription() != null && !product.getDescription().trim().isEmpty()) {
-            JTextArea descArea = new JTextArea(product.getDescription());
-            descArea.setFont(SwingUIConstants.SMALL_FONT);
-            descArea.setForeground(SwingUIConstants.TEXT_SECONDARY);
-            descArea.setOpaque(false);
-            descArea.setEditable(false);
-            descArea.setLineWrap(true);
-            descArea.setWrapStyleWord(true);
-            descArea.setRows(2);
-            descArea.setMaximumSize(new Dimension(260, 40));
-            infoPanel.add(descArea);
+    private String categoryName(Product.Category category) {
+        String name = category.name();
+        return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+    
+    /**
+     * Narrows the loaded products to the search hits, best match first
+     */
+    private List<Product> filterBySearch(List<Product> products) {
+        String query = searchField.getText();
+        if (products == null || query.isBlank()) {
+            return products;
         }
-        
-        infoPanel.add(Box.createVerticalStrut(SwingUIConstants.PADDING_SMALL));
-        
-        // Price with proper currency formatting
-        String currencySymbol = getCurrencySymbol(currentCurrency);
-        String formattedPrice = currencySymbol + product.getPriceInBigDecimal().toString();
-        JLabel priceLabel = SwingUIConstants.createBodyLabel(formattedPrice);
-        priceLabel.setFont(SwingUIConstants.SUBTITLE_FONT);
-        priceLabel.setForeground(SwingUIConstants.PRIMARY_COLOR);
-        priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        infoPanel.add(priceLabel);
-        
-        JLabel stockLabel = SwingUIConstants.createSecondaryLabel("Stock: " + product.getStockQuantity());
-        stockLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        infoPanel.add(stockLabel);
-        
-        if (product.isCustomizable()) {
-            JLabel customLabel = SwingUIConstants.createSecondaryLabel("Customizable");
-            customLabel.setForeground(SwingUIConstants.SUCCESS_COLOR);
-            customLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            infoPanel.add(customLabel);
+        Map<Integer, Product> byId = new HashMap<>();
+        for (Product product : products) {
+            byId.put(product.getProductId(), product);
         }
-        
-        card.add(infoPanel, BorderLayout.CENTER);
-        
-        // Add to cart button
-        JButton addButton = SwingUIConstants.createPrimaryButton("Add to Cart");
-        addButton.setEnabled(product.getStockQuantity() > 0);
-        addButton.addActionListener(e -> handleAddToCart(product));
-        
-        JPanel buttonPanel = new JPanel(new FlowLayout());
-        buttonPanel.setOpaque(false);
-        buttonPanel.add(addButton);
-        card.add(buttonPanel, BorderLayout.SOUTH);
-        
-        return card;
+        List<Product> matches = new ArrayList<>();
+        for (int productId : searchIndex.search(query, Integer.MAX_VALUE)) {
+            Product product = byId.get(productId);
+            if (product != null) {
+                matches.add(product);
+            }
+        }
+        return matches;
     }
     
     private String getCurrencySymbol(String currencyCode) {
@@ -366,11 +426,19 @@ public class SwingStorePanel extends JPanel {
     }
     
     private void addToCart(Product product, int quantity, String customizations) {
+        JdbcEvents.UiActionEvent action = JdbcEvents.UiActionEvent.start("Add to cart");
+        List<Product> shownProducts = currentProducts;
         // Add to cart in background thread
         SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
+            private Product suggestion;
+            
             @Override
             protected Boolean doInBackground() throws Exception {
-                return cartDAO.addToCart(currentUser.getUserId(), product.getProductId(), quantity, customizations);
+                boolean added = cartDAO.addToCart(currentUser.getUserId(), product.getProductId(), quantity, customizations);
+                if (added) {
+                    suggestion = findSuggestion(product, shownProducts);
+                }
+                return added;
             }
             
             @Override
@@ -378,8 +446,15 @@ public class SwingStorePanel extends JPanel {
                 try {
                     boolean success = get();
                     if (success) {
-                        SwingUIConstants.showSuccessDialog(parentFrame, 
-                            "Added " + product.getName() + " to cart!", "Added to Cart");
+                        if (suggestion == null) {
+                            SwingUIConstants.showSuccessDialog(parentFrame, 
+                                "Added " + product.getName() + " to cart!", "Added to Cart");
+                        } else if (SwingUIConstants.showConfirmDialog(parentFrame,
+                                "Added " + product.getName() + " to cart!\n\n" +
+                                "Customers often order " + suggestion.getName() + " with it. Add one too?",
+                                "Added to Cart")) {
+                            handleAddToCart(suggestion);
+                        }
                         updateCartCount();
                         storeListener.onCartUpdated(cartDAO.getCartItemCount(currentUser.getUserId()));
                     } else {
@@ -389,12 +464,40 @@ public class SwingStorePanel extends JPanel {
                 } catch (Exception e) {
                     SwingUIConstants.showErrorDialog(parentFrame, 
                         "Error adding to cart: " + e.getMessage(), "Error");
+                } finally {
+                    action.commit();
                 }
             }
         };
         worker.execute();
     }
     
+    /**
+     * The drink or side most often ordered with a main that can be added right now, or null.
+     * Counts come from the in-memory index; only a partner that is not on screen is looked up.
+     */
+    private Product findSuggestion(Product product, List<Product> shownProducts) {
+        if (!SUGGESTED_WITH.contains(product.getCategory())) {
+            return null;
+        }
+        Map<Integer, Product> shown = new HashMap<>();
+        if (shownProducts != null) {
+            for (Product candidate : shownProducts) {
+                shown.put(candidate.getProductId(), candidate);
+            }
+        }
+        for (CoOccurrenceIndex.Partner partner : boughtTogether.topPartners(product.getProductId(), SUGGESTION_CANDIDATES, SUGGESTED)) {
+            Product candidate = shown.get(partner.productId());
+            if (candidate == null) {
+                candidate = productDAO.getProductById(partner.productId());
+            }
+            if (candidate != null && candidate.isActive() && candidate.getStockQuantity() > 0) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
     private void updateCartCount() {
         if (currentUser != null) {
             SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
@@ -409,7 +512,7 @@ public class SwingStorePanel extends JPanel {
                         int count = get();
                         cartCountLabel.setText("🛒 Cart: " + count + " items");
                     } catch (Exception e) {
-                        System.err.println("Error updating cart count: " + e.getMessage());
+                        LOG.error("Error updating cart count: {}", e.getMessage());
                     }
                 }
             };
@@ -438,6 +541,11 @@ public class SwingStorePanel extends JPanel {
     
     public void refreshData() {
         if (currentUser != null) {
+            searchIndex.loadAsync(() -> SwingUtilities.invokeLater(() -> {
+                if (!searchField.getText().isBlank()) {
+                    displayProducts();
+                }
+            }));
             loadProducts();
             updateCartCount();
         }
@@ -13,10 +13,16 @@ import java.util.List;
 
 /**
  * User Management Dialog for Admin Panel
- * Allows viewing and editing user status and roles
+ * Allows viewing and editing user status and roles.
+ * Users are fetched a page at a time as the table scrolls, filtered by the database.
  */
 public class UserManagementDialog extends JDialog {
     
+    private static final int PAGE_SIZE = 100;
+    private static final int SEARCH_DELAY_MS = 250;
+    private static final String ALL_ROLES = "All Roles";
+    private static final String ALL_STATUSES = "All Statuses";
+    
     private final UserDAO userDAO;
     private final JFrame parentFrame;
     
@@ -27,9 +33,19 @@ public class UserManagementDialog extends JDialog {
     private JButton editStatusButton;
     private JButton editRoleButton;
     private JButton closeButton;
+    private JComboBox<Object> roleFilterCombo;
+    private JComboBox<String> statusFilterCombo;
+    private JTextField searchField;
+    private JLabel countLabel;
+    private JScrollPane scrollPane;
+    private Timer searchTimer;
     
     // Data
-    private List<User> users;
+    private UserDAO.UserFilter filter = UserDAO.UserFilter.all();
+    private Integer nextCursor;
+    private boolean loadingPage;
+    // Bumped on every reload so pages still loading for an old filter are discarded
+    private int generation;
     private User selectedUser;
     
     public UserManagementDialog(JFrame parent, UserDAO userDAO) {
@@ -80,6 +96,27 @@ public class UserManagementDialog extends JDialog {
         // Initially disable edit buttons
         editStatusButton.setEnabled(false);
         editRoleButton.setEnabled(false);
+        
+        // Filters
+        roleFilterCombo = new JComboBox<>();
+        roleFilterCombo.addItem(ALL_ROLES);
+        for (User.Role role : User.Role.values()) {
+            roleFilterCombo.addItem(role);
+        }
+        roleFilterCombo.setFont(SwingUIConstants.BODY_FONT);
+        
+        statusFilterCombo = new JComboBox<>(new String[] {ALL_STATUSES, "Active", "Inactive"});
+        statusFilterCombo.setFont(SwingUIConstants.BODY_FONT);
+        
+        searchField = new JTextField(18);
+        searchField.setFont(SwingUIConstants.BODY_FONT);
+        searchField.setToolTipText("Name or email starts with...");
+        
+        countLabel = SwingUIConstants.createSecondaryLabel("");
+        
+        // Typing restarts the timer, so only the pause after the last keystroke queries
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> applyFilters());
+        searchTimer.setRepeats(false);
     }
     
     private void layoutComponents() {
@@ -90,7 +127,7 @@ public class UserManagementDialog extends JDialog {
         add(headerPanel, BorderLayout.NORTH);
         
         // Main content - table
-        JScrollPane scrollPane = new JScrollPane(userTable);
+        scrollPane = new JScrollPane(userTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createLineBorder(SwingUIConstants.BORDER_COLOR),
             "System Users",
@@ -99,7 +136,12 @@ public class UserManagementDialog extends JDialog {
             SwingUIConstants.HEADER_FONT,
             SwingUIConstants.TEXT_PRIMARY
         ));
-        add(scrollPane, BorderLayout.CENTER);
+        
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        centerPanel.add(createFilterPanel(), BorderLayout.NORTH);
+        centerPanel.add(scrollPane, BorderLayout.CENTER);
+        add(centerPanel, BorderLayout.CENTER);
         
         // Footer - action buttons
         JPanel footerPanel = createFooterPanel();
@@ -127,10 +169,26 @@ public class UserManagementDialog extends JDialog {
         return panel;
     }
     
+    private JPanel createFilterPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, SwingUIConstants.PADDING_SMALL, SwingUIConstants.PADDING_SMALL));
+        panel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
+        
+        panel.add(SwingUIConstants.createBodyLabel("Search:"));
+        panel.add(searchField);
+        panel.add(SwingUIConstants.createBodyLabel("Role:"));
+        panel.add(roleFilterCombo);
+        panel.add(SwingUIConstants.createBodyLabel("Status:"));
+        panel.add(statusFilterCombo);
+        
+        return panel;
+    }
+    
     private JPanel createFooterPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, SwingUIConstants.PADDING_MEDIUM, SwingUIConstants.PADDING_MEDIUM));
         panel.setBackground(SwingUIConstants.BACKGROUND_COLOR);
         
+        panel.add(countLabel);
+        panel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
         panel.add(editStatusButton);
         panel.add(editRoleButton);
         panel.add(Box.createHorizontalStrut(SwingUIConstants.PADDING_LARGE));
@@ -152,12 +210,44 @@ public class UserManagementDialog extends JDialog {
         editStatusButton.addActionListener(this::handleEditStatus);
         editRoleButton.addActionListener(this::handleEditRole);
         closeButton.addActionListener(e -> dispose());
+        
+        // Filters
+        roleFilterCombo.addActionListener(e -> applyFilters());
+        statusFilterCombo.addActionListener(e -> applyFilters());
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+        });
+        
+        // Fetch the next page when the table is scrolled near its end
+        scrollPane.getViewport().addChangeListener(e -> loadMoreIfNeeded());
+    }
+    
+    @Override
+    public void dispose() {
+        searchTimer.stop();
+        super.dispose();
+    }
+    
+    private void applyFilters() {
+        searchTimer.stop();
+        Object role = roleFilterCombo.getSelectedItem();
+        String status = (String) statusFilterCombo.getSelectedItem();
+        filter = UserDAO.UserFilter.all()
+            .withRole(role instanceof User.Role ? (User.Role) role : null)
+            .withActive(ALL_STATUSES.equals(status) ? null : "Active".equals(status))
+            .withPrefix(searchField.getText());
+        loadUsers();
     }
     
     private void handleUserSelection() {
         int selectedRow = userTable.getSelectedRow();
-        if (selectedRow >= 0 && selectedRow < users.size()) {
-            selectedUser = users.get(selectedRow);
+        if (selectedRow >= 0 && selectedRow < tableModel.getRowCount()) {
+            selectedUser = tableModel.getUserAt(selectedRow);
             editStatusButton.setEnabled(true);
             editRoleButton.setEnabled(true);
         } else {
@@ -227,42 +317,86 @@ public class UserManagementDialog extends JDialog {
         }
     }
     
+    /**
+     * Clears the table and loads the first page for the current filter.
+     */
     private void loadUsers() {
+        generation++;
+        nextCursor = null;
+        loadingPage = false;
+        tableModel.clear();
+        
+        // Reset selection
+        selectedUser = null;
+        editStatusButton.setEnabled(false);
+        editRoleButton.setEnabled(false);
+        
+        loadPage(null);
+    }
+    
+    private void loadMoreIfNeeded() {
+        if (loadingPage || nextCursor == null) {
+            return;
+        }
+        Rectangle visible = scrollPane.getViewport().getViewRect();
+        int lastVisibleRow = userTable.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        // -1 means the rows end above the bottom of the viewport
+        if (lastVisibleRow < 0 || tableModel.getRowCount() - lastVisibleRow <= PAGE_SIZE / 4) {
+            loadPage(nextCursor);
+        }
+    }
+    
+    private void loadPage(Integer afterUserId) {
         // Show loading state
+        loadingPage = true;
         refreshButton.setEnabled(false);
         refreshButton.setText("Loading...");
         
-        SwingWorker<List<User>, Void> worker = new SwingWorker<List<User>, Void>() {
+        int requestGeneration = generation;
+        UserDAO.UserFilter pageFilter = filter;
+        SwingWorker<UserDAO.UserPage, Void> worker = new SwingWorker<UserDAO.UserPage, Void>() {
             @Override
-            protected List<User> doInBackground() throws Exception {
-                return userDAO.getAllUsers();
+            protected UserDAO.UserPage doInBackground() throws Exception {
+                return userDAO.getUsersPage(pageFilter, afterUserId, PAGE_SIZE);
             }
             
             @Override
             protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
                 try {
-                    users = get();
-                    tableModel.setUsers(users);
-                    
-                    // Reset selection
-                    selectedUser = null;
-                    editStatusButton.setEnabled(false);
-                    editRoleButton.setEnabled(false);
+                    UserDAO.UserPage page = get();
+                    tableModel.addUsers(page.getUsers());
+                    nextCursor = page.getNextCursor();
+                    updateCountLabel();
                     
                 } catch (Exception e) {
+                    nextCursor = null;
                     SwingUIConstants.showErrorDialog(UserManagementDialog.this,
                         "Failed to load users: " + e.getMessage(),
                         "Load Error");
                 } finally {
+                    loadingPage = false;
                     refreshButton.setEnabled(true);
                     refreshButton.setText("Refresh");
                 }
+                // A short first page may not fill the viewport, so keep going until it does
+                SwingUtilities.invokeLater(UserManagementDialog.this::loadMoreIfNeeded);
             }
         };
         
         worker.execute();
     }
     
+    private void updateCountLabel() {
+        int loaded = tableModel.getRowCount();
+        String noun = loaded == 1 ? " user" : " users";
+        countLabel.setText(nextCursor != null
+            ? "Showing " + loaded + noun + " (scroll for more)"
+            : "Showing " + loaded + noun);
+    }
+    
     /**
      * Table model for user data
      */
@@ -271,13 +405,26 @@ public class UserManagementDialog extends JDialog {
             "ID", "Name", "Email", "Role", "Phone", "Status", "Created"
         };
         
-        private List<User> users = new java.util.ArrayList<>();
+        private final List<User> users = new java.util.ArrayList<>();
         
-        public void setUsers(List<User> users) {
-            this.users = users;
+        public void clear() {
+            users.clear();
             fireTableDataChanged();
         }
         
+        public void addUsers(List<User> page) {
+            if (page.isEmpty()) {
+                return;
+            }
+            int first = users.size();
+            users.addAll(page);
+            fireTableRowsInserted(first, users.size() - 1);
+        }
+        
+        public User getUserAt(int row) {
+            return users.get(row);
+        }
+        
         @Override
         public int getRowCount() {
             return users.size();
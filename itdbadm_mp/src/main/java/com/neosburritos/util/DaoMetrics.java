@@ -0,0 +1,140 @@
+package com.neosburritos.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics registry for DAO operations and stored procedure calls.
+ * Each named operation keeps a latency histogram plus call, error, row and
+ * connection-wait counters. Recording is lock-free so it is safe on any thread.
+ */
+public final class DaoMetrics {
+
+    /** Histogram bucket i counts latencies in [2^i, 2^(i+1)) microseconds */
+    private static final int BUCKETS = 32;
+
+    private static final Map<String, OperationStats> OPERATIONS = new ConcurrentHashMap<>();
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * Records one completed operation.
+     *
+     * @param name operation name, e.g. "OrderDAO.getUserOrders" or "CALL sp_place_order"
+     * @param elapsedNanos total time including connection wait
+     * @param connectionWaitNanos time spent acquiring the connection (0 if not applicable)
+     * @param rows rows read or affected
+     * @param error whether the operation raised an SQLException
+     */
+    public static void record(String name, long elapsedNanos, long connectionWaitNanos, long rows, boolean error) {
+        OPERATIONS.computeIfAbsent(name, OperationStats::new)
+                .record(elapsedNanos, connectionWaitNanos, rows, error);
+    }
+
+    /**
+     * Returns a consistent-enough copy of every operation, slowest average first.
+     */
+    public static List<Snapshot> snapshot() {
+        List<Snapshot> result = new ArrayList<>();
+        for (OperationStats stats : OPERATIONS.values()) {
+            result.add(stats.snapshot());
+        }
+        result.sort(Comparator.comparingDouble(Snapshot::totalMillis).reversed());
+        return result;
+    }
+
+    public static void reset() {
+        OPERATIONS.clear();
+    }
+
+    /**
+     * Counters for a single operation name
+     */
+    private static final class OperationStats {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder connectionWaitNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        void record(long elapsedNanos, long waitNanos, long rowCount, boolean error) {
+            calls.increment();
+            if (error) {
+                errors.increment();
+            }
+            rows.add(rowCount);
+            totalNanos.add(elapsedNanos);
+            connectionWaitNanos.add(waitNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            histogram.incrementAndGet(bucketFor(elapsedNanos));
+        }
+
+        Snapshot snapshot() {
+            long[] buckets = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = histogram.get(i);
+                count += buckets[i];
+            }
+            return new Snapshot(name, calls.sum(), errors.sum(), rows.sum(),
+                    totalNanos.sum() / 1_000_000.0,
+                    connectionWaitNanos.sum() / 1_000_000.0,
+                    maxNanos.get() / 1_000_000.0,
+                    percentile(buckets, count, 0.50),
+                    percentile(buckets, count, 0.95),
+                    percentile(buckets, count, 0.99));
+        }
+
+        private static int bucketFor(long nanos) {
+            long micros = Math.max(1, nanos / 1_000);
+            return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        }
+
+        /** Upper bound of the bucket containing the requested quantile, in milliseconds */
+        private static double percentile(long[] buckets, long count, double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(count * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return (1L << (i + 1)) / 1_000.0;
+                }
+            }
+            return (1L << BUCKETS) / 1_000.0;
+        }
+    }
+
+    /**
+     * Point-in-time view of one operation. Times are in milliseconds;
+     * percentiles are bucket upper bounds, so they overestimate by at most 2x.
+     */
+    public record Snapshot(String name, long calls, long errors, long rows,
+                           double totalMillis, double connectionWaitMillis, double maxMillis,
+                           double p50Millis, double p95Millis, double p99Millis) {
+
+        public double averageMillis() {
+            return calls == 0 ? 0 : totalMillis / calls;
+        }
+
+        public double averageConnectionWaitMillis() {
+            return calls == 0 ? 0 : connectionWaitMillis / calls;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.neosburritos.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic large-dataset generator for scale testing.
+ * Bulk-loads users, products, ingredients, carts, orders, order items and
+ * transaction log rows using multi-row INSERT statements spread over parallel writers.
+ *
+ * Usage (from itdbadm_mp):
+ *   mvn -q compile exec:java -Dexec.mainClass=com.neosburritos.util.DataGenerator \
+ *       -Dexec.args="--orders=1000000 --threads=8"
+ *
+ * Row volumes scale from the order count unless overridden individually.
+ * Generated rows are appended after the existing data, so the sample data stays intact.
+ */
+public class DataGenerator {
+
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "COMPLETED", "CANCELLED"};
+    private static final String[] CATEGORIES = {"BURRITO", "BOWL", "DRINK", "SIDE"};
+    private static final String[] INGREDIENT_CATEGORIES = {"PROTEIN", "RICE", "BEANS", "VEGETABLES", "SAUCE", "EXTRAS"};
+
+    /** MySQL caps a single statement at 65535 placeholders */
+    private static final int MAX_PLACEHOLDERS = 65_000;
+
+    private final Config config;
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    // Resolved before generation starts
+    private int[] currencyIds;
+    private BigDecimal[] ratesToUsd;
+    private long firstUserId;
+    private long firstProductId;
+    private long firstOrderId;
+
+    public DataGenerator(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Generator settings. Defaults derive every volume from the order count.
+     */
+    public static class Config {
+        long orders = 10_000;
+        long users = -1;
+        long products = -1;
+        long ingredients = -1;
+        long cartItems = -1;
+        int maxItemsPerOrder = 5;
+        int days = 365;
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int rowsPerStatement = 1_000;
+        long seed = 42L;
+        /** Higher values concentrate more traffic on the first products/customers */
+        double productSkew = 3.0;
+        double customerSkew = 2.0;
+
+        long users() { return users > 0 ? users : Math.max(100, orders / 10); }
+        long products() { return products > 0 ? products : Math.max(20, Math.min(5_000, orders / 1_000)); }
+        long ingredients() { return ingredients > 0 ? ingredients : Math.max(24, products() / 4); }
+        long cartItems() { return cartItems > 0 ? cartItems : Math.max(10, users() / 5); }
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+                }
+                String value = parts[1].replace("_", "");
+                switch (parts[0]) {
+                    case "orders": config.orders = Long.parseLong(value); break;
+                    case "users": config.users = Long.parseLong(value); break;
+                    case "products": config.products = Long.parseLong(value); break;
+                    case "ingredients": config.ingredients = Long.parseLong(value); break;
+                    case "cart-items": config.cartItems = Long.parseLong(value); break;
+                    case "max-items-per-order": config.maxItemsPerOrder = Integer.parseInt(value); break;
+                    case "days": config.days = Integer.parseInt(value); break;
+                    case "threads": config.threads = Integer.parseInt(value); break;
+                    case "batch": config.rowsPerStatement = Integer.parseInt(value); break;
+                    case "seed": config.seed = Long.parseLong(value); break;
+                    case "product-skew": config.productSkew = Double.parseDouble(value); break;
+                    case "customer-skew": config.customerSkew = Double.parseDouble(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + parts[0]);
+                }
+            }
+            return config;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        new DataGenerator(config).run();
+    }
+
+    public void run() throws Exception {
+        long start = System.nanoTime();
+        resolveStartingIds();
+
+        System.out.println("Generating " + config.users() + " users, " + config.products() + " products, "
+                + config.ingredients() + " ingredients, " + config.orders + " orders, "
+                + config.cartItems() + " cart items using " + config.threads + " writers");
+
+        runPhase("users", config.users(), this::writeUsers);
+        runPhase("products", config.products(), this::writeProducts);
+        runPhase("ingredients", config.ingredients(), this::writeIngredients);
+        runPhase("orders", config.orders, this::writeOrders);
+        runPhase("cart items", config.cartItems(), this::writeCartItems);
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Generated %d rows in %.1fs (%.0f rows/s)%n",
+                rowsWritten.get(), seconds, rowsWritten.get() / seconds);
+    }
+
+    private void resolveStartingIds() throws SQLException {
+        try (Connection conn = DatabaseConnectionManager.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            List<Integer> ids = new ArrayList<>();
+            List<BigDecimal> rates = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT currency_id, exchange_rate_to_usd FROM currencies ORDER BY currency_id")) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                    rates.add(rs.getBigDecimal(2));
+                }
+            }
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("No currencies found - load schema and sample data first");
+            }
+            currencyIds = ids.stream().mapToInt(Integer::intValue).toArray();
+            ratesToUsd = rates.toArray(new BigDecimal[0]);
+
+            firstUserId = nextId(stmt, "SELECT COALESCE(MAX(user_id), 0) + 1 FROM users");
+            firstProductId = nextId(stmt, "SELECT COALESCE(MAX(product_id), 0) + 1 FROM products");
+            firstOrderId = nextId(stmt, "SELECT COALESCE(MAX(order_id), 0) + 1 FROM orders");
+        }
+    }
+
+    private long nextId(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // =====================================================
+    // PARALLEL EXECUTION
+    // =====================================================
+
+    @FunctionalInterface
+    private interface SliceWriter {
+        void write(Connection conn, long from, long to, SplittableRandom random) throws SQLException;
+    }
+
+    /**
+     * Splits [0, total) into one contiguous slice per writer thread.
+     * Each writer owns its connection and random stream, so output is deterministic per seed.
+     */
+    private void runPhase(String name, long total, SliceWriter writer) throws Exception {
+        long phaseStart = System.nanoTime();
+        long before = rowsWritten.get();
+        int threads = (int) Math.max(1, Math.min(config.threads, total / 1_000 + 1));
+        long sliceSize = (total + threads - 1) / threads;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long from = i * sliceSize;
+                long to = Math.min(total, from + sliceSize);
+                if (from >= to) {
+                    break;
+                }
+                SplittableRandom random = new SplittableRandom(config.seed * 31 + name.hashCode() * 17L + i);
+                futures.add(pool.submit(() -> {
+                    try (Connection conn = openBulkConnection()) {
+                        writer.write(conn, from, to, random);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - phaseStart) / 1_000_000_000.0;
+        long rows = rowsWritten.get() - before;
+        System.out.printf("  %-12s %,12d rows in %6.1fs (%,.0f rows/s)%n", name, rows, seconds, rows / seconds);
+    }
+
+    private Connection openBulkConnection() throws SQLException {
+        Connection conn = DatabaseConnectionManager.getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            // Ids are assigned by the generator, so the server-side checks are redundant here.
+            // Phases that rely on a unique key to skip duplicates turn unique_checks back on.
+            stmt.execute("SET SESSION unique_checks = 0");
+            stmt.execute("SET SESSION foreign_key_checks = 0");
+        }
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    // =====================================================
+    // PHASE WRITERS
+    // =====================================================
+
+    private void writeUsers(Connection conn, long from, long to, SplittableRandom random) throws SQLException {
+        try (BatchInserter insert = new BatchInserter(conn, "users",
+                "user_id", "name", "email", "password", "role", "phone", "address", "is_active", "created_at")) {
+            for (long i = from; i < to; i++) {
+                long userId = firstUserId + i;
+                insert.addRow(userId,
+                        "Load Test User " + userId,
+                        "loadtest.user" + userId + "@example.com",
+                        "customer123",
+                        "CUSTOMER",
+                        "+1-555-" + (1000 + random.nextInt(9000)),
+                        (100 + random.nextInt(900)) + " Generated Street, Burrito Town",
+                        random.nextInt(100) < 97,
+                        randomTimestamp(random));
+            }
+        }
+    }
+
+    private void writeProducts(Connection conn, long from, long to, SplittableRandom random) throws SQLException {
+        try (BatchInserter insert = new BatchInserter(conn, "products",
+                "product_id", "name", "description", "base_price", "stock_quantity", "currency_id",
+                "category", "is_customizable", "is_active")) {
+            for (long i = from; i < to; i++) {
+                long productId = firstProductId + i;
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                boolean customizable = category.equals("BURRITO") || category.equals("BOWL");
+                insert.addRow(productId,
+                        "Generated " + category.charAt(0) + category.substring(1).toLowerCase() + " #" + productId,
+                        "Synthetic menu item for scale testing",
+                        price(random, 2, 15),
+                        // Large stock so the stock validation triggers never reject generated orders
+                        1_000_000_000,
+                        currencyIds[0],
+                        category,
+                        customizable,
+                        true);
+            }
+        }
+    }
+
+    private void writeIngredients(Connection conn, long from, long to, SplittableRandom random) throws SQLException {
+        long firstIngredientId;
+        try (Statement stmt = conn.createStatement()) {
+            firstIngredientId = nextId(stmt, "SELECT COALESCE(MAX(ingredient_id), 0) + 1 FROM ingredients");
+        }
+
+        List<Long> ingredientIds = new ArrayList<>();
+        try (BatchInserter insert = new BatchInserter(conn, "ingredients",
+                "name", "category", "additional_price", "is_available")) {
+            for (long i = from; i < to; i++) {
+                insert.addRow("Generated Ingredient " + (i + 1),
+                        INGREDIENT_CATEGORIES[random.nextInt(INGREDIENT_CATEGORIES.length)],
+                        random.nextInt(4) == 0 ? price(random, 0, 2) : BigDecimal.ZERO,
+                        true);
+            }
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT ingredient_id FROM ingredients WHERE ingredient_id >= "
+                     + firstIngredientId + " AND name LIKE 'Generated Ingredient %'")) {
+            while (rs.next()) {
+                ingredientIds.add(rs.getLong(1));
+            }
+        }
+        if (ingredientIds.isEmpty()) {
+            return;
+        }
+
+        // Link this writer's share of generated products to a few default ingredients
+        long productCount = config.products();
+        long productsPerWriter = (productCount * (to - from) + config.ingredients() - 1) / config.ingredients();
+        long productFrom = productCount * from / config.ingredients();
+        long productTo = Math.min(productCount, productFrom + productsPerWriter);
+
+        try (BatchInserter insert = new BatchInserter(conn, true, "product_ingredients",
+                "product_id", "ingredient_id", "is_default")) {
+            for (long p = productFrom; p < productTo; p++) {
+                int links = 3 + random.nextInt(4);
+                for (int l = 0; l < links; l++) {
+                    insert.addRow(firstProductId + p,
+                            ingredientIds.get(random.nextInt(ingredientIds.size())),
+                            true);
+                }
+            }
+        }
+    }
+
+    private void writeOrders(Connection conn, long from, long to, SplittableRandom random) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        try (BatchInserter orders = new BatchInserter(conn, "orders",
+                "order_id", "user_id", "order_date", "total_amount", "currency_id", "exchange_rate_to_usd", "status",
+                "delivery_address", "notes", "item_count", "total_quantity", "created_at", "updated_at");
+             BatchInserter items = new BatchInserter(conn, "order_items",
+                "order_id", "product_id", "quantity", "unit_price", "customizations");
+             BatchInserter log = new BatchInserter(conn, "transaction_log",
+                "order_id", "event_kind", "payment_status", "amount", "transaction_reference", "processed_at",
+                "currency_id")) {
+
+            for (long i = from; i < to; i++) {
+                long orderId = firstOrderId + i;
+                long userId = firstUserId + skewedIndex(random, config.users(), config.customerSkew);
+                int currencyIndex = random.nextInt(currencyIds.length);
+                int currencyId = currencyIds[currencyIndex];
+
+                // Recent orders are more likely to still be open
+                int ageMinutes = (int) (config.days * 24L * 60L * Math.pow(random.nextDouble(), 0.7));
+                LocalDateTime orderDate = now.minusMinutes(ageMinutes);
+                String status = pickStatus(random, ageMinutes);
+
+                BigDecimal total = BigDecimal.ZERO;
+                int totalQuantity = 0;
+                int lines = 1 + random.nextInt(config.maxItemsPerOrder);
+                for (int l = 0; l < lines; l++) {
+                    long productId = firstProductId + skewedIndex(random, config.products(), config.productSkew);
+                    int quantity = 1 + (random.nextInt(10) == 0 ? random.nextInt(4) : 0);
+                    BigDecimal unitPrice = price(random, 2, 15);
+                    total = total.add(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+                    totalQuantity += quantity;
+                    items.addRow(orderId, productId, quantity, unitPrice,
+                            random.nextInt(3) == 0 ? "{\"notes\":\"generated\"}" : null);
+                }
+
+                Timestamp placedAt = Timestamp.valueOf(orderDate);
+                orders.addRow(orderId, userId, placedAt, total, currencyId, ratesToUsd[currencyIndex], status,
+                        (100 + random.nextInt(900)) + " Generated Street, Burrito Town",
+                        null, lines, totalQuantity, placedAt, Timestamp.valueOf(orderDate.plusMinutes(random.nextInt(90))));
+
+                // Mirror what tr_order_status_log would have written for the status history
+                if (!status.equals("PENDING")) {
+                    String previous = "PENDING";
+                    for (String next : statusPath(status)) {
+                        log.addRow(orderId, "STATUS_CHANGE", next, total, "STATUS_CHANGE_" + previous + "_TO_" + next,
+                                Timestamp.valueOf(orderDate.plusMinutes(5 + random.nextInt(60))), currencyId);
+                        previous = next;
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeCartItems(Connection conn, long from, long to, SplittableRandom random) throws SQLException {
+        // Random picks repeat, and INSERT IGNORE can only skip them while unique_user_product_custom is checked
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SESSION unique_checks = 1");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try (BatchInserter insert = new BatchInserter(conn, true, "cart_items",
+                "user_id", "product_id", "quantity", "customizations", "added_at")) {
+            for (long i = from; i < to; i++) {
+                String customizations = random.nextInt(4) == 0 ? "{\"variant\":" + random.nextInt(5) + "}" : null;
+                insert.addRow(firstUserId + skewedIndex(random, config.users(), config.customerSkew),
+                        firstProductId + skewedIndex(random, config.products(), config.productSkew),
+                        1 + random.nextInt(3),
+                        // customizations_hash is filled in by tr_generate_customizations_hash
+                        customizations,
+                        // Carts age from minutes to several weeks, useful for cart purge testing
+                        Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 60))));
+            }
+        }
+    }
+
+    // =====================================================
+    // DISTRIBUTIONS
+    // =====================================================
+
+    /**
+     * Power-law index in [0, n): with skew > 1 a small head of ids receives most of the traffic
+     * (hot products, heavy customers) without materializing a CDF table.
+     */
+    static long skewedIndex(SplittableRandom random, long n, double skew) {
+        long index = (long) (n * Math.pow(random.nextDouble(), skew));
+        return Math.min(n - 1, index);
+    }
+
+    private String pickStatus(SplittableRandom random, int ageMinutes) {
+        int roll = random.nextInt(100);
+        if (ageMinutes < 120) {
+            return roll < 50 ? "PENDING" : roll < 90 ? "CONFIRMED" : "CANCELLED";
+        }
+        return roll < 2 ? "PENDING" : roll < 5 ? "CONFIRMED" : roll < 93 ? "COMPLETED" : "CANCELLED";
+    }
+
+    private static String[] statusPath(String status) {
+        switch (status) {
+            case "CONFIRMED": return new String[] {"CONFIRMED"};
+            case "COMPLETED": return new String[] {"CONFIRMED", "COMPLETED"};
+            case "CANCELLED": return new String[] {"CANCELLED"};
+            default: return new String[0];
+        }
+    }
+
+    private Timestamp randomTimestamp(SplittableRandom random) {
+        return Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(Math.max(1, config.days) * 24 * 60)));
+    }
+
+    private static BigDecimal price(SplittableRandom random, int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100 + 1), 2)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // =====================================================
+    // MULTI-ROW INSERT BUFFER
+    // =====================================================
+
+    /**
+     * Buffers rows and writes them as one multi-row INSERT per chunk, committing each chunk.
+     * The full-size statement is prepared once and reused for every chunk.
+     */
+    private class BatchInserter implements AutoCloseable {
+        private final Connection conn;
+        private final String verb;
+        private final String table;
+        private final String[] columns;
+        private final int rowsPerStatement;
+        private final Object[] buffer;
+        private int bufferedRows;
+        private PreparedStatement fullStatement;
+
+        BatchInserter(Connection conn, String table, String... columns) {
+            this(conn, false, table, columns);
+        }
+
+        BatchInserter(Connection conn, boolean ignoreDuplicates, String table, String... columns) {
+            this.conn = conn;
+            this.verb = ignoreDuplicates ? "INSERT IGNORE" : "INSERT";
+            this.table = table;
+            this.columns = columns;
+            this.rowsPerStatement = Math.max(1, Math.min(config.rowsPerStatement, MAX_PLACEHOLDERS / columns.length));
+            this.buffer = new Object[rowsPerStatement * columns.length];
+        }
+
+        void addRow(Object... values) throws SQLException {
+            System.arraycopy(values, 0, buffer, bufferedRows * columns.length, columns.length);
+            bufferedRows++;
+            if (bufferedRows == rowsPerStatement) {
+                if (fullStatement == null) {
+                    fullStatement = conn.prepareStatement(sql(rowsPerStatement));
+                }
+                execute(fullStatement);
+            }
+        }
+
+        private void execute(PreparedStatement stmt) throws SQLException {
+            int params = bufferedRows * columns.length;
+            for (int i = 0; i < params; i++) {
+                stmt.setObject(i + 1, buffer[i]);
+            }
+            stmt.executeUpdate();
+            conn.commit();
+            rowsWritten.addAndGet(bufferedRows);
+            bufferedRows = 0;
+        }
+
+        private String sql(int rows) {
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0; i < columns.length; i++) {
+                row.append(i == 0 ? "?" : ", ?");
+            }
+            row.append(')');
+
+            StringBuilder sql = new StringBuilder(verb).append(" INTO ").append(table)
+                    .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+            for (int r = 0; r < rows; r++) {
+                if (r > 0) {
+                    sql.append(", ");
+                }
+                sql.append(row);
+            }
+            return sql.toString();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (bufferedRows > 0) {
+                    try (PreparedStatement tail = conn.prepareStatement(sql(bufferedRows))) {
+                        execute(tail);
+                    }
+                }
+            } finally {
+                if (fullStatement != null) {
+                    fullStatement.close();
+                }
+            }
+        }
+    }
+}
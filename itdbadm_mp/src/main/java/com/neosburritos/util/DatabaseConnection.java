@@ -11,6 +11,8 @@ import java.util.Properties;
  */
 public class DatabaseConnection {
     
+    private static final Logger LOG = Logger.getLogger(DatabaseConnection.class);
+    
     private static final String URL = "jdbc:mysql://localhost:3306/neos_burritos";
     private static final String USERNAME = "root";
     private static final String PASSWORD = "1234";
@@ -33,13 +35,13 @@ public class DatabaseConnection {
             
             // Establish connection
             this.connection = DriverManager.getConnection(URL, props);
-            System.out.println("Database connection established successfully");
+            LOG.info("Database connection established successfully");
             
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found: " + e.getMessage());
+            LOG.error("MySQL JDBC Driver not found: {}", e.getMessage());
             throw new RuntimeException("MySQL JDBC Driver not found", e);
         } catch (SQLException e) {
-            System.err.println("Failed to establish database connection: " + e.getMessage());
+            LOG.error("Failed to establish database connection: {}", e.getMessage());
             throw new RuntimeException("Failed to establish database connection", e);
         }
     }
@@ -61,13 +63,13 @@ public class DatabaseConnection {
         try {
             // Check if connection is still valid
             if (connection == null || connection.isClosed()) {
-                System.out.println("Connection is closed, creating new connection");
+                LOG.info("Connection is closed, creating new connection");
                 instance = new DatabaseConnection();
                 return instance.connection;
             }
             return connection;
         } catch (SQLException e) {
-            System.err.println("Error checking connection status: " + e.getMessage());
+            LOG.error("Error checking connection status: {}", e.getMessage());
             throw new RuntimeException("Error checking connection status", e);
         }
     }
@@ -79,10 +81,10 @@ public class DatabaseConnection {
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
-                System.out.println("Database connection closed");
+                LOG.info("Database connection closed");
             }
         } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+            LOG.error("Error closing database connection: {}", e.getMessage());
         }
     }
 
@@ -93,7 +95,7 @@ public class DatabaseConnection {
         try {
             return connection != null && !connection.isClosed() && connection.isValid(5);
         } catch (SQLException e) {
-            System.err.println("Connection test failed: " + e.getMessage());
+            LOG.error("Connection test failed: {}", e.getMessage());
             return false;
         }
     }
@@ -11,12 +11,17 @@ import java.util.Properties;
  */
 public class DatabaseConnectionManager {
     
+    private static final Logger LOG = Logger.getLogger(DatabaseConnectionManager.class);
+    
     private static final String URL = "jdbc:mysql://localhost:3306/neos_burritos";
     private static final String USERNAME = "root";
     private static final String PASSWORD = "1234";
     
     private static final Properties CONNECTION_PROPS;
     
+    private static final StackWalker CALLER_WALKER =
+            StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    
     static {
         // Load MySQL JDBC driver once
         try {
@@ -40,20 +45,48 @@ public class DatabaseConnectionManager {
      * Creates a new database connection.
      * Caller is responsible for closing the connection.
      * 
+     * The connection is instrumented: the time from this call until close() is recorded
+     * in {@link DaoMetrics} under the calling method's name (e.g. "OrderDAO.getUserOrders").
+     * 
      * @return A new database connection
      * @throws SQLException if connection cannot be established
      */
     public static Connection getConnection() throws SQLException {
+        String operation = callerName();
+        JdbcEvents.DaoOperationEvent event = new JdbcEvents.DaoOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            Connection connection = DriverManager.getConnection(URL, CONNECTION_PROPS);
-            connection.setAutoCommit(true); // Explicit auto-commit for clarity
-            return connection;
+            Connection connection = openUninstrumentedConnection();
+            return JdbcInstrumentation.wrap(connection, operation, start, System.nanoTime() - start, event);
         } catch (SQLException e) {
-            System.err.println("Failed to establish database connection: " + e.getMessage());
+            JdbcInstrumentation.recordConnectionFailure(operation, start);
+            LOG.error("Failed to establish database connection: {}", e.getMessage());
             throw e;
         }
     }
     
+    /**
+     * Opens a plain connection that is not timed or logged.
+     * Used by diagnostics code that must not show up in its own measurements.
+     */
+    static Connection openUninstrumentedConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(URL, CONNECTION_PROPS);
+        connection.setAutoCommit(true); // Explicit auto-commit for clarity
+        return connection;
+    }
+    
+    /**
+     * Names the operation after the first caller outside this class, e.g. "ProductDAO.getAllProducts"
+     */
+    private static String callerName() {
+        return CALLER_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getDeclaringClass() != DatabaseConnectionManager.class)
+                .findFirst()
+                .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+    
     /**
      * Tests database connectivity by creating and immediately closing a connection.
      * 
@@ -63,7 +96,7 @@ public class DatabaseConnectionManager {
         try (Connection connection = getConnection()) {
             return connection.isValid(5);
         } catch (SQLException e) {
-            System.err.println("Connection test failed: " + e.getMessage());
+            LOG.error("Connection test failed: {}", e.getMessage());
             return false;
         }
     }
@@ -80,7 +113,7 @@ public class DatabaseConnectionManager {
                     connection.close();
                 }
             } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
+                LOG.error("Error closing connection: {}", e.getMessage());
             }
         }
     }
@@ -0,0 +1,86 @@
+package com.neosburritos.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Custom Java Flight Recorder events for database activity and UI actions.
+ * Record with e.g. -XX:StartFlightRecording=filename=neos.jfr and open in JDK Mission Control;
+ * UI action events overlap the DAO and SQL events they trigger on the timeline.
+ * Events are near-free when no recording is running.
+ */
+public final class JdbcEvents {
+
+    private JdbcEvents() {
+    }
+
+    @Name("com.neosburritos.DaoOperation")
+    @Label("DAO Operation")
+    @Category({"Neo's Burritos", "Database"})
+    @Description("One DAO method call, from acquiring its connection to closing it")
+    @StackTrace(false)
+    public static class DaoOperationEvent extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Rows")
+        public long rows;
+
+        @Label("Connection Wait")
+        @Timespan(Timespan.NANOSECONDS)
+        public long connectionWait;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("com.neosburritos.SqlStatement")
+    @Label("SQL Statement")
+    @Category({"Neo's Burritos", "Database"})
+    @Description("Execution of a single SQL statement or stored procedure call")
+    @StackTrace(false)
+    public static class SqlStatementEvent extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("SQL")
+        public String sql;
+
+        @Label("Rows")
+        public long rows;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("com.neosburritos.UiAction")
+    @Label("UI Action")
+    @Category({"Neo's Burritos", "UI"})
+    @Description("A user action in the Swing UI, from click until its background work completes")
+    @StackTrace(false)
+    public static class UiActionEvent extends Event {
+        @Label("Action")
+        public String action;
+
+        public UiActionEvent() {
+        }
+
+        public UiActionEvent(String action) {
+            this.action = action;
+        }
+
+        /**
+         * Creates and begins an event for the given action; call commit() when the action completes.
+         */
+        public static UiActionEvent start(String action) {
+            UiActionEvent event = new UiActionEvent(action);
+            event.begin();
+            return event;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.neosburritos.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps JDBC connections handed out by {@link DatabaseConnectionManager} so every DAO call
+ * is measured without touching the DAOs themselves. A connection lives for exactly one DAO
+ * method, so the span from acquiring it to closing it is recorded as that method's operation.
+ * Stored procedure calls are additionally recorded under "CALL procedure_name".
+ */
+final class JdbcInstrumentation {
+
+    private static final Pattern CALL_PATTERN = Pattern.compile("(?i)\\bcall\\s+([\\w.]+)");
+
+    private JdbcInstrumentation() {
+    }
+
+    /**
+     * Returns a connection proxy that reports to {@link DaoMetrics} and JFR when closed.
+     *
+     * @param target the real connection
+     * @param operation operation name, usually "DAOClass.method"
+     * @param startNanos System.nanoTime() when the connection was requested
+     * @param connectionWaitNanos time spent acquiring the connection
+     * @param event JFR event begun when the connection was requested
+     */
+    static Connection wrap(Connection target, String operation, long startNanos, long connectionWaitNanos,
+                           JdbcEvents.DaoOperationEvent event) {
+        ConnectionHandler handler = new ConnectionHandler(target, operation, startNanos, connectionWaitNanos, event);
+        return (Connection) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, handler);
+    }
+
+    /**
+     * Records a failed connection attempt against the calling operation.
+     */
+    static void recordConnectionFailure(String operation, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        DaoMetrics.record(operation, elapsed, elapsed, 0, true);
+    }
+
+    static String procedureName(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher matcher = CALL_PATTERN.matcher(sql);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Per-connection state. A connection is only ever used by one thread at a time,
+     * so plain fields are enough.
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final String operation;
+        private final long startNanos;
+        private final long connectionWaitNanos;
+        private final JdbcEvents.DaoOperationEvent event;
+        private long rows;
+        private boolean failed;
+        private boolean finished;
+
+        ConnectionHandler(Connection target, String operation, long startNanos, long connectionWaitNanos,
+                          JdbcEvents.DaoOperationEvent event) {
+            this.target = target;
+            this.operation = operation;
+            this.startNanos = startNanos;
+            this.connectionWaitNanos = connectionWaitNanos;
+            this.event = event;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                try {
+                    return invokeTarget(target, method, args);
+                } finally {
+                    finish();
+                }
+            }
+
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (SQLException e) {
+                failed = true;
+                throw e;
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (result instanceof CallableStatement) {
+                return wrapStatement(result, CallableStatement.class, sql);
+            } else if (result instanceof PreparedStatement) {
+                return wrapStatement(result, PreparedStatement.class, sql);
+            } else if (result instanceof Statement) {
+                return wrapStatement(result, Statement.class, null);
+            }
+            return result;
+        }
+
+        private Object wrapStatement(Object statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(),
+                    new Class<?>[] {type}, new StatementHandler(this, (Statement) statement, sql));
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            DaoMetrics.record(operation, System.nanoTime() - startNanos, connectionWaitNanos, rows, failed);
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.rows = rows;
+                event.connectionWait = connectionWaitNanos;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Times execute* calls and captures bound parameters. Queries return a
+     * {@link CountingResultSet} that counts rows as they are read; a query is timed until
+     * its result set or statement is closed (or the statement runs again), so the slow
+     * query log sees fetch time as well as execution time.
+     */
+    private static final class StatementHandler implements InvocationHandler, CountingResultSet.Listener {
+        private final ConnectionHandler connection;
+        private final Statement target;
+        private final String preparedSql;
+        private Object[] params;
+        private int paramCount;
+
+        // Query whose result set is still open
+        private String pendingSql;
+        private Object[] pendingParams;
+        private int pendingParamCount;
+        private long pendingStart;
+        private long pendingRows;
+        private JdbcEvents.SqlStatementEvent pendingEvent;
+        private boolean pending;
+
+        StatementHandler(ConnectionHandler connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String
+                        ? (String) args[0] : preparedSql;
+                return execute(proxy, method, args, sql);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                captureParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                paramCount = 0;
+                if (params != null) {
+                    Arrays.fill(params, null);
+                }
+            } else if (name.equals("close")) {
+                finishQuery();
+            }
+
+            try {
+                return invokeTarget(target, method, args);
+            } catch (SQLException e) {
+                connection.failed = true;
+                throw e;
+            }
+        }
+
+        private void captureParameter(int index, Object value) {
+            paramCount = Math.max(paramCount, index);
+            if (index > SlowQueryLog.MAX_CAPTURED_PARAMS) {
+                return;
+            }
+            if (params == null) {
+                params = new Object[SlowQueryLog.MAX_CAPTURED_PARAMS];
+            }
+            params[index - 1] = value;
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args, String sql) throws Throwable {
+            finishQuery();
+            JdbcEvents.SqlStatementEvent event = new JdbcEvents.SqlStatementEvent();
+            event.begin();
+            long start = System.nanoTime();
+            long affected = 0;
+            boolean error = false;
+            boolean query = false;
+            try {
+                Object result = invokeTarget(target, method, args);
+                if (result instanceof ResultSet) {
+                    query = true;
+                    pending = true;
+                    pendingSql = sql;
+                    pendingParams = params == null ? null : params.clone();
+                    pendingParamCount = paramCount;
+                    pendingStart = start;
+                    pendingRows = 0;
+                    pendingEvent = event;
+                    return new CountingResultSet((ResultSet) result, (Statement) proxy, this);
+                } else if (result instanceof Integer) {
+                    affected = Math.max(0, (Integer) result);
+                } else if (result instanceof Long) {
+                    affected = Math.max(0, (Long) result);
+                } else if (result instanceof int[]) {
+                    for (int count : (int[]) result) {
+                        affected += Math.max(0, count);
+                    }
+                }
+                connection.rows += affected;
+                return result;
+            } catch (SQLException e) {
+                error = true;
+                connection.failed = true;
+                throw e;
+            } finally {
+                // A query is recorded once its rows have been read
+                if (!query) {
+                    record(sql, capturedParams(), paramCount, System.nanoTime() - start, affected, error, event);
+                }
+            }
+        }
+        
+        private void record(String sql, Object[] queryParams, int queryParamCount, long elapsed, long rows,
+                            boolean error, JdbcEvents.SqlStatementEvent event) {
+            String procedure = procedureName(sql);
+            if (procedure != null) {
+                DaoMetrics.record("CALL " + procedure, elapsed, 0, rows, error);
+            }
+            if (SlowQueryLog.isSlow(elapsed)) {
+                SlowQueryLog.record(connection.operation, sql, queryParams, queryParamCount, elapsed, rows, error);
+            }
+            if (event.shouldCommit()) {
+                event.operation = connection.operation;
+                event.sql = sql;
+                event.rows = rows;
+                event.failed = error;
+                event.commit();
+            }
+        }
+
+        /** Plain Statements have no parameters; prepared ones report an empty array when nothing was bound */
+        private Object[] capturedParams() {
+            if (!(target instanceof PreparedStatement)) {
+                return null;
+            }
+            return params == null ? new Object[0] : params;
+        }
+
+        @Override
+        public void rowRead() {
+            pendingRows++;
+            connection.rows++;
+        }
+        
+        @Override
+        public void closed() {
+            finishQuery();
+        }
+        
+        /**
+         * Completes timing of the open query, if any, once its rows have been read.
+         */
+        private void finishQuery() {
+            if (!pending) {
+                return;
+            }
+            pending = false;
+            Object[] queryParams = target instanceof PreparedStatement
+                    ? (pendingParams == null ? new Object[0] : pendingParams) : null;
+            record(pendingSql, queryParams, pendingParamCount, System.nanoTime() - pendingStart, pendingRows,
+                   false, pendingEvent);
+            pendingParams = null;
+            pendingEvent = null;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.neosburritos.util;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lightweight logging facade with per-package levels and an asynchronous appender.
+ *
+ * Callers only pay for a level check and a slot write into a pre-allocated ring buffer;
+ * "{}" placeholders are substituted and console I/O happens on a single background thread,
+ * so DAO and UI threads never block on System.out. When the buffer is full, messages are
+ * dropped (and counted) rather than stalling the caller.
+ *
+ * Levels are configured with system properties, most specific package wins:
+ *   -Dneos.log.level=INFO
+ *   -Dneos.log.level.com.neosburritos.dao=DEBUG
+ *   -Dneos.log.level.com.neosburritos.ui.swing=WARN
+ *
+ * Usage:
+ *   private static final Logger LOG = Logger.getLogger(OrderDAO.class);
+ *   LOG.debug("Retrieved {} orders for user {}", orders.size(), userId);
+ */
+public final class Logger {
+
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final String LEVEL_PROPERTY = "neos.log.level";
+    private static final Map<String, Logger> LOGGERS = new ConcurrentHashMap<>();
+    private static final Map<String, Level> PACKAGE_LEVELS = new ConcurrentHashMap<>();
+    private static final AsyncAppender APPENDER = new AsyncAppender(
+            Integer.getInteger("neos.log.bufferSize", 8192));
+
+    static {
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(LEVEL_PROPERTY + ".")) {
+                PACKAGE_LEVELS.put(key.substring(LEVEL_PROPERTY.length() + 1),
+                        parseLevel(System.getProperty(key)));
+            }
+        }
+    }
+
+    private final String name;
+    private final String shortName;
+    private volatile Level level;
+
+    private Logger(String name) {
+        this.name = name;
+        this.shortName = name.substring(name.lastIndexOf('.') + 1);
+        this.level = resolveLevel(name);
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return LOGGERS.computeIfAbsent(type.getName(), Logger::new);
+    }
+
+    /**
+     * Changes the level for a package (or class) prefix at runtime, e.g. "com.neosburritos.dao".
+     */
+    public static void setLevel(String prefix, Level level) {
+        PACKAGE_LEVELS.put(prefix, level);
+        for (Logger logger : LOGGERS.values()) {
+            logger.level = resolveLevel(logger.name);
+        }
+    }
+
+    /** Messages lost because the ring buffer was full */
+    public static long getDroppedCount() {
+        return APPENDER.dropped.get();
+    }
+
+    /**
+     * Writes out everything queued so far, waiting at most the given time.
+     */
+    public static void flush(long timeoutMillis) {
+        APPENDER.awaitDrained(timeoutMillis);
+    }
+
+    private static Level resolveLevel(String loggerName) {
+        Level resolved = parseLevel(System.getProperty(LEVEL_PROPERTY, "INFO"));
+        int matched = -1;
+        for (Map.Entry<String, Level> entry : PACKAGE_LEVELS.entrySet()) {
+            String prefix = entry.getKey();
+            boolean matches = loggerName.equals(prefix) || loggerName.startsWith(prefix + ".");
+            if (matches && prefix.length() > matched) {
+                matched = prefix.length();
+                resolved = entry.getValue();
+            }
+        }
+        return resolved;
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    public boolean isEnabled(Level candidate) {
+        return candidate.compareTo(level) >= 0 && candidate != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    // Fixed-arity overloads avoid allocating a varargs array on the common paths
+
+    public void debug(String message) { log(Level.DEBUG, message, 0, null, null, null); }
+    public void debug(String message, Object arg) { log(Level.DEBUG, message, 1, arg, null, null); }
+    public void debug(String message, Object arg1, Object arg2) { log(Level.DEBUG, message, 2, arg1, arg2, null); }
+    public void debug(String message, Object... args) { log(Level.DEBUG, message, args.length, null, null, args); }
+
+    public void info(String message) { log(Level.INFO, message, 0, null, null, null); }
+    public void info(String message, Object arg) { log(Level.INFO, message, 1, arg, null, null); }
+    public void info(String message, Object arg1, Object arg2) { log(Level.INFO, message, 2, arg1, arg2, null); }
+    public void info(String message, Object... args) { log(Level.INFO, message, args.length, null, null, args); }
+
+    public void warn(String message) { log(Level.WARN, message, 0, null, null, null); }
+    public void warn(String message, Object arg) { log(Level.WARN, message, 1, arg, null, null); }
+    public void warn(String message, Object arg1, Object arg2) { log(Level.WARN, message, 2, arg1, arg2, null); }
+    public void warn(String message, Object... args) { log(Level.WARN, message, args.length, null, null, args); }
+
+    public void error(String message) { log(Level.ERROR, message, 0, null, null, null); }
+    public void error(String message, Object arg) { log(Level.ERROR, message, 1, arg, null, null); }
+    public void error(String message, Object arg1, Object arg2) { log(Level.ERROR, message, 2, arg1, arg2, null); }
+    public void error(String message, Object... args) { log(Level.ERROR, message, args.length, null, null, args); }
+
+    private void log(Level messageLevel, String message, int argCount, Object arg1, Object arg2, Object[] args) {
+        if (isEnabled(messageLevel)) {
+            APPENDER.publish(messageLevel, shortName, message, argCount, arg1, arg2, args);
+        }
+    }
+
+    /**
+     * Multi-producer, single-consumer ring of reusable slots.
+     * Producers claim a sequence number with CAS, fill the slot and publish it by writing
+     * the slot's sequence; the writer thread consumes slots strictly in order.
+     */
+    private static final class AsyncAppender implements Runnable {
+        private static final DateTimeFormatter TIME_FORMAT =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+        private final Slot[] slots;
+        private final int mask;
+        private final AtomicLong claimed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long consumed;
+        private volatile boolean writerParked;
+        private final Thread writer;
+        private final StringBuilder line = new StringBuilder(256);
+
+        AsyncAppender(int requestedSize) {
+            int size = Integer.highestOneBit(Math.max(64, requestedSize - 1) << 1);
+            slots = new Slot[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = new Slot();
+            }
+            mask = size - 1;
+
+            writer = new Thread(this, "neos-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> awaitDrained(2000), "neos-log-flush"));
+        }
+
+        void publish(Level level, String logger, String message, int argCount,
+                     Object arg1, Object arg2, Object[] args) {
+            long sequence;
+            do {
+                sequence = claimed.get();
+                if (sequence - consumed >= slots.length) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+            } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+            Slot slot = slots[(int) (sequence & mask)];
+            slot.timestamp = System.currentTimeMillis();
+            slot.level = level;
+            slot.logger = logger;
+            slot.thread = Thread.currentThread().getName();
+            slot.message = message;
+            slot.argCount = argCount;
+            slot.arg1 = arg1;
+            slot.arg2 = arg2;
+            slot.args = args;
+            slot.sequence = sequence;
+
+            if (writerParked) {
+                LockSupport.unpark(writer);
+            }
+        }
+
+        @Override
+        public void run() {
+            long next = 0;
+            while (true) {
+                Slot slot = slots[(int) (next & mask)];
+                if (slot.sequence == next) {
+                    write(slot);
+                    slot.clear();
+                    next++;
+                    consumed = next;
+                } else {
+                    System.out.flush();
+                    System.err.flush();
+                    writerParked = true;
+                    if (slot.sequence != next) {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(50));
+                    }
+                    writerParked = false;
+                }
+            }
+        }
+
+        void awaitDrained(long timeoutMillis) {
+            long target = claimed.get();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (consumed < target && System.nanoTime() < deadline) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+
+        private void write(Slot slot) {
+            line.setLength(0);
+            TIME_FORMAT.formatTo(Instant.ofEpochMilli(slot.timestamp), line);
+            line.append(' ').append(slot.level);
+            if (slot.level.name().length() == 4) {
+                line.append(' ');
+            }
+            line.append(" [").append(slot.thread).append("] ").append(slot.logger).append(" - ");
+
+            Object[] args = slot.args;
+            int argCount = slot.argCount;
+            int used = appendFormatted(slot, args, argCount);
+
+            // A trailing Throwable without a placeholder gets its stack trace printed
+            Object last = argCount > used ? arg(slot, args, argCount - 1) : null;
+
+            PrintStream out = slot.level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+            out.append(line).append(System.lineSeparator());
+            if (last instanceof Throwable) {
+                ((Throwable) last).printStackTrace(out);
+            }
+        }
+
+        private int appendFormatted(Slot slot, Object[] args, int argCount) {
+            String message = slot.message;
+            int used = 0;
+            int start = 0;
+            int placeholder;
+            while ((placeholder = message.indexOf("{}", start)) >= 0) {
+                line.append(message, start, placeholder);
+                if (used < argCount) {
+                    line.append(arg(slot, args, used++));
+                } else {
+                    line.append("{}");
+                }
+                start = placeholder + 2;
+            }
+            line.append(message, start, message.length());
+            return used;
+        }
+
+        private static Object arg(Slot slot, Object[] args, int index) {
+            if (args != null) {
+                return args[index];
+            }
+            return index == 0 ? slot.arg1 : slot.arg2;
+        }
+    }
+
+    private static final class Slot {
+        volatile long sequence = -1;
+        long timestamp;
+        Level level;
+        String logger;
+        String thread;
+        String message;
+        int argCount;
+        Object arg1;
+        Object arg2;
+        Object[] args;
+
+        void clear() {
+            message = null;
+            arg1 = null;
+            arg2 = null;
+            args = null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.neosburritos.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.neosburritos.service.PaymentGateway;
+import com.neosburritos.service.ResilientPaymentGateway;
+import com.neosburritos.service.SimulatedPaymentGateway;
+
+/**
+ * Load harness for the payment gateway simulator.
+ * Fires charges from a fixed number of concurrent callers, as many checkouts paying at
+ * once would, and reports throughput, outcomes and caller-observed latency percentiles.
+ * No database is needed.
+ *
+ * Usage (from itdbadm_mp):
+ *   mvn -q compile exec:java -Dexec.mainClass=com.neosburritos.util.PaymentGatewayBenchmark \
+ *       -Dexec.args="--requests=5000 --threads=200 --latency=longtail --latency-ms=300 --p99-ms=4000"
+ *
+ * Settings not given on the command line come from the neos.gateway.* system properties,
+ * except the seed, which defaults to 42 so that runs are comparable. With --resilient=true
+ * the charges go through ResilientPaymentGateway (configured by neos.payment.*), as they
+ * do in the app, and its counters are printed too.
+ */
+public class PaymentGatewayBenchmark {
+
+    private final PaymentGateway gateway;
+    private final int requests;
+    private final int threads;
+
+    public PaymentGatewayBenchmark(PaymentGateway gateway, int requests, int threads) {
+        this.gateway = gateway;
+        this.requests = requests;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulatedPaymentGateway.Config config = SimulatedPaymentGateway.Config.fromSystemProperties();
+        if (config.getSeed() == null) {
+            config.seed(42L);
+        }
+        int requests = 1_000;
+        int threads = 100;
+        String latency = null;
+        Long latencyMs = null;
+        long stdDevMs = 500;
+        long p99Ms = 8_000;
+        boolean resilient = false;
+
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String value = parts[1].replace("_", "");
+            switch (parts[0]) {
+                case "requests": requests = Integer.parseInt(value); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                case "latency": latency = value; break;
+                case "latency-ms": latencyMs = Long.parseLong(value); break;
+                case "stddev-ms": stdDevMs = Long.parseLong(value); break;
+                case "p99-ms": p99Ms = Long.parseLong(value); break;
+                case "failure-rate": config.failureRate(Double.parseDouble(value)); break;
+                case "timeout-ms": config.timeoutMs(Long.parseLong(value)); break;
+                case "seed": config.seed(Long.parseLong(value)); break;
+                case "outages": config.outages(value); break;
+                case "resilient": resilient = Boolean.parseBoolean(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + parts[0]);
+            }
+        }
+        if (latency != null || latencyMs != null) {
+            long ms = latencyMs != null ? latencyMs : config.getLatencyMs();
+            String model = latency != null ? latency
+                    : config.getLatencyModel() == SimulatedPaymentGateway.LatencyModel.LONG_TAIL ? "longtail"
+                    : config.getLatencyModel().name().toLowerCase(Locale.ROOT);
+            switch (model) {
+                case "fixed": config.fixedLatency(ms); break;
+                case "normal": config.normalLatency(ms, stdDevMs); break;
+                case "longtail": config.longTailLatency(ms, p99Ms); break;
+                default: throw new IllegalArgumentException("Unknown latency model: " + model);
+            }
+        }
+
+        System.out.println("Gateway: " + config);
+        SimulatedPaymentGateway simulator = new SimulatedPaymentGateway(config);
+        if (!resilient) {
+            new PaymentGatewayBenchmark(simulator, requests, threads).run();
+            return;
+        }
+        ResilientPaymentGateway gateway = new ResilientPaymentGateway(simulator);
+        new PaymentGatewayBenchmark(gateway, requests, threads).run();
+        ResilientPaymentGateway.Stats stats = gateway.getStats();
+        System.out.printf("Attempts %,d: %,d retries, %,d hedges (%,d won), %,d timed out, %,d short-circuited%n",
+                stats.attempts(), stats.retries(), stats.hedges(), stats.hedgeWins(),
+                stats.attemptTimeouts(), stats.shortCircuits());
+        System.out.printf("Circuit breaker %s, opened %d times; charges captured by the gateway: %,d%n",
+                stats.breakerState(), stats.breakerOpens(), simulator.getApprovedCount());
+    }
+
+    public void run() throws InterruptedException {
+        System.out.println("Sending " + requests + " charges from " + threads + " concurrent callers");
+
+        long[] latencies = new long[requests];
+        Map<PaymentGateway.Outcome, AtomicInteger> outcomes = new EnumMap<>(PaymentGateway.Outcome.class);
+        for (PaymentGateway.Outcome outcome : PaymentGateway.Outcome.values()) {
+            outcomes.put(outcome, new AtomicInteger());
+        }
+        AtomicInteger next = new AtomicInteger();
+        BigDecimal amount = new BigDecimal("249.00");
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long callStart = System.nanoTime();
+                    PaymentGateway.Response response = gateway.charge("BENCH" + i, amount, "PHP");
+                    latencies[i] = System.nanoTime() - callStart;
+                    outcomes.get(response.getOutcome()).incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Arrays.sort(latencies);
+        int approved = outcomes.get(PaymentGateway.Outcome.APPROVED).get();
+        System.out.printf("Completed in %.1fs: %,.1f calls/s, %,.1f approved/s%n",
+                seconds, requests / seconds, approved / seconds);
+        for (Map.Entry<PaymentGateway.Outcome, AtomicInteger> entry : outcomes.entrySet()) {
+            int count = entry.getValue().get();
+            System.out.printf("  %-12s %,8d (%5.1f%%)%n", entry.getKey(), count, 100.0 * count / requests);
+        }
+        System.out.printf("Latency ms: p50 %.0f, p90 %.0f, p99 %.0f, p99.9 %.0f, max %.0f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0);
+    }
+
+    /** Nearest-rank percentile of sorted nanosecond samples, in milliseconds */
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(sorted.length * quantile);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
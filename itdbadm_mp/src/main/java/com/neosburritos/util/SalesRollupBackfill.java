@@ -0,0 +1,63 @@
+package com.neosburritos.util;
+
+import com.neosburritos.dao.SalesReportDAO;
+
+import java.time.LocalDate;
+
+/**
+ * Rebuilds sales_rollup_hourly and sales_rollup_daily from the orders, one day per
+ * transaction. Needed once after migration_sales_rollups.sql and after DataGenerator,
+ * which inserts orders directly and so bypasses the rollup trigger. Safe to re-run:
+ * each day is replaced, not added to.
+ *
+ * Usage (from itdbadm_mp):
+ *   mvn -q compile exec:java -Dexec.mainClass=com.neosburritos.util.SalesRollupBackfill \
+ *       -Dexec.args="--from=2025-01-01 --to=2025-12-31"
+ *
+ * --from defaults to the day of the first order, --to to today (inclusive).
+ */
+public class SalesRollupBackfill {
+
+    public static void main(String[] args) {
+        SalesReportDAO salesReportDAO = new SalesReportDAO();
+        LocalDate from = null;
+        LocalDate to = LocalDate.now();
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            switch (parts[0]) {
+                case "from": from = LocalDate.parse(parts[1]); break;
+                case "to": to = LocalDate.parse(parts[1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + parts[0]);
+            }
+        }
+        if (from == null) {
+            from = salesReportDAO.getFirstOrderDate();
+            if (from == null) {
+                System.out.println("No orders to backfill");
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        int days = 0;
+        long orders = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            SalesReportDAO.BackfillResult result = salesReportDAO.backfillDay(day);
+            if (!result.isSuccess()) {
+                System.out.printf("Backfill stopped at %s: %s%n", day, result.getMessage());
+                System.out.println("Run again with --from=" + day + " to resume");
+                System.exit(1);
+            }
+            days++;
+            orders += result.getOrderCount();
+            if (result.getOrderCount() > 0) {
+                System.out.printf("  %s  %,d orders%n", day, result.getOrderCount());
+            }
+        }
+        System.out.printf("Rebuilt %d days, %,d orders in %d ms%n",
+                days, orders, (System.nanoTime() - start) / 1_000_000);
+    }
+}
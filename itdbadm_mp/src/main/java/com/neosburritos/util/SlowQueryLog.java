@@ -0,0 +1,219 @@
+package com.neosburritos.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory log of slow SQL statements.
+ * Entries carry the SQL text, bound parameters (with passwords redacted), elapsed time and rows.
+ * A sample of slow SELECT statements is re-run with EXPLAIN on a background thread.
+ *
+ * Configured with system properties:
+ *   neos.slowQuery.thresholdMs        statements at or above this are logged (default 200)
+ *   neos.slowQuery.explainSampleRate  fraction of slow SELECTs to EXPLAIN, 0 disables (default 0.1)
+ *   neos.slowQuery.capacity           entries kept before the oldest is overwritten (default 200)
+ */
+public final class SlowQueryLog {
+
+    /** Bound parameters past this index are not captured */
+    static final int MAX_CAPTURED_PARAMS = 32;
+
+    private static final String REDACTED = "****";
+
+    /** Password parameter positions (1-based) for procedures that take one */
+    private static final Map<String, Set<Integer>> PASSWORD_PARAMS = Map.of(
+            "sp_authenticate_user", Set.of(2),
+            "sp_register_user", Set.of(3));
+
+    private static volatile long thresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("neos.slowQuery.thresholdMs", 200));
+    private static volatile double explainSampleRate =
+            Double.parseDouble(System.getProperty("neos.slowQuery.explainSampleRate", "0.1"));
+
+    private static final Entry[] RING = new Entry[Math.max(1, Integer.getInteger("neos.slowQuery.capacity", 200))];
+    private static long written;
+
+    /** Single daemon thread with a small queue; EXPLAIN requests are dropped rather than queued up */
+    private static final ThreadPoolExecutor EXPLAIN_EXECUTOR = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+            runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private SlowQueryLog() {
+    }
+
+    public static long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public static void setThresholdMillis(long millis) {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    public static double getExplainSampleRate() {
+        return explainSampleRate;
+    }
+
+    public static void setExplainSampleRate(double rate) {
+        explainSampleRate = Math.max(0, Math.min(1, rate));
+    }
+
+    static boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * Records a statement that crossed the threshold.
+     *
+     * @param params captured parameters by 0-based index (may contain nulls), or null for plain statements
+     * @param paramCount highest parameter index that was bound
+     */
+    static void record(String operation, String sql, Object[] params, int paramCount,
+                       long elapsedNanos, long rows, boolean failed) {
+        Entry entry = new Entry(LocalDateTime.now(), operation, sql,
+                formatParams(sql, params, paramCount), elapsedNanos / 1_000_000.0, rows, failed);
+        synchronized (RING) {
+            RING[(int) (written % RING.length)] = entry;
+            written++;
+        }
+
+        if (params != null && isSelect(sql) && explainSampleRate > 0
+                && ThreadLocalRandom.current().nextDouble() < explainSampleRate) {
+            Object[] explainParams = Arrays.copyOf(params, Math.min(paramCount, params.length));
+            EXPLAIN_EXECUTOR.execute(() -> entry.explain = explain(sql, explainParams, paramCount));
+        }
+    }
+
+    /**
+     * Returns the logged entries, newest first.
+     */
+    public static List<Entry> entries() {
+        List<Entry> result = new ArrayList<>();
+        synchronized (RING) {
+            long first = Math.max(0, written - RING.length);
+            for (long i = written - 1; i >= first; i--) {
+                result.add(RING[(int) (i % RING.length)]);
+            }
+        }
+        return result;
+    }
+
+    public static void clear() {
+        synchronized (RING) {
+            Arrays.fill(RING, null);
+            written = 0;
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql != null && sql.stripLeading().regionMatches(true, 0, "SELECT", 0, 6);
+    }
+
+    private static String formatParams(String sql, Object[] params, int paramCount) {
+        if (params == null || paramCount == 0) {
+            return "";
+        }
+        String procedure = JdbcInstrumentation.procedureName(sql);
+        Set<Integer> redacted = procedure == null ? Set.of()
+                : PASSWORD_PARAMS.getOrDefault(procedure.toLowerCase(Locale.ROOT), Set.of());
+        // Direct SQL touching a password column: hide every string argument
+        boolean redactStrings = procedure == null && sql.toLowerCase(Locale.ROOT).contains("password");
+
+        StringBuilder text = new StringBuilder();
+        int shown = Math.min(paramCount, params.length);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            Object value = params[i];
+            if (redacted.contains(i + 1) || (redactStrings && value instanceof String)) {
+                text.append(REDACTED);
+            } else if (value instanceof String) {
+                text.append('\'').append(value).append('\'');
+            } else {
+                text.append(value);
+            }
+        }
+        if (paramCount > shown) {
+            text.append(", ... (").append(paramCount).append(" total)");
+        }
+        return text.toString();
+    }
+
+    private static String explain(String sql, Object[] params, int paramCount) {
+        if (paramCount > params.length) {
+            return "EXPLAIN skipped: too many parameters to replay";
+        }
+        try (Connection conn = DatabaseConnectionManager.openUninstrumentedConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    for (int c = 1; c <= meta.getColumnCount(); c++) {
+                        plan.append(meta.getColumnLabel(c)).append('=').append(rs.getString(c));
+                        plan.append(c < meta.getColumnCount() ? "  " : "\n");
+                    }
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * One slow statement. The EXPLAIN plan is filled in later when the statement was sampled.
+     */
+    public static final class Entry {
+        private final LocalDateTime timestamp;
+        private final String operation;
+        private final String sql;
+        private final String parameters;
+        private final double elapsedMillis;
+        private final long rows;
+        private final boolean failed;
+        private volatile String explain;
+
+        Entry(LocalDateTime timestamp, String operation, String sql, String parameters,
+              double elapsedMillis, long rows, boolean failed) {
+            this.timestamp = timestamp;
+            this.operation = operation;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.elapsedMillis = elapsedMillis;
+            this.rows = rows;
+            this.failed = failed;
+        }
+
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public String getOperation() { return operation; }
+        public String getSql() { return sql; }
+        public String getParameters() { return parameters; }
+        public double getElapsedMillis() { return elapsedMillis; }
+        public long getRows() { return rows; }
+        public boolean isFailed() { return failed; }
+        public String getExplain() { return explain; }
+    }
+}
@@ -0,0 +1,166 @@
+package com.neosburritos.dao;
+
+import com.neosburritos.dao.OrderDAO.OrderCursor;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
+import com.neosburritos.dao.OrderDAO.OrderQuery.SortKey;
+import com.neosburritos.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderDAOTest {
+
+    private static final int USER_ID = 3;
+    private static final int PAGE_SIZE = 4;
+
+    /** A statement that only remembers the parameters bound to it */
+    private static PreparedStatement recording(Map<Integer, Object> parameters) {
+        return (PreparedStatement) Proxy.newProxyInstance(OrderDAOTest.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args.length == 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, args[1]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Order order(int orderId, Order.Status status) {
+        Order order = new Order(orderId, BigDecimal.TEN, status);
+        order.setUserId(USER_ID);
+        return order;
+    }
+
+    /** Position of the status in the orders.status ENUM, which is what status_rank holds */
+    private static int rank(Order order) {
+        return order.getStatus().ordinal() + 1;
+    }
+
+    private static Comparator<Order> byStatus(boolean descending) {
+        Comparator<Order> order = Comparator.comparingInt(OrderDAOTest::rank).thenComparingInt(Order::getOrderId);
+        return descending ? order.reversed() : order;
+    }
+
+    /**
+     * One table's branch of the paged union as MySQL runs it: the cursor condition with the
+     * bound parameters, sorted by the status position and order id, cut at the branch LIMIT
+     */
+    private static Stream<Order> branch(List<Order> table, Map<Integer, Object> parameters,
+                                        boolean descending, Comparator<Order> order, int branchLimit) {
+        Stream<Order> rows = table.stream();
+        if (parameters.size() > 1) {
+            int rankBound = (Integer) parameters.get(2);
+            int idBound = (Integer) parameters.get(4);
+            rows = rows.filter(o -> {
+                int byRank = Integer.compare(rank(o), rankBound);
+                int byId = Integer.compare(o.getOrderId(), idBound);
+                return descending ? byRank < 0 || (byRank == 0 && byId < 0)
+                                  : byRank > 0 || (byRank == 0 && byId > 0);
+            });
+        }
+        return rows.sorted(order).limit(branchLimit);
+    }
+
+    private static List<Integer> pageThrough(OrderQuery query, List<Order> hot, List<Order> archived)
+            throws SQLException {
+        Comparator<Order> order = byStatus(query.isDescending());
+
+        List<Integer> seen = new ArrayList<>();
+        OrderCursor after = null;
+        for (int pages = 0; pages < 100; pages++) {
+            Map<Integer, Object> parameters = new HashMap<>();
+            query.bindWhere(recording(parameters), 1, after);
+            List<Order> page = Stream.concat(
+                            branch(hot, parameters, query.isDescending(), order, PAGE_SIZE),
+                            branch(archived, parameters, query.isDescending(), order, PAGE_SIZE))
+                    .sorted(order)
+                    .limit(PAGE_SIZE)
+                    .collect(Collectors.toList());
+            if (page.isEmpty()) {
+                return seen;
+            }
+            page.forEach(o -> seen.add(o.getOrderId()));
+            after = query.cursorAfter(page.get(page.size() - 1));
+        }
+        throw new AssertionError("paging never ended");
+    }
+
+    @Test
+    void statusSortUsesTheStatusRankOverTheArchiveUnion() {
+        OrderQuery query = OrderQuery.forUser(USER_ID).sortedBy(SortKey.STATUS, false);
+        String sql = OrderDAO.pageSql(query, query.cursorAfter(order(9, Order.Status.CONFIRMED)));
+
+        // Each branch sorts on the ENUM itself, which orders by position, and exposes that position
+        assertEquals(2, sql.split("o\\.status\\+0 AS status_rank", -1).length - 1);
+        assertEquals(2, sql.split("ORDER BY o\\.status ASC, o\\.order_id ASC\nLIMIT \\?\\)", -1).length - 1);
+        assertTrue(sql.endsWith("ORDER BY o.status_rank ASC, o.order_id ASC\nLIMIT ? OFFSET ?"), sql);
+    }
+
+    @Test
+    void statusSortWithoutTheArchiveStaysOnTheIndexedColumn() {
+        OrderQuery query = OrderQuery.all().sortedBy(SortKey.STATUS, true);
+        String sql = OrderDAO.pageSql(query, null);
+
+        assertTrue(sql.contains("FROM orders o\n"), sql);
+        assertTrue(sql.endsWith("ORDER BY o.status DESC, o.order_id DESC\nLIMIT ? OFFSET ?"), sql);
+    }
+
+    @Test
+    void statusRanksMatchTheOrderStatusEnumInTheSchema() throws IOException {
+        String expected = Arrays.stream(Order.Status.values())
+                .map(status -> "'" + status.name() + "'")
+                .collect(Collectors.joining(", ", "status ENUM(", ")"));
+        List<String> columns = Files.readAllLines(Path.of("..", "database_Files", "schema_simplified.sql")).stream()
+                .map(String::trim)
+                .filter(line -> line.startsWith("status ENUM('PENDING'"))
+                .collect(Collectors.toList());
+
+        // orders and orders_archive
+        assertEquals(2, columns.size());
+        for (String column : columns) {
+            assertTrue(column.startsWith(expected), column);
+        }
+    }
+
+    @Test
+    void pagesByStatusAcrossHotAndArchivedOrders() throws SQLException {
+        Order.Status[] statuses = Order.Status.values();
+        List<Order> hot = new ArrayList<>();
+        List<Order> archived = new ArrayList<>();
+        List<Order> all = new ArrayList<>();
+        for (int orderId = 1; orderId <= 30; orderId++) {
+            // Orders up to 18 are old enough to archive, except ones still pending
+            Order.Status status = orderId % 3 == 0 ? Order.Status.CANCELLED : statuses[(orderId * 7) % statuses.length];
+            Order order = order(orderId, status);
+            (orderId <= 18 && status != Order.Status.PENDING ? archived : hot).add(order);
+            all.add(order);
+        }
+
+        for (boolean descending : new boolean[] {false, true}) {
+            OrderQuery query = OrderQuery.forUser(USER_ID).sortedBy(SortKey.STATUS, descending);
+            List<Integer> expected = all.stream()
+                    .sorted(byStatus(descending))
+                    .map(Order::getOrderId)
+                    .collect(Collectors.toList());
+
+            assertEquals(expected, pageThrough(query, hot, archived), descending ? "descending" : "ascending");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.neosburritos.dao;
+
+import com.neosburritos.dao.UserDAO.UserFilter;
+import com.neosburritos.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserDAOTest {
+
+    /** A statement that only remembers the parameters bound to it */
+    private static PreparedStatement recording(Map<Integer, Object> parameters) {
+        return (PreparedStatement) Proxy.newProxyInstance(UserDAOTest.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args.length == 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, args[1]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static int placeholders(String sql) {
+        return sql.length() - sql.replace("?", "").length();
+    }
+
+    private static List<Object> bound(UserFilter filter, Integer afterUserId, int rows) throws SQLException {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        UserDAO.bindPage(recording(parameters), filter, afterUserId, rows);
+        // Every placeholder from 1 up is bound exactly once
+        assertEquals(List.copyOf(parameters.keySet()),
+                     IntStream.rangeClosed(1, parameters.size()).boxed().toList());
+        return new ArrayList<>(parameters.values());
+    }
+
+    @Test
+    void prefixSearchQueriesEachColumnOnItsOwn() {
+        UserFilter filter = UserFilter.all().withPrefix("ana");
+        String sql = UserDAO.pageSql(filter, true);
+
+        // No OR across the two columns, which would need an index merge
+        assertFalse(sql.contains(" OR "), sql);
+        assertTrue(sql.contains("WHERE name LIKE ?\nAND user_id < ?\nORDER BY user_id DESC LIMIT ?)\nUNION\n"), sql);
+        assertTrue(sql.contains("WHERE email LIKE ?\nAND user_id < ?\nORDER BY user_id DESC LIMIT ?)\n"), sql);
+        assertTrue(sql.endsWith(")\nORDER BY user_id DESC LIMIT ?"), sql);
+    }
+
+    @Test
+    void prefixSearchBindsBothBranchesAndTheOuterLimit() throws SQLException {
+        UserFilter filter = UserFilter.all().withRole(User.Role.ADMIN).withActive(true).withPrefix("50%_off");
+        String sql = UserDAO.pageSql(filter, true);
+        List<Object> parameters = bound(filter, 120, 21);
+
+        assertEquals(placeholders(sql), parameters.size());
+        List<Object> branch = List.of("ADMIN", true, "50\\%\\_off%", 120, 21);
+        List<Object> expected = new ArrayList<>(branch);
+        expected.addAll(branch);
+        expected.add(21);
+        assertEquals(expected, parameters);
+    }
+
+    @Test
+    void withoutPrefixItIsASingleKeysetQuery() throws SQLException {
+        UserFilter filter = UserFilter.all().withActive(false);
+        String sql = UserDAO.pageSql(filter, false);
+
+        assertFalse(sql.contains("UNION"), sql);
+        assertTrue(sql.endsWith("WHERE is_active = ?\nORDER BY user_id DESC LIMIT ?"), sql);
+        assertEquals(List.of(false, 21), bound(filter, null, 21));
+        assertEquals(2, placeholders(sql));
+    }
+}
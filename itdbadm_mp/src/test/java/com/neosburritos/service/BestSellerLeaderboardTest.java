@@ -0,0 +1,183 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.ProductSale;
+import com.neosburritos.model.Order;
+import com.neosburritos.model.Product;
+import com.neosburritos.service.BestSellerLeaderboard.Ranking;
+import com.neosburritos.service.BestSellerLeaderboard.Window;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BestSellerLeaderboardTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 19, 12, 30);
+
+    /** A clock the test moves by hand */
+    private static final class ManualClock extends Clock {
+        private volatile Instant now = START.toInstant(ZoneOffset.UTC);
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    /** Serves sales from memory instead of order_items */
+    private static final class StubOrderDAO extends OrderDAO {
+        private final List<ProductSale> sales = new ArrayList<>();
+
+        synchronized void add(ProductSale sale) {
+            sales.add(sale);
+        }
+
+        synchronized void cancel(int orderId) {
+            sales.replaceAll(sale -> sale.getOrderId() != orderId ? sale
+                    : new ProductSale(orderId, sale.getOrderDate(), Order.Status.CANCELLED,
+                                      sale.getProductId(), sale.getCategory(), sale.getQuantity()));
+        }
+
+        @Override
+        public synchronized int forEachProductSale(LocalDateTime placedFrom, Consumer<ProductSale> consumer) {
+            int rows = 0;
+            for (ProductSale sale : sales) {
+                if (!sale.getOrderDate().isBefore(placedFrom) && sale.getStatus() != Order.Status.CANCELLED) {
+                    consumer.accept(sale);
+                    rows++;
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public synchronized List<ProductSale> getProductSales(int orderId) {
+            List<ProductSale> order = new ArrayList<>();
+            for (ProductSale sale : sales) {
+                if (sale.getOrderId() == orderId) {
+                    order.add(sale);
+                }
+            }
+            return order;
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+    private final StubOrderDAO orderDAO = new StubOrderDAO();
+    private final BestSellerLeaderboard leaderboard = new BestSellerLeaderboard(orderDAO, 30, clock);
+    private final Semaphore changes = new Semaphore(0);
+
+    @AfterEach
+    void stopLeaderboard() {
+        leaderboard.stop();
+    }
+
+    private void sale(int orderId, Duration age, int productId, Product.Category category, int quantity) {
+        orderDAO.add(new ProductSale(orderId, START.minus(age), Order.Status.CONFIRMED,
+                                     productId, category, quantity));
+    }
+
+    private void awaitChange() throws InterruptedException {
+        assertTrue(changes.tryAcquire(5, TimeUnit.SECONDS), "leaderboard did not change");
+    }
+
+    @Test
+    void windowsCountOnlyRecentHours() {
+        sale(1, Duration.ZERO, 10, Product.Category.BURRITO, 3);
+        sale(2, Duration.ofDays(2), 11, Product.Category.BURRITO, 5);
+        sale(3, Duration.ofDays(8), 12, Product.Category.DRINK, 4);
+        leaderboard.load();
+
+        Ranking day = leaderboard.getRanking(Window.DAY);
+        assertEquals(3, day.getUnitsSold(10));
+        assertEquals(0, day.getUnitsSold(11));
+        assertEquals(1, day.getCategoryRank(10));
+
+        Ranking week = leaderboard.getRanking(Window.WEEK);
+        assertEquals(3, week.getUnitsSold(10));
+        assertEquals(5, week.getUnitsSold(11));
+        assertEquals(0, week.getUnitsSold(12));
+        assertEquals(1, week.getCategoryRank(11));
+        assertEquals(2, week.getCategoryRank(10));
+        assertEquals(0, week.getCategoryRank(12));
+    }
+
+    @Test
+    void salesSlideOutOfEachWindowAsHoursPass() {
+        sale(1, Duration.ZERO, 10, Product.Category.BURRITO, 3);
+        sale(2, Duration.ofDays(2), 11, Product.Category.BURRITO, 5);
+        leaderboard.load();
+
+        // The sale's hour is the oldest of the 24 the day window covers
+        clock.advance(Duration.ofHours(23));
+        assertEquals(3, leaderboard.getRanking(Window.DAY).getUnitsSold(10));
+
+        clock.advance(Duration.ofHours(1));
+        Ranking day = leaderboard.getRanking(Window.DAY);
+        assertEquals(0, day.getUnitsSold(10));
+        assertEquals(0, day.getCategoryRank(10));
+        assertEquals(3, leaderboard.getRanking(Window.WEEK).getUnitsSold(10));
+
+        // The two-day-old sale leaves the week when it turns seven days old
+        clock.advance(Duration.ofDays(3).plusHours(23));
+        assertEquals(5, leaderboard.getRanking(Window.WEEK).getUnitsSold(11));
+        clock.advance(Duration.ofHours(1));
+        Ranking week = leaderboard.getRanking(Window.WEEK);
+        assertEquals(0, week.getUnitsSold(11));
+        assertEquals(3, week.getUnitsSold(10));
+        assertEquals(1, week.getCategoryRank(10));
+    }
+
+    @Test
+    void placedOrdersCountOnceAndCancelledOrdersComeOut() throws InterruptedException {
+        leaderboard.load();
+        leaderboard.addChangeListener(changes::release);
+        sale(1, Duration.ZERO, 10, Product.Category.BOWL, 2);
+        sale(2, Duration.ZERO, 11, Product.Category.BOWL, 1);
+
+        leaderboard.orderPlaced(1);
+        awaitChange();
+        // A repeated notification changes nothing; order 2 shows when both have been handled
+        leaderboard.orderPlaced(1);
+        leaderboard.orderPlaced(2);
+        awaitChange();
+        assertEquals(2, leaderboard.getRanking(Window.DAY).getUnitsSold(10));
+        assertEquals(1, leaderboard.getRanking(Window.DAY).getCategoryRank(10));
+
+        orderDAO.cancel(1);
+        leaderboard.orderStatusChanged(1, Order.Status.CANCELLED);
+        awaitChange();
+        Ranking day = leaderboard.getRanking(Window.DAY);
+        assertEquals(0, day.getUnitsSold(10));
+        assertEquals(1, day.getCategoryRank(11));
+        assertEquals(0, leaderboard.getRanking(Window.WEEK).getUnitsSold(10));
+    }
+}
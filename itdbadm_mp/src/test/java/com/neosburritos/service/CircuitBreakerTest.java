@@ -0,0 +1,102 @@
+package com.neosburritos.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 0.5, OPEN_MILLIS);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    private void succeed(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess();
+        }
+    }
+
+    private void open() {
+        fail(4);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static void waitOutOpenPeriod() throws InterruptedException {
+        Thread.sleep(OPEN_MILLIS + 20);
+    }
+
+    @Test
+    void staysClosedUntilMinimumCallsAreRecorded() {
+        fail(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getOpenCount());
+    }
+
+    @Test
+    void opensWhenFailureShareReachesThreshold() {
+        succeed(2);
+        fail(2);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getOpenCount());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void staysClosedBelowThreshold() {
+        succeed(3);
+        fail(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        // The three failures slide out; counting every call would give 4 of 8 and open
+        fail(3);
+        succeed(4);
+        fail(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void letsOneTrialThroughAfterOpenPeriod() throws InterruptedException {
+        open();
+        waitOutOpenPeriod();
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void successfulTrialCloses() throws InterruptedException {
+        open();
+        waitOutOpenPeriod();
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // The window starts empty again, so three failures are not enough to reopen
+        fail(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        open();
+        waitOutOpenPeriod();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenCount());
+        assertFalse(breaker.tryAcquire());
+    }
+}
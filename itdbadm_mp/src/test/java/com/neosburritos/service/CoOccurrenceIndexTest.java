@@ -0,0 +1,75 @@
+package com.neosburritos.service;
+
+import com.neosburritos.service.CoOccurrenceIndex.SparseRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoOccurrenceIndexTest {
+
+    private static void assertMatches(Map<Integer, Integer> expected, SparseRow row, int maxKey) {
+        assertEquals(expected.size(), row.size);
+        for (int key = 1; key <= maxKey; key++) {
+            assertEquals(expected.getOrDefault(key, 0).intValue(), row.get(key), "count for " + key);
+        }
+    }
+
+    @Test
+    void countsAddUpAndDropOutAtZero() {
+        SparseRow row = new SparseRow();
+        row.add(7, 2);
+        row.add(7, 3);
+        assertEquals(5, row.get(7));
+
+        row.add(7, -5);
+        assertEquals(0, row.get(7));
+        assertEquals(0, row.size);
+
+        // A negative delta for an absent partner never creates an entry
+        row.add(9, -1);
+        assertEquals(0, row.size);
+    }
+
+    @Test
+    void removingAnyEntryKeepsTheOthersReachable() {
+        // Five keys in eight slots guarantees shared probe runs, some wrapping past the end
+        for (int removed = 1; removed <= 5; removed++) {
+            SparseRow row = new SparseRow();
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int key = 1; key <= 5; key++) {
+                row.add(key, key * 10);
+                expected.put(key, key * 10);
+            }
+            row.add(removed, -removed * 10);
+            expected.remove(removed);
+            assertMatches(expected, row, 5);
+        }
+    }
+
+    @Test
+    void matchesAMapThroughRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        SparseRow row = new SparseRow();
+        Map<Integer, Integer> expected = new HashMap<>();
+        int maxKey = 64;
+        for (int step = 0; step < 20_000; step++) {
+            int key = 1 + random.nextInt(maxKey);
+            int delta = random.nextInt(5) - 2;
+            row.add(key, delta);
+            int count = expected.getOrDefault(key, 0) + delta;
+            if (expected.containsKey(key) && count <= 0) {
+                expected.remove(key);
+            } else if (expected.containsKey(key) || delta > 0) {
+                expected.put(key, count);
+            }
+            if (step % 100 == 0) {
+                assertMatches(expected, row, maxKey);
+            }
+        }
+        assertMatches(expected, row, maxKey);
+    }
+}
@@ -0,0 +1,130 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.OrderDAO;
+import com.neosburritos.dao.OrderDAO.OrderQuery;
+import com.neosburritos.model.Order;
+import com.neosburritos.service.OrderExporter.Format;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderExporterTest {
+
+    private static final String HEADER = "order_id,order_date,user_id,status,currency_code,total_amount,"
+            + "exchange_rate_to_usd,total_usd,item_count,total_quantity,delivery_address,notes,"
+            + "created_at,updated_at\r\n";
+
+    @TempDir
+    Path dir;
+
+    /** Streams a fixed list of orders, or fails like a lost connection when given null */
+    private static final class StubOrderDAO extends OrderDAO {
+        private final List<Order> orders;
+
+        StubOrderDAO(List<Order> orders) {
+            this.orders = orders;
+        }
+
+        @Override
+        public int forEachOrder(OrderQuery query, Consumer<Order> consumer) {
+            if (orders == null) {
+                return -1;
+            }
+            orders.forEach(consumer);
+            return orders.size();
+        }
+    }
+
+    private static Order order(String deliveryAddress, String notes) {
+        Order order = new Order(7, new BigDecimal("560.00"), Order.Status.CONFIRMED);
+        order.setOrderDate(LocalDateTime.of(2026, 10, 19, 12, 30));
+        order.setUserId(3);
+        order.setCurrencyCode("PHP");
+        order.setExchangeRateToUsd(new BigDecimal("56.000000"));
+        order.setItemCount(2);
+        order.setTotalQuantity(3);
+        order.setDeliveryAddress(deliveryAddress);
+        order.setNotes(notes);
+        return order;
+    }
+
+    private static String export(List<Order> orders, Format format) throws IOException {
+        StringWriter out = new StringWriter();
+        new OrderExporter(new StubOrderDAO(orders)).write(OrderQuery.all(), out, format);
+        return out.toString();
+    }
+
+    @Test
+    void csvQuotesOnlyFieldsThatNeedIt() throws IOException {
+        String csv = export(List.of(order("12 Main St, Unit \"B\"", "ring twice\nback door")), Format.CSV);
+
+        assertEquals(HEADER
+                + "7,2026-10-19T12:30,3,CONFIRMED,PHP,560.00,56.000000,10.00,2,3,"
+                + "\"12 Main St, Unit \"\"B\"\"\",\"ring twice\nback door\",,\r\n", csv);
+    }
+
+    @Test
+    void csvLeavesPlainFieldsAndNullsBare() throws IOException {
+        String csv = export(List.of(order("12 Main St", null)), Format.CSV);
+
+        assertEquals(HEADER + "7,2026-10-19T12:30,3,CONFIRMED,PHP,560.00,56.000000,10.00,2,3,12 Main St,,,\r\n", csv);
+    }
+
+    @Test
+    void jsonEscapesStringsAndWritesAmountsAsNumbers() throws IOException {
+        String json = export(List.of(order("12 Main St, Unit \"B\"", "a\\b\nc\td\u0001")), Format.JSON);
+
+        assertEquals("[\n  {\"order_id\": 7, \"order_date\": \"2026-10-19T12:30\", \"user_id\": 3, "
+                + "\"status\": \"CONFIRMED\", \"currency_code\": \"PHP\", \"total_amount\": 560.00, "
+                + "\"exchange_rate_to_usd\": 56.000000, \"total_usd\": 10.00, \"item_count\": 2, "
+                + "\"total_quantity\": 3, \"delivery_address\": \"12 Main St, Unit \\\"B\\\"\", "
+                + "\"notes\": \"a\\\\b\\nc\\td\\u0001\", \"created_at\": null, \"updated_at\": null}\n]\n", json);
+    }
+
+    @Test
+    void jsonWithoutOrdersIsAnEmptyArray() throws IOException {
+        assertEquals("[]\n", export(List.of(), Format.JSON));
+    }
+
+    @Test
+    void exportPicksFormatAndCompressionFromTheFileName() throws IOException {
+        Path file = dir.resolve("orders.csv.gz");
+        OrderExporter exporter = new OrderExporter(new StubOrderDAO(List.of(order("12 Main St", null))));
+
+        assertEquals(1, exporter.exportOrders(OrderQuery.all(), file).getOrderCount());
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(HEADER + "7,2026-10-19T12:30,3,CONFIRMED,PHP,560.00,56.000000,10.00,2,3,12 Main St,,,\r\n",
+                         csv);
+        }
+        assertFalse(Files.exists(dir.resolve("orders.csv.gz.part")));
+    }
+
+    @Test
+    void failedExportKeepsTheEarlierFile() throws IOException {
+        Path file = dir.resolve("orders.json");
+        Files.writeString(file, "earlier export");
+        OrderExporter exporter = new OrderExporter(new StubOrderDAO(null));
+
+        assertThrows(IOException.class, () -> exporter.exportOrders(OrderQuery.all(), file));
+
+        assertEquals("earlier export", Files.readString(file));
+        assertFalse(Files.exists(dir.resolve("orders.json.part")));
+    }
+}
@@ -0,0 +1,191 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.AuditLogDAO;
+import com.neosburritos.dao.AuditLogDAO.AppendStatus;
+import com.neosburritos.model.AuditEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentLedgerWriterTest {
+
+    @TempDir
+    Path dir;
+
+    /** Answers appends with a scripted status and keeps whatever it was told to store */
+    private static final class StubAuditLogDAO extends AuditLogDAO {
+        private final Function<List<AuditEvent>, AppendStatus> answer;
+        private final List<AuditEvent> stored = new ArrayList<>();
+        private int calls;
+
+        StubAuditLogDAO(Function<List<AuditEvent>, AppendStatus> answer) {
+            this.answer = answer;
+        }
+
+        @Override
+        public synchronized AppendStatus appendEvents(List<AuditEvent> events) {
+            calls++;
+            AppendStatus status = answer.apply(events);
+            if (status == AppendStatus.APPENDED) {
+                stored.addAll(events);
+            }
+            return status;
+        }
+
+        synchronized List<AuditEvent> stored() {
+            return new ArrayList<>(stored);
+        }
+
+        synchronized int calls() {
+            return calls;
+        }
+    }
+
+    private static AuditEvent payment(int orderId, String reference) {
+        AuditEvent event = new AuditEvent();
+        event.setOrderId(orderId);
+        event.setKind(AuditEvent.Kind.PAYMENT);
+        event.setPaymentStatus("COMPLETED");
+        event.setAmount(new BigDecimal("18.75"));
+        event.setCurrencyCode("PHP");
+        event.setReference(reference);
+        event.setProcessedAt(LocalDateTime.of(2026, 10, 19, 12, 30, 15));
+        return event;
+    }
+
+    private Path spillFile() {
+        return dir.resolve("ledger.spill");
+    }
+
+    private Path quarantineFile() {
+        return dir.resolve("ledger.quarantine");
+    }
+
+    private PaymentLedgerWriter writer(AuditLogDAO dao, int queueCapacity) {
+        return new PaymentLedgerWriter(dao, queueCapacity, 10, 20, spillFile(), quarantineFile());
+    }
+
+    private List<String> lines(Path file) throws IOException {
+        return Files.exists(file) ? Files.readAllLines(file, StandardCharsets.UTF_8) : List.of();
+    }
+
+    @Test
+    void writesQueuedEntriesBeforeStopping() {
+        StubAuditLogDAO dao = new StubAuditLogDAO(events -> AppendStatus.APPENDED);
+        PaymentLedgerWriter writer = writer(dao, 100);
+        writer.start();
+        for (int i = 1; i <= 25; i++) {
+            writer.record(payment(i, "txn-" + i));
+        }
+        writer.stop();
+
+        assertEquals(25, dao.stored().size());
+        assertEquals(25, writer.getWrittenCount());
+        assertEquals(0, writer.getSpilledCount());
+        assertFalse(Files.exists(spillFile()));
+    }
+
+    @Test
+    void spillsEntriesRecordedBeforeStart() throws IOException {
+        StubAuditLogDAO dao = new StubAuditLogDAO(events -> AppendStatus.APPENDED);
+        PaymentLedgerWriter writer = writer(dao, 100);
+        writer.record(payment(1, "txn-1"));
+
+        assertEquals(1, writer.getSpilledCount());
+        assertEquals(1, lines(spillFile()).size());
+        assertEquals(0, dao.calls());
+    }
+
+    @Test
+    void spillsWhatTheDatabaseWillNotTakeAndReplaysItOnStart() throws IOException {
+        StubAuditLogDAO down = new StubAuditLogDAO(events -> AppendStatus.FAILED);
+        PaymentLedgerWriter first = writer(down, 100);
+        first.start();
+        first.record(payment(1, "txn-1"));
+        first.record(payment(2, "txn-2"));
+        first.stop();
+
+        assertEquals(0, first.getWrittenCount());
+        assertEquals(2, first.getSpilledCount());
+        assertEquals(2, lines(spillFile()).size());
+
+        StubAuditLogDAO up = new StubAuditLogDAO(events -> AppendStatus.APPENDED);
+        PaymentLedgerWriter second = writer(up, 100);
+        second.start();
+        second.stop();
+
+        List<AuditEvent> replayed = up.stored();
+        assertEquals(2, replayed.size());
+        AuditEvent event = replayed.get(0);
+        assertEquals(Integer.valueOf(1), event.getOrderId());
+        assertEquals(AuditEvent.Kind.PAYMENT, event.getKind());
+        assertEquals("COMPLETED", event.getPaymentStatus());
+        assertEquals(new BigDecimal("18.75"), event.getAmount());
+        assertEquals("PHP", event.getCurrencyCode());
+        assertEquals("txn-1", event.getReference());
+        assertEquals(LocalDateTime.of(2026, 10, 19, 12, 30, 15), event.getProcessedAt());
+        assertEquals("txn-2", replayed.get(1).getReference());
+        assertFalse(Files.exists(spillFile()));
+        assertFalse(Files.exists(dir.resolve("ledger.spill.replaying")));
+    }
+
+    @Test
+    void replayKeepsNullFieldsAndSkipsUnreadableLines() throws IOException {
+        Files.write(spillFile(), List.of(
+                "2026-10-19T08:00\t\tRATE_CHANGE\t\t0.0175\t\t",
+                "not a ledger line"), StandardCharsets.UTF_8);
+
+        StubAuditLogDAO dao = new StubAuditLogDAO(events -> AppendStatus.APPENDED);
+        PaymentLedgerWriter writer = writer(dao, 100);
+        writer.start();
+        writer.stop();
+
+        List<AuditEvent> replayed = dao.stored();
+        assertEquals(1, replayed.size());
+        AuditEvent event = replayed.get(0);
+        assertNull(event.getOrderId());
+        assertNull(event.getPaymentStatus());
+        assertNull(event.getCurrencyCode());
+        assertNull(event.getReference());
+        assertEquals(AuditEvent.Kind.RATE_CHANGE, event.getKind());
+        assertFalse(Files.exists(spillFile()));
+    }
+
+    @Test
+    void quarantinesRejectedEntriesAndWritesTheRest() throws IOException {
+        StubAuditLogDAO dao = new StubAuditLogDAO(events ->
+                events.stream().anyMatch(event -> "bad".equals(event.getReference()))
+                        ? AppendStatus.REJECTED : AppendStatus.APPENDED);
+        // Everything is spilled first so the replay writes it as one batch
+        PaymentLedgerWriter writer = writer(dao, 100);
+        writer.record(payment(1, "txn-1"));
+        writer.record(payment(2, "bad"));
+        writer.record(payment(3, "txn-3"));
+        writer.start();
+        writer.stop();
+
+        List<AuditEvent> stored = dao.stored();
+        assertEquals(2, stored.size());
+        assertEquals("txn-1", stored.get(0).getReference());
+        assertEquals("txn-3", stored.get(1).getReference());
+        assertEquals(1, writer.getQuarantinedCount());
+        List<String> quarantined = lines(quarantineFile());
+        assertEquals(1, quarantined.size());
+        assertTrue(quarantined.get(0).endsWith("\tbad"));
+        assertFalse(Files.exists(spillFile()));
+    }
+}
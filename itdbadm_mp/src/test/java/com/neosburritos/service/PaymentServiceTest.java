@@ -0,0 +1,75 @@
+package com.neosburritos.service;
+
+import com.neosburritos.dao.AuditLogDAO;
+import com.neosburritos.model.AuditEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentServiceTest {
+
+    @TempDir
+    Path dir;
+
+    /** Keeps recorded entries in memory instead of queueing them for the database */
+    private static final class CapturingLedger extends PaymentLedgerWriter {
+        private final List<AuditEvent> recorded = new ArrayList<>();
+
+        CapturingLedger(Path dir) {
+            super(new AuditLogDAO(), 1, 1, 1, dir.resolve("ledger.spill"), dir.resolve("ledger.quarantine"));
+        }
+
+        @Override
+        public void record(AuditEvent event) {
+            recorded.add(event);
+        }
+    }
+
+    /** Refuses every refund; charges and lookups are not used here */
+    private static final PaymentGateway DECLINING_GATEWAY = new PaymentGateway() {
+        @Override
+        public Response charge(String requestId, BigDecimal amount, String currencyCode) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response refund(String requestId, String transactionId, BigDecimal amount, String currencyCode) {
+            return new Response(Outcome.DECLINED, null, "Refund declined", 0);
+        }
+
+        @Override
+        public Response lookup(String requestId) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Test
+    void everyFailedRetryOfOneRefundGetsItsOwnLedgerReference() {
+        CapturingLedger ledger = new CapturingLedger(dir);
+        PaymentService service = new PaymentService(DECLINING_GATEWAY, ledger);
+        BigDecimal amount = new BigDecimal("18.75");
+
+        // The checkout saga retries a refund under the same request id
+        assertFalse(service.refundPayment(42, "TXN123", amount, "PHP", "RATT1").isSuccess());
+        assertFalse(service.refundPayment(42, "TXN123", amount, "PHP", "RATT1").isSuccess());
+
+        assertEquals(2, ledger.recorded.size());
+        String first = ledger.recorded.get(0).getReference();
+        String second = ledger.recorded.get(1).getReference();
+        assertNotEquals(first, second);
+        for (String reference : List.of(first, second)) {
+            assertTrue(reference.startsWith("REFUND_FAILED_RATT1_"), reference);
+            assertTrue(reference.endsWith("_OF_TXN123"), reference);
+            assertTrue(reference.length() <= 100, reference);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.neosburritos.service;
+
+import com.neosburritos.service.PaymentGateway.Outcome;
+import com.neosburritos.service.PaymentGateway.Response;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientPaymentGatewayTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.50");
+
+    /** Answers charges from a script, one step per call; the last step repeats */
+    private static final class ScriptedGateway implements PaymentGateway {
+        private final Deque<Supplier<Response>> steps = new ArrayDeque<>();
+        private final AtomicInteger charges = new AtomicInteger();
+
+        @SafeVarargs
+        ScriptedGateway(Supplier<Response>... steps) {
+            for (Supplier<Response> step : steps) {
+                this.steps.add(step);
+            }
+        }
+
+        @Override
+        public Response charge(String requestId, BigDecimal amount, String currencyCode) {
+            charges.incrementAndGet();
+            Supplier<Response> step;
+            synchronized (steps) {
+                step = steps.size() > 1 ? steps.poll() : steps.peek();
+            }
+            return step.get();
+        }
+
+        @Override
+        public Response refund(String requestId, String transactionId, BigDecimal amount, String currencyCode) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response lookup(String requestId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static Supplier<Response> answer(Outcome outcome) {
+        return () -> new Response(outcome, outcome == Outcome.APPROVED ? "txn-1" : null, outcome.name(), 0);
+    }
+
+    /** Blocks until the attempt is abandoned, then reports what a hung gateway would */
+    private static Supplier<Response> hang(long millis) {
+        return () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Response(Outcome.TIMEOUT, null, "hung", millis);
+        };
+    }
+
+    private static CircuitBreaker closedBreaker() {
+        return new CircuitBreaker("test", 20, 10, 0.5, 30_000);
+    }
+
+    @Test
+    void retriesUnavailableAttempts() {
+        ScriptedGateway delegate = new ScriptedGateway(answer(Outcome.UNAVAILABLE), answer(Outcome.APPROVED));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 5_000, 1_000, 3, false, 1_000, closedBreaker());
+
+        Response response = gateway.charge("req-1", AMOUNT, "USD");
+
+        assertTrue(response.isApproved());
+        assertEquals("txn-1", response.getReference());
+        assertEquals(2, delegate.charges.get());
+        ResilientPaymentGateway.Stats stats = gateway.getStats();
+        assertEquals(1, stats.retries());
+        assertEquals(1, stats.answered());
+    }
+
+    @Test
+    void doesNotRetryDeclines() {
+        ScriptedGateway delegate = new ScriptedGateway(answer(Outcome.DECLINED), answer(Outcome.APPROVED));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 5_000, 1_000, 3, false, 1_000, closedBreaker());
+
+        assertEquals(Outcome.DECLINED, gateway.charge("req-1", AMOUNT, "USD").getOutcome());
+        assertEquals(1, delegate.charges.get());
+    }
+
+    @Test
+    void stopsAfterMaxAttempts() {
+        ScriptedGateway delegate = new ScriptedGateway(answer(Outcome.UNAVAILABLE));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 5_000, 1_000, 3, false, 1_000, closedBreaker());
+
+        Response response = gateway.charge("req-1", AMOUNT, "USD");
+
+        assertEquals(Outcome.UNAVAILABLE, response.getOutcome());
+        assertTrue(response.wasSent());
+        assertEquals(3, delegate.charges.get());
+        assertEquals(1, gateway.getStats().failed());
+    }
+
+    @Test
+    void givesUpAtTheDeadline() {
+        ScriptedGateway delegate = new ScriptedGateway(hang(10_000));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 300, 100, 10, false, 1_000, closedBreaker());
+
+        long start = System.nanoTime();
+        Response response = gateway.charge("req-1", AMOUNT, "USD");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(Outcome.TIMEOUT, response.getOutcome());
+        // A timed-out attempt may have reached the gateway, so the outcome is unknown
+        assertTrue(response.wasSent());
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + " ms");
+        assertTrue(gateway.getStats().attemptTimeouts() >= 2);
+    }
+
+    @Test
+    void hedgedCopyAnswersForASlowAttempt() {
+        ScriptedGateway delegate = new ScriptedGateway(hang(5_000), answer(Outcome.APPROVED));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 10_000, 8_000, 1, true, 50, closedBreaker());
+
+        long start = System.nanoTime();
+        Response response = gateway.charge("req-1", AMOUNT, "USD");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(response.isApproved());
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        ResilientPaymentGateway.Stats stats = gateway.getStats();
+        assertEquals(1, stats.hedges());
+        assertEquals(1, stats.hedgeWins());
+        assertEquals(0, stats.retries());
+    }
+
+    @Test
+    void fastAnswerIsNotHedged() {
+        ScriptedGateway delegate = new ScriptedGateway(answer(Outcome.APPROVED));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 10_000, 8_000, 1, true, 1_000, closedBreaker());
+
+        assertTrue(gateway.charge("req-1", AMOUNT, "USD").isApproved());
+        assertEquals(0, gateway.getStats().hedges());
+        assertEquals(1, delegate.charges.get());
+    }
+
+    @Test
+    void openBreakerFailsWithoutSending() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 0.5, 30_000);
+        ScriptedGateway delegate = new ScriptedGateway(answer(Outcome.UNAVAILABLE));
+        ResilientPaymentGateway gateway =
+                new ResilientPaymentGateway(delegate, 5_000, 1_000, 2, false, 1_000, breaker);
+
+        gateway.charge("req-1", AMOUNT, "USD");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        int charges = delegate.charges.get();
+
+        Response response = gateway.charge("req-2", AMOUNT, "USD");
+
+        assertEquals(Outcome.UNAVAILABLE, response.getOutcome());
+        assertFalse(response.wasSent());
+        assertEquals(charges, delegate.charges.get());
+        assertEquals(1, gateway.getStats().shortCircuits());
+    }
+}
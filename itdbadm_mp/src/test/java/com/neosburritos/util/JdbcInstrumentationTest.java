@@ -0,0 +1,143 @@
+package com.neosburritos.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcInstrumentationTest {
+
+    private static final String SELECT = "SELECT name FROM products WHERE category = ?";
+    private static final String UPDATE = "UPDATE products SET stock_quantity = 0 WHERE category = ?";
+
+    private long savedThresholdMillis;
+    private double savedExplainSampleRate;
+
+    @BeforeEach
+    void logEveryStatement() {
+        savedThresholdMillis = SlowQueryLog.getThresholdMillis();
+        savedExplainSampleRate = SlowQueryLog.getExplainSampleRate();
+        SlowQueryLog.setThresholdMillis(0);
+        // EXPLAIN would need a real database
+        SlowQueryLog.setExplainSampleRate(0);
+        SlowQueryLog.clear();
+        DaoMetrics.reset();
+    }
+
+    @AfterEach
+    void restoreSettings() {
+        SlowQueryLog.setThresholdMillis(savedThresholdMillis);
+        SlowQueryLog.setExplainSampleRate(savedExplainSampleRate);
+        SlowQueryLog.clear();
+        DaoMetrics.reset();
+    }
+
+    /** A result set with the given number of rows, each with one column */
+    private static ResultSet rows(int count) {
+        int[] position = {0};
+        return (ResultSet) Proxy.newProxyInstance(JdbcInstrumentationTest.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++position[0] <= count;
+                    case "getString" -> "row " + position[0];
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** A connection whose queries return three rows and whose updates change two */
+    private static Connection fakeConnection() {
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                JdbcInstrumentationTest.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "executeQuery" -> rows(3);
+                    case "executeUpdate" -> 2;
+                    case "setString", "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (Connection) Proxy.newProxyInstance(JdbcInstrumentationTest.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "prepareStatement" -> statement;
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Connection instrumented(String operation) {
+        return JdbcInstrumentation.wrap(fakeConnection(), operation, System.nanoTime(), 0,
+                                        new JdbcEvents.DaoOperationEvent());
+    }
+
+    private static DaoMetrics.Snapshot metrics(String operation) {
+        return DaoMetrics.snapshot().stream()
+                .filter(snapshot -> snapshot.name().equals(operation))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void countsRowsReadByQueries() throws SQLException {
+        try (Connection conn = instrumented("ProductDAO.read");
+             PreparedStatement stmt = conn.prepareStatement(SELECT)) {
+            stmt.setString(1, "DRINK");
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertSame(stmt, rs.getStatement());
+                int read = 0;
+                while (rs.next()) {
+                    assertEquals("row " + ++read, rs.getString(1));
+                }
+                assertEquals(3, read);
+            }
+        }
+
+        assertEquals(3, metrics("ProductDAO.read").rows());
+        SlowQueryLog.Entry entry = SlowQueryLog.entries().get(0);
+        assertEquals(SELECT, entry.getSql());
+        assertEquals(3, entry.getRows());
+        assertTrue(entry.getParameters().contains("DRINK"), entry.getParameters());
+    }
+
+    @Test
+    void countsOnlyTheRowsActuallyRead() throws SQLException {
+        try (Connection conn = instrumented("ProductDAO.first");
+             PreparedStatement stmt = conn.prepareStatement(SELECT)) {
+            stmt.setString(1, "SIDE");
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+
+        assertEquals(1, metrics("ProductDAO.first").rows());
+        assertEquals(1, SlowQueryLog.entries().get(0).getRows());
+    }
+
+    @Test
+    void addsChangedRowsToRowsRead() throws SQLException {
+        try (Connection conn = instrumented("ProductDAO.clearStock")) {
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT)) {
+                stmt.setString(1, "BOWL");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getString(1);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE)) {
+                stmt.setString(1, "BOWL");
+                assertEquals(2, stmt.executeUpdate());
+            }
+        }
+
+        assertEquals(5, metrics("ProductDAO.clearStock").rows());
+        assertEquals(2, SlowQueryLog.entries().get(0).getRows());
+        assertEquals(3, SlowQueryLog.entries().get(1).getRows());
+    }
+}